@@ -0,0 +1,190 @@
+package org.ek9lang.cli;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.ek9lang.compiler.CompilableSource;
+import org.ek9lang.compiler.SourceDependencies;
+import org.ek9lang.core.AssertValue;
+import org.ek9lang.core.Digest;
+
+/**
+ * Records the content checksum of each source that went into the last build of the target artefact,
+ * together with the module it defines and the symbols it references.
+ * <p>
+ * This is held in the .ek9 directory of the project, it is used for incremental builds.
+ * Only sources that have altered content (not just a newer modified time) need to be recompiled,
+ * along with those sources that depend on them (transitively).
+ * </p>
+ */
+final class BuildManifest {
+  static final String MANIFEST_FILE_NAME = "build.manifest";
+
+  private static final String FIELD_SEPARATOR = ";";
+  private static final String LIST_SEPARATOR = ",";
+
+  private final Path baseDirectory;
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  /**
+   * What was recorded for each source.
+   */
+  private record Entry(String checkSum, SourceDependencies dependencies) {
+  }
+
+  BuildManifest(final File baseDirectory) {
+
+    AssertValue.checkNotNull("Base directory cannot be null", baseDirectory);
+    this.baseDirectory = baseDirectory.toPath().toAbsolutePath();
+
+  }
+
+  /**
+   * Load the manifest from the file, if it does not exist then the manifest will be empty.
+   */
+  static BuildManifest load(final File manifestFile, final File baseDirectory) {
+
+    final var rtn = new BuildManifest(baseDirectory);
+    final var projectProperties = new Ek9ProjectProperties(manifestFile);
+
+    if (projectProperties.exists()) {
+      final var properties = projectProperties.loadProperties();
+      properties.stringPropertyNames().forEach(name -> rtn.entries.put(name, parse(properties.getProperty(name))));
+    }
+
+    return rtn;
+  }
+
+  /**
+   * Save the manifest to the file, any existing manifest is replaced.
+   */
+  void save(final File manifestFile) {
+
+    final var properties = new Properties();
+    entries.forEach((name, entry) -> properties.setProperty(name, format(entry)));
+    new Ek9ProjectProperties(manifestFile).storeProperties(properties);
+
+  }
+
+  boolean isEmpty() {
+
+    return entries.isEmpty();
+  }
+
+  /**
+   * Record the details of compilable source that has been compiled successfully.
+   */
+  void record(final CompilableSource source) {
+
+    AssertValue.checkNotNull("Source cannot be null", source);
+
+    entries.put(relativePath(new File(source.getFileName())),
+        new Entry(source.getCheckSum().toString(), source.getDependencies()));
+
+  }
+
+  /**
+   * Is the set of compilable files different to the set of sources recorded, i.e. have any been added or removed.
+   */
+  boolean isSourceSetAltered(final List<File> compilableFiles) {
+
+    return !entries.keySet().equals(relativePaths(compilableFiles));
+  }
+
+  /**
+   * Have any of the sources recorded been removed from the compilable files.
+   */
+  boolean isAnySourceRemoved(final List<File> compilableFiles) {
+
+    return !relativePaths(compilableFiles).containsAll(entries.keySet());
+  }
+
+  /**
+   * Provides those files that must be recompiled, because their content has altered, or they depend on
+   * a module that has had a source altered or removed. If any file is new then all files are returned, as it is
+   * not known which module it defines.
+   */
+  List<File> getFilesToRecompile(final List<File> compilableFiles) {
+
+    final Map<String, File> currentFiles = new HashMap<>();
+    compilableFiles.forEach(file -> currentFiles.put(relativePath(file), file));
+
+    if (!entries.keySet().containsAll(currentFiles.keySet())) {
+      return compilableFiles;
+    }
+
+    final Set<String> alteredModules = new HashSet<>();
+    entries.forEach((name, entry) -> {
+      final var file = currentFiles.get(name);
+      if (file == null || !Digest.digest(file).toString().equals(entry.checkSum())) {
+        alteredModules.add(entry.dependencies().moduleName());
+      }
+    });
+
+    final var toRecompile = dependentsOf(alteredModules);
+
+    return compilableFiles.stream()
+        .filter(file -> toRecompile.contains(relativePath(file)))
+        .toList();
+  }
+
+  /**
+   * Locates all the sources that depend on the altered modules, and then those that depend on them.
+   */
+  private Set<String> dependentsOf(final Collection<String> alteredModules) {
+
+    final Set<String> modules = new HashSet<>(alteredModules);
+    final Set<String> rtn = new HashSet<>();
+    var added = true;
+    while (added) {
+      added = false;
+      for (var entry : entries.entrySet()) {
+        final var dependencies = entry.getValue().dependencies();
+        if (!rtn.contains(entry.getKey()) && modules.stream().anyMatch(dependencies::dependsOn)) {
+          rtn.add(entry.getKey());
+          added |= modules.add(dependencies.moduleName());
+        }
+      }
+    }
+
+    return rtn;
+  }
+
+  private Set<String> relativePaths(final List<File> files) {
+
+    return files.stream().map(this::relativePath).collect(Collectors.toSet());
+  }
+
+  private String relativePath(final File file) {
+
+    return baseDirectory.relativize(file.toPath().toAbsolutePath()).toString();
+  }
+
+  private static String format(final Entry entry) {
+
+    final var dependencies = entry.dependencies();
+
+    return entry.checkSum() + FIELD_SEPARATOR + dependencies.moduleName() + FIELD_SEPARATOR
+        + String.join(LIST_SEPARATOR, dependencies.referencedSymbols().stream().sorted().toList());
+  }
+
+  private static Entry parse(final String value) {
+
+    final var parts = value.split(FIELD_SEPARATOR, -1);
+    AssertValue.checkTrue("Invalid build manifest entry", parts.length == 3);
+
+    final var referencedSymbols = Arrays.stream(parts[2].split(LIST_SEPARATOR))
+        .filter(symbol -> !symbol.isEmpty())
+        .collect(Collectors.toSet());
+
+    return new Entry(parts[0], new SourceDependencies(parts[1], referencedSymbols));
+  }
+}
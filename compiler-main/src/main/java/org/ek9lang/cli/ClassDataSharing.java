@@ -0,0 +1,73 @@
+package org.ek9lang.cli;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Naming and JVM options for the application class data sharing (AppCDS) archives.
+ * <p>
+ * An archive is held next to the jar it was trained for (i.e. ek9c.jar has ek9c.jsa), both for the
+ * compiler itself and for the target executables of EK9 programs. The ek9 wrapper uses the same naming, so
+ * it can pick up the archive for the compiler. The JVM validates an archive against the jar, so if the jar
+ * is altered the archive is just not used (until it is trained again).
+ * </p>
+ */
+final class ClassDataSharing {
+  static final String ARCHIVE_SUFFIX = ".jsa";
+
+  private ClassDataSharing() {
+    //Just static helpers
+  }
+
+  /**
+   * The archive for the jar, this may not exist.
+   */
+  static File getArchiveFor(final File jarFile) {
+
+    final var name = jarFile.getName();
+    final var baseName = name.endsWith(".jar") ? name.substring(0, name.length() - ".jar".length()) : name;
+
+    return new File(jarFile.getParentFile(), baseName + ARCHIVE_SUFFIX);
+  }
+
+  /**
+   * The JVM options to create the archive for the jar, when the JVM exits.
+   */
+  static List<String> getTrainingOptions(final File jarFile) {
+
+    return List.of("-XX:ArchiveClassesAtExit=" + getArchiveFor(jarFile).getAbsolutePath());
+  }
+
+  /**
+   * The JVM options to use the archive for the jar, only if one has been trained.
+   * Any warnings from the JVM about the archive not being usable are suppressed.
+   */
+  static List<String> getUseOptions(final File jarFile) {
+
+    final var archive = getArchiveFor(jarFile);
+    if (!archive.exists()) {
+      return List.of();
+    }
+
+    return List.of("-XX:SharedArchiveFile=" + archive.getAbsolutePath(), "-Xlog:cds=off");
+  }
+
+  /**
+   * The jar the compiler is running from, this is empty if not running from a jar (i.e. from classes in development).
+   */
+  static Optional<File> getRunningCompilerJar() {
+
+    try {
+      final var codeSource = ClassDataSharing.class.getProtectionDomain().getCodeSource();
+      if (codeSource != null) {
+        final var location = new File(codeSource.getLocation().toURI()).getCanonicalFile();
+        return location.isFile() ? Optional.of(location) : Optional.empty();
+      }
+    } catch (Exception _) {
+      //Cannot be identified, so treated as not running from a jar.
+    }
+
+    return Optional.empty();
+  }
+}
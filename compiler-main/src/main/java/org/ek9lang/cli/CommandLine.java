@@ -9,6 +9,7 @@ import static org.ek9lang.compiler.common.Ek9ExitCodes.RUN_COMMAND_EXIT_CODE;
 import static org.ek9lang.compiler.common.Ek9ExitCodes.SUCCESS_EXIT_CODE;
 
 import java.io.File;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -41,10 +42,11 @@ final class CommandLine {
   private static final Map<String, String> DEFAULTS = new HashMap<>(System.getenv());
   private static final CommandLineHelp commandLineHelp = new CommandLineHelp();
   private final ParentDirectoryForFile parentDirectoryForFile = new ParentDirectoryForFile();
-  private final CommandLineOptions options = new CommandLineOptions();
+  private final CommandLineOptions options;
   private final LanguageMetaData languageMetaData;
   private final OsSupport osSupport;
   private final FileHandling fileHandling;
+  private final CommandOrigin origin;
   private final List<String> ek9AppDefines = new ArrayList<>();
   String ek9ProgramToRun = null;
   TargetArchitecture targetArchitecture = TargetArchitecture.JVM;
@@ -76,9 +78,25 @@ final class CommandLine {
               final FileHandling fileHandling,
               final OsSupport osSupport) {
 
+    this(languageMetaData, fileHandling, osSupport,
+        new CommandOrigin(osSupport.getCurrentWorkingDirectory(), DEFAULTS, System.out, System.err));
+
+  }
+
+  /**
+   * Create a new command line details object, for a command issued by some other process (i.e. via the daemon).
+   * So its working directory, environment variables and output are used, rather than those of this process.
+   */
+  CommandLine(final LanguageMetaData languageMetaData,
+              final FileHandling fileHandling,
+              final OsSupport osSupport,
+              final CommandOrigin origin) {
+
     this.languageMetaData = languageMetaData;
     this.fileHandling = fileHandling;
     this.osSupport = osSupport;
+    this.origin = origin;
+    this.options = new CommandLineOptions(origin.err());
 
   }
 
@@ -104,6 +122,27 @@ final class CommandLine {
     return languageMetaData;
   }
 
+  Map<String, String> getEnvironment() {
+
+    return origin.environment();
+  }
+
+  /**
+   * The stdout of the process that issued the command.
+   */
+  PrintStream getOut() {
+
+    return origin.out();
+  }
+
+  /**
+   * The stderr of the process that issued the command.
+   */
+  PrintStream getErr() {
+
+    return origin.err();
+  }
+
   /**
    * Process the command line as supplied from main.
    * Expects a single entry in the array.
@@ -138,7 +177,7 @@ final class CommandLine {
       final var returnCode = extractCommandLineDetails(commandLine);
 
       if (targetArchitecture.equals(TargetArchitecture.NOT_SUPPORTED)) {
-        Logger.error("Target Architecture [" + commandLine + "] not supported");
+        Logger.error(origin.err(), "Target Architecture [" + commandLine + "] not supported");
         return BAD_COMMANDLINE_EXIT_CODE;
       }
 
@@ -148,7 +187,7 @@ final class CommandLine {
 
       return returnCode;
     } catch (ExitException exitException) {
-      Logger.error(exitException);
+      Logger.error(origin.err(), exitException);
       return exitException.getExitCode();
     }
 
@@ -168,10 +207,10 @@ final class CommandLine {
       final var ek9SourceFileName = strArray[index];
 
       foundEk9File = true;
+      //Relative to the working directory of the process that issued the command, not necessarily this one.
       mainSourceFile = new File(ek9SourceFileName);
-      //We need to look in the current directory instead
-      if (!mainSourceFile.exists()) {
-        mainSourceFile = new File(osSupport.getCurrentWorkingDirectory(), ek9SourceFileName);
+      if (!mainSourceFile.isAbsolute()) {
+        mainSourceFile = new File(origin.workingDirectory(), ek9SourceFileName);
       }
     }
 
@@ -204,7 +243,8 @@ final class CommandLine {
       var commandLineArchitecture = strArray[index + 1].toUpperCase();
       targetArchitecture = TargetArchitecture.from(commandLineArchitecture);
       if (targetArchitecture == TargetArchitecture.NOT_SUPPORTED) {
-        Logger.error("Only jvm/llvm-cpp is currently supported as a target [" + commandLineArchitecture + "]");
+        Logger.error(origin.err(),
+            "Only jvm/llvm-cpp is currently supported as a target [" + commandLineArchitecture + "]");
       }
 
     }
@@ -257,7 +297,7 @@ final class CommandLine {
             .stream(CompilationPhase.values())
             .map(Enum::name)
             .collect(Collectors.joining(", "));
-        Logger.error(String.format("Phased Compilation: expecting one of %s", optionsToChooseFrom));
+        Logger.error(origin.err(), String.format("Phased Compilation: expecting one of %s", optionsToChooseFrom));
       }
     }
 
@@ -280,7 +320,7 @@ final class CommandLine {
       final var versionParam = strArray[index + 1];
       if (versioningOption.equals("-IV")) {
         if (Eve.Version.isInvalidVersionAddressPart(versionParam)) {
-          Logger.error(
+          Logger.error(origin.err(),
               "Increment Version: expecting major|minor|patch|build");
           return BAD_COMMANDLINE_EXIT_CODE;
         }
@@ -293,7 +333,7 @@ final class CommandLine {
       activeParameters.add(strArray[index]);
       activeParameters.add(versionParam);
     } else {
-      Logger.error("Missing versioning parameter");
+      Logger.error(origin.err(), "Missing versioning parameter");
       return BAD_COMMANDLINE_EXIT_CODE;
     }
 
@@ -310,7 +350,7 @@ final class CommandLine {
                                  final List<String> activeParameters) {
 
     if (options.isParameterUnacceptable(strArray[index])) {
-      Logger.error("Incompatible command line options");
+      Logger.error(origin.err(), "Incompatible command line options");
       return BAD_COMMANDLINE_EXIT_CODE;
     }
     activeParameters.add(strArray[index]);
@@ -318,7 +358,7 @@ final class CommandLine {
     final var port = strArray[index + 1];
 
     if (!Pattern.compile("^(\\d+)$").matcher(port).find()) {
-      Logger.error("Debug Mode: expecting integer port number");
+      Logger.error(origin.err(), "Debug Mode: expecting integer port number");
       return BAD_COMMANDLINE_EXIT_CODE;
     }
     activeParameters.add(port);
@@ -365,7 +405,7 @@ final class CommandLine {
         returnCode = processPhasedCompilationOption(strArray, index, activeParameters);
         index++;
       } else if (isInvalidEk9Parameter(processingEk9Parameters, strArray[index])) {
-        Logger.error("Incompatible command line options");
+        Logger.error(origin.err(), "Incompatible command line options");
         returnCode = BAD_COMMAND_COMBINATION_EXIT_CODE;
       } else if (isVersioningOption(strArray, index)) {
         returnCode = processVersioningOption(strArray, index, activeParameters);
@@ -401,11 +441,11 @@ final class CommandLine {
     Optional<Integer> rtn = Optional.empty();
     if (ek9ProgramToRun != null) {
       if (options.isJustBuildTypeOption()) {
-        Logger.error("A Build request for " + errorSuffix);
+        Logger.error(origin.err(), "A Build request for " + errorSuffix);
         rtn = Optional.of(BAD_COMMAND_COMBINATION_EXIT_CODE);
       }
       if (options.isReleaseVectorOption()) {
-        Logger.error("A modification to version number for " + errorSuffix);
+        Logger.error(origin.err(), "A modification to version number for " + errorSuffix);
         rtn = Optional.of(BAD_COMMAND_COMBINATION_EXIT_CODE);
       }
     }
@@ -426,13 +466,14 @@ final class CommandLine {
     options.appendRunOptionIfNecessary();
 
     if (options.isDeveloperManagementOption() && foundEk9File) {
-      Logger.error("EK9 filename not required for this option.");
+      Logger.error(origin.err(), "EK9 filename not required for this option.");
       return BAD_COMMAND_COMBINATION_EXIT_CODE;
     }
 
-    if (!options.isDeveloperManagementOption() && !options.isRunEk9AsLanguageServer()) {
+    if (!options.isDeveloperManagementOption() && !options.isRunEk9AsLanguageServer()
+        && !options.isRunEk9AsDaemon()) {
       if (!foundEk9File) {
-        Logger.error("no EK9 file name in command line [" + commandLine + "]");
+        Logger.error(origin.err(), "no EK9 file name in command line [" + commandLine + "]");
         return FILE_ISSUE_EXIT_CODE;
       }
 
@@ -454,8 +495,8 @@ final class CommandLine {
 
   private int showHelp() {
 
-    Logger.error("ek9 <options>");
-    Logger.error(CommandLine.getCommandLineHelp());
+    Logger.error(origin.err(), "ek9 <options>");
+    Logger.error(origin.err(), CommandLine.getCommandLineHelp());
     //i.e. no further commands need to run
 
     return SUCCESS_EXIT_CODE;
@@ -463,7 +504,7 @@ final class CommandLine {
 
   private int showVersionOfEk9() {
 
-    Logger.error("EK9 Version " + getLanguageMetaData().version());
+    Logger.error(origin.err(), "EK9 Version " + getLanguageMetaData().version());
     //i.e. no further commands need to run
 
     return SUCCESS_EXIT_CODE;
@@ -474,7 +515,7 @@ final class CommandLine {
     //Check run options
     if (programs.isEmpty()) {
       //There's nothing that can be run
-      Logger.error(mainSourceFile.getName() + " does not contain any programs.");
+      Logger.error(origin.err(), mainSourceFile.getName() + " does not contain any programs.");
       return NO_PROGRAMS_EXIT_CODE;
     }
     if (ek9ProgramToRun == null) {
@@ -485,7 +526,7 @@ final class CommandLine {
         var builder = new StringBuilder("Use '-r' and select one of");
         programs.stream().map(programName -> " '" + programName + "'").forEach(builder::append);
         builder.append(" from source file ").append(mainSourceFile.getName());
-        Logger.error(builder.toString());
+        Logger.error(origin.err(), builder.toString());
         return PROGRAM_NOT_SPECIFIED_EXIT_CODE;
       }
     }
@@ -497,7 +538,7 @@ final class CommandLine {
       builder.append(", source file ").append(mainSourceFile.getName())
           .append(" does not have program '").append(ek9ProgramToRun).append("'");
 
-      Logger.error(builder.toString());
+      Logger.error(origin.err(), builder.toString());
 
       return BAD_COMMAND_COMBINATION_EXIT_CODE;
     }
@@ -513,7 +554,7 @@ final class CommandLine {
    */
   private void processDefaultArchitecture() {
 
-    final var proposedTargetArchitecture = DEFAULTS.get("EK9_TARGET");
+    final var proposedTargetArchitecture = origin.environment().get("EK9_TARGET");
     if (proposedTargetArchitecture != null && !proposedTargetArchitecture.isEmpty()) {
       this.targetArchitecture = TargetArchitecture.from(proposedTargetArchitecture);
     }
@@ -543,12 +584,12 @@ final class CommandLine {
     Integer rtn = null;
     if (!versionProperties.isNewerThan(sourceFile) || forceRegeneration) {
       if (options.isVerbose()) {
-        Logger.error("Props   : Regenerating " + versionProperties.getFileName());
+        Logger.error(origin.err(), "Props   : Regenerating " + versionProperties.getFileName());
       }
       rtn = reprocessProperties(sourceFile, versionProperties);
     } else {
       if (options.isVerbose()) {
-        Logger.error("Props   : Reusing " + versionProperties.getFileName());
+        Logger.error(origin.err(), "Props   : Reusing " + versionProperties.getFileName());
       }
     }
 
@@ -748,4 +789,8 @@ final class CommandLine {
     return parentDirectoryForFile.apply(mainSourceFile);
   }
 
+  public boolean isSourceFileProvided() {
+    return mainSourceFile != null;
+  }
+
 }
@@ -11,9 +11,12 @@ public record CommandLineHelp(String helpText) {
         \t-V The version of the compiler/runtime
         \t-ls Run compiler as Language Server
         \t-lsh Provide EK9 Language Help/Hover
+        \t-ds Run compiler as a Daemon, for use by the ek9 wrapper
+        \t-Xcds Train class data sharing archives for the compiler and the program (with its run) to start faster
         \t-h Help message
         \t-c Incremental compile; but don't run
         \t-ch Incremental compile; but don't link to final executable
+        \t-w Watch for altered files and incrementally compile after each set of alterations
         \t-cg Incremental compile but with debugging information; but don't run
         \t-cd Incremental compile include dev code and debugging information; but don't run
         \t-cdh Incremental compile; include dev code, but don't link to final executable
@@ -38,6 +41,7 @@ public record CommandLineHelp(String helpText) {
         \t-v Verbose mode
         \t-dv Debug mode - produces internal debug information during compilation
         \t-ve Verbose errors - provides detailed AI-friendly error descriptions
+        \t-ml Memory-lean build - releases parse trees once IR has been generated and verified
         \t-t Runs all unit tests that have been found, this triggers -Cd full compile first
         \t-d port Run in debug mode (requires debugging information - on a port)
         \t-e <name>=<value> set environment variable i.e. user=Steve or user='Steve Limb' for spaces
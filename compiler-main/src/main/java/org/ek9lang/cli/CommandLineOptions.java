@@ -1,5 +1,6 @@
 package org.ek9lang.cli;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -14,6 +15,17 @@ public class CommandLineOptions {
 
   private final List<String> ek9ProgramParameters = new ArrayList<>();
 
+  private final PrintStream err;
+
+  /**
+   * Create the options, any that are not acceptable are reported to err.
+   */
+  public CommandLineOptions(final PrintStream err) {
+
+    this.err = err;
+
+  }
+
   public List<String> getEk9AppParameters() {
     return ek9AppParameters;
   }
@@ -24,14 +36,14 @@ public class CommandLineOptions {
 
   public boolean isModifierParam(String param) {
 
-    return Set.of("-V", "-h", "-v", "-dv", "-ve", "-ls", "-lsh").contains(param);
+    return Set.of("-V", "-h", "-v", "-dv", "-ve", "-ml", "-ls", "-lsh", "-ds", "-Xcds").contains(param);
   }
 
   public boolean isMainParam(final String param) {
 
     return Set.of("-c", "-ch", "-cg", "-cd", "-cdh", "-Cp", "-Cdp", "-C", "-Ch", "-Cg", "-Cd",
         "-Cdh", "-Cl", "-Dp", "-t", "-d", "-P", "-I", "-Gk", "-D", "-IV", "-SV", "-SF", "-PV",
-        "-Up", "-O0", "-O2", "-O3").contains(param);
+        "-Up", "-O0", "-O2", "-O3", "-w").contains(param);
   }
 
   public boolean isParameterUnacceptable(final String param) {
@@ -43,28 +55,28 @@ public class CommandLineOptions {
     final var builder = new StringBuilder("Option '").append(param);
 
     if (!isMainParam(param)) {
-      Logger.error(builder.append("' not understood"));
+      Logger.error(err, builder.append("' not understood"));
       return true;
     }
     //only if we are not one of these already.
     if (isJustBuildTypeOption()) {
-      Logger.error(builder.append("' not compatible with existing build option"));
+      Logger.error(err, builder.append("' not compatible with existing build option"));
       return true;
     }
     if (isDeveloperManagementOption()) {
-      Logger.error(builder.append("' not compatible with existing management option"));
+      Logger.error(err, builder.append("' not compatible with existing management option"));
       return true;
     }
     if (isReleaseVectorOption()) {
-      Logger.error(builder.append("' not compatible with existing release option"));
+      Logger.error(err, builder.append("' not compatible with existing release option"));
       return true;
     }
     if (isRunOption()) {
-      Logger.error(builder.append("' not compatible with existing run option"));
+      Logger.error(err, builder.append("' not compatible with existing run option"));
       return true;
     }
     if (isUnitTestExecution()) {
-      Logger.error(builder.append("' not compatible with existing unit test option"));
+      Logger.error(err, builder.append("' not compatible with existing unit test option"));
       return true;
     }
 
@@ -75,7 +87,7 @@ public class CommandLineOptions {
 
     //Add in run mode if no options supplied as default.
     if (!isJustBuildTypeOption() && !isReleaseVectorOption() && !isDeveloperManagementOption()
-        && !isRunDebugMode() && !isRunEk9AsLanguageServer() && !isUnitTestExecution()) {
+        && !isRunDebugMode() && !isRunEk9AsLanguageServer() && !isRunEk9AsDaemon() && !isUnitTestExecution()) {
       ek9AppParameters.add("-r");
     }
 
@@ -95,7 +107,7 @@ public class CommandLineOptions {
   public boolean isJustBuildTypeOption() {
 
     return isCleanAll() || isResolveDependencies() || isIncrementalCompile() || isFullCompile()
-        || isPackaging() || isInstall() || isDeployment();
+        || isPackaging() || isInstall() || isDeployment() || isWatch();
   }
 
   public boolean isReleaseVectorOption() {
@@ -124,6 +136,11 @@ public class CommandLineOptions {
     return isOptionPresentInAppParameters(Set.of("-ve"));
   }
 
+  public boolean isMemoryLean() {
+
+    return isOptionPresentInAppParameters(Set.of("-ml"));
+  }
+
   public boolean isGenerateSigningKeys() {
 
     return isOptionPresentInAppParameters(Set.of("-Gk"));
@@ -144,6 +161,11 @@ public class CommandLineOptions {
     return isOptionPresentInAppParameters(Set.of("-Dp"));
   }
 
+  public boolean isWatch() {
+
+    return isOptionPresentInAppParameters(Set.of("-w"));
+  }
+
   public boolean isIncrementalCompile() {
 
     return isOptionPresentInAppParameters(Set.of("-c", "-ch", "-cg", "-cd", "-cdh"));
@@ -219,6 +241,16 @@ public class CommandLineOptions {
     return isOptionPresentInAppParameters(Set.of("-lsh"));
   }
 
+  public boolean isRunEk9AsDaemon() {
+
+    return isOptionPresentInAppParameters(Set.of("-ds"));
+  }
+
+  public boolean isClassDataSharingTraining() {
+
+    return isOptionPresentInAppParameters(Set.of("-Xcds"));
+  }
+
   public boolean isRunOption() {
 
     return isRunDebugMode() || isRunNormalMode();
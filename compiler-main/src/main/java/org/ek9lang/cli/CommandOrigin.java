@@ -0,0 +1,28 @@
+package org.ek9lang.cli;
+
+import java.io.PrintStream;
+import java.util.Map;
+import org.ek9lang.core.AssertValue;
+
+/**
+ * Where a command was issued from, i.e. this process or the ek9 wrapper via the daemon.
+ * Relative paths in the command are resolved against the working directory, the environment variables
+ * are those of the issuing process, and all output for the command goes to its stdout and stderr.
+ */
+record CommandOrigin(String workingDirectory,
+                     Map<String, String> environment,
+                     PrintStream out,
+                     PrintStream err) {
+
+  /**
+   * Check all parts of the origin are provided.
+   */
+  CommandOrigin {
+
+    AssertValue.checkNotEmpty("Working directory cannot be empty", workingDirectory);
+    AssertValue.checkNotNull("Environment cannot be null", environment);
+    AssertValue.checkNotNull("Out cannot be null", out);
+    AssertValue.checkNotNull("Err cannot be null", err);
+
+  }
+}
@@ -2,8 +2,10 @@ package org.ek9lang.cli;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.Predicate;
 
 /**
@@ -58,9 +60,18 @@ import java.util.function.Predicate;
 final class DependencyManager {
   private final DependencyNode root;
 
+  //The graph structure does not alter once managed (only the rejections do), so it is indexed just the once.
+  //For each module name, the nodes in the graph with that name, highest version first.
+  private final Map<String, List<DependencyNode>> nodesByModuleName = new TreeMap<>();
+
   DependencyManager(final DependencyNode root) {
 
     this.root = root;
+    if (root != null) {
+      indexByModuleName(root);
+      nodesByModuleName.values().forEach(nodes -> nodes.sort(
+          (DependencyNode o1, DependencyNode o2) -> o1.getVersion().compareTo(o2.getVersion()) * -1));
+    }
 
   }
 
@@ -204,7 +215,7 @@ final class DependencyManager {
    */
   List<String> listAllModuleNames() {
 
-    return new HashSet<>(reportAllDependencies()).stream().sorted().toList();
+    return List.copyOf(nodesByModuleName.keySet());
   }
 
   /**
@@ -217,10 +228,7 @@ final class DependencyManager {
    */
   List<DependencyNode> findByModuleName(final String moduleName) {
 
-    final var rtn = doFindByModuleName(root, moduleName);
-    rtn.sort((DependencyNode o1, DependencyNode o2) -> o1.getVersion().compareTo(o2.getVersion()) * -1);
-
-    return rtn;
+    return new ArrayList<>(nodesByModuleName.getOrDefault(moduleName, List.of()));
   }
 
   /**
@@ -237,17 +245,25 @@ final class DependencyManager {
   /**
    * Check if there are any circular references and report back up on the
    * path the dependency was found in.
+   * This is a single traversal, keeping track of the module names on the path from the root.
    *
    * @return One or more circular paths in the graph/tree.
    */
   List<String> reportCircularDependencies(final boolean includeVersion) {
 
-    return doReportCircularDependencies(this.root, includeVersion);
+    final List<String> rtn = new ArrayList<>();
+    if (root != null) {
+      final Map<String, Integer> modulesOnPath = new HashMap<>();
+      modulesOnPath.put(root.getModuleName(), 1);
+      doReportCircularDependencies(root, modulesOnPath, includeVersion, rtn);
+    }
+
+    return rtn;
   }
 
   List<String> reportCircularDependencies() {
 
-    return doReportCircularDependencies(this.root, false);
+    return reportCircularDependencies(false);
   }
 
   private List<DependencyNode> reportFilteredDependencies(final Predicate<DependencyNode> byPredicate) {
@@ -260,31 +276,27 @@ final class DependencyManager {
         .toList();
   }
 
-  private List<DependencyNode> doFindByModuleName(final DependencyNode from, final String moduleName) {
+  private void indexByModuleName(final DependencyNode from) {
 
-    final List<DependencyNode> rtn = new ArrayList<>();
-    if (from != null) {
-      if (from.getModuleName().equals(moduleName)) {
-        rtn.add(from);
-      }
-      from.getDependencies().forEach(dependency -> rtn.addAll(doFindByModuleName(dependency, moduleName)));
-    }
+    nodesByModuleName.computeIfAbsent(from.getModuleName(), _ -> new ArrayList<>()).add(from);
+    from.getDependencies().forEach(this::indexByModuleName);
 
-    return rtn;
   }
 
-  private List<String> doReportCircularDependencies(final DependencyNode from, final boolean includeVersion) {
-
-    final List<String> rtn = new ArrayList<>();
+  private void doReportCircularDependencies(final DependencyNode from,
+                                            final Map<String, Integer> modulesOnPath,
+                                            final boolean includeVersion,
+                                            final List<String> circulars) {
 
-    if (from != null) {
-      from.getDependencies().forEach(dependency -> {
-        final var backPath = dependency.reportCircularDependencies(includeVersion);
-        backPath.ifPresent(rtn::add);
-        rtn.addAll(doReportCircularDependencies(dependency, includeVersion));
-      });
-    }
+    from.getDependencies().forEach(dependency -> {
+      final var moduleName = dependency.getModuleName();
+      if (modulesOnPath.containsKey(moduleName)) {
+        circulars.add(dependency.showPathToDependency(includeVersion));
+      }
+      modulesOnPath.merge(moduleName, 1, Integer::sum);
+      doReportCircularDependencies(dependency, modulesOnPath, includeVersion, circulars);
+      modulesOnPath.computeIfPresent(moduleName, (_, count) -> count == 1 ? null : count - 1);
+    });
 
-    return rtn;
   }
 }
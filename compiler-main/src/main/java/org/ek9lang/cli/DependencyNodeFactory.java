@@ -3,6 +3,7 @@ package org.ek9lang.cli;
 import java.util.Map;
 import java.util.Optional;
 import org.ek9lang.compiler.common.Ek9SourceVisitor;
+import org.ek9lang.compiler.common.PackageDetails;
 import org.ek9lang.compiler.common.Reporter;
 
 /**
@@ -10,6 +11,7 @@ import org.ek9lang.compiler.common.Reporter;
  * defined in it. Uses a package resolver to get the dependencies and will unpack zips and
  * in the future pull them from remote servers can validate the contents.
  * There's a bit of recursion going on here.
+ * The package resolver resolves the packages concurrently, but the nodes are built in a deterministic order.
  */
 final class DependencyNodeFactory extends Reporter {
   private final CommandLine commandLine;
@@ -20,7 +22,7 @@ final class DependencyNodeFactory extends Reporter {
    */
   DependencyNodeFactory(final CommandLine commandLine, final boolean muteReportedErrors) {
 
-    super(commandLine.options().isVerbose(), muteReportedErrors);
+    super(commandLine.options().isVerbose(), muteReportedErrors, commandLine.getErr());
     this.commandLine = commandLine;
     packageResolver = new PackageResolver(commandLine, muteReportedErrors);
 
@@ -34,12 +36,12 @@ final class DependencyNodeFactory extends Reporter {
 
   Optional<DependencyNode> createFrom(final Ek9SourceVisitor visitor) {
 
-    return createFrom(null, visitor);
+    return createFrom(null, visitor.getPackageDetails());
   }
 
-  private Optional<DependencyNode> createFrom(final DependencyNode parent, final Ek9SourceVisitor visitor) {
+  @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+  private Optional<DependencyNode> createFrom(final DependencyNode parent, final Optional<PackageDetails> details) {
 
-    final var details = visitor.getPackageDetails();
     if (details.isPresent()) {
       final var packageDetails = details.get();
       final var workingNode = new DependencyNode(packageDetails.moduleName(), packageDetails.version());
@@ -76,17 +78,21 @@ final class DependencyNodeFactory extends Reporter {
 
   private boolean processDependencies(final DependencyNode workingNode, final Map<String, String> deps) {
 
+    //Start them all resolving concurrently, then build the nodes in order.
+    deps.forEach((key, value) ->
+        packageResolver.resolveAsync(commandLine.getFileHandling().makeDependencyVector(key, value)));
+
     for (final var entry : deps.entrySet()) {
       final var dependencyVector = commandLine.getFileHandling().makeDependencyVector(entry.getKey(), entry.getValue());
       log("Dependency '" + dependencyVector + "'");
 
-      final var depVisitor = packageResolver.resolve(dependencyVector);
-      if (depVisitor.isEmpty()) {
+      final var depDetails = packageResolver.resolve(dependencyVector);
+      if (depDetails.isEmpty()) {
         return false;
       }
 
       //Build a recursive structure.
-      if (createFrom(workingNode, depVisitor.get()).isEmpty()) {
+      if (createFrom(workingNode, depDetails).isEmpty()) {
         return false;
       }
     }
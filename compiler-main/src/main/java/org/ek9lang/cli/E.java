@@ -1,6 +1,7 @@
 package org.ek9lang.cli;
 
 import java.io.File;
+import java.io.PrintStream;
 import org.ek9lang.compiler.backend.TargetLocator;
 import org.ek9lang.compiler.common.Reporter;
 import org.ek9lang.core.FileHandling;
@@ -18,7 +19,8 @@ abstract class E extends Reporter {
 
   E(final CompilationContext compilationContext) {
 
-    super(compilationContext.commandLine().options().isVerbose(), compilationContext.muteReportedErrors());
+    super(compilationContext.commandLine().options().isVerbose(), compilationContext.muteReportedErrors(),
+        compilationContext.commandLine().getErr());
     this.compilationContext = compilationContext;
 
   }
@@ -68,6 +70,14 @@ abstract class E extends Reporter {
     return compilationContext.commandLine().getOsSupport();
   }
 
+  /**
+   * The stdout of the process that issued the command, any output of the command goes here.
+   */
+  protected PrintStream getOut() {
+
+    return compilationContext.commandLine().getOut();
+  }
+
   /**
    * Actually run the execution.
    */
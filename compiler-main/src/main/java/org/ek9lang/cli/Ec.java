@@ -3,6 +3,8 @@ package org.ek9lang.cli;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import org.ek9lang.compiler.CompilableSource;
 import org.ek9lang.compiler.CompilationPhase;
 import org.ek9lang.compiler.CompilerFlags;
 import org.ek9lang.compiler.OptimizationLevel;
@@ -20,12 +22,23 @@ abstract class Ec extends E {
 
   private CompilerFlags compilerFlags = new CompilerFlags(CompilationPhase.APPLICATION_PACKAGING);
 
+  /**
+   * The workspace of the last successful compilation, used to record the build manifest.
+   */
+  private Workspace compiledWorkspace;
+
+  /**
+   * A workspace retained over a number of compilations (i.e. when watching), may be null.
+   */
+  private Workspace retainedWorkspace;
+
   Ec(final CompilationContext compilationContext) {
 
     super(compilationContext);
     compilerFlags.setVerbose(compilationContext.commandLine().options().isVerbose());
     compilerFlags.setTargetArchitecture(compilationContext.commandLine().getTargetArchitecture());
     compilerFlags.setOptimizationLevel(compilationContext.commandLine().getOptimizationLevel());
+    compilerFlags.setReleaseParseTrees(compilationContext.commandLine().options().isMemoryLean());
 
   }
 
@@ -65,6 +78,23 @@ abstract class Ec extends E {
 
   }
 
+  Workspace getRetainedWorkspace() {
+
+    return retainedWorkspace;
+  }
+
+  /**
+   * Compile using a workspace retained over a number of compilations, so that sources
+   * that have not been modified since the last compilation are not parsed again.
+   * This means the parse trees cannot be released.
+   */
+  void setRetainedWorkspace(final Workspace retainedWorkspace) {
+
+    this.retainedWorkspace = retainedWorkspace;
+    compilerFlags.setReleaseParseTrees(false);
+
+  }
+
   protected void prepareCompilation() {
 
     log("Preparing");
@@ -115,12 +145,23 @@ abstract class Ec extends E {
    */
   protected boolean compile(final List<File> compilableProjectFiles) {
 
+    return compile(compilableProjectFiles, compilableProjectFiles);
+  }
+
+  /**
+   * Compile all the project files, but only regenerate the output for the files to recompile.
+   * The output previously generated for all the other files is reused (if present).
+   */
+  protected boolean compile(final List<File> compilableProjectFiles, final List<File> filesToRecompile) {
+
     log(compilableProjectFiles.size() + " source file(s)");
 
-    final var workspace = new Workspace(compilationContext.commandLine().getSourceFileDirectory());
+    final var toRecompile = Set.copyOf(filesToRecompile);
+    final var workspace = workspaceFor(compilableProjectFiles);
     compilableProjectFiles.forEach(file -> {
       log(file.getAbsolutePath());
       workspace.addSource(file);
+      workspace.getSource(file.toPath()).setOutputReusable(!toRecompile.contains(file));
     });
 
     /*
@@ -135,6 +176,7 @@ abstract class Ec extends E {
     }
 
     if (compilationResult) {
+      compiledWorkspace = workspace;
       final var generatedOutputDirectory = getMainGeneratedOutputDirectory();
       AssertValue.checkNotNull("Main generated out file null", generatedOutputDirectory);
       //This may be some sort of intermediate form (i.e. java we then need to actually compile).
@@ -149,6 +191,24 @@ abstract class Ec extends E {
     return compilationResult; //or false if compilation failed
   }
 
+  /**
+   * Either a new workspace, or the retained workspace without any sources no longer part of the project.
+   */
+  private Workspace workspaceFor(final List<File> compilableProjectFiles) {
+
+    if (retainedWorkspace == null) {
+      return new Workspace(compilationContext.commandLine().getSourceFileDirectory());
+    }
+
+    final var fileNames = Set.copyOf(compilableProjectFiles.stream().map(file -> file.toPath().toString()).toList());
+    retainedWorkspace.getSources().stream()
+        .map(CompilableSource::getFileName)
+        .filter(fileName -> !fileNames.contains(fileName))
+        .forEach(retainedWorkspace::removeSource);
+
+    return retainedWorkspace;
+  }
+
   protected boolean repackageTargetArtefact() {
 
     if (compilerFlags.isCheckCompilationOnly()) {
@@ -176,24 +236,55 @@ abstract class Ec extends E {
       zipSets.add(getCoreComponents());
       final var targetFileName = compilationContext.sourceFileCache().getTargetExecutableArtefact().getAbsolutePath();
 
-      return getFileHandling().createJar(targetFileName, zipSets, "ek9.Main");
+      //Development builds are just stored, as they are quicker to write and get rebuilt often.
+      final var created = getFileHandling().createJar(targetFileName, zipSets, "ek9.Main",
+          !compilerFlags.isDevBuild());
+      if (created) {
+        saveBuildManifest();
+      }
+
+      return created;
     }
 
     return false;
   }
 
+  /**
+   * Record what the target artefact was built from, so that subsequent incremental builds
+   * only need to recompile what has actually been altered.
+   */
+  private void saveBuildManifest() {
+
+    if (compiledWorkspace == null) {
+      return;
+    }
+
+    final var buildManifest = new BuildManifest(new File(compilationContext.commandLine().getSourceFileDirectory()));
+    compiledWorkspace.getSources().stream()
+        .filter(CompilableSource::isDependenciesAvailable)
+        .forEach(buildManifest::record);
+
+    if (buildManifest.isEmpty()) {
+      return;
+    }
+
+    final var manifestFile = compilationContext.sourceFileCache().getBuildManifestFile();
+    getFileHandling().makeDirectoryIfNotExists(manifestFile.getParentFile());
+    buildManifest.save(manifestFile);
+
+  }
+
   /**
    * This will be the stock set of runtime code that we need to bundle.
-   * Extracts EK9 runtime classes (org.ek9.lang, ek9 packages) into a versioned JAR
+   * Extracts EK9 runtime classes (org.ek9.lang, ek9 packages) into a versioned JAR shared by all projects
    * and returns the contents as a ZipSet for merging into the fat JAR.
    */
   private ZipSet getCoreComponents() {
 
     final var version = compilationContext.commandLine().getLanguageMetaData().version();
-    final var projectDir = compilationContext.commandLine().getSourceFileDirectory();
 
     final var extractor = new org.ek9lang.core.RuntimeClassExtractor();
-    final var runtimeJarOpt = extractor.extractRuntimeJar(getFileHandling(), projectDir, version);
+    final var runtimeJarOpt = extractor.extractRuntimeJar(getFileHandling(), version);
 
     if (runtimeJarOpt.isPresent()) {
       log("Using runtime: " + runtimeJarOpt.get().getName());
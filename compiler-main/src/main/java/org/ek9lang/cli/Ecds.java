@@ -0,0 +1,74 @@
+package org.ek9lang.cli;
+
+import static org.ek9lang.compiler.common.Ek9ExitCodes.SUCCESS_EXIT_CODE;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Train the class data sharing archive for the compiler, by running a full compilation in a separate JVM.
+ * The archive is written next to the compiler jar when that JVM exits, then the ek9 wrapper uses it.
+ * Note that the archive for the program itself is trained by its run (see {@link Er}).
+ */
+final class Ecds extends E {
+  Ecds(final CompilationContext compilationContext) {
+
+    super(compilationContext);
+
+  }
+
+  @Override
+  protected String messagePrefix() {
+
+    return "CDS     : ";
+  }
+
+  @Override
+  protected boolean doRun() {
+
+    final var compilerJar = ClassDataSharing.getRunningCompilerJar();
+    if (compilerJar.isEmpty()) {
+      report("Not running from the compiler jar, so no archive can be trained for it");
+      return true;
+    }
+
+    log("Train " + ClassDataSharing.getArchiveFor(compilerJar.get()).getName());
+
+    final var command = new ArrayList<String>();
+    command.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath());
+    command.addAll(ClassDataSharing.getTrainingOptions(compilerJar.get()));
+    command.add("-jar");
+    command.add(compilerJar.get().getPath());
+    command.add("-C");
+    command.add(compilationContext.commandLine().getFullPathToSourceFileName());
+
+    return runTraining(command);
+  }
+
+  /**
+   * The stdout of the training compilation is discarded, as the ek9 wrapper treats stdout as a command to run.
+   */
+  private boolean runTraining(final ArrayList<String> command) {
+
+    try {
+      final var process = new ProcessBuilder(command)
+          .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+          .redirectError(ProcessBuilder.Redirect.INHERIT)
+          .start();
+      final var exitCode = process.waitFor();
+      if (exitCode != SUCCESS_EXIT_CODE) {
+        report("Training compilation failed with exit code " + exitCode);
+        return false;
+      }
+      return true;
+    } catch (IOException ex) {
+      report("Unable to run training compilation " + ex.getMessage());
+    } catch (InterruptedException _) {
+      Thread.currentThread().interrupt();
+      report("Training compilation interrupted");
+    }
+
+    return false;
+  }
+}
@@ -146,7 +146,7 @@ final class Edp extends E {
     final var builder = new StringBuilder(messagePrefix()).append(application);
     list.stream().map(node -> " '" + node + "'").forEach(builder::append);
     builder.append(".");
-    Logger.error(builder);
+    Logger.error(compilationContext.commandLine().getErr(), builder);
 
   }
 }
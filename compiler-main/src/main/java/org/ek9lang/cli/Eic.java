@@ -25,22 +25,34 @@ final class Eic extends Ec {
       if (compilationContext.sourceFileCache().isTargetExecutableArtefactCurrent()) {
         log("Target already in date");
         return true;
-      } else {
-        return triggerIncrementalCompilation();
       }
+      //The output of removed sources must not be packaged again, a full compilation cleans it out.
+      if (compilationContext.sourceFileCache().isAnySourceRemoved()) {
+        log("Source removed - Compile!");
+        return triggerFullCompilation();
+      }
+      return triggerIncrementalCompilation();
     }
 
+    log("Missing target - Compile!");
     return triggerFullCompilation();
   }
 
   private boolean triggerIncrementalCompilation() {
 
     prepareCompilation();
-    //We still get all the compilable project files.
-    //The compiler will only generate new artefacts if they are out of date.
-    final var compilationSuccessful = compile(compilationContext.sourceFileCache().getAllCompilableProjectFiles());
-
-    final var changesToPackage = compilationContext.sourceFileCache().getIncrementalFilesPartOfBuild().size();
+    //We still get all the compilable project files, so that all symbols can be resolved.
+    //But only those altered (or that depend on those altered) have new artefacts generated.
+    //Without a build manifest the dependencies are not known, so all artefacts are generated.
+    final var sourceFileCache = compilationContext.sourceFileCache();
+    final var allFiles = sourceFileCache.getAllCompilableProjectFiles();
+    final var buildManifest = sourceFileCache.loadBuildManifest();
+    final var filesToRecompile = buildManifest.isEmpty() ? allFiles : buildManifest.getFilesToRecompile(allFiles);
+    log(filesToRecompile.size() + " source file(s) to recompile");
+
+    final var compilationSuccessful = compile(allFiles, filesToRecompile);
+
+    final var changesToPackage = sourceFileCache.getIncrementalFilesPartOfBuild().size();
     log(changesToPackage + " changed file(s)");
 
     if (compilationSuccessful) {
@@ -52,10 +64,12 @@ final class Eic extends Ec {
 
   private boolean triggerFullCompilation() {
 
-    log("Missing target - Compile!");
     final var execution = new Efc(compilationContext);
     //may have been forced in, and so we must pass on.
     execution.setCompilerFlags(getCompilerFlags());
+    if (getRetainedWorkspace() != null) {
+      execution.setRetainedWorkspace(getRetainedWorkspace());
+    }
 
     return execution.run();
   }
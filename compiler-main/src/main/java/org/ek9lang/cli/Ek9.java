@@ -6,19 +6,29 @@ import static org.ek9lang.compiler.common.Ek9ExitCodes.LANGUAGE_SERVER_NOT_START
 import static org.ek9lang.compiler.common.Ek9ExitCodes.RUN_COMMAND_EXIT_CODE;
 import static org.ek9lang.compiler.common.Ek9ExitCodes.SUCCESS_EXIT_CODE;
 
+import java.io.PrintStream;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import org.ek9lang.compiler.CachedEk9LanguageBootStrap;
+import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.DeSerializer;
 import org.ek9lang.compiler.Ek9BuiltinIntrospectionSupplier;
 import org.ek9lang.compiler.Ek9Compiler;
 import org.ek9lang.compiler.Ek9LanguageBootStrap;
+import org.ek9lang.compiler.Serializer;
 import org.ek9lang.compiler.common.CompilationEvent;
 import org.ek9lang.compiler.common.CompilerReporter;
 import org.ek9lang.compiler.common.Reporter;
 import org.ek9lang.compiler.common.VerboseErrorMessages;
 import org.ek9lang.compiler.config.FullPhaseSupplier;
+import org.ek9lang.core.CodeIdentity;
+import org.ek9lang.core.Digest;
 import org.ek9lang.core.FileHandling;
 import org.ek9lang.core.Logger;
 import org.ek9lang.core.OsSupport;
+import org.ek9lang.core.SharedThreadContext;
 import org.ek9lang.lsp.Server;
 
 /**
@@ -53,33 +63,56 @@ final class Ek9 {
    * Creates the compilerContext with the commandLine, and a real compiler.
    */
   private static final Function<CommandLine, CompilationContext> compilationContextCreation =
-      commandLine -> {
-        // Enable verbose error messages if -ve flag specified (for AI-assisted development)
-        VerboseErrorMessages.setVerboseEnabled(commandLine.options().isErrorVerbose());
-
-        final var fileHandling = commandLine.getFileHandling();
-        final var muteReportedErrors = false;
-        final var compilationReporter = new CompilationReporter(commandLine.options().isVerbose());
-        final var compilerReporter = new CompilerReporter(commandLine.options().isVerbose(), false);
-        final var sourceFileCache = new FileCache(commandLine);
-        final var sourceSupplier = new Ek9BuiltinIntrospectionSupplier();
-        final var bootStrap =
-            new Ek9LanguageBootStrap(sourceSupplier, compilationReporter::logPhaseCompilation, compilerReporter);
-        final var allPhases = new FullPhaseSupplier(bootStrap.get(), fileHandling,
-            compilationReporter::logPhaseCompilation, new CompilerReporter(commandLine.options().isVerbose(), false));
-        final var compiler = new Ek9Compiler(allPhases, muteReportedErrors);
-
-        return new CompilationContext(commandLine, compiler, sourceFileCache, muteReportedErrors,
-            new CompilationResult());
-      };
+      commandLine -> createCompilationContext(commandLine, bootStrapFor(commandLine));
 
   private final CompilationContext compilationContext;
   private final CompilationReporter reporter;
 
+  /**
+   * Creates the compilerContext with the commandLine, and a real compiler that uses the built-in symbols supplied.
+   */
+  static CompilationContext createCompilationContext(
+      final CommandLine commandLine,
+      final Supplier<SharedThreadContext<CompilableProgram>> bootStrap) {
+
+    // Enable verbose error messages if -ve flag specified (for AI-assisted development)
+    VerboseErrorMessages.setVerboseEnabled(commandLine.options().isErrorVerbose());
+
+    final var fileHandling = commandLine.getFileHandling();
+    final var muteReportedErrors = false;
+    final var compilationReporter = new CompilationReporter(commandLine.options().isVerbose(), commandLine.getErr());
+    final var sourceFileCache = new FileCache(commandLine);
+    final var allPhases = new FullPhaseSupplier(bootStrap.get(), fileHandling, () -> CompilerIdentity.IDENTITY,
+        compilationReporter::logPhaseCompilation,
+        new CompilerReporter(commandLine.options().isVerbose(), false, commandLine.getErr()));
+    final var compiler = new Ek9Compiler(allPhases, muteReportedErrors);
+
+    return new CompilationContext(commandLine, compiler, sourceFileCache, muteReportedErrors,
+        new CompilationResult());
+  }
+
+  /**
+   * When there is a project, the built-in symbols are cached in its .ek9 directory rather than bootstrapped each time.
+   */
+  private static Supplier<SharedThreadContext<CompilableProgram>> bootStrapFor(final CommandLine commandLine) {
+
+    final var compilationReporter = new CompilationReporter(commandLine.options().isVerbose(), commandLine.getErr());
+    final var compilerReporter = new CompilerReporter(commandLine.options().isVerbose(), false, commandLine.getErr());
+    final var sourceSupplier = new Ek9BuiltinIntrospectionSupplier();
+    if (commandLine.isSourceFileProvided()) {
+      final var cacheDirectory = commandLine.getFileHandling().getCacheDirectory(commandLine.getSourceFileDirectory());
+      return new CachedEk9LanguageBootStrap(cacheDirectory, languageMetaData.version(), sourceSupplier,
+          compilationReporter::logPhaseCompilation, compilerReporter);
+    }
+
+    return new Ek9LanguageBootStrap(sourceSupplier, compilationReporter::logPhaseCompilation, compilerReporter);
+  }
+
   Ek9(final CompilationContext compilationContext) {
 
     this.compilationContext = compilationContext;
-    this.reporter = new CompilationReporter(compilationContext.commandLine().options().isVerbose());
+    this.reporter = new CompilationReporter(compilationContext.commandLine().options().isVerbose(),
+        compilationContext.commandLine().getErr());
 
   }
 
@@ -97,6 +130,9 @@ final class Ek9 {
       if (result >= SUCCESS_EXIT_CODE) {
         System.exit(result);
       }
+      if (commandLine.options().isRunEk9AsDaemon()) {
+        System.exit(runAsDaemon(commandLine));
+      }
       System.exit(new Ek9(compilationContextCreation.apply(commandLine)).run());
     } catch (RuntimeException rex) {
       Logger.error(rex);
@@ -104,6 +140,20 @@ final class Ek9 {
     }
   }
 
+  /**
+   * Run as a daemon, blocks while the daemon accepts commands from the ek9 wrapper.
+   * The built-in symbols are bootstrapped just the once here, rather than for each command.
+   */
+  private static int runAsDaemon(final CommandLine commandLine) {
+
+    final var compilerReporter = new CompilerReporter(commandLine.options().isVerbose(), false);
+    final var bootStrap = new Ek9LanguageBootStrap(new Ek9BuiltinIntrospectionSupplier(), _ -> {
+    }, compilerReporter);
+    final var socketPath = Ek9Daemon.getSocketPath(commandLine.getFileHandling(), commandLine.getEnvironment());
+
+    return new Ek9Daemon(languageMetaData, socketPath, bootStrap).run();
+  }
+
   /**
    * Run the command line and return the exit code.
    * This can be either the language server or just the command line compiler.
@@ -152,6 +202,7 @@ final class Ek9 {
   private int runAsCommand() {
 
     deleteFinalArtifactIfDependenciesAltered(compilationContext);
+    trainClassDataSharingIfRequested(compilationContext);
 
     int rtn = BAD_COMMANDLINE_EXIT_CODE;
     E execution = null;
@@ -197,6 +248,18 @@ final class Ek9 {
 
   }
 
+  /**
+   * The training is just an optimisation, so the command is still run even if the training fails.
+   */
+  private void trainClassDataSharingIfRequested(final CompilationContext compilationContext) {
+
+    if (compilationContext.commandLine().options().isClassDataSharingTraining()
+        && !new Ecds(compilationContext).run()) {
+      reporter.report("Class data sharing archive not trained");
+    }
+
+  }
+
   private E getExecutionForDeveloperManagementOption(final CompilationContext compilationContext) {
 
     if (compilationContext.commandLine().options().isGenerateSigningKeys()) {
@@ -216,6 +279,8 @@ final class Ek9 {
       return new Edp(compilationContext);
     } else if (compilationContext.commandLine().options().isIncrementalCompile()) {
       return new Eic(compilationContext);
+    } else if (compilationContext.commandLine().options().isWatch()) {
+      return new Ew(compilationContext, cycleCompilationContexts(compilationContext.commandLine()));
     } else if (compilationContext.commandLine().options().isFullCompile()) {
       return new Efc(compilationContext);
     } else if (compilationContext.commandLine().options().isPackaging()) {
@@ -229,6 +294,17 @@ final class Ek9 {
     return null;
   }
 
+  /**
+   * Each compilation when watching gets its own compilation context, but the built-in symbols are
+   * only bootstrapped once and then held in serialized form.
+   */
+  private Supplier<CompilationContext> cycleCompilationContexts(final CommandLine commandLine) {
+
+    final var builtInSymbols = new Serializer().apply(bootStrapFor(commandLine).get());
+
+    return () -> createCompilationContext(commandLine, () -> new DeSerializer().apply(builtInSymbols));
+  }
+
   private E getExecutionForReleaseVectorOption(CompilationContext compilationContext) {
 
     if (compilationContext.commandLine().options().isIncrementReleaseVector()) {
@@ -248,9 +324,9 @@ final class Ek9 {
    * Just used for reporting and logging errors and warnings.
    */
   private static class CompilationReporter extends Reporter {
-    protected CompilationReporter(final boolean verbose) {
+    protected CompilationReporter(final boolean verbose, final PrintStream err) {
 
-      super(verbose, false);
+      super(verbose, false, err);
 
     }
 
@@ -277,4 +353,12 @@ final class Ek9 {
       return "EK9     : ";
     }
   }
+
+  /**
+   * The identity of the code of this compiler (jar or classes), the generated output is cached against it.
+   * Only determined when first used, i.e. when output is generated.
+   */
+  private static final class CompilerIdentity {
+    private static final Optional<Digest.CheckSum> IDENTITY = new CodeIdentity().apply(Ek9.class);
+  }
 }
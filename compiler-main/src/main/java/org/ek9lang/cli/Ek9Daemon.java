@@ -0,0 +1,393 @@
+package org.ek9lang.cli;
+
+import static org.ek9lang.compiler.common.Ek9ExitCodes.BAD_COMMANDLINE_EXIT_CODE;
+import static org.ek9lang.compiler.common.Ek9ExitCodes.FILE_ISSUE_EXIT_CODE;
+import static org.ek9lang.compiler.common.Ek9ExitCodes.SUCCESS_EXIT_CODE;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.DeSerializer;
+import org.ek9lang.compiler.Serializer;
+import org.ek9lang.core.AssertValue;
+import org.ek9lang.core.FileHandling;
+import org.ek9lang.core.Logger;
+import org.ek9lang.core.OsSupport;
+import org.ek9lang.core.SharedThreadContext;
+
+/**
+ * Runs the compiler as a long-running daemon, accepting commands over a unix domain socket.
+ * <p>
+ * The native ek9 wrapper connects to the socket (if there is a daemon running) and forwards its arguments,
+ * working directory and environment variables. This avoids starting a new JVM and bootstrapping the built-in
+ * symbols for every command. The built-in symbols are bootstrapped once and held in serialized form, so each
+ * command gets its own copy to compile against.
+ * </p>
+ * <p>
+ * Output to stdout and stderr is streamed back to the wrapper in frames, followed by the exit code.
+ * The wrapper then deals with that exit code just as if it had run the compiler itself.
+ * Each command has its own output streams, working directory and environment (see {@link CommandOrigin}),
+ * so nothing of the daemon process itself is altered. Commands are still processed one at a time, as they
+ * typically alter the same project directories.
+ * </p>
+ * <p>
+ * The socket is only accessible by the user that ran the daemon. It is bound in a directory that only that
+ * user can access, then moved into place, so there is no time when any other user could connect to it.
+ * </p>
+ * <p>
+ * A request is a sequence of nul terminated UTF-8 strings: the compiler jar the wrapper would have used,
+ * the working directory, the number of arguments followed by the arguments, then the number of environment
+ * variables followed by each as name=value. Each frame in the response is a type byte, the length as an int
+ * and then that number of bytes. If the daemon is not running from the jar the wrapper would have used,
+ * the command is refused so that the wrapper can run that compiler itself.
+ * </p>
+ */
+final class Ek9Daemon {
+  static final String SOCKET_ENVIRONMENT_VARIABLE = "EK9_DAEMON_SOCKET";
+  static final String SOCKET_FILE_NAME = "daemon.sock";
+  static final byte STDOUT_FRAME = 'O';
+  static final byte STDERR_FRAME = 'E';
+  static final byte EXIT_FRAME = 'X';
+  static final byte REFUSED_FRAME = 'R';
+
+  private final LanguageMetaData languageMetaData;
+  private final Path socketPath;
+  private final Supplier<SharedThreadContext<CompilableProgram>> bootStrap;
+  private final String compilerJar = ClassDataSharing.getRunningCompilerJar()
+      .map(File::getPath)
+      .orElse(null);
+  private ServerSocketChannel serverChannel;
+  private byte[] builtInSymbols;
+
+  /**
+   * Create a daemon to listen on the socket path, the bootstrap is only used once, when the daemon is run.
+   */
+  Ek9Daemon(final LanguageMetaData languageMetaData,
+            final Path socketPath,
+            final Supplier<SharedThreadContext<CompilableProgram>> bootStrap) {
+
+    AssertValue.checkNotNull("LanguageMetaData cannot be null", languageMetaData);
+    AssertValue.checkNotNull("Socket path cannot be null", socketPath);
+    AssertValue.checkNotNull("BootStrap cannot be null", bootStrap);
+
+    this.languageMetaData = languageMetaData;
+    this.socketPath = socketPath;
+    this.bootStrap = bootStrap;
+
+  }
+
+  /**
+   * The socket the daemon listens on, this is in the users .ek9 directory unless set in the environment.
+   * The ek9 wrapper uses the same logic to locate the socket.
+   */
+  static Path getSocketPath(final FileHandling fileHandling, final Map<String, String> environment) {
+
+    final var fromEnvironment = environment.get(SOCKET_ENVIRONMENT_VARIABLE);
+    if (fromEnvironment != null && !fromEnvironment.isEmpty()) {
+      return Path.of(fromEnvironment);
+    }
+
+    return Path.of(fileHandling.getUsersHomeEk9Directory(), SOCKET_FILE_NAME);
+  }
+
+  /**
+   * Bootstraps the built-in symbols and then accepts and processes commands until stopped.
+   * Blocks in the running.
+   *
+   * @return The exit code to exit with
+   */
+  int run() {
+
+    if (isAlreadyRunning()) {
+      Logger.error("EK9 daemon already running on " + socketPath);
+      return FILE_ISSUE_EXIT_CODE;
+    }
+
+    try (var channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+      builtInSymbols = new Serializer().apply(bootStrap.get());
+      bind(channel);
+      Logger.log("EK9 daemon listening on " + socketPath);
+
+      while (channel.isOpen()) {
+        try (var client = channel.accept()) {
+          process(client);
+        } catch (AsynchronousCloseException _) {
+          //Just means the daemon has been stopped.
+        } catch (IOException ex) {
+          //Only that command has failed, the daemon can still accept others.
+          Logger.error("EK9 daemon command failed " + ex.getMessage());
+        }
+      }
+    } catch (IOException ex) {
+      Logger.error("Unable to run EK9 daemon on " + socketPath + " " + ex.getMessage());
+      return FILE_ISSUE_EXIT_CODE;
+    } finally {
+      deleteSocketFile();
+    }
+
+    Logger.log("EK9 daemon stopped on " + socketPath);
+    return SUCCESS_EXIT_CODE;
+  }
+
+  /**
+   * Stop the daemon from accepting any further commands.
+   */
+  synchronized void stop() {
+
+    try {
+      if (serverChannel != null) {
+        serverChannel.close();
+      }
+    } catch (IOException ex) {
+      Logger.error("Unable to stop EK9 daemon " + ex.getMessage());
+    }
+
+  }
+
+  /**
+   * The socket is only accessible by the user that ran the daemon, as commands are run as that user.
+   * So it is bound in a private directory and its permissions restricted, before it is moved into place.
+   */
+  private synchronized void bind(final ServerSocketChannel channel) throws IOException {
+
+    final var directory = socketPath.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    final var privateDirectory = createPrivateDirectory(directory);
+    final var boundPath = privateDirectory.resolve(SOCKET_FILE_NAME);
+
+    try {
+      channel.bind(UnixDomainSocketAddress.of(boundPath));
+      try {
+        Files.setPosixFilePermissions(boundPath, PosixFilePermissions.fromString("rw-------"));
+      } catch (UnsupportedOperationException _) {
+        //Not a posix file system, so rely on the permissions of the directory.
+      }
+      Files.deleteIfExists(socketPath);
+      Files.move(boundPath, socketPath, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(boundPath);
+      Files.deleteIfExists(privateDirectory);
+    }
+    serverChannel = channel;
+
+  }
+
+  private Path createPrivateDirectory(final Path directory) throws IOException {
+
+    try {
+      return Files.createTempDirectory(directory, ".ek9daemon",
+          PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+    } catch (UnsupportedOperationException _) {
+      return Files.createTempDirectory(directory, ".ek9daemon");
+    }
+  }
+
+  private boolean isAlreadyRunning() {
+
+    if (!Files.exists(socketPath)) {
+      return false;
+    }
+
+    try (var _ = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+      return true;
+    } catch (IOException _) {
+      //Left behind by a daemon that did not stop cleanly.
+      return false;
+    }
+  }
+
+  private void deleteSocketFile() {
+
+    try {
+      Files.deleteIfExists(socketPath);
+    } catch (IOException ex) {
+      Logger.error("Unable to remove " + socketPath + " " + ex.getMessage());
+    }
+
+  }
+
+  private void process(final SocketChannel client) throws IOException {
+
+    final var input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+    final var output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+    final var request = Request.readFrom(input);
+
+    if (compilerJar != null && !compilerJar.equals(request.compilerJar())) {
+      writeFrame(output, REFUSED_FRAME, new byte[0], 0, 0);
+      return;
+    }
+
+    int exitCode;
+
+    try (var stdout = new PrintStream(new FrameOutputStream(output, STDOUT_FRAME), true, StandardCharsets.UTF_8);
+         var stderr = new PrintStream(new FrameOutputStream(output, STDERR_FRAME), true, StandardCharsets.UTF_8)) {
+      exitCode = execute(request, new CommandOrigin(request.workingDirectory(), request.environment(), stdout, stderr));
+    }
+
+    final var exitCodeBytes = new ByteArrayOutputStream();
+    new DataOutputStream(exitCodeBytes).writeInt(exitCode);
+    writeFrame(output, EXIT_FRAME, exitCodeBytes.toByteArray(), 0, exitCodeBytes.size());
+
+  }
+
+  /**
+   * Processes the command line just as main does, but any command that would block is not supported.
+   * All output for the command goes to the streams of its origin.
+   */
+  private int execute(final Request request, final CommandOrigin origin) {
+
+    final var osSupport = new OsSupport();
+    final var commandLine = new CommandLine(languageMetaData, new FileHandling(osSupport), osSupport, origin);
+
+    try {
+      final var result = commandLine.process(request.getCommandLineArguments());
+      if (result >= SUCCESS_EXIT_CODE) {
+        return result;
+      }
+      if (commandLine.options().isRunEk9AsLanguageServer() || commandLine.options().isRunEk9AsDaemon()) {
+        Logger.error(origin.err(), "Option not supported by the EK9 daemon");
+        return BAD_COMMANDLINE_EXIT_CODE;
+      }
+      final var compilationContext = Ek9.createCompilationContext(commandLine,
+          () -> new DeSerializer().apply(builtInSymbols));
+
+      return new Ek9(compilationContext).run();
+    } catch (InterruptedException _) {
+      Thread.currentThread().interrupt();
+      Logger.error(origin.err(), "EK9 daemon command interrupted");
+    } catch (RuntimeException rex) {
+      Logger.error(origin.err(), rex);
+    }
+
+    return BAD_COMMANDLINE_EXIT_CODE;
+  }
+
+  private static void writeFrame(final DataOutputStream output,
+                                 final byte frameType,
+                                 final byte[] bytes,
+                                 final int offset,
+                                 final int length) throws IOException {
+
+    synchronized (output) {
+      output.writeByte(frameType);
+      output.writeInt(length);
+      output.write(bytes, offset, length);
+      output.flush();
+    }
+
+  }
+
+  /**
+   * Writes each block of output as a frame, so stdout and stderr can be interleaved over the one socket.
+   */
+  private static final class FrameOutputStream extends OutputStream {
+    private final DataOutputStream output;
+    private final byte frameType;
+
+    private FrameOutputStream(final DataOutputStream output, final byte frameType) {
+
+      this.output = output;
+      this.frameType = frameType;
+
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+
+      write(new byte[] {(byte) value}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+
+      if (length > 0) {
+        writeFrame(output, frameType, bytes, offset, length);
+      }
+    }
+
+    @Override
+    public void close() {
+
+      //The socket is closed once the exit code has been sent.
+    }
+  }
+
+  /**
+   * A command forwarded by the ek9 wrapper.
+   */
+  record Request(String compilerJar, String workingDirectory, List<String> arguments,
+                 Map<String, String> environment) {
+
+    static Request readFrom(final DataInputStream input) throws IOException {
+
+      final var compilerJar = readString(input);
+      final var workingDirectory = readString(input);
+      if (workingDirectory.isEmpty()) {
+        throw new IOException("No working directory in request");
+      }
+
+      final var arguments = new ArrayList<String>();
+      final var numArguments = Integer.parseInt(readString(input));
+      for (int i = 0; i < numArguments; i++) {
+        arguments.add(readString(input));
+      }
+
+      final var environment = new HashMap<String, String>();
+      final var numVariables = Integer.parseInt(readString(input));
+      for (int i = 0; i < numVariables; i++) {
+        final var variable = readString(input);
+        final var separator = variable.indexOf('=');
+        if (separator > 0) {
+          environment.put(variable.substring(0, separator), variable.substring(separator + 1));
+        }
+      }
+
+      return new Request(compilerJar, workingDirectory, arguments, environment);
+    }
+
+    /**
+     * The arguments as the command line expects them, as if the wrapper had run the compiler itself.
+     * So arguments with spaces are quoted. Any relative paths are left as they are, the command line
+     * resolves those against the working directory of the wrapper (as its origin) rather than that of the daemon.
+     */
+    String[] getCommandLineArguments() {
+
+      return arguments.stream()
+          .map(argument -> argument.contains(" ") ? "'" + argument + "'" : argument)
+          .toArray(String[]::new);
+    }
+
+    private static String readString(final DataInputStream input) throws IOException {
+
+      final var bytes = new ByteArrayOutputStream();
+      for (var value = input.readByte(); value != 0; value = input.readByte()) {
+        bytes.write(value);
+      }
+
+      return bytes.toString(StandardCharsets.UTF_8);
+    }
+  }
+}
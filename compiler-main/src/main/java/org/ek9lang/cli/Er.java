@@ -30,6 +30,9 @@ class Er extends E {
   private boolean ensureTargetExecutableCurrent() {
     if (!compilationContext.sourceFileCache().isTargetExecutableArtefactCurrent()) {
       log("Stale target - Compile");
+      //Any class data sharing archive would not match the recompiled target.
+      getFileHandling().deleteFileIfExists(
+          ClassDataSharing.getArchiveFor(compilationContext.sourceFileCache().getTargetExecutableArtefact()));
 
       return new Eic(compilationContext).run();
     }
@@ -46,7 +49,7 @@ class Er extends E {
       final var theRunCommand = new StringBuilder("java");
 
       // Add memory setting from environment or use default
-      final var memoryFlag = System.getenv("EK9_APPLICATION_MEMORY");
+      final var memoryFlag = compilationContext.commandLine().getEnvironment().get("EK9_APPLICATION_MEMORY");
       theRunCommand.append(" ").append(memoryFlag != null && !memoryFlag.isEmpty()
           ? memoryFlag : "-Xmx512m");
 
@@ -55,7 +58,13 @@ class Er extends E {
             .append(compilationContext.commandLine().debugPort);
       }
 
-      final var target = compilationContext.sourceFileCache().getTargetExecutableArtefact().getAbsolutePath();
+      final var targetFile = compilationContext.sourceFileCache().getTargetExecutableArtefact();
+      final var target = targetFile.getAbsolutePath();
+
+      //Either train the class data sharing archive on this run, or use the archive if it has been trained.
+      final var classDataSharingOptions = compilationContext.commandLine().options().isClassDataSharingTraining()
+          ? ClassDataSharing.getTrainingOptions(targetFile) : ClassDataSharing.getUseOptions(targetFile);
+      classDataSharingOptions.forEach(option -> theRunCommand.append(" ").append(option));
 
       compilationContext.commandLine().getEk9AppDefines()
           .forEach(define -> theRunCommand.append(" ").append("-D").append(define));
@@ -67,7 +76,7 @@ class Er extends E {
 
       compilationContext.commandLine().getEk9ProgramParameters()
           .forEach(param -> theRunCommand.append(" ").append(param));
-      Logger.log(theRunCommand.toString());
+      Logger.log(getOut(), theRunCommand.toString());
       return true;
     }
 
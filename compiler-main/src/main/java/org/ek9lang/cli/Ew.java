@@ -0,0 +1,156 @@
+package org.ek9lang.cli;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.NumberFormat;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.ek9lang.compiler.Workspace;
+import org.ek9lang.core.Glob;
+
+/**
+ * Watch the project directory and incrementally compile after each set of alterations.
+ * <p>
+ * The compiler stays resident, so the built-in symbols are only bootstrapped once; each compilation
+ * gets a fresh copy of them from the supplier of compilation contexts. The workspace is retained over
+ * the compilations, so only the sources that have been modified are parsed again. Then the build manifest
+ * is used (as with any incremental compile) to only generate output for the sources affected.
+ * </p>
+ * <p>
+ * Editors and tools often alter a number of files in a burst, so after the first event, events are
+ * gathered until there is a quiet period. Only then is the compilation triggered.
+ * Runs until interrupted.
+ * </p>
+ */
+final class Ew extends E {
+  private static final long QUIET_PERIOD_MILLIS = 250;
+
+  private final Supplier<CompilationContext> cycleCompilationContexts;
+  private final Path projectDirectory;
+  private final Workspace workspace;
+  private int cycle = 0;
+
+  Ew(final CompilationContext compilationContext, final Supplier<CompilationContext> cycleCompilationContexts) {
+
+    super(compilationContext);
+    this.cycleCompilationContexts = cycleCompilationContexts;
+    this.projectDirectory = Path.of(compilationContext.commandLine().getSourceFileDirectory());
+    this.workspace = new Workspace(compilationContext.commandLine().getSourceFileDirectory());
+
+  }
+
+  @Override
+  protected String messagePrefix() {
+
+    return "Watch   : ";
+  }
+
+  @Override
+  protected boolean doRun() {
+
+    final var glob = compilationContext.sourceFileCache().getPackageGlob();
+
+    try (var watchService = projectDirectory.getFileSystem().newWatchService()) {
+      register(projectDirectory, watchService);
+      compileCycle(Set.of());
+
+      report("Watching " + projectDirectory);
+      while (!Thread.currentThread().isInterrupted()) {
+        final var changes = awaitChanges(watchService, glob);
+        if (!changes.isEmpty()) {
+          compileCycle(changes);
+        }
+      }
+    } catch (IOException ex) {
+      report("Unable to watch " + projectDirectory + " " + ex.getMessage());
+      return false;
+    } catch (InterruptedException _) {
+      Thread.currentThread().interrupt();
+      report("Stopped watching");
+    }
+
+    return true;
+  }
+
+  /**
+   * Waits for the first alteration, then continues to gather alterations until there is a quiet period.
+   * Only alterations to files that are part of the package are of interest.
+   */
+  private Set<Path> awaitChanges(final WatchService watchService, final Glob glob)
+      throws InterruptedException, IOException {
+
+    final var changes = new TreeSet<Path>();
+    var key = watchService.take();
+
+    while (key != null) {
+      final var directory = (Path) key.watchable();
+      for (var event : key.pollEvents()) {
+        if (event.kind() == OVERFLOW) {
+          //Events have been lost, so just treat as the project directory being altered.
+          changes.add(projectDirectory.relativize(projectDirectory));
+          continue;
+        }
+        final var path = directory.resolve((Path) event.context());
+        if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+          register(path, watchService);
+        } else if (glob.isAcceptable(projectDirectory.relativize(path))) {
+          changes.add(projectDirectory.relativize(path));
+        }
+      }
+      key.reset();
+      key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    return changes;
+  }
+
+  /**
+   * Registers the directory and all those below it, but not the 'dot' directories (i.e. .ek9 and .git).
+   */
+  private void register(final Path directory, final WatchService watchService) throws IOException {
+
+    Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+      @Override
+      public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+
+        if (!dir.equals(projectDirectory) && dir.getFileName().toString().startsWith(".")) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+        dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+
+        return FileVisitResult.CONTINUE;
+      }
+    });
+
+  }
+
+  private void compileCycle(final Set<Path> changes) {
+
+    cycle++;
+    changes.forEach(change -> log("Altered " + change));
+
+    final long before = System.nanoTime();
+    final var execution = new Eic(cycleCompilationContexts.get());
+    execution.setRetainedWorkspace(workspace);
+    final var success = execution.run();
+    final long after = System.nanoTime();
+
+    final var format = NumberFormat.getInstance();
+    format.setGroupingUsed(true);
+    report(String.format("Cycle %d; %d alteration(s); duration %s ms; success %b",
+        cycle, changes.size(), format.format((after - before) / 1000000.0), success));
+
+  }
+}
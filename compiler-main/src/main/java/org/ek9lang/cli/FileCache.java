@@ -58,10 +58,31 @@ final class FileCache {
   /**
    * true if the target executable exists and is newer than any of the
    * files that would make up this artefact. i.e. compilable ek9 files or other resources.
+   * If there is a build manifest, the target is not current if a source has been added or removed since it was built.
    */
   boolean isTargetExecutableArtefactCurrent() {
 
-    return isTargetExecutableArtefactPresent() && getIncrementalCompilableProjectFiles().isEmpty();
+    if (!isTargetExecutableArtefactPresent()) {
+      return false;
+    }
+
+    final var buildManifest = loadBuildManifest();
+    if (!buildManifest.isEmpty() && buildManifest.isSourceSetAltered(getAllCompilableProjectFiles())) {
+      return false;
+    }
+
+    return getIncrementalCompilableProjectFiles().isEmpty();
+  }
+
+  /**
+   * true if the build manifest records sources that are no longer part of the build.
+   * The target executable (and the output it was made from) then holds constructs that no longer exist.
+   */
+  boolean isAnySourceRemoved() {
+
+    final var buildManifest = loadBuildManifest();
+
+    return !buildManifest.isEmpty() && buildManifest.isAnySourceRemoved(getAllCompilableProjectFiles());
   }
 
   /**
@@ -77,11 +98,12 @@ final class FileCache {
   }
 
   /**
-   * Removes any final target executable that has been generated.
+   * Removes any final target executable that has been generated, and any class data sharing archive for it.
    */
   void deleteTargetExecutableArtefact() {
 
     commandLine.getFileHandling().deleteFileIfExists(getTargetExecutableArtefact());
+    commandLine.getFileHandling().deleteFileIfExists(ClassDataSharing.getArchiveFor(getTargetExecutableArtefact()));
   }
 
   /**
@@ -140,14 +162,19 @@ final class FileCache {
   }
 
   /**
-   * Supplies a list of all project files that have been modified after the
-   * target executable has been created. i.e. what file has been modified that should
-   * trigger a new build.
+   * Supplies a list of all project files that need to be compiled again to bring the target executable
+   * up to date. If there is a build manifest from when the target was created, this is those sources
+   * with altered content and all those that depend on them. Without a manifest, it is any file modified
+   * after the target executable was created.
    */
   List<File> getIncrementalCompilableProjectFiles() {
 
     final var targetArtefact = getTargetExecutableArtefact();
     if (targetArtefact.exists()) {
+      final var buildManifest = loadBuildManifest();
+      if (!buildManifest.isEmpty()) {
+        return buildManifest.getFilesToRecompile(getAllCompilableProjectFiles());
+      }
       return filterListBy(getAllCompilableProjectFiles(),
           file -> file.lastModified() >= targetArtefact.lastModified());
     }
@@ -155,6 +182,24 @@ final class FileCache {
     return getAllCompilableProjectFiles();
   }
 
+  /**
+   * The manifest of what was used to build the target executable, this will be empty if there is no manifest.
+   */
+  BuildManifest loadBuildManifest() {
+
+    return BuildManifest.load(getBuildManifestFile(), new File(commandLine.getSourceFileDirectory()));
+  }
+
+  /**
+   * Might not actually exist, but here is a handle to the build manifest file in the .ek9 directory.
+   */
+  File getBuildManifestFile() {
+
+    final var dotEk9Directory = commandLine.getFileHandling().getDotEk9Directory(commandLine.getSourceFileDirectory());
+
+    return new File(dotEk9Directory, BuildManifest.MANIFEST_FILE_NAME);
+  }
+
   /**
    * Supplies a list of all files that are compilable by the ek9 compiler.
    * This also applies any includes and exclude directives from any 'package' construct.
@@ -200,10 +245,23 @@ final class FileCache {
    */
   List<File> getPackageFiles() {
 
-    if (cachedFileList != null) {
-      return cachedFileList;
+    if (cachedFileList == null) {
+      cachedFileList = commandLine.getOsSupport()
+          .getFilesRecursivelyFrom(new File(commandLine.getSourceFileDirectory()), getPackageGlob())
+          .stream()
+          .sorted(Comparator.comparingLong(File::lastModified).reversed())
+          .toList();
     }
 
+    return cachedFileList;
+  }
+
+  /**
+   * The includes and excludes that determine which files are part of the package,
+   * these are relative to the directory where the source file is located.
+   */
+  Glob getPackageGlob() {
+
     //Force reprocessing, so we parse actual source to get includes and excludes.
     final List<String> includes = new ArrayList<>(commandLine.getIncludeFiles());
     final List<String> excludes = new ArrayList<>(commandLine.getExcludeFiles());
@@ -224,26 +282,7 @@ final class FileCache {
       excludes.addAll(getStandardExcludes());
     }
 
-    //This will update cachedFileList.
-    return getMatchingFiles(includes, excludes);
-  }
-
-  /**
-   * Gets the list of files from the directory where the source file is located recursively.
-   * But applies any includes and exclude 'Glob' specifications.
-   */
-  private List<File> getMatchingFiles(final List<String> includeFiles, final List<String> excludeFiles) {
-
-    if (cachedFileList == null) {
-      cachedFileList = commandLine.getOsSupport()
-          .getFilesRecursivelyFrom(new File(commandLine.getSourceFileDirectory()),
-              new Glob(includeFiles, excludeFiles))
-          .stream()
-          .sorted(Comparator.comparingLong(File::lastModified).reversed())
-          .toList();
-    }
-
-    return cachedFileList;
+    return new Glob(includes, excludes);
   }
 
   /**
@@ -1,11 +1,18 @@
 package org.ek9lang.cli;
 
 import java.io.File;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import org.ek9lang.compiler.common.Ek9SourceVisitor;
 import org.ek9lang.compiler.common.JustParser;
+import org.ek9lang.compiler.common.PackageDetails;
 import org.ek9lang.compiler.common.Reporter;
 import org.ek9lang.core.AssertValue;
+import org.ek9lang.core.Digest;
 
 /**
  * Once the EK9 'Edp' dependency module has determined that a packaged module now needs to be
@@ -57,15 +64,25 @@ import org.ek9lang.core.AssertValue;
  * <p>
  * <b>Anyway that's the general idea.</b>
  * </p>
+ * <p>
+ * Once resolved, the details of the package are cached against the digest of its zip (see
+ * {@link ResolvedPackageCache}). So the source of a dependency is only parsed the first time
+ * any project uses it. If a '.sha256' file accompanies the zip, the digest must match it.
+ * </p>
  */
 final class PackageResolver extends Reporter {
 
+  private static final Executor VIRTUAL_THREADS = runnable -> Thread.ofVirtual().name("resolve").start(runnable);
+
+  private final Map<String, CompletableFuture<Optional<PackageDetails>>> resolutions = new ConcurrentHashMap<>();
   private final CommandLine commandLine;
+  private final ResolvedPackageCache resolvedPackageCache;
 
   PackageResolver(final CommandLine commandLine, final boolean muteReportedErrors) {
 
-    super(commandLine.options().isVerbose(), muteReportedErrors);
+    super(commandLine.options().isVerbose(), muteReportedErrors, commandLine.getErr());
     this.commandLine = commandLine;
+    this.resolvedPackageCache = new ResolvedPackageCache(commandLine.getFileHandling());
 
   }
 
@@ -76,11 +93,44 @@ final class PackageResolver extends Reporter {
   }
 
   /**
-   * Provides a source visitor for a packages dependency, so it it has
+   * Provides the package details for a packages dependency, so it it has
    * already been resolved and unpacked, it will be returned.
    * But if it needs to be downloaded then it will be pulled down, unpacked and returned.
    */
-  Optional<Ek9SourceVisitor> resolve(final String dependencyVector) {
+  Optional<PackageDetails> resolve(final String dependencyVector) {
+
+    try {
+      return resolveAsync(dependencyVector).join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Start the resolution of the dependency (if not already started).
+   */
+  CompletableFuture<Optional<PackageDetails>> resolveAsync(final String dependencyVector) {
+
+    return resolutions.computeIfAbsent(dependencyVector,
+        vector -> CompletableFuture.supplyAsync(() -> resolveDependenciesOf(doResolve(vector)), VIRTUAL_THREADS));
+  }
+
+  @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+  private Optional<PackageDetails> resolveDependenciesOf(final Optional<PackageDetails> details) {
+
+    details.ifPresent(packageDetails -> {
+      final var fileHandling = commandLine.getFileHandling();
+      packageDetails.deps().forEach((key, value) -> resolveAsync(fileHandling.makeDependencyVector(key, value)));
+      packageDetails.devDeps().forEach((key, value) -> resolveAsync(fileHandling.makeDependencyVector(key, value)));
+    });
+
+    return details;
+  }
+
+  private Optional<PackageDetails> doResolve(final String dependencyVector) {
 
     log("Checking '" + dependencyVector + "'");
 
@@ -88,27 +138,62 @@ final class PackageResolver extends Reporter {
     final var homeEk9Lib = commandLine.getFileHandling().getUsersHomeEk9LibDirectory();
     final var unpackedDir = new File(homeEk9Lib, dependencyVector);
     final var zipFile = new File(homeEk9Lib, zipFileName);
+    final var alreadyUnpacked = commandLine.getOsSupport().isDirectoryReadable(unpackedDir);
 
-    //See if it is already unpackaged and available
-    if (commandLine.getOsSupport().isDirectoryReadable(unpackedDir)) {
-      log("Already unpacked '" + dependencyVector + "'");
-      return Optional.ofNullable(processPackageProperties(unpackedDir));
-    }
-
-    if (!commandLine.getOsSupport().isFileReadable(zipFile) && !downloadDependency(dependencyVector)) {
+    if (!alreadyUnpacked && !commandLine.getOsSupport().isFileReadable(zipFile)
+        && !downloadDependency(dependencyVector)) {
       report("'" + dependencyVector + "' cannot be resolved!");
       return Optional.empty();
     }
 
-    //So it should now have been downloaded we can un-package.
+    //The zip may have been removed once unpacked, in which case the details cannot be cached.
+    Optional<String> packageDigest = Optional.empty();
     if (commandLine.getOsSupport().isFileReadable(zipFile)) {
+      packageDigest = getVerifiedDigest(zipFile);
+      if (packageDigest.isEmpty()) {
+        return Optional.empty();
+      }
+      final var cached = packageDigest.flatMap(resolvedPackageCache::load);
+      if (cached.isPresent()) {
+        log("Using cached details for '" + dependencyVector + "'");
+        return cached;
+      }
+    }
+
+    if (alreadyUnpacked) {
+      log("Already unpacked '" + dependencyVector + "'");
+    } else {
       log("Unpacking '" + zipFile + "'");
-      if (unZip(zipFile, unpackedDir)) {
-        return Optional.ofNullable(processPackageProperties(unpackedDir));
+      if (!unZip(zipFile, unpackedDir)) {
+        return Optional.empty();
       }
     }
 
-    return Optional.empty();
+    final var details = Optional.ofNullable(processPackageProperties(unpackedDir))
+        .flatMap(Ek9SourceVisitor::getPackageDetails);
+
+    if (packageDigest.isPresent() && details.isPresent() && details.get().moduleName() != null) {
+      resolvedPackageCache.save(packageDigest.get(), details.get());
+    }
+
+    return details;
+  }
+
+  /**
+   * Calculate the digest of the zip, if there is a checksum file for the zip it must match.
+   */
+  private Optional<String> getVerifiedDigest(final File zipFile) {
+
+    final var checkSum = Digest.digest(zipFile);
+    final var checkSumFile = new File(zipFile.getPath() + ".sha256");
+
+    if (commandLine.getOsSupport().isFileReadable(checkSumFile)
+        && !new Digest.CheckSum(checkSumFile).equals(checkSum)) {
+      report("Digest of '" + zipFile + "' does not match '" + checkSumFile + "'");
+      return Optional.empty();
+    }
+
+    return Optional.of(checkSum.toString());
   }
 
   boolean downloadDependency(final String dependencyVector) {
@@ -0,0 +1,135 @@
+package org.ek9lang.cli;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import org.ek9lang.compiler.common.PackageDetails;
+import org.ek9lang.core.AssertValue;
+import org.ek9lang.core.FileHandling;
+
+/**
+ * A content addressed cache of the package details of resolved dependencies.
+ * <p>
+ * The key is the SHA-256 digest of the packaged module zip, so the details cannot be stale, if the
+ * zip is altered then it will have a different digest. This means the source file of a dependency
+ * only has to be parsed once, after that any project using the same package just loads the
+ * details from {@code ~/.ek9/cache/packages/<digest>.properties}.
+ * </p>
+ */
+final class ResolvedPackageCache {
+  private static final String DEPS = "deps.";
+  private static final String DEV_DEPS = "devDeps.";
+  private static final String EXCLUDE_DEPS = "excludeDeps.";
+
+  private final FileHandling fileHandling;
+
+  ResolvedPackageCache(final FileHandling fileHandling) {
+
+    this.fileHandling = fileHandling;
+
+  }
+
+  /**
+   * Load the package details previously saved for the package with this digest (if present).
+   */
+  Optional<PackageDetails> load(final String packageDigest) {
+
+    final var properties = propertiesFor(packageDigest);
+    if (!properties.exists()) {
+      return Optional.empty();
+    }
+
+    return Optional.of(fromProperties(properties.loadProperties()));
+  }
+
+  /**
+   * Save the package details for the package with this digest.
+   */
+  void save(final String packageDigest, final PackageDetails details) {
+
+    AssertValue.checkNotNull("PackageDetails cannot be null", details);
+
+    fileHandling.makeDirectoryIfNotExists(fileHandling.getSharedPackageCacheDirectory());
+    final var properties = propertiesFor(packageDigest);
+    properties.storeProperties(toProperties(details, properties));
+
+  }
+
+  private Ek9ProjectProperties propertiesFor(final String packageDigest) {
+
+    AssertValue.checkNotEmpty("Package digest cannot be empty", packageDigest);
+
+    return new Ek9ProjectProperties(new File(fileHandling.getSharedPackageCacheDirectory(),
+        packageDigest + ".properties"));
+  }
+
+  private Properties toProperties(final PackageDetails details, final Ek9ProjectProperties properties) {
+
+    final var rtn = new Properties();
+    rtn.setProperty("moduleName", details.moduleName());
+    rtn.setProperty("packagePresent", String.valueOf(details.packagePresent()));
+    rtn.setProperty("publicAccess", String.valueOf(details.publicAccess()));
+    rtn.setProperty("version", details.version());
+    rtn.setProperty("versionNumberOnLine", String.valueOf(details.versionNumberOnLine()));
+    rtn.setProperty("description", details.description());
+    rtn.setProperty("tags", properties.prepareListForStorage(details.tags()));
+    rtn.setProperty("license", details.license());
+    rtn.setProperty("applyStandardIncludes", String.valueOf(details.applyStandardIncludes()));
+    rtn.setProperty("includeFiles", properties.prepareListForStorage(details.includeFiles()));
+    rtn.setProperty("applyStandardExcludes", String.valueOf(details.applyStandardExcludes()));
+    rtn.setProperty("excludeFiles", properties.prepareListForStorage(details.excludeFiles()));
+    rtn.setProperty("programs", properties.prepareListForStorage(details.programs()));
+    rtn.setProperty("dependencyFingerPrint", details.dependencyFingerPrint());
+
+    details.deps().forEach((key, value) -> rtn.setProperty(DEPS + key, value));
+    details.devDeps().forEach((key, value) -> rtn.setProperty(DEV_DEPS + key, value));
+    details.excludeDeps().forEach((key, value) -> rtn.setProperty(EXCLUDE_DEPS + key, value));
+
+    return rtn;
+  }
+
+  private PackageDetails fromProperties(final Properties properties) {
+
+    return new PackageDetails(properties.getProperty("moduleName"),
+        Boolean.parseBoolean(properties.getProperty("packagePresent")),
+        Boolean.parseBoolean(properties.getProperty("publicAccess")),
+        properties.getProperty("version"),
+        Integer.parseInt(properties.getProperty("versionNumberOnLine", "0")),
+        properties.getProperty("description", ""),
+        getList(properties, "tags"),
+        properties.getProperty("license", ""),
+        Boolean.parseBoolean(properties.getProperty("applyStandardIncludes")),
+        getList(properties, "includeFiles"),
+        Boolean.parseBoolean(properties.getProperty("applyStandardExcludes")),
+        getMap(properties, DEPS),
+        getMap(properties, EXCLUDE_DEPS),
+        getMap(properties, DEV_DEPS),
+        getList(properties, "excludeFiles"),
+        getList(properties, "programs"),
+        properties.getProperty("dependencyFingerPrint", ""));
+  }
+
+  private List<String> getList(final Properties properties, final String key) {
+
+    final var value = properties.getProperty(key, "");
+    if (value.isEmpty()) {
+      return List.of();
+    }
+
+    return Arrays.asList(value.split(","));
+  }
+
+  private Map<String, String> getMap(final Properties properties, final String prefix) {
+
+    final var rtn = new HashMap<String, String>();
+    properties.stringPropertyNames().stream()
+        .filter(name -> name.startsWith(prefix))
+        .forEach(name -> rtn.put(name.substring(prefix.length()), properties.getProperty(name)));
+
+    return rtn;
+  }
+}
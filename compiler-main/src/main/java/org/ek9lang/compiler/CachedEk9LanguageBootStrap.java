@@ -0,0 +1,174 @@
+package org.ek9lang.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.ek9.lang.Any;
+import org.ek9introspection.Ek9ExternExtractor;
+import org.ek9lang.compiler.common.CompilationPhaseListener;
+import org.ek9lang.compiler.common.CompilerReporter;
+import org.ek9lang.core.AssertValue;
+import org.ek9lang.core.CodeIdentity;
+import org.ek9lang.core.CompilerException;
+import org.ek9lang.core.Digest;
+import org.ek9lang.core.ExceptionConverter;
+import org.ek9lang.core.Processor;
+import org.ek9lang.core.SharedThreadContext;
+
+/**
+ * Provides the compilable program with the ek9 built in symbols, but holds it in a cache directory
+ * once it has been bootstrapped (see {@link Ek9LanguageBootStrap}).
+ * <p>
+ * The built-in modules are large and stable, so taking them through all the front end phases on every
+ * compilation is wasteful. The cached form is keyed on the compiler version and the identity (see
+ * {@link CodeIdentity}) of the compiler, the introspection and the built-in classes. So it is only ever reused
+ * when it would be identical, without having to introspect the built-in classes to find out. Only if any of those
+ * cannot be identified is the checksum of the introspected built-in declarations used instead.
+ * If the cached form cannot be loaded (i.e. it was produced by an incompatible compiler), it is just bootstrapped
+ * and cached again.
+ * </p>
+ * <p>
+ * The cache directory is within the project, so it could have been written to by anything. Only the classes that
+ * make up a compilable program are allowed to be de-serialized from it.
+ * </p>
+ * <p>
+ * Only the built-in modules are cached. The symbols of user modules reference those in other modules,
+ * so they cannot be cached on their own in this form.
+ * </p>
+ */
+public class CachedEk9LanguageBootStrap implements Supplier<SharedThreadContext<CompilableProgram>> {
+  private static final String CACHE_FILE_PREFIX = "ek9-builtin-";
+  private static final String CACHE_FILE_SUFFIX = ".bin";
+  private static final ObjectInputFilter ALLOWED_CLASSES = ObjectInputFilter.Config.createFilter(
+      "org.ek9lang.**;java.lang.*;java.lang.invoke.SerializedLambda;java.util.*;java.util.concurrent.**;!*");
+
+  private final File cacheDirectory;
+  private final String compilerVersion;
+  private final Ek9BuiltinIntrospectionSupplier sourceSupplier;
+  private final CompilationPhaseListener listener;
+  private final CompilerReporter reporter;
+  private Digest.CheckSum key;
+
+  /**
+   * Create a cached language bootstrap, that uses the cache directory supplied.
+   */
+  public CachedEk9LanguageBootStrap(final File cacheDirectory,
+                                    final String compilerVersion,
+                                    final Ek9BuiltinIntrospectionSupplier sourceSupplier,
+                                    final CompilationPhaseListener listener,
+                                    final CompilerReporter reporter) {
+
+    AssertValue.checkNotNull("Cache directory cannot be null", cacheDirectory);
+    AssertValue.checkNotEmpty("Compiler version cannot be empty", compilerVersion);
+    AssertValue.checkNotNull("Source supplier cannot be null", sourceSupplier);
+
+    this.cacheDirectory = cacheDirectory;
+    this.compilerVersion = compilerVersion;
+    this.sourceSupplier = sourceSupplier;
+    this.listener = listener;
+    this.reporter = reporter;
+
+  }
+
+  @Override
+  public SharedThreadContext<CompilableProgram> get() {
+
+    final var cacheFile = getCacheFile();
+    final var cached = load(cacheFile);
+    if (cached.isPresent()) {
+      reporter.log("Using cached built-in symbols " + cacheFile.getName());
+      return cached.get();
+    }
+
+    final var program = new Ek9LanguageBootStrap(sourceSupplier, listener, reporter).get();
+    save(program, cacheFile);
+
+    return program;
+  }
+
+  /**
+   * The file the cached built-in symbols are held in, this may not exist.
+   */
+  public File getCacheFile() {
+
+    return new File(cacheDirectory, CACHE_FILE_PREFIX + getKey() + CACHE_FILE_SUFFIX);
+  }
+
+  private synchronized Digest.CheckSum getKey() {
+
+    if (key == null) {
+      final var codeIdentity = new CodeIdentity();
+      final var identities = Stream.of(CachedEk9LanguageBootStrap.class, Ek9ExternExtractor.class, Any.class)
+          .map(codeIdentity)
+          .toList();
+
+      final var builtIn = identities.stream().allMatch(Optional::isPresent)
+          ? identities.stream().map(identity -> identity.get().toString()).collect(Collectors.joining(":"))
+          : sourceSupplier.getCheckSum().toString();
+      key = Digest.digest(compilerVersion + ":" + builtIn);
+    }
+
+    return key;
+  }
+
+  private Optional<SharedThreadContext<CompilableProgram>> load(final File cacheFile) {
+
+    if (!cacheFile.exists()) {
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.of(new DeSerializer(ALLOWED_CLASSES).apply(Files.readAllBytes(cacheFile.toPath())));
+    } catch (Exception _) {
+      //Not a failure, just means the cache cannot be used, so it is replaced.
+      reporter.log("Unable to use cached built-in symbols " + cacheFile.getName());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Written to a temporary file and then moved, so that concurrent compilations never see a partial cache file.
+   * Any cache files for other versions are removed.
+   */
+  private void save(final SharedThreadContext<CompilableProgram> program, final File cacheFile) {
+
+    final Processor<Boolean> processor = () -> {
+      Files.createDirectories(cacheDirectory.toPath());
+      final var temporaryFile = Files.createTempFile(cacheDirectory.toPath(), CACHE_FILE_PREFIX, ".tmp");
+      Files.write(temporaryFile, new Serializer().apply(program));
+      Files.move(temporaryFile, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      removeStaleCacheFiles(cacheFile);
+      return true;
+    };
+
+    try {
+      new ExceptionConverter<Boolean>().apply(processor);
+    } catch (CompilerException ex) {
+      //The compilation can still continue, it is just that the cache will not be available next time.
+      reporter.log("Unable to cache built-in symbols " + ex.getMessage());
+    }
+
+  }
+
+  private void removeStaleCacheFiles(final File currentCacheFile) throws IOException {
+
+    final var cacheFiles = cacheDirectory.listFiles((_, name) ->
+        name.startsWith(CACHE_FILE_PREFIX) && name.endsWith(CACHE_FILE_SUFFIX));
+
+    if (cacheFiles != null) {
+      for (var cacheFile : cacheFiles) {
+        if (!cacheFile.getName().equals(currentCacheFile.getName())) {
+          Files.deleteIfExists(cacheFile.toPath());
+        }
+      }
+    }
+
+  }
+}
@@ -0,0 +1,39 @@
+package org.ek9lang.compiler;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Enables a compilation that is in progress to be abandoned, from any thread.
+ * <p>
+ * The compiler checks this between each phase and the phases check it for each source they process
+ * (including within their parallel loops). So a compilation stops soon after being cancelled,
+ * rather than running on to the end. This is mainly of use for the language server, where a newer
+ * edit makes the current compilation irrelevant.
+ * </p>
+ */
+public final class CancellationToken {
+
+  private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+  public void cancel() {
+
+    cancelled.set(true);
+
+  }
+
+  public boolean isCancelled() {
+
+    return cancelled.get();
+  }
+
+  /**
+   * Used within phases to stop processing, if cancelled a CompilationCancelledException is thrown.
+   */
+  public void checkNotCancelled() {
+
+    if (isCancelled()) {
+      throw new CompilationCancelledException();
+    }
+
+  }
+}
@@ -1,17 +1,23 @@
 package org.ek9lang.compiler;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import org.antlr.v4.runtime.BufferedTokenStream;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.ek9lang.antlr.EK9Parser;
 import org.ek9lang.compiler.common.ErrorListener;
 import org.ek9lang.compiler.tokenizer.Ek9Token;
@@ -20,6 +26,10 @@ import org.ek9lang.compiler.tokenizer.ParserCreator;
 import org.ek9lang.compiler.tokenizer.ParserSpec;
 import org.ek9lang.compiler.tokenizer.TokenConsumptionListener;
 import org.ek9lang.compiler.tokenizer.TokenResult;
+import org.ek9lang.compiler.tokenizer.TopLevelBlockParallelParser;
+import org.ek9lang.compiler.tokenizer.TopLevelBlockSplicer;
+import org.ek9lang.compiler.tokenizer.TopLevelBlockSplitter;
+import org.ek9lang.compiler.tokenizer.TopLevelBlocks;
 import org.ek9lang.core.AssertValue;
 import org.ek9lang.core.CompilerException;
 import org.ek9lang.core.Digest;
@@ -70,9 +80,63 @@ public final class CompilableSource implements Source, Serializable, TokenConsum
   private Map<Integer, ArrayList<IToken>> tokens = null;
 
   /**
-   * Set once parsed.
+   * Set once parsed. When only some blocks are reparsed a new compilation unit is built and then
+   * replaces this one, the previous compilation unit is never altered.
    */
-  private transient EK9Parser.CompilationUnitContext compilationUnitContext = null;
+  private transient volatile EK9Parser.CompilationUnitContext compilationUnitContext = null;
+
+  /**
+   * Set when the parse tree has been released in a memory-lean build.
+   * The extern nature of the module is captured at that point, so later phases can still access it.
+   */
+  private transient boolean parseTreeReleased = false;
+
+  private transient boolean extern = false;
+
+  /**
+   * The content to be parsed, only held between prepareToParse and parse.
+   */
+  private transient byte[] contentToParse = null;
+
+  /**
+   * The top level blocks of the last successful parse. When the source is altered these are used
+   * to determine which blocks need to be reparsed, rather than reparsing the whole source.
+   */
+  private transient TopLevelBlocks topLevelBlocks = null;
+
+  /**
+   * The content of the last successful parse, when it was too small to be split into top level blocks.
+   * It is only split if the source is altered and reparsed, to find which blocks need to be reparsed.
+   */
+  private transient byte[] parsedContent = null;
+
+  /**
+   * The checksum of the content of the last successful parse, so it need not be parsed again if unaltered.
+   */
+  private transient Digest.CheckSum parsedContentCheckSum = null;
+
+  private transient boolean incrementallyParsed = false;
+
+  /**
+   * The nodes of the previous compilation unit replaced by the last incremental parse, held until taken.
+   */
+  private transient List<ParseTree> replacedNodes = List.of();
+
+  /**
+   * Set when the content has been supplied (or reverted to the file), so it must be parsed again.
+   */
+  private transient boolean contentAltered = false;
+
+  /**
+   * The module defined and the symbols referenced, retained even when the parse tree is released.
+   */
+  private transient SourceDependencies dependencies = null;
+
+  /**
+   * Set when the output previously generated for this source can be reused, i.e. it is unaltered and
+   * nothing it depends on has been altered.
+   */
+  private transient boolean outputReusable = false;
 
   /**
    * Create compilable source for a specific filename.
@@ -146,6 +210,11 @@ public final class CompilableSource implements Source, Serializable, TokenConsum
    */
   public EK9Parser.CompilationUnitContext getCompilationUnitContext() {
 
+    if (parseTreeReleased) {
+      throw new CompilerException(
+          "Parse tree has been released, need to reparse before accessing compilation unit for [" + filename + "]");
+    }
+
     if (hasNotBeenSuccessfullyParsed()) {
       throw new CompilerException(
           "Need to call prepareToParse before accessing compilation unit for [" + filename + "]");
@@ -163,6 +232,9 @@ public final class CompilableSource implements Source, Serializable, TokenConsum
    * Marked as external module. i.e. Compiler will not generate code for this.
    */
   public boolean isExtern() {
+    if (parseTreeReleased) {
+      return extern;
+    }
     return getCompilationUnitContext().moduleDeclaration().EXTERN() != null;
   }
 
@@ -190,6 +262,39 @@ public final class CompilableSource implements Source, Serializable, TokenConsum
     return lib;
   }
 
+  /**
+   * Provides the module this source defines and the qualified symbols it references.
+   */
+  public SourceDependencies getDependencies() {
+
+    if (dependencies == null) {
+      dependencies = new SourceDependenciesCollector().apply(getCompilationUnitContext());
+    }
+
+    return dependencies;
+  }
+
+  public boolean isDependenciesAvailable() {
+
+    return dependencies != null || compilationUnitContext != null;
+  }
+
+  public boolean isOutputReusable() {
+
+    return outputReusable;
+  }
+
+  public void setOutputReusable(final boolean outputReusable) {
+
+    this.outputReusable = outputReusable;
+
+  }
+
+  public Digest.CheckSum getCheckSum() {
+
+    return checkSum;
+  }
+
   public String getPackageModuleName() {
 
     return packageModuleName;
@@ -212,7 +317,21 @@ public final class CompilableSource implements Source, Serializable, TokenConsum
    */
   public boolean isModified() {
 
-    return lastModified != calculateLastModified() || !checkSum.equals(calculateCheckSum());
+    return contentAltered || lastModified != calculateLastModified() || !checkSum.equals(calculateCheckSum());
+  }
+
+  /**
+   * Supply the content to be compiled in place of the file, i.e. the unsaved content of an editor buffer.
+   * Passing null reverts to reading the file.
+   * The last parse tree and its top level blocks are retained, so the next parse need only reparse
+   * the blocks that have been altered.
+   */
+  public void setContent(final byte[] content) {
+
+    inputStream = content == null ? null : new ByteArrayInputStream(content);
+    contentAltered = true;
+    updateFileDetails();
+
   }
 
   /**
@@ -330,7 +449,11 @@ public final class CompilableSource implements Source, Serializable, TokenConsum
     AssertValue.checkNotNull("InputStream cannot be null", is);
     initialiseErrorListener();
 
-    final var spec = new ParserSpec(this::getGeneralIdentifier, is, errorListener, this);
+    final Processor<byte[]> reader = is::readAllBytes;
+    final var content = new ExceptionConverter<byte[]>().apply(reader);
+    contentToParse = content;
+
+    final var spec = new ParserSpec(this::getGeneralIdentifier, new ByteArrayInputStream(content), errorListener, this);
     parser = new ParserCreator().apply(spec);
 
     return this;
@@ -345,18 +468,154 @@ public final class CompilableSource implements Source, Serializable, TokenConsum
 
   /**
    * Actually parse the source code.
+   * If this source has been parsed before and only some of its top level blocks have been altered,
+   * then only those blocks are reparsed and spliced into the existing compilation unit.
+   * Large sources are split at their top level blocks and parsed in parallel.
+   * Small sources are only split when reparsed, so a first parse does not pay for splitting and digesting blocks.
+   * If the content is just the same as that last parsed, then the existing compilation unit is retained as it is.
    */
   public EK9Parser.CompilationUnitContext parse() {
 
     if (parser != null) {
-      resetTokens();
-      compilationUnitContext = parser.compilationUnit();
+      final var contentCheckSum = Digest.digest(contentToParse);
+      if (hasPreviousParse() && contentCheckSum.equals(parsedContentCheckSum)) {
+        replacedNodes = List.of();
+        incrementallyParsed = true;
+      } else {
+        parseAlteredContent(contentCheckSum);
+      }
+
+      parseTreeReleased = false;
+      contentAltered = false;
+      dependencies = null;
+      contentToParse = null;
+
       return compilationUnitContext;
     }
 
     throw new CompilerException("Need to call prepareToParse before accessing compilation unit");
   }
 
+  private void parseAlteredContent(final Digest.CheckSum contentCheckSum) {
+
+    final var updatedBlocks = isWorthSplitting()
+        ? new TopLevelBlockSplitter().apply(new String(contentToParse, StandardCharsets.UTF_8))
+        : Optional.<TopLevelBlocks>empty();
+    final var reparsed = updatedBlocks.flatMap(this::reparseAlteredBlocks);
+    replacedNodes = reparsed.map(TopLevelBlockSplicer.Splice::replacedNodes).orElse(List.of());
+
+    final var parsedByBlocks = reparsed.map(TopLevelBlockSplicer.Splice::compilationUnit).or(() -> updatedBlocks
+        .filter(TopLevelBlockParallelParser::isWorthwhile)
+        .flatMap(blocks -> new TopLevelBlockParallelParser(this::getGeneralIdentifier).apply(blocks)));
+
+    incrementallyParsed = reparsed.isPresent();
+    resetTokens();
+    if (parsedByBlocks.isPresent()) {
+      //The whole source is still lexed, so all the tokens (including hidden ones) are recorded as for a full parse.
+      ((BufferedTokenStream) parser.getTokenStream()).fill();
+      compilationUnitContext = parsedByBlocks.get();
+    } else {
+      compilationUnitContext = parser.compilationUnit();
+    }
+
+    //Only retain the blocks (or the content to split later) of a clean parse, otherwise the next must be a full one.
+    final var errorFree = errorListener.isErrorFree();
+    topLevelBlocks = errorFree ? updatedBlocks.orElse(null) : null;
+    parsedContent = errorFree && topLevelBlocks == null ? contentToParse : null;
+    parsedContentCheckSum = errorFree ? contentCheckSum : null;
+
+  }
+
+  /**
+   * Only split into top level blocks if large enough to parse in parallel, or if there is a previous
+   * parse that the altered blocks could be spliced into.
+   */
+  private boolean isWorthSplitting() {
+
+    return hasPreviousParse() || TopLevelBlockParallelParser.isWorthSplitting(contentToParse);
+  }
+
+  private boolean hasPreviousParse() {
+
+    return compilationUnitContext != null && (topLevelBlocks != null || parsedContent != null);
+  }
+
+  private Optional<TopLevelBlockSplicer.Splice> reparseAlteredBlocks(final TopLevelBlocks updatedBlocks) {
+
+    if (!hasPreviousParse()) {
+      return Optional.empty();
+    }
+
+    final var previousBlocks = topLevelBlocks != null
+        ? Optional.of(topLevelBlocks)
+        : new TopLevelBlockSplitter().apply(new String(parsedContent, StandardCharsets.UTF_8));
+    final var splicer = new TopLevelBlockSplicer(this::getGeneralIdentifier);
+
+    return previousBlocks.flatMap(blocks -> splicer.apply(compilationUnitContext, blocks, updatedBlocks));
+  }
+
+  /**
+   * Was the last parse of this source an incremental one, i.e. only the altered top level blocks reparsed.
+   */
+  public boolean isIncrementallyParsed() {
+
+    return incrementallyParsed;
+  }
+
+  /**
+   * Provide the nodes of the previous compilation unit that were replaced by the last incremental parse.
+   * These are only provided once, so that this source does not hold on to them.
+   */
+  public List<ParseTree> takeReplacedNodes() {
+
+    final var rtn = replacedNodes;
+    replacedNodes = List.of();
+
+    return rtn;
+  }
+
+  /**
+   * Releases the parser, the parse tree and the tokens held for this source.
+   * Used in memory-lean builds, once the IR has been generated and verified there is no need for the ANTLR tree.
+   * Only the extern nature of the module is retained. Any subsequent compilation will require a reparse.
+   *
+   * @return The number of tokens that were released.
+   */
+  public int releaseParseTree() {
+
+    if (compilationUnitContext == null) {
+      return 0;
+    }
+
+    extern = isExtern();
+    dependencies = getDependencies();
+    final var numTokensReleased = getNumberOfTokens();
+
+    parser = null;
+    compilationUnitContext = null;
+    topLevelBlocks = null;
+    parsedContent = null;
+    parsedContentCheckSum = null;
+    replacedNodes = List.of();
+    parseTreeReleased = true;
+    resetTokens();
+
+    return numTokensReleased;
+  }
+
+  /**
+   * The number of tokens currently held for this source, zero if not parsed or released.
+   */
+  public int getNumberOfTokens() {
+
+    return tokens == null ? 0 : tokens.values().stream().mapToInt(ArrayList::size).sum();
+  }
+
+  public boolean isParseTreeReleased() {
+
+    return parseTreeReleased;
+  }
+
   private void initialiseErrorListener() {
 
     setErrorListener(new ErrorListener(getGeneralIdentifier()));
@@ -381,6 +640,10 @@ public final class CompilableSource implements Source, Serializable, TokenConsum
 
     //In the case where an input stream was provided.
     if (inputStream != null) {
+      //In memory content (i.e. an unsaved editor buffer) can be read again, if it failed to parse for example.
+      if (inputStream instanceof ByteArrayInputStream bytes) {
+        bytes.reset();
+      }
       return inputStream;
     }
 
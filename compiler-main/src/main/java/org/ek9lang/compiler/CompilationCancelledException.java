@@ -0,0 +1,16 @@
+package org.ek9lang.compiler;
+
+import org.ek9lang.core.CompilerException;
+
+/**
+ * Thrown within a compilation phase when the compilation has been cancelled.
+ * The Ek9Compiler catches this and treats the compilation as unsuccessful.
+ */
+public class CompilationCancelledException extends CompilerException {
+
+  public CompilationCancelledException() {
+
+    super("Compilation cancelled");
+
+  }
+}
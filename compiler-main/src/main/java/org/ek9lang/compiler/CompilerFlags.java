@@ -30,6 +30,16 @@ public class CompilerFlags {
 
   private boolean checkCompilationOnly = false;
 
+  /**
+   * For large builds, release the parse trees and transient data once the IR has been generated and verified.
+   */
+  private boolean releaseParseTrees = false;
+
+  /**
+   * Record where each symbol is used, so the language server can provide references, highlights and rename.
+   */
+  private boolean recordSymbolUses = false;
+
   /**
    * Does the developer want suggestions for compiler errors or not.
    */
@@ -49,6 +59,11 @@ public class CompilerFlags {
   private TargetArchitecture targetArchitecture = TargetArchitecture.JVM;
   private OptimizationLevel optimizationLevel = OptimizationLevel.O2;
 
+  /**
+   * Enables the compilation to be cancelled part way through (i.e. by the language server).
+   */
+  private CancellationToken cancellationToken = new CancellationToken();
+
   public CompilerFlags() {
 
     this(CompilationPhase.APPLICATION_PACKAGING);
@@ -159,6 +174,26 @@ public class CompilerFlags {
 
   }
 
+  public boolean isReleaseParseTrees() {
+
+    return releaseParseTrees;
+  }
+
+  public void setReleaseParseTrees(final boolean releaseParseTrees) {
+
+    this.releaseParseTrees = releaseParseTrees;
+  }
+
+  public boolean isRecordSymbolUses() {
+
+    return recordSymbolUses;
+  }
+
+  public void setRecordSymbolUses(final boolean recordSymbolUses) {
+
+    this.recordSymbolUses = recordSymbolUses;
+  }
+
   public boolean isVerbose() {
 
     return verbose;
@@ -184,4 +219,12 @@ public class CompilerFlags {
   public OptimizationLevel getOptimizationLevel() {
     return optimizationLevel;
   }
+
+  public void setCancellationToken(final CancellationToken cancellationToken) {
+    this.cancellationToken = cancellationToken;
+  }
+
+  public CancellationToken getCancellationToken() {
+    return cancellationToken;
+  }
 }
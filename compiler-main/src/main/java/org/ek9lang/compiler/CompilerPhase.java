@@ -64,4 +64,18 @@ public abstract class CompilerPhase implements BiFunction<Workspace, CompilerFla
 
     return holder.get();
   }
+
+  /**
+   * Wraps the processing of each source, so that processing stops once the compilation has been cancelled.
+   */
+  protected Consumer<CompilableSource> cancellable(final CompilerFlags compilerFlags,
+                                                   final Consumer<CompilableSource> processor) {
+
+    final var cancellationToken = compilerFlags.getCancellationToken();
+
+    return source -> {
+      cancellationToken.checkNotCancelled();
+      processor.accept(source);
+    };
+  }
 }
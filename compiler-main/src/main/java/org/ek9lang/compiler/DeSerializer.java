@@ -2,6 +2,7 @@ package org.ek9lang.compiler;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.ObjectInputFilter;
 import java.io.ObjectInputStream;
 import java.util.function.Function;
 import org.ek9lang.core.CompilerException;
@@ -16,12 +17,33 @@ import org.ek9lang.core.SharedThreadContext;
  * structure.
  */
 public class DeSerializer implements Function<byte[], SharedThreadContext<CompilableProgram>> {
+  private final ObjectInputFilter filter;
+
+  public DeSerializer() {
+
+    this(null);
+
+  }
+
+  /**
+   * Create a de-serializer that only accepts the classes the filter allows.
+   * Used when the bytes come from a location that could have been written to by something other than the compiler.
+   */
+  public DeSerializer(final ObjectInputFilter filter) {
+
+    this.filter = filter;
+
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public SharedThreadContext<CompilableProgram> apply(final byte[] bytes) {
 
     final SharedThreadContext<CompilableProgram> program;
     try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      if (filter != null) {
+        input.setObjectInputFilter(filter);
+      }
       program = (SharedThreadContext<CompilableProgram>) input.readObject();
     } catch (IOException | ClassNotFoundException e) {
       throw new CompilerException(e.toString());
@@ -1,12 +1,12 @@
 package org.ek9lang.compiler;
 
 import java.io.ByteArrayInputStream;
-import java.io.InputStream;
 import java.util.List;
 import java.util.function.Supplier;
 import org.ek9introspection.Ek9ExternExtractor;
 import org.ek9introspection.ValidEk9Interface;
 import org.ek9lang.core.CompilerException;
+import org.ek9lang.core.Digest;
 
 /**
  * Looks for Java classes that have been annotated with the annotations that allow them to be exposed
@@ -15,21 +15,35 @@ import org.ek9lang.core.CompilerException;
 public class Ek9BuiltinIntrospectionSupplier implements Supplier<List<CompilableSource>> {
 
 
+  private String orgEk9LangDeclarations;
+
   @Override
   public List<CompilableSource> get() {
-    return List.of(new CompilableSource(".", "org-ek9-lang.ek9", getOrgEk9LangDeclarations()));
+    final var inputStream = new ByteArrayInputStream(getOrgEk9LangDeclarations().getBytes());
+    return List.of(new CompilableSource(".", "org-ek9-lang.ek9", inputStream));
+  }
+
+  /**
+   * The checksum of the builtin source declarations, this only alters if the builtin types alter.
+   */
+  public Digest.CheckSum getCheckSum() {
+
+    return Digest.digest(getOrgEk9LangDeclarations());
   }
 
-  private InputStream getOrgEk9LangDeclarations() {
+  private synchronized String getOrgEk9LangDeclarations() {
 
-    final var validEk9 = new ValidEk9Interface();
-    final var ek9ExternExtractor = new Ek9ExternExtractor();
+    if (orgEk9LangDeclarations == null) {
+      final var validEk9 = new ValidEk9Interface();
+      final var ek9ExternExtractor = new Ek9ExternExtractor();
 
-    final var interfaceOrError = ek9ExternExtractor.apply("org.ek9.lang");
-    if (!validEk9.test(interfaceOrError)) {
-      throw new CompilerException(interfaceOrError.errorMessage());
+      final var interfaceOrError = ek9ExternExtractor.apply("org.ek9.lang");
+      if (!validEk9.test(interfaceOrError)) {
+        throw new CompilerException(interfaceOrError.errorMessage());
+      }
+      orgEk9LangDeclarations = interfaceOrError.ek9Interface();
     }
 
-    return new ByteArrayInputStream(interfaceOrError.ek9Interface().getBytes());
+    return orgEk9LangDeclarations;
   }
 }
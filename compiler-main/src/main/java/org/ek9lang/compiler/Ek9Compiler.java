@@ -2,6 +2,7 @@ package org.ek9lang.compiler;
 
 import java.text.NumberFormat;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import org.ek9lang.compiler.common.CompilerReporter;
@@ -54,18 +55,29 @@ public class Ek9Compiler implements Compiler {
     final long start = System.nanoTime();
     for (var phase : compilationPhaseSupplier.get()) {
 
+      if (flags.getCancellationToken().isCancelled()) {
+        reporter.log("Compilation cancelled");
+        rtn = false;
+        break;
+      }
+
       final long before = System.nanoTime();
       //This is where the actual work of the phase is done.
-      final var phaseResult = phase.apply(workspace, flags);
+      final var phaseResult = applyPhase(phase, workspace, flags);
       final long after = System.nanoTime();
-      if (!phaseResult.phaseSuccess()) {
+      if (phaseResult.isEmpty()) {
+        reporter.log("Compilation cancelled");
+        rtn = false;
+        break;
+      }
+      if (!phaseResult.get().phaseSuccess()) {
         rtn = false;
       }
 
-      final var phaseString = phaseResult.phase().toString();
+      final var phaseString = phaseResult.get().phase().toString();
       reporter.log(getTimeReport("%s duration %s ms; success %b", phaseString, before, after, rtn));
 
-      if (!phaseResult.phaseSuccess() || phaseResult.phaseMatch()) {
+      if (!phaseResult.get().phaseSuccess() || phaseResult.get().phaseMatch()) {
         break;
       }
     }
@@ -77,6 +89,21 @@ public class Ek9Compiler implements Compiler {
     return rtn;
   }
 
+  /**
+   * Phases check for cancellation as they process each source, if cancelled there is no result.
+   */
+  private Optional<CompilationPhaseResult> applyPhase(
+      final BiFunction<Workspace, CompilerFlags, CompilationPhaseResult> phase,
+      final Workspace workspace,
+      final CompilerFlags flags) {
+
+    try {
+      return Optional.of(phase.apply(workspace, flags));
+    } catch (CompilationCancelledException _) {
+      return Optional.empty();
+    }
+  }
+
   private String getTimeReport(final String message,
                                final String phase,
                                final long start,
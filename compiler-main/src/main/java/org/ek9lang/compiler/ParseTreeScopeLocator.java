@@ -0,0 +1,134 @@
+package org.ek9lang.compiler;
+
+import java.util.Optional;
+import java.util.function.BiFunction;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.ek9lang.compiler.symbols.IScope;
+import org.ek9lang.compiler.tokenizer.IToken;
+
+/**
+ * Find the innermost IScope recorded for the part of the parse tree that contains a given token position.
+ * <p>
+ * Only descends through the nodes that span the position (a binary search of the children at each level),
+ * so this is proportional to the depth of the parse tree and not to the size of the source.
+ * </p>
+ * This is designed to be used via ParsedModule - constructed with the module reference.
+ */
+final class ParseTreeScopeLocator
+    implements BiFunction<CompilableSource, IToken, Optional<IScope>> {
+
+  private final ParsedModule parsedModule;
+
+  ParseTreeScopeLocator(final ParsedModule parsedModule) {
+    this.parsedModule = parsedModule;
+  }
+
+  @Override
+  public Optional<IScope> apply(final CompilableSource source, final IToken targetToken) {
+
+    final var root = source.getCompilationUnitContext();
+    if (root == null) {
+      return Optional.empty();
+    }
+
+    final var line = targetToken.getLine();
+    final var charPositionInLine = targetToken.getCharPositionInLine();
+
+    IScope rtn = null;
+    ParseTree node = root;
+    while (node instanceof ParserRuleContext ctx && contains(ctx, line, charPositionInLine)) {
+      final var scope = parsedModule.getRecordedScope(ctx);
+      if (scope != null) {
+        rtn = scope;
+      }
+      node = childContaining(ctx, line, charPositionInLine);
+    }
+
+    return Optional.ofNullable(rtn);
+  }
+
+  /**
+   * The children are in source order, so a binary search can be used to find the one at the position.
+   */
+  private ParseTree childContaining(final ParserRuleContext ctx, final int line, final int charPositionInLine) {
+
+    var low = 0;
+    var high = ctx.getChildCount() - 1;
+    while (low <= high) {
+      final var mid = (low + high) >>> 1;
+      final var child = ctx.getChild(mid);
+      final var comparison = compare(child, line, charPositionInLine);
+      if (comparison.isEmpty()) {
+        //An empty rule has no position, so just check each of the children.
+        return linearSearch(ctx, line, charPositionInLine);
+      } else if (comparison.get() < 0) {
+        low = mid + 1;
+      } else if (comparison.get() > 0) {
+        high = mid - 1;
+      } else {
+        return child;
+      }
+    }
+
+    return null;
+  }
+
+  private ParseTree linearSearch(final ParserRuleContext ctx, final int line, final int charPositionInLine) {
+
+    for (int i = 0; i < ctx.getChildCount(); i++) {
+      if (ctx.getChild(i) instanceof ParserRuleContext childCtx && contains(childCtx, line, charPositionInLine)) {
+        return childCtx;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Negative if the child is before the position, positive if after and zero if it contains the position.
+   */
+  private Optional<Integer> compare(final ParseTree child, final int line, final int charPositionInLine) {
+
+    if (child instanceof TerminalNode terminal) {
+      return Optional.of(compare(terminal.getSymbol(), line, charPositionInLine));
+    }
+
+    if (child instanceof ParserRuleContext childCtx && childCtx.start != null && childCtx.stop != null
+        && childCtx.stop.getTokenIndex() >= childCtx.start.getTokenIndex()) {
+      if (compare(childCtx.stop, line, charPositionInLine) < 0) {
+        return Optional.of(-1);
+      }
+      return Optional.of(compare(childCtx.start, line, charPositionInLine) > 0 ? 1 : 0);
+    }
+
+    return Optional.empty();
+  }
+
+  private boolean contains(final ParserRuleContext ctx, final int line, final int charPositionInLine) {
+
+    return ctx.start != null && ctx.stop != null
+        && compare(ctx.start, line, charPositionInLine) <= 0
+        && compare(ctx.stop, line, charPositionInLine) >= 0;
+  }
+
+  /**
+   * Compare the span of the token with the position; zero if the position is within the token.
+   */
+  private int compare(final Token token, final int line, final int charPositionInLine) {
+
+    if (token.getLine() != line) {
+      return Integer.compare(token.getLine(), line);
+    }
+
+    final var start = token.getCharPositionInLine();
+    final var end = start + Math.max(1, token.getStopIndex() - token.getStartIndex() + 1);
+    if (charPositionInLine < start) {
+      return 1;
+    }
+
+    return charPositionInLine >= end ? -1 : 0;
+  }
+}
@@ -1,23 +1,35 @@
 package org.ek9lang.compiler;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.function.BiFunction;
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.ek9lang.compiler.symbols.ISymbol;
 import org.ek9lang.compiler.tokenizer.IToken;
 
 /**
- * Find the ISymbol at a given token position by traversing the parse tree.
- * Returns the recorded symbol for the deepest node matching the token.
+ * Find the ISymbol at a given token position in the parse tree.
+ * Returns the recorded symbol for the first node (in a depth-first walk) that starts at the token position.
+ * <p>
+ * Rather than walk the parse tree for each lookup, the parse tree is walked once to build a position index.
+ * This is a sorted array of start positions (line and character) with the symbol for each position.
+ * So each lookup is just a binary search. The index is rebuilt if the source is parsed again.
+ * </p>
  * This is designed to be a field within ParsedModule - constructed with the module reference.
+ * The ParsedModule discards this locator when further symbols are recorded.
  */
 final class ParseTreeSymbolLocator
     implements BiFunction<CompilableSource, IToken, Optional<ISymbol>> {
 
   private final ParsedModule parsedModule;
 
+  private volatile PositionIndex positionIndex;
+
   ParseTreeSymbolLocator(final ParsedModule parsedModule) {
     this.parsedModule = parsedModule;
   }
@@ -30,55 +42,84 @@ final class ParseTreeSymbolLocator
       return Optional.empty();
     }
 
-    return findSymbolAtToken(root, targetToken);
+    return getPositionIndex(root).locate(targetToken.getLine(), targetToken.getCharPositionInLine());
   }
 
-  private Optional<ISymbol> findSymbolAtToken(final ParseTree node, final IToken targetToken) {
+  private PositionIndex getPositionIndex(final ParseTree root) {
 
-    // Check if this node's token matches our target
-    final var located = getSymbol(node, targetToken);
-    if (located.isPresent()) {
-      return located;
+    var rtn = positionIndex;
+    if (rtn == null || rtn.root() != root) {
+      rtn = buildPositionIndex(root);
+      positionIndex = rtn;
     }
 
-    // Recurse into children (depth-first to find most specific node)
-    for (int i = 0; i < node.getChildCount(); i++) {
-      final var child = node.getChild(i);
-      final var found = findSymbolAtToken(child, targetToken);
-      if (found.isPresent()) {
-        return found;
-      }
-    }
-
-    return Optional.empty();
+    return rtn;
   }
 
-  private Optional<ISymbol> getSymbol(final ParseTree node, final IToken targetToken) {
+  /**
+   * Walks the parse tree depth-first, where more than one node starts at the same position
+   * the first node encountered with a recorded symbol is the one indexed.
+   */
+  private PositionIndex buildPositionIndex(final ParseTree root) {
+
+    final var byPosition = new TreeMap<Long, ISymbol>();
+    final var toVisit = new ArrayDeque<ParseTree>();
+    toVisit.push(root);
+
+    while (!toVisit.isEmpty()) {
+      final var node = toVisit.pop();
+      final var start = getStartToken(node);
+      if (start != null) {
+        final var symbol = parsedModule.getRecordedSymbol(node);
+        if (symbol != null) {
+          byPosition.putIfAbsent(position(start.getLine(), start.getCharPositionInLine()), symbol);
+        }
+      }
+      //Pushed in reverse, so that children are visited in order.
+      for (int i = node.getChildCount() - 1; i >= 0; i--) {
+        toVisit.push(node.getChild(i));
+      }
+    }
 
-    //While the node and the target token may match, it might be the wrong structure registered.
-    //This is because we use the line and character position, this could match multiple context parts.
-    //Not all are recorded with the ISymbol.
-    if (nodeMatchesToken(node, targetToken)) {
-      return Optional.ofNullable(parsedModule.getRecordedSymbol(node));
+    final var positions = new long[byPosition.size()];
+    final var symbols = new ISymbol[byPosition.size()];
+    var index = 0;
+    for (var entry : byPosition.entrySet()) {
+      positions[index] = entry.getKey();
+      symbols[index++] = entry.getValue();
     }
-    return Optional.empty();
+
+    return new PositionIndex(root, positions, symbols);
   }
 
-  private boolean nodeMatchesToken(final ParseTree node, final IToken targetToken) {
+  private Token getStartToken(final ParseTree node) {
 
     if (node instanceof TerminalNode terminal) {
-      final var nodeToken = terminal.getSymbol();
-      return nodeToken.getLine() == targetToken.getLine()
-          && nodeToken.getCharPositionInLine() == targetToken.getCharPositionInLine();
+      return terminal.getSymbol();
     }
 
-    if (node instanceof ParserRuleContext ctx && ctx.start != null) {
-      // Check if target token is within this rule's span
-      final var startTokenPosition = ctx.start.getCharPositionInLine();
-      final var targetTokenPosition = targetToken.getCharPositionInLine();
-      return ctx.start.getLine() == targetToken.getLine() && startTokenPosition == targetTokenPosition;
+    if (node instanceof ParserRuleContext ctx) {
+      return ctx.start;
     }
 
-    return false;
+    return null;
+  }
+
+  private static long position(final int line, final int charPositionInLine) {
+
+    return ((long) line << 32) | (charPositionInLine & 0xFFFFFFFFL);
+  }
+
+  /**
+   * The start positions in ascending order and the symbol recorded at each position.
+   */
+  private record PositionIndex(ParseTree root, long[] positions, ISymbol[] symbols) {
+
+    Optional<ISymbol> locate(final int line, final int charPositionInLine) {
+
+      final var index = Arrays.binarySearch(positions, position(line, charPositionInLine));
+
+      return index >= 0 ? Optional.of(symbols[index]) : Optional.empty();
+    }
   }
 }
@@ -2,11 +2,17 @@ package org.ek9lang.compiler;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
 import org.ek9lang.antlr.EK9Parser;
 import org.ek9lang.compiler.directives.Directive;
 import org.ek9lang.compiler.directives.DirectiveType;
@@ -14,6 +20,7 @@ import org.ek9lang.compiler.symbols.Ek9Types;
 import org.ek9lang.compiler.symbols.IScope;
 import org.ek9lang.compiler.symbols.ISymbol;
 import org.ek9lang.compiler.symbols.ModuleScope;
+import org.ek9lang.compiler.tokenizer.Ek9Token;
 import org.ek9lang.compiler.tokenizer.IToken;
 import org.ek9lang.core.AssertValue;
 import org.ek9lang.core.SharedThreadContext;
@@ -94,6 +101,17 @@ public final class ParsedModule implements Module, Serializable {
    */
   private transient BiFunction<CompilableSource, IToken, Optional<ISymbol>> symbolLocator;
 
+  /**
+   * Where symbols have been recorded against the parse tree, by the span of the node (the last recorded is kept).
+   * Nodes that start at the same position (i.e. the receiver 'x' and the whole of 'x.method()') span different
+   * text, so the uses of both are kept. Unlike the recordings in the transient data, these do not reference
+   * the parse tree. This enables the uses of symbols to be found without walking the parse tree.
+   * Only recorded if enabled (i.e. for the language server).
+   */
+  private transient Map<Span, SymbolUse> symbolUses;
+
+  private transient boolean recordSymbolUses = false;
+
   /**
    * The name of the module as defined in the EK9 source code. But remember this same module name
    * can be used in other 'Modules' any number of source files can make up a 'module' with a
@@ -154,6 +172,15 @@ public final class ParsedModule implements Module, Serializable {
   }
 
 
+  /**
+   * Enable the recording of where symbols are used, see {@link #getSymbolUses()}.
+   */
+  public void setRecordSymbolUses(final boolean recordSymbolUses) {
+
+    this.recordSymbolUses = recordSymbolUses;
+
+  }
+
   public boolean isExternallyImplemented() {
 
     return externallyImplemented;
@@ -209,6 +236,47 @@ public final class ParsedModule implements Module, Serializable {
     return transientData;
   }
 
+  /**
+   * Drops all the scopes, symbols and symbol uses recorded against parse tree nodes, but retains any directives.
+   * Used in memory-lean builds once the parse tree for the source has been released, as
+   * those recordings are then unreachable and would just hold on to the tree nodes.
+   */
+  public void releaseTransientData() {
+
+    if (transientData != null) {
+      transientData = transientData.retainDirectivesOnly();
+    }
+    symbolLocator = null;
+    symbolUses = null;
+
+  }
+
+  /**
+   * Drops the scopes and symbols recorded against the nodes (and those within them), along with their uses.
+   * Used when the nodes have been replaced by an incremental parse of the source, so they are no longer in use.
+   */
+  public void releaseRecordings(final Collection<ParseTree> nodes) {
+
+    AssertValue.checkNotNull("Nodes cannot be null", nodes);
+    if (transientData != null) {
+      nodes.forEach(transientData::releaseRecordings);
+    }
+    if (symbolUses != null) {
+      nodes.forEach(this::releaseSymbolUses);
+    }
+    symbolLocator = null;
+
+  }
+
+  private void releaseSymbolUses(final ParseTree node) {
+
+    spanOf(node).ifPresent(symbolUses::remove);
+    for (int i = 0; i < node.getChildCount(); i++) {
+      releaseSymbolUses(node.getChild(i));
+    }
+
+  }
+
   private BiFunction<CompilableSource, IToken, Optional<ISymbol>> getSymbolLocator() {
 
     if (symbolLocator == null) {
@@ -220,8 +288,8 @@ public final class ParsedModule implements Module, Serializable {
 
   /**
    * Locate a symbol at a specific token position in the source.
-   * This traverses the parse tree to find the node matching the token,
-   * then returns any recorded symbol for that node.
+   * This uses an index of the recorded symbols by position in the parse tree,
+   * built on the first lookup (after the symbols have been recorded).
    */
   public Optional<ISymbol> locateSymbolAtToken(final CompilableSource source, final IToken targetToken) {
 
@@ -231,6 +299,18 @@ public final class ParsedModule implements Module, Serializable {
     return getSymbolLocator().apply(source, targetToken);
   }
 
+  /**
+   * Locate the innermost scope recorded for the part of the source containing the token position.
+   * Used for completion, to find the symbols visible at that position.
+   */
+  public Optional<IScope> locateScopeAtToken(final CompilableSource source, final IToken targetToken) {
+
+    AssertValue.checkNotNull("CompilableSource cannot be null", source);
+    AssertValue.checkNotNull("IToken cannot be null", targetToken);
+
+    return new ParseTreeScopeLocator(this).apply(source, targetToken);
+  }
+
   /**
    * When processing EK9 source code the developer now has some ability to use
    * '@directives'. These are aimed at code compilation, instrumentation and error checking.
@@ -246,6 +326,16 @@ public final class ParsedModule implements Module, Serializable {
 
   }
 
+  /**
+   * Remove any directives recorded of a specific type, so they are not checked.
+   */
+  public void removeDirectives(final DirectiveType type) {
+
+    AssertValue.checkNotNull("DirectiveType cannot be null", type);
+    getParsedModuleTransientData().removeDirectives(type);
+
+  }
+
   /**
    * Provide access to any directives recorded of a specific type and compilation phase.
    */
@@ -297,7 +387,65 @@ public final class ParsedModule implements Module, Serializable {
     AssertValue.checkNotNull(PARSE_TREE_ERROR_TEXT, node);
     AssertValue.checkNotNull("Symbol cannot be null", symbol);
     getParsedModuleTransientData().recordSymbol(node, symbol, this);
+    //Any position index built so far will not include this symbol.
+    symbolLocator = null;
+    if (recordSymbolUses) {
+      recordSymbolUse(node, symbol);
+    }
+
+  }
+
+  private void recordSymbolUse(final ParseTree node, final ISymbol symbol) {
+
+    startOf(node).ifPresent(start -> {
+      if (symbolUses == null) {
+        symbolUses = new LinkedHashMap<>();
+      }
+      symbolUses.put(spanOf(node).orElseThrow(), new SymbolUse(new Ek9Token(start), symbol));
+    });
+
+  }
+
+  private Optional<Span> spanOf(final ParseTree node) {
+
+    return startOf(node).map(start -> new Span(positionOf(start), positionOf(stopOf(node).orElse(start))));
+  }
+
+  private Optional<Token> startOf(final ParseTree node) {
+
+    return Optional.ofNullable(switch (node) {
+      case ParserRuleContext ctx -> ctx.start;
+      case TerminalNode terminal -> terminal.getSymbol();
+      default -> null;
+    });
+  }
+
+  private Optional<Token> stopOf(final ParseTree node) {
+
+    return Optional.ofNullable(switch (node) {
+      case ParserRuleContext ctx -> ctx.stop;
+      case TerminalNode terminal -> terminal.getSymbol();
+      default -> null;
+    });
+  }
+
+  private long positionOf(final Token token) {
+
+    return ((long) token.getLine() << 32) | (token.getCharPositionInLine() & 0xFFFFFFFFL);
+  }
+
+  /**
+   * The text a node of the parse tree spans, by the positions of its first and last tokens.
+   */
+  private record Span(long from, long to) {
+  }
+
+  /**
+   * Provide the declarations and uses of all the symbols recorded in this module.
+   */
+  public Collection<SymbolUse> getSymbolUses() {
 
+    return symbolUses == null ? List.of() : List.copyOf(symbolUses.values());
   }
 
   /**
@@ -57,6 +57,40 @@ public class ParsedModuleTransientData {
 
   }
 
+  /**
+   * Remove all the directives of a specific type, so they are not checked.
+   */
+  public void removeDirectives(final DirectiveType type) {
+
+    directives.removeIf(directive -> directive.type() == type);
+
+  }
+
+  /**
+   * Create a new transient data object that only holds the directives from this one.
+   * All the parse tree node recordings of scopes and symbols are not carried over.
+   */
+  public ParsedModuleTransientData retainDirectivesOnly() {
+
+    final var rtn = new ParsedModuleTransientData();
+    rtn.directives.addAll(directives);
+
+    return rtn;
+  }
+
+  /**
+   * Drop the scopes and symbols recorded against the node and all the nodes within it.
+   */
+  public void releaseRecordings(final ParseTree node) {
+
+    scopes.removeFrom(node);
+    symbols.removeFrom(node);
+    for (int i = 0; i < node.getChildCount(); i++) {
+      releaseRecordings(node.getChild(i));
+    }
+
+  }
+
   /**
    * Provide access to any directives recorded of a specific type and compilation phase.
    */
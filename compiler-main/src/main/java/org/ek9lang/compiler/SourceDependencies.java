@@ -0,0 +1,52 @@
+package org.ek9lang.compiler;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.ek9lang.core.AssertValue;
+
+/**
+ * The module that a source defines and the fully qualified symbols it references.
+ * <p>
+ * Used to work out which sources depend on each other. All sources within the same module share
+ * the module scope, so a source depends on its own module and on any module it references symbols from.
+ * </p>
+ *
+ * @param moduleName        The name of the module the source defines.
+ * @param referencedSymbols The qualified names (i.e. 'some.module::Symbol') of symbols referenced.
+ */
+public record SourceDependencies(String moduleName, Set<String> referencedSymbols) implements Serializable {
+
+  private static final String SEPARATOR = "::";
+
+  /**
+   * Check the values are valid.
+   */
+  public SourceDependencies {
+
+    AssertValue.checkNotEmpty("Module name cannot be empty", moduleName);
+    AssertValue.checkNotNull("Referenced symbols cannot be null", referencedSymbols);
+    referencedSymbols = Set.copyOf(referencedSymbols);
+
+  }
+
+  /**
+   * Provides the names of the modules that are referenced (excluding its own module).
+   */
+  public Set<String> referencedModules() {
+
+    return referencedSymbols.stream()
+        .filter(symbol -> symbol.contains(SEPARATOR))
+        .map(symbol -> symbol.substring(0, symbol.indexOf(SEPARATOR)))
+        .filter(module -> !module.equals(moduleName))
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Would a change to the module mean that this source has to be recompiled.
+   */
+  public boolean dependsOn(final String module) {
+
+    return moduleName.equals(module) || referencedModules().contains(module);
+  }
+}
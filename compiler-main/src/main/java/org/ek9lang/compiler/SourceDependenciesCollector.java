@@ -0,0 +1,40 @@
+package org.ek9lang.compiler;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.ek9lang.antlr.EK9Parser;
+import org.ek9lang.core.AssertValue;
+
+/**
+ * Collects the module name and all the fully qualified identifier references from a parse tree.
+ * These are both those in the 'references' block and any that are used inline.
+ */
+final class SourceDependenciesCollector implements Function<EK9Parser.CompilationUnitContext, SourceDependencies> {
+
+  @Override
+  public SourceDependencies apply(final EK9Parser.CompilationUnitContext compilationUnit) {
+
+    AssertValue.checkNotNull("CompilationUnitContext cannot be null", compilationUnit);
+
+    final var moduleName = compilationUnit.moduleDeclaration().dottedName().getText();
+    final Set<String> referencedSymbols = new HashSet<>();
+    collectReferences(compilationUnit, referencedSymbols);
+
+    return new SourceDependencies(moduleName, referencedSymbols);
+  }
+
+  private void collectReferences(final ParseTree node, final Set<String> referencedSymbols) {
+
+    if (node instanceof EK9Parser.IdentifierReferenceContext reference && reference.dottedName() != null) {
+      referencedSymbols.add(reference.dottedName().getText() + "::" + reference.identifier().getText());
+      return;
+    }
+
+    for (int i = 0; i < node.getChildCount(); i++) {
+      collectReferences(node.getChild(i), referencedSymbols);
+    }
+
+  }
+}
@@ -0,0 +1,56 @@
+package org.ek9lang.compiler;
+
+import java.util.Objects;
+import org.ek9lang.compiler.symbols.CallSymbol;
+import org.ek9lang.compiler.symbols.ISymbol;
+import org.ek9lang.compiler.tokenizer.IToken;
+import org.ek9lang.core.AssertValue;
+
+/**
+ * A place in the source where a symbol has been recorded against the parse tree.
+ * <p>
+ * This will be the declaration of the symbol or a use (reference) of it.
+ * For calls, the symbol recorded is the call itself; what is called is only known once it has been resolved.
+ * </p>
+ *
+ * @param token  The start token of the part of the parse tree the symbol was recorded against.
+ * @param symbol The symbol recorded.
+ */
+public record SymbolUse(IToken token, ISymbol symbol) {
+
+  /**
+   * Check the values are valid.
+   */
+  public SymbolUse {
+
+    AssertValue.checkNotNull("Token cannot be null", token);
+    AssertValue.checkNotNull("Symbol cannot be null", symbol);
+
+  }
+
+  /**
+   * The symbol actually referred to at this point, for a call that is the symbol being called.
+   */
+  public ISymbol referencedSymbol() {
+
+    if (symbol instanceof CallSymbol call && call.getResolvedSymbolToCall() != null) {
+      return call.getResolvedSymbolToCall();
+    }
+
+    return symbol;
+  }
+
+  /**
+   * True if this is where the symbol is declared, rather than a use of it.
+   */
+  public boolean isDeclaration() {
+
+    final var referenced = referencedSymbol();
+    final var declaredAt = referenced.getSourceToken();
+
+    return referenced == symbol && declaredAt != null
+        && declaredAt.getLine() == token.getLine()
+        && declaredAt.getCharPositionInLine() == token.getCharPositionInLine()
+        && Objects.equals(declaredAt.getSourceName(), token.getSourceName());
+  }
+}
@@ -11,8 +11,8 @@ import org.ek9lang.compiler.common.ErrorListener;
 
 /**
  * Designed to represent one or more source files that are part of a workspace.
- * Needs to become thread safe, especially around parsing.
- * This is because when a user is typing via lsp mode - this will get triggered over and over.
+ * Access to the sources is synchronized, as in lsp mode sources are added and removed on the thread
+ * handling messages, while they are being compiled on another thread.
  */
 public class Workspace {
   //The maps of source code file to compilable source objects
@@ -49,7 +49,7 @@ public class Workspace {
 
   }
 
-  public void addSource(final CompilableSource source) {
+  public synchronized void addSource(final CompilableSource source) {
 
     if (!isSourcePresent(source.getFileName())) {
       sources.put(source.getFileName(), source);
@@ -57,7 +57,17 @@ public class Workspace {
 
   }
 
-  public boolean isSourcePresent(final String fileName) {
+  /**
+   * Add the source, replacing any source already present with the same file name.
+   *
+   * @return The source that was replaced, if there was one.
+   */
+  public synchronized Optional<CompilableSource> replaceSource(final CompilableSource source) {
+
+    return Optional.ofNullable(sources.put(source.getFileName(), source));
+  }
+
+  public synchronized boolean isSourcePresent(final String fileName) {
 
     return sources.containsKey(fileName);
   }
@@ -67,7 +77,7 @@ public class Workspace {
     return getSource(path.toString());
   }
 
-  public CompilableSource getSource(final String fileName) {
+  public synchronized CompilableSource getSource(final String fileName) {
 
     return sources.get(fileName);
   }
@@ -82,12 +92,12 @@ public class Workspace {
     return removeSource(path.toString());
   }
 
-  public Optional<ErrorListener> removeSource(final String fileName) {
+  public synchronized Optional<ErrorListener> removeSource(final String fileName) {
 
     return Optional.ofNullable(sources.remove(fileName)).map(CompilableSource::getErrorListener);
   }
 
-  public Collection<CompilableSource> getSources() {
+  public synchronized Collection<CompilableSource> getSources() {
 
     return new ArrayList<>(sources.values());
   }
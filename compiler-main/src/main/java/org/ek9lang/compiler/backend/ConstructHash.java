@@ -0,0 +1,59 @@
+package org.ek9lang.compiler.backend;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.function.Function;
+import org.ek9lang.compiler.common.NodePrinter;
+import org.ek9lang.compiler.symbols.FunctionSymbol;
+import org.ek9lang.compiler.symbols.IAggregateSymbol;
+import org.ek9lang.compiler.symbols.ISymbol;
+import org.ek9lang.core.Digest;
+
+/**
+ * Creates a stable content hash for a construct that is to be output.
+ * <p>
+ * This is made from the printed form of the IR (the same as used in the IR directives), so it covers all the
+ * fields, operations and their instructions (with debug info). It also includes those parts of the construct
+ * symbol that are used in output generation but are not part of the IR (i.e. super types and traits),
+ * the source file name and the compiler flags that alter the output.
+ * </p>
+ * <p>
+ * If two constructs have the same hash, then the output generated from them will be the same.
+ * </p>
+ */
+public final class ConstructHash implements Function<ConstructTargetTuple, Digest.CheckSum> {
+
+  @Override
+  public Digest.CheckSum apply(final ConstructTargetTuple constructTargetTuple) {
+
+    final var construct = constructTargetTuple.construct();
+    final var compilerFlags = constructTargetTuple.compilerFlags();
+    final var writer = new StringWriter();
+
+    try (var printWriter = new PrintWriter(writer)) {
+      construct.accept(new NodePrinter(printWriter));
+      printWriter.printf("Genus: %s%n", construct.getSymbol().getGenus());
+      printWriter.printf("Super: %s%n", superName(construct.getSymbol()));
+      construct.getImplementedTraits()
+          .forEach(trait -> printWriter.printf("Trait: %s%n", trait.getFullyQualifiedName()));
+      printWriter.printf("Source: %s %s%n", constructTargetTuple.relativeFileName(), construct.getSourceFileName());
+      printWriter.printf("Target: %s%n", compilerFlags.getTargetArchitecture());
+      printWriter.printf("Instrumented: %b%n", compilerFlags.isDebuggingInstrumentation());
+    }
+
+    return Digest.digest(writer.toString());
+  }
+
+  private String superName(final ISymbol symbol) {
+
+    if (symbol instanceof FunctionSymbol functionSymbol) {
+      return functionSymbol.getSuperFunction().map(ISymbol::getFullyQualifiedName).orElse("");
+    }
+
+    if (symbol instanceof IAggregateSymbol aggregateSymbol) {
+      return aggregateSymbol.getSuperAggregate().map(ISymbol::getFullyQualifiedName).orElse("");
+    }
+
+    return "";
+  }
+}
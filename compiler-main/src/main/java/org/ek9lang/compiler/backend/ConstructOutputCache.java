@@ -0,0 +1,178 @@
+package org.ek9lang.compiler.backend;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.ek9lang.core.AssertValue;
+import org.ek9lang.core.Digest;
+import org.ek9lang.core.ExceptionConverter;
+import org.ek9lang.core.Processor;
+
+/**
+ * A cache of the output generated for constructs (i.e. class bytes for the JVM), held in a directory.
+ * <p>
+ * Entries are keyed by the {@link ConstructHash} of the construct and the identity of the compiler that generated
+ * the output. So if the IR of a construct is unaltered, the output can just be copied rather than generated again.
+ * </p>
+ * <p>
+ * This is thread safe, entries are written to a temporary file and moved into place.
+ * The number of hits and misses is recorded, so the hit rate can be reported.
+ * </p>
+ * <p>
+ * Entries are touched when restored, so the cache can be pruned of those no longer used (i.e. for constructs
+ * that have been altered or removed, or generated by another compiler) and kept within a maximum size.
+ * </p>
+ */
+public final class ConstructOutputCache {
+  public static final Duration MAXIMUM_AGE = Duration.ofDays(30);
+
+  public static final long MAXIMUM_SIZE = 256L * 1024 * 1024;
+
+  private static final String ENTRY_SUFFIX = ".out";
+
+  private final File cacheDirectory;
+  private final String compilerIdentity;
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  /**
+   * Create a cache in the directory, for output generated by a specific compiler.
+   */
+  public ConstructOutputCache(final File cacheDirectory, final String compilerIdentity) {
+
+    AssertValue.checkNotNull("Cache directory cannot be null", cacheDirectory);
+    AssertValue.checkNotEmpty("Compiler identity cannot be empty", compilerIdentity);
+    this.cacheDirectory = cacheDirectory;
+    this.compilerIdentity = compilerIdentity;
+
+  }
+
+  /**
+   * If there is a cached entry for the construct hash then it is copied to the target file.
+   *
+   * @return true if the target file has been populated from the cache.
+   */
+  public boolean restore(final Digest.CheckSum constructHash, final File targetFile) {
+
+    final var entry = entryFor(constructHash);
+    if (!entry.exists()) {
+      misses.incrementAndGet();
+      return false;
+    }
+
+    final Processor<Boolean> processor = () -> {
+      Files.copy(entry.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      Files.setLastModifiedTime(entry.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+      return true;
+    };
+    new ExceptionConverter<Boolean>().apply(processor);
+    hits.incrementAndGet();
+
+    return true;
+  }
+
+  /**
+   * Store the content of the generated target file against the construct hash.
+   * Target files that were not generated (or are empty) are not stored.
+   */
+  public void store(final Digest.CheckSum constructHash, final File targetFile) {
+
+    if (!targetFile.exists() || targetFile.length() == 0) {
+      return;
+    }
+
+    final Processor<Boolean> processor = () -> {
+      Files.createDirectories(cacheDirectory.toPath());
+      final var temporaryFile = Files.createTempFile(cacheDirectory.toPath(), "entry", ".tmp");
+      Files.copy(targetFile.toPath(), temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+      Files.move(temporaryFile, entryFor(constructHash).toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      return true;
+    };
+    new ExceptionConverter<Boolean>().apply(processor);
+
+  }
+
+  /**
+   * Prune the cache to the default maximum age and size.
+   *
+   * @return The number of entries removed.
+   */
+  public int prune() {
+
+    return prune(MAXIMUM_AGE, MAXIMUM_SIZE);
+  }
+
+  /**
+   * Remove the entries not stored or restored within the maximum age.
+   * Then remove the least recently used entries, until those remaining are within the maximum size.
+   * Left over temporary files (i.e. from an interrupted store) are also removed once older than the maximum age.
+   *
+   * @return The number of entries removed.
+   */
+  public int prune(final Duration maximumAge, final long maximumSize) {
+
+    AssertValue.checkNotNull("Maximum age cannot be null", maximumAge);
+    AssertValue.checkTrue("Maximum size cannot be negative", maximumSize >= 0);
+
+    final var files = cacheDirectory.listFiles(File::isFile);
+    if (files == null) {
+      return 0;
+    }
+
+    final var oldestRetained = System.currentTimeMillis() - maximumAge.toMillis();
+    final var mostRecentFirst = Arrays.stream(files)
+        .map(file -> new CacheFile(file, file.lastModified(), file.length()))
+        .sorted(Comparator.comparingLong(CacheFile::lastModified).reversed())
+        .toList();
+
+    var removed = 0;
+    var retainedSize = 0L;
+    for (var cacheFile : mostRecentFirst) {
+      final var isEntry = cacheFile.file().getName().endsWith(ENTRY_SUFFIX);
+      final var withinAge = cacheFile.lastModified() >= oldestRetained;
+      if (withinAge && (!isEntry || retainedSize + cacheFile.size() <= maximumSize)) {
+        retainedSize += isEntry ? cacheFile.size() : 0;
+      } else if (cacheFile.file().delete() && isEntry) {
+        removed++;
+      }
+    }
+
+    return removed;
+  }
+
+  public int getHits() {
+
+    return hits.get();
+  }
+
+  public int getMisses() {
+
+    return misses.get();
+  }
+
+  /**
+   * The percentage of constructs restored from the cache.
+   */
+  public int getHitRate() {
+
+    final var total = hits.get() + misses.get();
+
+    return total == 0 ? 0 : hits.get() * 100 / total;
+  }
+
+  private File entryFor(final Digest.CheckSum constructHash) {
+
+    final var key = Digest.digest(compilerIdentity + ":" + constructHash);
+
+    return new File(cacheDirectory, key + ENTRY_SUFFIX);
+  }
+
+  private record CacheFile(File file, long lastModified, long size) {
+  }
+}
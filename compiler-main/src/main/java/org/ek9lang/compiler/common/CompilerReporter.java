@@ -1,5 +1,7 @@
 package org.ek9lang.compiler.common;
 
+import java.io.PrintStream;
+
 /**
  * Just expends the standard reporter to use the EK9Comp message prefix.
  * This is so when compiler errors and warnings are issued, they can be seen to
@@ -16,6 +18,15 @@ public class CompilerReporter extends Reporter {
 
   }
 
+  /**
+   * Create new reporter, that reports to a specific stream in place of stderr.
+   */
+  public CompilerReporter(final boolean verbose, final boolean muteReportedErrors, final PrintStream err) {
+
+    super(verbose, muteReportedErrors, err);
+
+  }
+
   @Override
   protected String messagePrefix() {
 
@@ -1,5 +1,6 @@
 package org.ek9lang.compiler.common;
 
+import java.io.PrintStream;
 import org.ek9lang.core.Logger;
 
 /**
@@ -8,6 +9,7 @@ import org.ek9lang.core.Logger;
  */
 public abstract class Reporter {
   private final boolean verbose;
+  private final PrintStream err;
   private boolean muteReportedErrors;
 
   /**
@@ -19,8 +21,18 @@ public abstract class Reporter {
    */
   protected Reporter(final boolean verbose, final boolean muteReportedErrors) {
 
+    this(verbose, muteReportedErrors, System.err);
+
+  }
+
+  /**
+   * Report to a specific stream in place of stderr, i.e. that of the process that issued the command.
+   */
+  protected Reporter(final boolean verbose, final boolean muteReportedErrors, final PrintStream err) {
+
     this.verbose = verbose;
     this.muteReportedErrors = muteReportedErrors;
+    this.err = err;
 
   }
 
@@ -35,7 +47,7 @@ public abstract class Reporter {
   public void log(final Object message) {
 
     if (verbose) {
-      Logger.error(messagePrefix() + message);
+      Logger.error(err, messagePrefix() + message);
     }
 
   }
@@ -46,7 +58,7 @@ public abstract class Reporter {
   public void report(final Object message) {
 
     if (!muteReportedErrors) {
-      Logger.error(messagePrefix() + message);
+      Logger.error(err, messagePrefix() + message);
     }
 
   }
@@ -1,7 +1,9 @@
 package org.ek9lang.compiler.config;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import org.ek9lang.compiler.CompilableProgram;
 import org.ek9lang.compiler.CompilationPhaseResult;
 import org.ek9lang.compiler.CompilerFlags;
@@ -15,6 +17,7 @@ import org.ek9lang.compiler.phase11.CodeOptimisation;
 import org.ek9lang.compiler.phase12.Packaging;
 import org.ek9lang.compiler.phase12.PackagingPostProcessing;
 import org.ek9lang.compiler.phase12.PluginLinkage;
+import org.ek9lang.core.Digest;
 import org.ek9lang.core.FileHandling;
 import org.ek9lang.core.SharedThreadContext;
 
@@ -25,16 +28,31 @@ public class BackEndSupplier extends PhaseSupplier {
 
   private final FileHandling fileHandling;
 
+  private final Supplier<Optional<Digest.CheckSum>> compilerIdentity;
+
+  /**
+   * Create a new supplier of back-end compiler phases, without a compiler identity the output is not cached.
+   */
+  public BackEndSupplier(final SharedThreadContext<CompilableProgram> compilableProgramAccess,
+                         final FileHandling fileHandling,
+                         final CompilationPhaseListener listener,
+                         final CompilerReporter reporter) {
+
+    this(compilableProgramAccess, fileHandling, Optional::empty, listener, reporter);
+  }
+
   /**
-   * Create a new supplier of back-end compiler phases.
+   * Create a new supplier of back-end compiler phases, that caches the output against the compiler identity.
    */
   public BackEndSupplier(final SharedThreadContext<CompilableProgram> compilableProgramAccess,
                          final FileHandling fileHandling,
+                         final Supplier<Optional<Digest.CheckSum>> compilerIdentity,
                          final CompilationPhaseListener listener,
                          final CompilerReporter reporter) {
 
     super(compilableProgramAccess, listener, reporter);
     this.fileHandling = fileHandling;
+    this.compilerIdentity = compilerIdentity;
   }
 
   @Override
@@ -42,7 +60,7 @@ public class BackEndSupplier extends PhaseSupplier {
 
     return List.of(
         new CodeGenerationPreparation(compilableProgramAccess, fileHandling, listener, reporter),
-        new CodeGenerationAggregates(compilableProgramAccess, fileHandling, listener, reporter),
+        new CodeGenerationAggregates(compilableProgramAccess, fileHandling, compilerIdentity, listener, reporter),
         new CodeGenerationConstants(compilableProgramAccess, fileHandling, listener, reporter),
         new CodeOptimisation(compilableProgramAccess, fileHandling, listener, reporter),
         new PluginLinkage(compilableProgramAccess, fileHandling, listener, reporter),
@@ -1,6 +1,7 @@
 package org.ek9lang.compiler.config;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -10,6 +11,7 @@ import org.ek9lang.compiler.CompilerFlags;
 import org.ek9lang.compiler.Workspace;
 import org.ek9lang.compiler.common.CompilationPhaseListener;
 import org.ek9lang.compiler.common.CompilerReporter;
+import org.ek9lang.core.Digest;
 import org.ek9lang.core.FileHandling;
 import org.ek9lang.core.SharedThreadContext;
 
@@ -22,17 +24,30 @@ public class FullPhaseSupplier extends PhaseSupplier {
   private final BackEndSupplier backEndSupplier;
 
   /**
-   * Create a new supplier of a full set of compiler phases.
+   * Create a new supplier of a full set of compiler phases, the generated output is not cached.
    */
   public FullPhaseSupplier(final SharedThreadContext<CompilableProgram> compilableProgramAccess,
                            final FileHandling fileHandling,
                            final CompilationPhaseListener listener,
                            final CompilerReporter reporter) {
 
+    this(compilableProgramAccess, fileHandling, Optional::empty, listener, reporter);
+
+  }
+
+  /**
+   * Create a new supplier of a full set of compiler phases, caching the generated output against the compiler identity.
+   */
+  public FullPhaseSupplier(final SharedThreadContext<CompilableProgram> compilableProgramAccess,
+                           final FileHandling fileHandling,
+                           final Supplier<Optional<Digest.CheckSum>> compilerIdentity,
+                           final CompilationPhaseListener listener,
+                           final CompilerReporter reporter) {
+
     super(compilableProgramAccess, listener, reporter);
     frontEndSupplier = new FrontEndSupplier(compilableProgramAccess, listener, reporter, true);
     middleEndSupplier = new MiddleEndSupplier(compilableProgramAccess, listener, reporter);
-    backEndSupplier = new BackEndSupplier(compilableProgramAccess, fileHandling, listener, reporter);
+    backEndSupplier = new BackEndSupplier(compilableProgramAccess, fileHandling, compilerIdentity, listener, reporter);
 
   }
 
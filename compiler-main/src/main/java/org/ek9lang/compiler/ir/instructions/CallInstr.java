@@ -87,6 +87,13 @@ public final class CallInstr extends IRInstr {
     visitor.visit(this);
   }
 
+  /**
+   * Get all the details of the call, including the metadata on purity and side effects.
+   */
+  public CallDetails getCallDetails() {
+    return callDetails;
+  }
+
   public String getTargetObject() {
     return callDetails.targetObject();
   }
@@ -95,6 +95,20 @@ public final class ControlFlowChainInstr extends IRInstr {
     return chainType;
   }
 
+  /**
+   * Get the instructions that set up the evaluation variable.
+   */
+  public List<IRInstr> getEvaluationVariableSetup() {
+    return evaluationVariableSetup;
+  }
+
+  /**
+   * Get the instructions that set up the return variable.
+   */
+  public List<IRInstr> getReturnVariableSetup() {
+    return returnVariableSetup;
+  }
+
   /**
    * Get the sequential condition chain.
    */
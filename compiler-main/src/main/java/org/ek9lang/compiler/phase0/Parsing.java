@@ -52,7 +52,7 @@ public final class Parsing
   private CompilationPhaseResult prepare(Workspace workspace, CompilerFlags compilerFlags) {
 
     reporter.log(READING);
-    final var result = underTakeParsingOperation(workspace, CompilableSource::prepareToParse);
+    final var result = underTakeParsingOperation(workspace, compilerFlags, CompilableSource::prepareToParse);
     final var compilationPhase = compilerFlags.getCompileToPhase();
     final var phaseMatch = compilationPhase == READING;
     return new CompilationPhaseResult(READING, result, phaseMatch);
@@ -61,18 +61,23 @@ public final class Parsing
   private CompilationPhaseResult parseSources(Workspace workspace, CompilerFlags compilerFlags) {
 
     reporter.log(thisPhase);
-    final var result = underTakeParsingOperation(workspace, CompilableSource::completeParsing);
+    final var result = underTakeParsingOperation(workspace, compilerFlags, CompilableSource::completeParsing);
 
     return new CompilationPhaseResult(thisPhase, result, compilerFlags.getCompileToPhase() == thisPhase);
   }
 
   private boolean underTakeParsingOperation(Workspace workspace,
+                                            CompilerFlags compilerFlags,
                                             UnaryOperator<CompilableSource> operator) {
 
+    final var cancellationToken = compilerFlags.getCancellationToken();
     final var affectedSources = sourcesToBeParsed
         .apply(workspace.getSources())
         .parallelStream()
-        .map(operator).toList();
+        .map(source -> {
+          cancellationToken.checkNotCancelled();
+          return operator.apply(source);
+        }).toList();
 
     affectedSources.forEach(source -> listener.accept(new CompilationEvent(thisPhase, null, source)));
 
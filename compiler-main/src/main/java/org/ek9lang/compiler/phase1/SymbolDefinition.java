@@ -61,14 +61,14 @@ public final class SymbolDefinition extends CompilerPhase {
   @Override
   public boolean doApply(final Workspace workspace, final CompilerFlags compilerFlags) {
 
-    return underTakeSymbolDefinition(workspace);
+    return underTakeSymbolDefinition(workspace, compilerFlags);
   }
 
-  private boolean underTakeSymbolDefinition(final Workspace workspace) {
+  private boolean underTakeSymbolDefinition(final Workspace workspace, final CompilerFlags compilerFlags) {
     //May consider moving to Executor model
 
     if (notBootStrapping) {
-      defineSymbolsMultiThreaded(workspace);
+      defineSymbolsMultiThreaded(workspace, compilerFlags);
     } else {
       defineSymbolsSingleThreaded(workspace);
     }
@@ -76,17 +76,18 @@ public final class SymbolDefinition extends CompilerPhase {
     return !sourceHasErrors.test(workspace.getSources());
   }
 
-  private void defineSymbolsMultiThreaded(final Workspace workspace) {
+  private void defineSymbolsMultiThreaded(final Workspace workspace, final CompilerFlags compilerFlags) {
 
     workspace.getSources()
         .parallelStream()
-        .forEach(this::defineSymbols);
+        .forEach(cancellable(compilerFlags, source -> defineSymbols(source, compilerFlags.isRecordSymbolUses())));
 
   }
 
   private void defineSymbolsSingleThreaded(final Workspace workspace) {
 
-    workspace.getSources().forEach(this::defineSymbols);
+    //The uses of the built-in symbols are never needed.
+    workspace.getSources().forEach(source -> defineSymbols(source, false));
 
   }
 
@@ -94,9 +95,12 @@ public final class SymbolDefinition extends CompilerPhase {
    * THIS IS WHERE THE DEFINITION PHASE 1 LISTENER IS CREATED AND USED.
    * This must create 'new' stuff; except for compilableProgramAccess.
    */
-  private void defineSymbols(final CompilableSource source) {
+  private void defineSymbols(final CompilableSource source, final boolean recordSymbolUses) {
+
+    releaseReplacedNodes(source);
 
     final ParsedModule parsedModule = new ParsedModule(source, compilableProgramAccess);
+    parsedModule.setRecordSymbolUses(recordSymbolUses);
     parsedModule.acceptCompilationUnitContext(source.getCompilationUnitContext());
 
     //Need to add this early - even though there may be compiler errors
@@ -134,4 +138,24 @@ public final class SymbolDefinition extends CompilerPhase {
     }
   }
 
+  /**
+   * If only some blocks of the source were reparsed, the parsed module from its previous compilation
+   * (if it is still held) must not keep the symbols recorded against the nodes that have been replaced.
+   */
+  private void releaseReplacedNodes(final CompilableSource source) {
+
+    final var replacedNodes = source.takeReplacedNodes();
+    if (replacedNodes.isEmpty()) {
+      return;
+    }
+
+    compilableProgramAccess.accept(compilableProgram -> {
+      final var previous = compilableProgram.getParsedModuleForCompilableSource(source);
+      if (previous != null) {
+        previous.releaseRecordings(replacedNodes);
+      }
+    });
+
+  }
+
 }
@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.ek9lang.compiler.CompilableProgram;
 import org.ek9lang.compiler.CompilableSource;
 import org.ek9lang.compiler.CompilationPhase;
@@ -11,6 +12,8 @@ import org.ek9lang.compiler.CompilerFlags;
 import org.ek9lang.compiler.CompilerPhase;
 import org.ek9lang.compiler.IRModule;
 import org.ek9lang.compiler.Workspace;
+import org.ek9lang.compiler.backend.ConstructHash;
+import org.ek9lang.compiler.backend.ConstructOutputCache;
 import org.ek9lang.compiler.backend.ConstructTargetTuple;
 import org.ek9lang.compiler.backend.MainEntryTargetTuple;
 import org.ek9lang.compiler.backend.MainEntryVisitorLocator;
@@ -20,6 +23,7 @@ import org.ek9lang.compiler.common.CompilationEvent;
 import org.ek9lang.compiler.common.CompilerReporter;
 import org.ek9lang.compiler.ir.instructions.IRConstruct;
 import org.ek9lang.compiler.ir.instructions.ProgramEntryPointInstr;
+import org.ek9lang.core.Digest;
 import org.ek9lang.core.FileHandling;
 import org.ek9lang.core.SharedThreadContext;
 
@@ -33,14 +37,22 @@ public class CodeGenerationAggregates extends CompilerPhase {
   private OutputFileLocator outputFileLocator;
   private CompilerFlags compilerFlags;
   private final FileHandling fileHandling;
+  private final Supplier<Optional<Digest.CheckSum>> compilerIdentity;
   private final MainEntryVisitorLocator mainEntryVisitorLocator = new MainEntryVisitorLocator();
+  private Optional<ConstructOutputCache> outputCache = Optional.empty();
 
+  /**
+   * Create the phase, the output generated is cached against the compiler identity (if it has one).
+   */
   public CodeGenerationAggregates(final SharedThreadContext<CompilableProgram> compilableProgramAccess,
-                                  final FileHandling fileHandling, final Consumer<CompilationEvent> listener,
+                                  final FileHandling fileHandling,
+                                  final Supplier<Optional<Digest.CheckSum>> compilerIdentity,
+                                  final Consumer<CompilationEvent> listener,
                                   final CompilerReporter reporter) {
 
     super(thisPhase, compilableProgramAccess, listener, reporter);
     this.fileHandling = fileHandling;
+    this.compilerIdentity = compilerIdentity;
   }
 
   @Override
@@ -48,7 +60,20 @@ public class CodeGenerationAggregates extends CompilerPhase {
     this.compilerFlags = compilerFlags;
     this.outputFileLocator = new OutputFileLocator(fileHandling, compilerFlags);
 
-    return generateConstructOutput(workspace);
+    //Only possible to cache output when the compiler that generated it can be identified.
+    final var projectCacheDirectory = fileHandling.getCacheDirectory(workspace.getSourceFileBaseDirectory());
+    final var cacheDirectory = new File(projectCacheDirectory, "output");
+    this.outputCache = compilerIdentity.get()
+        .map(identity -> new ConstructOutputCache(cacheDirectory, identity.toString()));
+
+    final var rtn = generateConstructOutput(workspace);
+    outputCache.ifPresent(cache -> {
+      final var pruned = cache.prune();
+      reporter.log(String.format("Output cache %d hit(s), %d miss(es); hit rate %d%%; %d pruned",
+          cache.getHits(), cache.getMisses(), cache.getHitRate(), pruned));
+    });
+
+    return rtn;
   }
 
   /**
@@ -101,20 +126,27 @@ public class CodeGenerationAggregates extends CompilerPhase {
         .flatMap(List::stream)
         .toList();
 
-    // Phase 1: Generate all non-program constructs (classes, records, etc.)
-    // Sequential to avoid nested parallelism (already called from parallelStream at line 72)
-    constructs.stream()
-        .filter(construct -> !construct.isProgram())
+    final var tuples = constructs.stream()
         .map(construct -> new ConstructTargetTuple(construct, relativeFileName, compilerFlags,
             locator.apply(construct, projectDotEK9Directory)))
-        .forEach(this::produceConstructOutput);
+        .toList();
 
-    // Phase 2: Generate program constructs (after classes are written to disk)
-    constructs.stream()
-        .filter(IRConstruct::isProgram)
-        .map(construct -> new ConstructTargetTuple(construct, relativeFileName, compilerFlags,
-            locator.apply(construct, projectDotEK9Directory)))
-        .forEach(this::produceConstructOutput);
+    // In an incremental build the output of unaltered sources (with unaltered dependencies) is reused.
+    final var reuseOutput = compilableSource.isOutputReusable()
+        && tuples.stream().allMatch(tuple -> tuple.targetFile().exists());
+
+    if (!reuseOutput) {
+      // Phase 1: Generate all non-program constructs (classes, records, etc.)
+      // Sequential to avoid nested parallelism (already called from parallelStream at line 72)
+      tuples.stream()
+          .filter(tuple -> !tuple.construct().isProgram())
+          .forEach(this::produceConstructOutput);
+
+      // Phase 2: Generate program constructs (after classes are written to disk)
+      tuples.stream()
+          .filter(tuple -> tuple.construct().isProgram())
+          .forEach(this::produceConstructOutput);
+    }
 
     //Emit compilation event so directive listeners can validate bytecode
     listener.accept(new CompilationEvent(thisPhase, getParsedModuleForSource(compilableSource), compilableSource));
@@ -125,9 +157,18 @@ public class CodeGenerationAggregates extends CompilerPhase {
    * A new visitor is created for each Construct to be visited and written output to a File.
    */
   private void produceConstructOutput(final ConstructTargetTuple constructTargetTuple) {
-    final var outputVisitor =
-        new OutputVisitorLocator().apply(constructTargetTuple);
-    outputVisitor.visit();
+    if (outputCache.isEmpty()) {
+      new OutputVisitorLocator().apply(constructTargetTuple).visit();
+      return;
+    }
+
+    //If the IR of the construct is unaltered, then the output can just be restored from the cache.
+    final var cache = outputCache.get();
+    final var constructHash = new ConstructHash().apply(constructTargetTuple);
+    if (!cache.restore(constructHash, constructTargetTuple.targetFile())) {
+      new OutputVisitorLocator().apply(constructTargetTuple).visit();
+      cache.store(constructHash, constructTargetTuple.targetFile());
+    }
   }
 
   /**
@@ -81,6 +81,10 @@ public class CodeGenerationPreparation extends CompilerPhase {
       return true;
     }
 
+    if (tuple.compilableSource().isOutputReusable()) {
+      return false;
+    }
+
     final var sourceFile = new File(tuple.compilableSource().getFileName());
 
     return sourceFile.lastModified() >= tuple.targetFile().lastModified();
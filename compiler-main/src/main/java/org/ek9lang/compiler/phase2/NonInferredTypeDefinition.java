@@ -61,14 +61,15 @@ public final class NonInferredTypeDefinition extends CompilerPhase {
   @Override
   public boolean doApply(final Workspace workspace, final CompilerFlags compilerFlags) {
 
-    return underTakeTypeSymbolResolutionAndDefinition(workspace);
+    return underTakeTypeSymbolResolutionAndDefinition(workspace, compilerFlags);
 
   }
 
-  private boolean underTakeTypeSymbolResolutionAndDefinition(final Workspace workspace) {
+  private boolean underTakeTypeSymbolResolutionAndDefinition(final Workspace workspace,
+                                                             final CompilerFlags compilerFlags) {
 
     if (useMultiThreading) {
-      defineSymbolsMultiThreaded(workspace);
+      defineSymbolsMultiThreaded(workspace, compilerFlags);
     } else {
       defineSymbolsSingleThreaded(workspace);
     }
@@ -76,9 +77,9 @@ public final class NonInferredTypeDefinition extends CompilerPhase {
     return !sourceHasErrors.test(workspace.getSources());
   }
 
-  private void defineSymbolsMultiThreaded(final Workspace workspace) {
+  private void defineSymbolsMultiThreaded(final Workspace workspace, final CompilerFlags compilerFlags) {
 
-    workspace.getSources().parallelStream().forEach(this::resolveOrDefineTypeSymbols);
+    workspace.getSources().parallelStream().forEach(cancellable(compilerFlags, this::resolveOrDefineTypeSymbols));
 
   }
 
@@ -72,13 +72,14 @@ public final class SymbolResolution extends CompilerPhase {
   @Override
   public boolean doApply(final Workspace workspace, final CompilerFlags compilerFlags) {
 
-    return underTakeTypeSymbolResolutionAndDefinition(workspace);
+    return underTakeTypeSymbolResolutionAndDefinition(workspace, compilerFlags);
   }
 
-  private boolean underTakeTypeSymbolResolutionAndDefinition(final Workspace workspace) {
+  private boolean underTakeTypeSymbolResolutionAndDefinition(final Workspace workspace,
+                                                             final CompilerFlags compilerFlags) {
 
     if (useMultiThreading) {
-      defineSymbolsMultiThreaded(workspace);
+      defineSymbolsMultiThreaded(workspace, compilerFlags);
     } else {
       defineSymbolsSingleThreaded(workspace);
     }
@@ -86,11 +87,11 @@ public final class SymbolResolution extends CompilerPhase {
     return !sourceHasErrors.test(workspace.getSources());
   }
 
-  private void defineSymbolsMultiThreaded(final Workspace workspace) {
+  private void defineSymbolsMultiThreaded(final Workspace workspace, final CompilerFlags compilerFlags) {
 
     workspace.getSources()
         .parallelStream()
-        .forEach(this::resolveOrDefineTypeSymbols);
+        .forEach(cancellable(compilerFlags, this::resolveOrDefineTypeSymbols));
 
   }
 
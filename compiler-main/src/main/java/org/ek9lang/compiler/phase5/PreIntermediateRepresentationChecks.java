@@ -35,7 +35,7 @@ public class PreIntermediateRepresentationChecks extends CompilerPhase {
 
     workspace.getSources()
         .parallelStream()
-        .forEach(this::structureValidOrError);
+        .forEach(cancellable(compilerFlags, this::structureValidOrError));
 
     return !sourceHasErrors.test(workspace.getSources());
   }
@@ -58,7 +58,7 @@ public final class IRGenerator extends CompilerPhase {
 
     workspace.getSources()
         .parallelStream()
-        .forEach(source -> defineIR(source, allPrograms, compilerFlags));
+        .forEach(cancellable(compilerFlags, source -> defineIR(source, allPrograms, compilerFlags)));
 
   }
 
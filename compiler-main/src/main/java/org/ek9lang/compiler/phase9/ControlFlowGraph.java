@@ -0,0 +1,128 @@
+package org.ek9lang.compiler.phase9;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.ek9lang.compiler.ir.instructions.BasicBlockInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+
+/**
+ * The body of an operation laid out as basic blocks, joined by predecessor and successor edges.
+ * <p>
+ * The IR keeps control flow structured, an operation body is a single basic block in which control flow chains,
+ * logical blocks and for range loops hold their own nested instructions. See {@link ControlFlowLowering} for how
+ * each of those is laid out here.
+ * </p>
+ * <p>
+ * The blocks hold the very same instruction objects as the structured IR. So anything an analysis records on an
+ * instruction, such as its escape metadata, is seen by both the JVM and LLVM backends, as they still work from the
+ * structured form. The only new instructions are the PHI instructions that merge the result of a structured
+ * instruction from each of its paths, {@link #originOf(IRInstr)} maps those back to the structured instruction.
+ * </p>
+ */
+final class ControlFlowGraph {
+
+  private final BasicBlockInstr entry;
+  private final BasicBlockInstr exit;
+  private final List<BasicBlockInstr> blocks;
+  private final Map<IRInstr, IRInstr> origins;
+  private final Map<IRInstr, BasicBlockInstr> blockOfInstruction = new IdentityHashMap<>();
+
+  ControlFlowGraph(final BasicBlockInstr entry,
+                   final BasicBlockInstr exit,
+                   final List<BasicBlockInstr> blocks,
+                   final Map<IRInstr, IRInstr> origins) {
+
+    this.entry = entry;
+    this.exit = exit;
+    this.blocks = List.copyOf(blocks);
+    this.origins = Collections.unmodifiableMap(origins);
+
+    for (var block : blocks) {
+      block.getInstructions().forEach(instruction -> blockOfInstruction.put(instruction, block));
+    }
+  }
+
+  /**
+   * The block control enters the operation by, this has the label of the original body.
+   */
+  BasicBlockInstr getEntry() {
+    return entry;
+  }
+
+  /**
+   * The empty block every return and throw (and falling off the end of the body) leads to.
+   */
+  BasicBlockInstr getExit() {
+    return exit;
+  }
+
+  /**
+   * All the blocks, in the order they were laid out. This includes any blocks that are not reachable.
+   */
+  List<BasicBlockInstr> getBlocks() {
+    return blocks;
+  }
+
+  /**
+   * The blocks reachable from the entry in reverse post order, so each block comes before its successors,
+   * other than where the edge to the successor is a loop back edge.
+   */
+  List<BasicBlockInstr> reversePostOrder() {
+
+    final List<BasicBlockInstr> postOrder = new ArrayList<>();
+    final Set<BasicBlockInstr> visited = new HashSet<>();
+    final var pending = new ArrayDeque<Visit>();
+
+    visited.add(entry);
+    pending.push(new Visit(entry, entry.getSuccessors()));
+    while (!pending.isEmpty()) {
+      final var visit = pending.peek();
+      if (visit.next < visit.successors.size()) {
+        final var successor = visit.successors.get(visit.next++);
+        if (visited.add(successor)) {
+          pending.push(new Visit(successor, successor.getSuccessors()));
+        }
+      } else {
+        pending.pop();
+        postOrder.add(visit.block);
+      }
+    }
+
+    return postOrder.reversed();
+  }
+
+  /**
+   * The instruction in the structured IR that this instruction stands for, this is the instruction itself
+   * for everything other than the PHI instructions added when the graph was laid out.
+   */
+  IRInstr originOf(final IRInstr instruction) {
+
+    return origins.getOrDefault(instruction, instruction);
+  }
+
+  /**
+   * The block the instruction was laid out in.
+   */
+  Optional<BasicBlockInstr> blockOf(final IRInstr instruction) {
+
+    return Optional.ofNullable(blockOfInstruction.get(instruction));
+  }
+
+  private static final class Visit {
+    private final BasicBlockInstr block;
+    private final List<BasicBlockInstr> successors;
+    private int next;
+
+    private Visit(final BasicBlockInstr block, final List<BasicBlockInstr> successors) {
+      this.block = block;
+      this.successors = successors;
+    }
+  }
+}
@@ -0,0 +1,415 @@
+package org.ek9lang.compiler.phase9;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.ek9lang.compiler.ir.IROpcode;
+import org.ek9lang.compiler.ir.data.ConditionCaseDetails;
+import org.ek9lang.compiler.ir.instructions.BasicBlockInstr;
+import org.ek9lang.compiler.ir.instructions.BranchInstr;
+import org.ek9lang.compiler.ir.instructions.ControlFlowChainInstr;
+import org.ek9lang.compiler.ir.instructions.ForRangePolymorphicInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.LabelInstr;
+import org.ek9lang.compiler.ir.instructions.LogicalOperationInstr;
+import org.ek9lang.core.AssertValue;
+
+/**
+ * Lays out the structured body of an operation as a {@link ControlFlowGraph}, this is only for analysis,
+ * the operation itself is left as it is.
+ * <p>
+ * Each nested list of instructions in a structured instruction is laid out in blocks of its own:
+ * </p>
+ * <ul>
+ *   <li>Conditional chains (if, switch, question and coalescing operators and the like) test each case in turn,
+ *   with an edge to the case body and one on to the next case, ending with the default.</li>
+ *   <li>While loops test the condition in a loop header, do while loops test it after the body,
+ *   either way with a back edge.</li>
+ *   <li>Try blocks have an edge from each of their blocks to every catch handler, then on to any finally block.</li>
+ *   <li>Logical and/or blocks have a short circuit edge past the evaluation of the right operand.</li>
+ *   <li>For range loops dispatch on direction to the ascending, descending or single iteration case. The body is
+ *   shared by all three, so it is laid out once with edges from its end to each of the increments, this allows
+ *   paths that cannot happen, which is safe for analysis.</li>
+ * </ul>
+ * <p>
+ * Where a structured instruction has a result, a PHI instruction defines it at the join of the paths, with
+ * the variable that holds the result and the label of the block it comes from for each path.
+ * LABEL, BRANCH, RETURN and THROW instructions (as used in synthesized operations) end blocks as expected.
+ * No branch instructions are added, the edges alone record how control passes between the blocks.
+ * </p>
+ */
+final class ControlFlowLowering implements Function<BasicBlockInstr, ControlFlowGraph> {
+
+  @Override
+  public ControlFlowGraph apply(final BasicBlockInstr body) {
+
+    AssertValue.checkNotNull("Body to lower cannot be null", body);
+    return new Layout().lower(body);
+  }
+
+  /**
+   * The variable holding a result and the block it comes from.
+   */
+  private record Incoming(String value, BasicBlockInstr block) {
+  }
+
+  /**
+   * The blocks of a for range loop that are shared by the ascending and descending cases.
+   */
+  private record RangeLoop(BasicBlockInstr body, BasicBlockInstr latch, BasicBlockInstr join) {
+  }
+
+  /**
+   * The state of laying out a single body.
+   */
+  private static final class Layout {
+
+    private final List<BasicBlockInstr> blocks = new ArrayList<>();
+    private final Map<String, BasicBlockInstr> labelled = new HashMap<>();
+    private final Map<IRInstr, IRInstr> origins = new IdentityHashMap<>();
+    private BasicBlockInstr exit;
+    private int blockCount;
+
+    private ControlFlowGraph lower(final BasicBlockInstr body) {
+
+      final var entry = add(new BasicBlockInstr(body.getLabel()));
+      exit = newBlock("exit");
+
+      final var end = lower(body.getInstructions(), entry);
+      if (end != null) {
+        end.addSuccessor(exit);
+      }
+
+      return new ControlFlowGraph(entry, exit, blocks, origins);
+    }
+
+    /**
+     * Lays out the instructions from the block given, providing the block control ends up in,
+     * or null if control has left (by a return, throw or branch).
+     */
+    private BasicBlockInstr lower(final List<IRInstr> instructions, final BasicBlockInstr from) {
+
+      if (instructions == null) {
+        return from;
+      }
+
+      var current = from;
+      for (var instruction : instructions) {
+        current = lower(instruction, current);
+      }
+      return current;
+    }
+
+    private BasicBlockInstr lower(final IRInstr instruction, final BasicBlockInstr from) {
+
+      if (instruction instanceof LabelInstr label) {
+        final var block = labelledBlock(label.getLabelName());
+        if (from != null) {
+          from.addSuccessor(block);
+        }
+        block.addInstruction(label);
+        return block;
+      }
+
+      final var current = continueFrom(from);
+      return switch (instruction) {
+        case ControlFlowChainInstr chain -> lowerChain(chain, current);
+        case LogicalOperationInstr logical -> lowerLogical(logical, current);
+        case ForRangePolymorphicInstr forRange -> lowerForRange(forRange, current);
+        default -> lowerSimple(instruction, current);
+      };
+    }
+
+    private BasicBlockInstr lowerSimple(final IRInstr instruction, final BasicBlockInstr current) {
+
+      current.addInstruction(instruction);
+
+      if (instruction instanceof BranchInstr branch && branch.getTargetLabel() != null) {
+        current.addSuccessor(labelledBlock(branch.getTargetLabel()));
+        if (branch.getOpcode() == IROpcode.BRANCH) {
+          return null;
+        }
+        final var next = newBlock("next");
+        current.addSuccessor(next);
+        return next;
+      }
+
+      if (instruction.getOpcode() == IROpcode.RETURN || instruction.getOpcode() == IROpcode.THROW) {
+        current.addSuccessor(exit);
+        return null;
+      }
+
+      return current;
+    }
+
+    private BasicBlockInstr lowerChain(final ControlFlowChainInstr chain, final BasicBlockInstr from) {
+
+      var current = continueFrom(lower(chain.getEvaluationVariableSetup(), from));
+      current = continueFrom(lower(chain.getReturnVariableSetup(), current));
+
+      final var chainType = chain.getChainType();
+      if (chainType.startsWith("DO_WHILE")) {
+        return lowerDoWhile(chain, current);
+      }
+      if (chainType.startsWith("WHILE")) {
+        return lowerWhile(chain, current);
+      }
+      if (chain.getTryBlockDetails() != null) {
+        return lowerTryCatch(chain, current);
+      }
+      return lowerConditions(chain, current);
+    }
+
+    private BasicBlockInstr lowerConditions(final ControlFlowChainInstr chain, final BasicBlockInstr from) {
+
+      final List<Incoming> results = new ArrayList<>();
+      final var join = newBlock("join");
+
+      var current = from;
+      for (var conditionCase : chain.getConditionChain()) {
+        current = lowerCondition(conditionCase, current);
+        final var body = newBlock("case");
+        final var next = newBlock("next");
+        current.addSuccessor(body);
+        current.addSuccessor(next);
+        merge(lower(conditionCase.bodyEvaluation(), body), conditionCase.bodyResult(), join, results);
+        current = next;
+      }
+      merge(lower(chain.getDefaultBodyEvaluation(), current), chain.getDefaultResult(), join, results);
+
+      defineResult(chain, join, results);
+      return join;
+    }
+
+    private BasicBlockInstr lowerWhile(final ControlFlowChainInstr chain, final BasicBlockInstr from) {
+
+      final var conditionCase = chain.getConditionChain().getFirst();
+      final var header = newBlock("loop");
+      from.addSuccessor(header);
+
+      final var condition = lowerCondition(conditionCase, header);
+      final var body = newBlock("body");
+      final var join = newBlock("join");
+      condition.addSuccessor(body);
+      condition.addSuccessor(join);
+
+      final var end = lower(conditionCase.bodyEvaluation(), body);
+      if (end != null) {
+        end.addSuccessor(header);
+      }
+
+      defineResult(chain, join, List.of());
+      return join;
+    }
+
+    private BasicBlockInstr lowerDoWhile(final ControlFlowChainInstr chain, final BasicBlockInstr from) {
+
+      final var conditionCase = chain.getConditionChain().getFirst();
+      final var body = newBlock("body");
+      from.addSuccessor(body);
+
+      final var end = continueFrom(lower(conditionCase.bodyEvaluation(), body));
+      final var condition = lowerCondition(conditionCase, end);
+      final var join = newBlock("join");
+      condition.addSuccessor(body);
+      condition.addSuccessor(join);
+
+      defineResult(chain, join, List.of());
+      return join;
+    }
+
+    private BasicBlockInstr lowerTryCatch(final ControlFlowChainInstr chain, final BasicBlockInstr from) {
+
+      final var tryStart = newBlock("try");
+      from.addSuccessor(tryStart);
+      final var firstTryBlock = blocks.size() - 1;
+      final var tryEnd = lower(chain.getTryBlockDetails().tryBodyEvaluation(), tryStart);
+      final var tryBlocks = List.copyOf(blocks.subList(firstTryBlock, blocks.size()));
+
+      final var hasFinally = !chain.getFinallyBlockEvaluation().isEmpty();
+      final var afterwards = newBlock(hasFinally ? "finally" : "join");
+      if (tryEnd != null) {
+        tryEnd.addSuccessor(afterwards);
+      }
+
+      for (var handler : chain.getConditionChain()) {
+        final var handlerStart = newBlock("catch");
+        tryBlocks.forEach(block -> block.addSuccessor(handlerStart));
+        final var handlerEnd = lower(handler.bodyEvaluation(), lowerCondition(handler, handlerStart));
+        if (handlerEnd != null) {
+          handlerEnd.addSuccessor(afterwards);
+        }
+      }
+
+      if (!hasFinally) {
+        defineResult(chain, afterwards, List.of());
+        return afterwards;
+      }
+
+      //An exception that is not caught still passes through the finally block.
+      tryBlocks.forEach(block -> block.addSuccessor(afterwards));
+      final var finallyEnd = lower(chain.getFinallyBlockEvaluation(), afterwards);
+      final var join = newBlock("join");
+      if (finallyEnd != null) {
+        finallyEnd.addSuccessor(join);
+      }
+
+      defineResult(chain, join, List.of());
+      return join;
+    }
+
+    private BasicBlockInstr lowerCondition(final ConditionCaseDetails conditionCase, final BasicBlockInstr from) {
+
+      final var current = continueFrom(lower(conditionCase.guardUpdates(), from));
+      return continueFrom(lower(conditionCase.conditionEvaluation(), current));
+    }
+
+    private BasicBlockInstr lowerLogical(final LogicalOperationInstr logical, final BasicBlockInstr from) {
+
+      var current = continueFrom(lower(logical.getLeftEvaluationInstructions(), from));
+      current = continueFrom(lower(logical.getConditionalEvaluation().conditionInstructions(), current));
+
+      final var right = newBlock("right");
+      final var join = newBlock("join");
+      if (logical.getOperation() == LogicalOperationInstr.Operation.AND) {
+        current.addSuccessor(right);
+        current.addSuccessor(join);
+      } else {
+        current.addSuccessor(join);
+        current.addSuccessor(right);
+      }
+
+      final List<Incoming> results = new ArrayList<>();
+      results.add(new Incoming(logical.getLeftOperand(), current));
+      final var rightEnd = continueFrom(lower(logical.getRightEvaluationInstructions(), right));
+      merge(lower(logical.getResultComputationInstructions(), rightEnd), logical.getLogicalResult(), join, results);
+
+      defineResult(logical, join, results);
+      return join;
+    }
+
+    private BasicBlockInstr lowerForRange(final ForRangePolymorphicInstr forRange, final BasicBlockInstr from) {
+
+      final var cases = forRange.getDispatchCases();
+      final var body = newBlock("body");
+      final var latch = newBlock("latch");
+      final var join = newBlock("join");
+      final var rangeLoop = new RangeLoop(body, latch, join);
+
+      final var ascending = cases.ascending();
+      var current = continueFrom(lower(forRange.getInitializationInstructions(), from));
+      current = continueFrom(lower(ascending.directionCheck(), current));
+      final var ascendingHeader = newBlock("loop");
+      final var notAscending = newBlock("next");
+      current.addSuccessor(ascendingHeader);
+      current.addSuccessor(notAscending);
+      lowerRangeCase(ascendingHeader, ascending.loopConditionTemplate(), ascending.loopBodySetup(),
+          ascending.loopIncrement(), rangeLoop);
+
+      final var descending = cases.descending();
+      current = continueFrom(lower(descending.directionCheck(), notAscending));
+      final var descendingHeader = newBlock("loop");
+      final var notDescending = newBlock("next");
+      current.addSuccessor(descendingHeader);
+      current.addSuccessor(notDescending);
+      lowerRangeCase(descendingHeader, descending.loopConditionTemplate(), descending.loopBodySetup(),
+          descending.loopIncrement(), rangeLoop);
+
+      final var equal = cases.equal();
+      current = continueFrom(lower(equal.directionCheck(), notDescending));
+      final var equalSetup = newBlock("setup");
+      current.addSuccessor(equalSetup);
+      current.addSuccessor(join);
+      final var equalSetupEnd = lower(equal.loopBodySetup(), equalSetup);
+      if (equalSetupEnd != null) {
+        equalSetupEnd.addSuccessor(body);
+      }
+
+      final var bodyEnd = lower(forRange.getBodyInstructions(), body);
+      if (bodyEnd != null) {
+        bodyEnd.addSuccessor(latch);
+      }
+      //The single iteration case leaves the loop from the latch.
+      latch.addSuccessor(join);
+
+      defineResult(forRange, join, List.of());
+      return join;
+    }
+
+    /**
+     * Lays out the loop condition, body setup and increment for one direction of a for range loop.
+     */
+    private void lowerRangeCase(final BasicBlockInstr header,
+                                final List<IRInstr> loopCondition,
+                                final List<IRInstr> bodySetup,
+                                final List<IRInstr> increment,
+                                final RangeLoop rangeLoop) {
+
+      final var condition = continueFrom(lower(loopCondition, header));
+      final var setup = newBlock("setup");
+      condition.addSuccessor(setup);
+      condition.addSuccessor(rangeLoop.join());
+      final var setupEnd = lower(bodySetup, setup);
+      if (setupEnd != null) {
+        setupEnd.addSuccessor(rangeLoop.body());
+      }
+
+      final var incrementStart = newBlock("increment");
+      rangeLoop.latch().addSuccessor(incrementStart);
+      final var incrementEnd = lower(increment, incrementStart);
+      if (incrementEnd != null) {
+        incrementEnd.addSuccessor(header);
+      }
+    }
+
+    private void merge(final BasicBlockInstr end,
+                       final String value,
+                       final BasicBlockInstr join,
+                       final List<Incoming> results) {
+
+      if (end != null) {
+        end.addSuccessor(join);
+        if (value != null) {
+          results.add(new Incoming(value, end));
+        }
+      }
+    }
+
+    private void defineResult(final IRInstr structured, final BasicBlockInstr join, final List<Incoming> results) {
+
+      if (structured.hasResult()) {
+        final var phi = new IRInstr(IROpcode.PHI, structured.getResult(), structured.getDebugInfo().orElse(null));
+        results.forEach(incoming -> phi.addOperands(incoming.value(), incoming.block().getLabel()));
+        origins.put(phi, structured);
+        join.addInstruction(phi);
+      }
+    }
+
+    /**
+     * Instructions after control has left are unreachable, but they are still given a block.
+     */
+    private BasicBlockInstr continueFrom(final BasicBlockInstr block) {
+
+      return block != null ? block : newBlock("unreachable");
+    }
+
+    private BasicBlockInstr labelledBlock(final String label) {
+
+      return labelled.computeIfAbsent(label, _ -> add(new BasicBlockInstr(label)));
+    }
+
+    private BasicBlockInstr newBlock(final String purpose) {
+
+      return add(new BasicBlockInstr("_cfg_" + purpose + "_" + ++blockCount));
+    }
+
+    private BasicBlockInstr add(final BasicBlockInstr block) {
+
+      blocks.add(block);
+      return block;
+    }
+  }
+}
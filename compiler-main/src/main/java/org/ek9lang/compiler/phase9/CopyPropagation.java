@@ -0,0 +1,184 @@
+package org.ek9lang.compiler.phase9;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import org.ek9lang.compiler.ir.IROpcode;
+import org.ek9lang.compiler.ir.data.CallDetails;
+import org.ek9lang.compiler.ir.instructions.CallInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.MemoryInstr;
+
+/**
+ * Replaces temporaries that are just copies of another value, with that value.
+ * <p>
+ * So '_temp2 = LOAD counter' followed by '_temp3 = CALL (org.ek9.lang::Integer)_temp2._add(_temp1)',
+ * becomes '_temp3 = CALL (org.ek9.lang::Integer)counter._add(_temp1)'. The memory management of the copy
+ * (RETAIN, RELEASE and SCOPE_REGISTER) is removed along with it, as the value is already managed through
+ * what it was copied from.
+ * </p>
+ * <p>
+ * The copy can be of another temporary or of a local variable/parameter. For a variable, there must be no
+ * instruction between the copy and its last use that could alter the variable (i.e. a STORE or RELEASE of it,
+ * a SCOPE_EXIT, or any instruction other than a literal, memory, scope or call instruction).
+ * </p>
+ */
+final class CopyPropagation implements UnaryOperator<List<IRInstr>> {
+
+  private static final Pattern LOCAL_VARIABLE = Pattern.compile("[a-zA-Z]\\w*");
+  private static final Set<String> NOT_VARIABLES = Set.of("this", "super");
+
+  @Override
+  public List<IRInstr> apply(final List<IRInstr> instructions) {
+
+    final var usage = new TemporaryUsage(instructions);
+    final List<IRInstr> rtn = new ArrayList<>(instructions);
+    final Set<Integer> removed = new HashSet<>();
+
+    for (int i = 0; i < instructions.size(); i++) {
+      if (!removed.contains(i) && isCopy(rtn.get(i))) {
+        propagate(i, rtn, usage, removed);
+      }
+    }
+
+    final List<IRInstr> propagated = new ArrayList<>();
+    for (int i = 0; i < rtn.size(); i++) {
+      if (!removed.contains(i)) {
+        propagated.add(rtn.get(i));
+      }
+    }
+
+    return propagated;
+  }
+
+  private boolean isCopy(final IRInstr instruction) {
+
+    return instruction instanceof MemoryInstr && instruction.getOpcode() == IROpcode.LOAD
+        && instruction.hasResult() && instruction.getOperands().size() == 1;
+  }
+
+  private void propagate(final int index,
+                         final List<IRInstr> instructions,
+                         final TemporaryUsage usage,
+                         final Set<Integer> removed) {
+
+    final var copy = instructions.get(index);
+    final var temporary = copy.getResult();
+    final var source = copy.getOperands().getFirst();
+
+    if (usage.definitionOf(temporary).isEmpty() || !isPropagatable(source, usage)) {
+      return;
+    }
+
+    final var mentions = usage.mentionsOf(temporary);
+    final List<IRInstr> replacements = new ArrayList<>();
+    for (var mention : mentions) {
+      final var instruction = instructions.get(mention);
+      if (TemporaryUsage.isMemoryManagement(instruction)) {
+        replacements.add(null);
+      } else {
+        final var replacement = replace(instruction, temporary, source);
+        if (replacement.isEmpty()) {
+          return;
+        }
+        replacements.add(replacement.get());
+      }
+    }
+
+    if (!mentions.isEmpty() && !isUnalteredUntil(source, index, mentions.getLast(), instructions)) {
+      return;
+    }
+
+    removed.add(index);
+    for (int i = 0; i < mentions.size(); i++) {
+      final var replacement = replacements.get(i);
+      if (replacement == null) {
+        removed.add(mentions.get(i));
+      } else {
+        instructions.set(mentions.get(i), replacement);
+      }
+    }
+
+  }
+
+  private boolean isPropagatable(final String source, final TemporaryUsage usage) {
+
+    if (TemporaryUsage.isTemporary(source)) {
+      return usage.definitionOf(source).isPresent();
+    }
+
+    return LOCAL_VARIABLE.matcher(source).matches() && !NOT_VARIABLES.contains(source);
+  }
+
+  /**
+   * Check nothing between the copy and the last use of the copy could alter (or release) what was copied.
+   */
+  private boolean isUnalteredUntil(final String source,
+                                   final int from,
+                                   final int until,
+                                   final List<IRInstr> instructions) {
+
+    for (int i = from + 1; i <= until; i++) {
+      final var instruction = instructions.get(i);
+      if (!TemporaryUsage.isUnderstood(instruction) || isAlteredBy(instruction, source)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean isAlteredBy(final IRInstr instruction, final String source) {
+
+    final var opcode = instruction.getOpcode();
+    final var operands = instruction.getOperands();
+
+    //Once a scope exits, what it holds may have been released.
+    if (opcode == IROpcode.SCOPE_EXIT || source.equals(instruction.getResult())) {
+      return true;
+    }
+
+    return (opcode == IROpcode.STORE || opcode == IROpcode.RELEASE || opcode == IROpcode.REFERENCE)
+        && !operands.isEmpty() && source.equals(operands.getFirst());
+  }
+
+  /**
+   * Create a new instruction just like the one supplied, but with the value in place of the temporary.
+   * Only calls, loads and the source of stores can be altered in this way.
+   */
+  private Optional<IRInstr> replace(final IRInstr instruction, final String temporary, final String value) {
+
+    final var debugInfo = instruction.getDebugInfo().orElse(null);
+    IRInstr rtn = null;
+
+    if (instruction instanceof CallInstr call
+        && (call.getOpcode() == IROpcode.CALL || call.getOpcode() == IROpcode.CALL_STATIC)) {
+      final var details = call.getCallDetails();
+      final var replaced = new CallDetails(
+          temporary.equals(details.targetObject()) ? value : details.targetObject(),
+          details.targetTypeName(),
+          details.methodName(),
+          details.parameterTypes(),
+          details.returnTypeName(),
+          details.arguments().stream().map(argument -> temporary.equals(argument) ? value : argument).toList(),
+          details.metaData(),
+          details.isTraitCall());
+      rtn = call.getOpcode() == IROpcode.CALL
+          ? CallInstr.call(call.getResult(), debugInfo, replaced)
+          : CallInstr.callStatic(call.getResult(), debugInfo, replaced);
+    } else if (instruction instanceof MemoryInstr && instruction.getOpcode() == IROpcode.LOAD
+        && instruction.getOperands().equals(List.of(temporary))) {
+      rtn = MemoryInstr.load(instruction.getResult(), value, debugInfo);
+    } else if (instruction instanceof MemoryInstr && instruction.getOpcode() == IROpcode.STORE
+        && instruction.getOperands().size() == 2 && temporary.equals(instruction.getOperands().getLast())
+        && !temporary.equals(instruction.getOperands().getFirst())) {
+      rtn = MemoryInstr.store(instruction.getOperands().getFirst(), value, debugInfo);
+    }
+
+    return Optional.ofNullable(rtn);
+  }
+}
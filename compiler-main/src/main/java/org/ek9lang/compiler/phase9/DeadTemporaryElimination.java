@@ -0,0 +1,77 @@
+package org.ek9lang.compiler.phase9;
+
+import static org.ek9lang.compiler.support.EK9TypeNames.EK9_LANG;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import org.ek9lang.compiler.ir.IROpcode;
+import org.ek9lang.compiler.ir.instructions.CallInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.LiteralInstr;
+import org.ek9lang.compiler.ir.instructions.MemoryInstr;
+
+/**
+ * Removes the instructions that define temporaries which are never used, when those instructions
+ * have no side effects. The memory management of the temporary (RETAIN, RELEASE and SCOPE_REGISTER)
+ * is removed with it, as that is not a real use.
+ * <p>
+ * Loads of literals and loads of variables have no side effects. Calls only qualify when they are
+ * pure operators on the built-in types, with no side effects other than returning a new value.
+ * Calls on developer types are always kept, even if marked as pure.
+ * </p>
+ */
+final class DeadTemporaryElimination implements UnaryOperator<List<IRInstr>> {
+
+  private static final Set<String> ACCEPTABLE_SIDE_EFFECTS = Set.of("RETURN_MUTATION");
+
+  @Override
+  public List<IRInstr> apply(final List<IRInstr> instructions) {
+
+    final var usage = new TemporaryUsage(instructions);
+    final Set<Integer> removed = new HashSet<>();
+
+    for (int i = 0; i < instructions.size(); i++) {
+      final var instruction = instructions.get(i);
+      if (isFreeOfSideEffects(instruction) && usage.definitionOf(instruction.getResult()).isPresent()) {
+        final var mentions = usage.mentionsOf(instruction.getResult());
+        if (mentions.stream().map(instructions::get).allMatch(TemporaryUsage::isMemoryManagement)) {
+          removed.add(i);
+          removed.addAll(mentions);
+        }
+      }
+    }
+
+    final List<IRInstr> rtn = new ArrayList<>();
+    for (int i = 0; i < instructions.size(); i++) {
+      if (!removed.contains(i)) {
+        rtn.add(instructions.get(i));
+      }
+    }
+
+    return rtn;
+  }
+
+  private boolean isFreeOfSideEffects(final IRInstr instruction) {
+
+    if (instruction instanceof LiteralInstr) {
+      return true;
+    }
+
+    if (instruction instanceof MemoryInstr) {
+      return instruction.getOpcode() == IROpcode.LOAD;
+    }
+
+    if (instruction instanceof CallInstr call && call.getOpcode() == IROpcode.CALL && !call.isConstructorCall()) {
+      final var metaData = call.getCallDetails().metaData();
+      return metaData.isPure()
+          && ACCEPTABLE_SIDE_EFFECTS.containsAll(metaData.sideEffects())
+          && call.getMethodName().startsWith("_")
+          && call.getTargetTypeName().startsWith(EK9_LANG + "::");
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,168 @@
+package org.ek9lang.compiler.phase9;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.ek9lang.compiler.ir.instructions.BasicBlockInstr;
+
+/**
+ * Which blocks of a {@link ControlFlowGraph} dominate which, along with the dominance frontier of each block.
+ * <p>
+ * Block A dominates block B when every path from the entry to B passes through A. The dominance frontier of A
+ * is where that stops, the blocks with a predecessor dominated by A that are not themselves strictly dominated
+ * by A. That is where the values defined in A have to be merged with those from other paths.
+ * </p>
+ * <p>
+ * Only the blocks reachable from the entry take part. This uses the simple iterative algorithm from
+ * Cooper, Harvey and Kennedy, as the graphs for operation bodies are small.
+ * </p>
+ */
+final class DominatorTree {
+
+  private final List<BasicBlockInstr> order;
+  private final Map<BasicBlockInstr, Integer> positions = new HashMap<>();
+  private final Map<BasicBlockInstr, BasicBlockInstr> immediateDominators = new HashMap<>();
+  private final Map<BasicBlockInstr, List<BasicBlockInstr>> children = new HashMap<>();
+  private final Map<BasicBlockInstr, Set<BasicBlockInstr>> frontiers = new HashMap<>();
+
+  DominatorTree(final ControlFlowGraph graph) {
+
+    this.order = graph.reversePostOrder();
+    for (int i = 0; i < order.size(); i++) {
+      positions.put(order.get(i), i);
+    }
+
+    computeImmediateDominators();
+
+    for (var block : order) {
+      frontiers.put(block, new LinkedHashSet<>());
+      children.put(block, new ArrayList<>());
+    }
+    for (var block : order.subList(1, order.size())) {
+      children.get(immediateDominators.get(block)).add(block);
+    }
+
+    computeFrontiers();
+  }
+
+  /**
+   * The reachable blocks in reverse post order, starting with the entry.
+   */
+  List<BasicBlockInstr> getOrder() {
+    return order;
+  }
+
+  boolean isReachable(final BasicBlockInstr block) {
+    return positions.containsKey(block);
+  }
+
+  /**
+   * The predecessors of the block that are reachable, control can only really arrive from these.
+   */
+  List<BasicBlockInstr> reachablePredecessorsOf(final BasicBlockInstr block) {
+
+    return block.getPredecessors().stream().filter(this::isReachable).toList();
+  }
+
+  /**
+   * The closest strict dominator of the block, there is none for the entry or any unreachable block.
+   */
+  Optional<BasicBlockInstr> immediateDominatorOf(final BasicBlockInstr block) {
+
+    if (!isReachable(block) || block.equals(order.getFirst())) {
+      return Optional.empty();
+    }
+    return Optional.of(immediateDominators.get(block));
+  }
+
+  /**
+   * True if every path from the entry to the second block passes through the first (a block dominates itself).
+   */
+  boolean dominates(final BasicBlockInstr dominator, final BasicBlockInstr block) {
+
+    if (!isReachable(dominator) || !isReachable(block)) {
+      return false;
+    }
+
+    var current = block;
+    while (!current.equals(dominator)) {
+      if (current.equals(order.getFirst())) {
+        return false;
+      }
+      current = immediateDominators.get(current);
+    }
+    return true;
+  }
+
+  /**
+   * The blocks the block given is the immediate dominator of.
+   */
+  List<BasicBlockInstr> childrenOf(final BasicBlockInstr block) {
+
+    return children.getOrDefault(block, List.of());
+  }
+
+  Set<BasicBlockInstr> frontierOf(final BasicBlockInstr block) {
+
+    return frontiers.getOrDefault(block, Set.of());
+  }
+
+  private void computeImmediateDominators() {
+
+    final var entry = order.getFirst();
+    immediateDominators.put(entry, entry);
+
+    var changed = true;
+    while (changed) {
+      changed = false;
+      for (var block : order.subList(1, order.size())) {
+        BasicBlockInstr dominator = null;
+        for (var predecessor : reachablePredecessorsOf(block)) {
+          if (immediateDominators.containsKey(predecessor)) {
+            dominator = dominator == null ? predecessor : intersect(predecessor, dominator);
+          }
+        }
+        if (dominator != null && !dominator.equals(immediateDominators.get(block))) {
+          immediateDominators.put(block, dominator);
+          changed = true;
+        }
+      }
+    }
+  }
+
+  private BasicBlockInstr intersect(final BasicBlockInstr first, final BasicBlockInstr second) {
+
+    var finger1 = first;
+    var finger2 = second;
+    while (!finger1.equals(finger2)) {
+      while (positions.get(finger1) > positions.get(finger2)) {
+        finger1 = immediateDominators.get(finger1);
+      }
+      while (positions.get(finger2) > positions.get(finger1)) {
+        finger2 = immediateDominators.get(finger2);
+      }
+    }
+    return finger1;
+  }
+
+  private void computeFrontiers() {
+
+    for (var block : order) {
+      final var predecessors = reachablePredecessorsOf(block);
+      if (predecessors.size() > 1) {
+        final var dominator = immediateDominators.get(block);
+        for (var predecessor : predecessors) {
+          var runner = predecessor;
+          while (!runner.equals(dominator)) {
+            frontiers.get(runner).add(block);
+            runner = immediateDominators.get(runner);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package org.ek9lang.compiler.phase9;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.ek9lang.compiler.ir.IROpcode;
+import org.ek9lang.compiler.ir.data.EscapeMetaDataDetails;
+import org.ek9lang.compiler.ir.data.EscapeMetaDataDetails.EscapeLevel;
+import org.ek9lang.compiler.ir.data.EscapeMetaDataDetails.LifetimeScope;
+import org.ek9lang.compiler.ir.instructions.BasicBlockInstr;
+import org.ek9lang.compiler.ir.instructions.CallInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.LiteralInstr;
+import org.ek9lang.compiler.ir.instructions.OperationInstr;
+
+/**
+ * Intraprocedural escape analysis, this records the {@link EscapeMetaDataDetails} of every instruction
+ * in an operation (and its dispatch implementations) that defines a value.
+ * <p>
+ * The body is lowered to a {@link ControlFlowGraph} with {@link StaticSingleAssignment} numbering, so each
+ * use of a value is known exactly. A value escapes as far as the furthest of its uses takes it:
+ * </p>
+ * <ul>
+ *   <li>Memory management (RETAIN, RELEASE and SCOPE_REGISTER), null checks, branches and asserts do not
+ *   make it escape at all.</li>
+ *   <li>Copying it (LOAD), merging it (PHI) or storing it in a local variable makes it escape as far
+ *   as the copy does, a store is at least LOCAL.</li>
+ *   <li>Storing it anywhere else (such as a property) is FIELD, returning it is RETURN and throwing it
+ *   is GLOBAL.</li>
+ *   <li>Calls use the purity from the symbol called. A pure call cannot hold on to its target or arguments,
+ *   but could hand them back, so they escape as far as the result does. A pure call that mutates its target
+ *   could keep its arguments in the target, so they escape as far as the target does. Passing a value to
+ *   anything that is not pure is PARAMETER.</li>
+ *   <li>Any other use is taken to be GLOBAL.</li>
+ * </ul>
+ * <p>
+ * Values that do not escape the operation (NONE or LOCAL) have a LOCAL_SCOPE lifetime if they and the values
+ * they flow into are only used in the block that defines them, otherwise FUNCTION. If they are new objects
+ * (literals or constructed) they are also marked as STACK_CANDIDATE. The lifetime of values that do escape
+ * is UNKNOWN.
+ * </p>
+ * <p>
+ * Where a structured instruction has a result, its metadata is that of the PHI the lowering used for it.
+ * Instructions that cannot be reached are left unmarked.
+ * </p>
+ */
+final class EscapeAnalysis implements Consumer<OperationInstr> {
+
+  private static final String STACK_CANDIDATE = "STACK_CANDIDATE";
+  private static final String THIS_MUTATION = "THIS_MUTATION";
+
+  @Override
+  public void accept(final OperationInstr operation) {
+
+    if (operation.getBody() != null) {
+      analyse(operation.getBody());
+    }
+
+    operation.getDispatchImplementations().forEach(this);
+
+  }
+
+  /**
+   * Records the escape metadata on each reachable instruction in the body that defines a value.
+   */
+  void analyse(final BasicBlockInstr body) {
+
+    new BodyAnalysis(new StaticSingleAssignment(new ControlFlowLowering().apply(body))).mark();
+
+  }
+
+  /**
+   * The state of the analysis of a single body.
+   */
+  private static final class BodyAnalysis {
+
+    private final StaticSingleAssignment ssa;
+    private final ControlFlowGraph graph;
+    private final Set<String> localVariables = new HashSet<>();
+    private final Map<SsaValue, EscapeLevel> levels = new HashMap<>();
+
+    private BodyAnalysis(final StaticSingleAssignment ssa) {
+
+      this.ssa = ssa;
+      this.graph = ssa.getGraph();
+
+      //Only variables declared in the operation (including its parameters) are local, not 'this.property'.
+      for (var value : ssa.getValues()) {
+        levels.put(value, EscapeLevel.NONE);
+        if (!value.isEntryValue() && value.definition().getOpcode() == IROpcode.REFERENCE) {
+          localVariables.add(value.variable());
+        }
+      }
+    }
+
+    private void mark() {
+
+      findEscapeLevels();
+
+      for (var value : ssa.getValues()) {
+        final var definition = value.definition();
+        if (definition != null && definition.hasResult() && graph.blockOf(definition).isPresent()) {
+          graph.originOf(definition).setEscapeMetaData(metaDataFor(value));
+        }
+      }
+    }
+
+    private EscapeMetaDataDetails metaDataFor(final SsaValue value) {
+
+      final var level = levels.get(value);
+      if (level.compareTo(EscapeLevel.LOCAL) > 0) {
+        return new EscapeMetaDataDetails(level, LifetimeScope.UNKNOWN, Set.of());
+      }
+
+      final var lifetime = isLocalToBlock(value, new HashSet<>()) ? LifetimeScope.LOCAL_SCOPE : LifetimeScope.FUNCTION;
+      final Set<String> hints = isNewObject(value.definition()) ? Set.of(STACK_CANDIDATE) : Set.of();
+
+      return new EscapeMetaDataDetails(level, lifetime, hints);
+    }
+
+    /**
+     * Values start as not escaping and are raised until nothing changes, so values that flow around
+     * a loop settle on the furthest any of them go.
+     */
+    private void findEscapeLevels() {
+
+      var changed = true;
+      while (changed) {
+        changed = false;
+        for (var value : ssa.getValues()) {
+          var level = levels.get(value);
+          for (var use : ssa.usesOf(value)) {
+            level = furthest(level, escapeBy(use, value));
+          }
+          if (level != levels.get(value)) {
+            levels.put(value, level);
+            changed = true;
+          }
+        }
+      }
+    }
+
+    private EscapeLevel escapeBy(final IRInstr use, final SsaValue value) {
+
+      if (use instanceof CallInstr call) {
+        return escapeByCall(call, value);
+      }
+
+      return switch (use.getOpcode()) {
+        case RETAIN, RELEASE, SCOPE_REGISTER, IS_NULL, BRANCH_TRUE, BRANCH_FALSE, ASSERT -> EscapeLevel.NONE;
+        case LOAD, PHI -> levelOfResult(use);
+        case STORE -> localVariables.contains(use.getOperands().getFirst())
+            ? furthest(EscapeLevel.LOCAL, levelOfResult(use)) : EscapeLevel.FIELD;
+        case RETURN -> EscapeLevel.RETURN;
+        default -> EscapeLevel.GLOBAL;
+      };
+    }
+
+    private EscapeLevel escapeByCall(final CallInstr call, final SsaValue value) {
+
+      final var metaData = call.getCallDetails().metaData();
+      if (!metaData.isPure()) {
+        return EscapeLevel.PARAMETER;
+      }
+
+      final var rtn = levelOfResult(call);
+      if (!metaData.sideEffects().contains(THIS_MUTATION) || !call.getArguments().contains(value.variable())) {
+        return rtn;
+      }
+
+      //The target may now hold on to the argument.
+      final var target = call.getTargetObject() == null
+          ? Optional.<SsaValue>empty() : ssa.valueUsedBy(call, call.getTargetObject());
+
+      return furthest(rtn, target.map(levels::get).orElse(EscapeLevel.FIELD));
+    }
+
+    private EscapeLevel levelOfResult(final IRInstr instruction) {
+
+      return ssa.definedBy(instruction).map(levels::get).orElse(EscapeLevel.NONE);
+    }
+
+    private boolean isLocalToBlock(final SsaValue value, final Set<SsaValue> seen) {
+
+      if (!seen.add(value)) {
+        return true;
+      }
+
+      for (var use : ssa.usesOf(value)) {
+        if (use.getOpcode() == IROpcode.PHI || !graph.blockOf(use).map(value.block()::equals).orElse(false)) {
+          return false;
+        }
+        final var flowsInto = ssa.definedBy(use);
+        if (flowsInto.isPresent() && !isLocalToBlock(flowsInto.get(), seen)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    private boolean isNewObject(final IRInstr definition) {
+
+      return definition instanceof LiteralInstr
+          || definition instanceof CallInstr call && call.isConstructorCall();
+    }
+
+    private EscapeLevel furthest(final EscapeLevel first, final EscapeLevel second) {
+
+      return first.compareTo(second) >= 0 ? first : second;
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package org.ek9lang.compiler.phase9;
 
+import java.text.NumberFormat;
 import java.util.function.Consumer;
 import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.CompilableSource;
 import org.ek9lang.compiler.CompilationPhase;
 import org.ek9lang.compiler.CompilerFlags;
 import org.ek9lang.compiler.CompilerPhase;
@@ -19,6 +21,11 @@ import org.ek9lang.core.SharedThreadContext;
  * However, there is some analysis that can only take place once we have the whole IR in place.
  * That's what this phase is for, analysing the whole IR and doing any and all final checks before
  * optimisation takes place.
+ * <p>
+ * Once the IR has been verified, nothing further needs the ANTLR parse trees. So in a memory-lean
+ * build (see compilerFlags.isReleaseParseTrees()) those are released along with the transient data
+ * recorded against the tree nodes.
+ * </p>
  */
 public class IRAnalysis extends CompilerPhase {
   private static final CompilationPhase thisPhase = CompilationPhase.IR_ANALYSIS;
@@ -34,6 +41,53 @@ public class IRAnalysis extends CompilerPhase {
   @Override
   public boolean doApply(final Workspace workspace, final CompilerFlags compilerFlags) {
 
+    if (compilerFlags.isReleaseParseTrees()) {
+      releaseParseTrees(workspace);
+    }
+
     return true;
   }
+
+  private void releaseParseTrees(final Workspace workspace) {
+
+    final var usedBefore = usedMemory();
+
+    final var numTokensReleased = workspace.getSources()
+        .stream()
+        .mapToLong(this::releaseParseTree)
+        .sum();
+
+    final var usedAfter = usedMemory();
+    final var format = NumberFormat.getInstance();
+    format.setGroupingUsed(true);
+
+    reporter.log(String.format("Released parse trees for %d source(s), %s tokens; heap in use %s MB -> %s MB (%s MB)",
+        workspace.getSources().size(),
+        format.format(numTokensReleased),
+        format.format(usedBefore / (1024 * 1024)),
+        format.format(usedAfter / (1024 * 1024)),
+        format.format((usedAfter - usedBefore) / (1024 * 1024))));
+
+  }
+
+  private int releaseParseTree(final CompilableSource source) {
+
+    final var parsedModule = getParsedModuleForSource(source);
+    if (parsedModule != null) {
+      parsedModule.releaseTransientData();
+    }
+
+    return source.releaseParseTree();
+  }
+
+  /**
+   * The heap currently in use. No collection is forced, so the difference before and after release
+   * only includes what the JVM has collected in between; the rest shows once it next collects.
+   */
+  private long usedMemory() {
+
+    final var runtime = Runtime.getRuntime();
+
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
 }
@@ -1,13 +1,20 @@
 package org.ek9lang.compiler.phase9;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.CompilableSource;
 import org.ek9lang.compiler.CompilationPhase;
 import org.ek9lang.compiler.CompilerFlags;
 import org.ek9lang.compiler.CompilerPhase;
+import org.ek9lang.compiler.IRModule;
+import org.ek9lang.compiler.OptimizationLevel;
 import org.ek9lang.compiler.Workspace;
 import org.ek9lang.compiler.common.CompilationEvent;
 import org.ek9lang.compiler.common.CompilerReporter;
+import org.ek9lang.compiler.ir.instructions.IRConstruct;
+import org.ek9lang.compiler.ir.instructions.OperationInstr;
 import org.ek9lang.core.SharedThreadContext;
 
 /**
@@ -18,9 +25,19 @@ import org.ek9lang.core.SharedThreadContext;
  * - OptimizationLevel.O0 - No optimization (fast compile, maximum debuggability)
  * - OptimizationLevel.O2 - Minimal optimization (balanced - default)
  * - OptimizationLevel.O3 - Full optimization (maximum performance)
+ * <p>
+ * At O2 (and O3) literal Integer operations are folded, copies of values propagated and temporaries
+ * that are then unused are removed. See {@link OperationOptimiser}.
+ * </p>
+ * <p>
+ * Each operation then has an intraprocedural escape analysis of its optimised IR, so that backends can see
+ * which values never leave the operation. See {@link EscapeAnalysis}.
+ * </p>
  */
 public class IROptimisation extends CompilerPhase {
   private static final CompilationPhase thisPhase = CompilationPhase.IR_OPTIMISATION;
+  private final Consumer<OperationInstr> operationOptimiser =
+      new OperationOptimiser().andThen(new EscapeAnalysis());
 
   public IROptimisation(final SharedThreadContext<CompilableProgram> compilableProgramAccess,
                         final Consumer<CompilationEvent> listener,
@@ -33,10 +50,31 @@ public class IROptimisation extends CompilerPhase {
   @Override
   public boolean doApply(final Workspace workspace, final CompilerFlags compilerFlags) {
 
-    // TODO: Implement IR optimization passes based on compilerFlags.getOptimizationLevel()
-    // O0: Skip all optimizations
-    // O2: Apply basic optimizations (constant folding, dead code elimination)
-    // O3: Apply aggressive optimizations (inlining, loop unrolling, etc.)
+    //O3 does not yet add anything further to O2.
+    final var applyOptimisations = compilerFlags.getOptimizationLevel() != OptimizationLevel.O0;
+
+    workspace.getSources()
+        .forEach(cancellable(compilerFlags, source -> optimise(source, applyOptimisations)));
+
     return true;
   }
+
+  private void optimise(final CompilableSource source, final boolean applyOptimisations) {
+
+    final var holder = new AtomicReference<IRModule>();
+    compilableProgramAccess.accept(program -> holder.set(program.getIRModuleForCompilableSource(source)));
+
+    //There is no IR for extern modules.
+    final var irModule = holder.get();
+    if (applyOptimisations && irModule != null) {
+      irModule.getConstructs()
+          .stream()
+          .map(IRConstruct::getOperations)
+          .flatMap(List::stream)
+          .forEach(operationOptimiser);
+    }
+
+    //Emit compilation event so directive listeners can check the IR as optimised.
+    listener.accept(new CompilationEvent(thisPhase, getParsedModuleForSource(source), source));
+  }
 }
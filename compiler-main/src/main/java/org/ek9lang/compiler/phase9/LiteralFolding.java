@@ -0,0 +1,125 @@
+package org.ek9lang.compiler.phase9;
+
+import static org.ek9lang.compiler.support.EK9TypeNames.EK9_BOOLEAN;
+import static org.ek9lang.compiler.support.EK9TypeNames.EK9_INTEGER;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+import java.util.function.LongBinaryOperator;
+import java.util.function.UnaryOperator;
+import org.ek9lang.compiler.ir.IROpcode;
+import org.ek9lang.compiler.ir.instructions.CallInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.LiteralInstr;
+
+/**
+ * Folds operator calls on Integer literals into a single literal.
+ * <p>
+ * So '_temp3 = CALL (org.ek9.lang::Integer)_temp1._add(_temp2)' where both '_temp1' and '_temp2' are
+ * loaded from Integer literals, becomes '_temp3 = LOAD_LITERAL 7, org.ek9.lang::Integer'.
+ * The literals loaded for '_temp1' and '_temp2' are then typically unused and removed by
+ * {@link DeadTemporaryElimination}.
+ * </p>
+ * <p>
+ * The arithmetic is the same as the Integer implementation (i.e. long values that wrap), but the result is only
+ * folded when it fits within the range the backends can load as an Integer literal.
+ * </p>
+ */
+final class LiteralFolding implements UnaryOperator<List<IRInstr>> {
+
+  private static final Map<String, LongBinaryOperator> INTEGER_OPERATORS = Map.of(
+      "_add", (left, right) -> left + right,
+      "_sub", (left, right) -> left - right,
+      "_mul", (left, right) -> left * right,
+      "_cmp", Long::compare);
+
+  private static final Map<String, BiPredicate<Long, Long>> INTEGER_COMPARISONS = Map.of(
+      "_eq", Long::equals,
+      "_neq", (left, right) -> !left.equals(right),
+      "_lt", (left, right) -> left < right,
+      "_lteq", (left, right) -> left <= right,
+      "_gt", (left, right) -> left > right,
+      "_gteq", (left, right) -> left >= right);
+
+  @Override
+  public List<IRInstr> apply(final List<IRInstr> instructions) {
+
+    final var usage = new TemporaryUsage(instructions);
+    final List<IRInstr> rtn = new ArrayList<>(instructions);
+
+    for (int i = 0; i < rtn.size(); i++) {
+      if (rtn.get(i) instanceof CallInstr call) {
+        final var folded = fold(call, instructions, usage);
+        if (folded.isPresent()) {
+          rtn.set(i, folded.get());
+        }
+      }
+    }
+
+    return rtn;
+  }
+
+  private Optional<IRInstr> fold(final CallInstr call, final List<IRInstr> instructions, final TemporaryUsage usage) {
+
+    if (call.getOpcode() != IROpcode.CALL
+        || !call.hasResult()
+        || call.getArguments().size() != 1
+        || !EK9_INTEGER.equals(call.getTargetTypeName())
+        || !List.of(EK9_INTEGER).equals(call.getParameterTypes())) {
+      return Optional.empty();
+    }
+
+    final var left = integerLiteral(call.getTargetObject(), instructions, usage);
+    final var right = integerLiteral(call.getArguments().getFirst(), instructions, usage);
+    if (left.isEmpty() || right.isEmpty()) {
+      return Optional.empty();
+    }
+
+    final var operator = INTEGER_OPERATORS.get(call.getMethodName());
+    if (operator != null && EK9_INTEGER.equals(call.getReturnTypeName())) {
+      final var value = operator.applyAsLong(left.get(), right.get());
+      if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+        return Optional.empty();
+      }
+      return Optional.of(literal(call, Long.toString(value), EK9_INTEGER));
+    }
+
+    final var comparison = INTEGER_COMPARISONS.get(call.getMethodName());
+    if (comparison != null && EK9_BOOLEAN.equals(call.getReturnTypeName())) {
+      final var value = comparison.test(left.get(), right.get());
+      return Optional.of(literal(call, Boolean.toString(value), EK9_BOOLEAN));
+    }
+
+    return Optional.empty();
+  }
+
+  @SuppressWarnings("checkstyle:CatchParameterName")
+  private Optional<Long> integerLiteral(final String temporary,
+                                        final List<IRInstr> instructions,
+                                        final TemporaryUsage usage) {
+
+    final var definition = usage.definitionOf(temporary)
+        .map(instructions::get)
+        .filter(LiteralInstr.class::isInstance)
+        .map(LiteralInstr.class::cast)
+        .filter(literal -> EK9_INTEGER.equals(literal.getLiteralType()));
+
+    if (definition.isEmpty()) {
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.of(Long.parseLong(definition.get().getLiteralValue()));
+    } catch (NumberFormatException _) {
+      return Optional.empty();
+    }
+  }
+
+  private IRInstr literal(final CallInstr call, final String value, final String type) {
+
+    return LiteralInstr.literal(call.getResult(), value, type, call.getDebugInfo().orElse(null));
+  }
+}
@@ -0,0 +1,60 @@
+package org.ek9lang.compiler.phase9;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import org.ek9lang.compiler.ir.instructions.BasicBlockInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.OperationInstr;
+
+/**
+ * Applies the O2 optimisations to the body of an operation (and any dispatch implementations it has).
+ * <p>
+ * Only the top level instructions of the body are optimised, the instructions nested within the structured
+ * instructions (control flow chains, logical blocks, for range loops and the like) are left as they are.
+ * Each optimisation tends to open up opportunities for the others, so they are repeated until there is no
+ * further change.
+ * </p>
+ */
+final class OperationOptimiser implements Consumer<OperationInstr> {
+
+  private static final int MAXIMUM_ROUNDS = 8;
+
+  private final List<UnaryOperator<List<IRInstr>>> optimisations = List.of(
+      new LiteralFolding(),
+      new CopyPropagation(),
+      new DeadTemporaryElimination());
+
+  @Override
+  public void accept(final OperationInstr operation) {
+
+    final var body = operation.getBody();
+    if (body != null) {
+      final var instructions = body.getInstructions();
+      final var optimised = optimise(instructions);
+      if (!optimised.equals(instructions)) {
+        operation.setBody(new BasicBlockInstr(body.getLabel()).addInstructions(optimised));
+      }
+    }
+
+    operation.getDispatchImplementations().forEach(this);
+
+  }
+
+  private List<IRInstr> optimise(final List<IRInstr> instructions) {
+
+    var rtn = instructions;
+    for (int round = 0; round < MAXIMUM_ROUNDS; round++) {
+      var optimised = rtn;
+      for (var optimisation : optimisations) {
+        optimised = optimisation.apply(optimised);
+      }
+      if (optimised.equals(rtn)) {
+        break;
+      }
+      rtn = optimised;
+    }
+
+    return rtn;
+  }
+}
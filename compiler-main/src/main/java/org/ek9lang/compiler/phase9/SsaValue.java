@@ -0,0 +1,23 @@
+package org.ek9lang.compiler.phase9;
+
+import org.ek9lang.compiler.ir.instructions.BasicBlockInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+
+/**
+ * A single assignment of a variable, numbered in order of definition.
+ * <p>
+ * Version zero is the value the variable has on entry to the operation (for example a field or 'this'),
+ * it has no defining instruction.
+ * </p>
+ */
+record SsaValue(String variable, int version, IRInstr definition, BasicBlockInstr block) {
+
+  boolean isEntryValue() {
+    return definition == null;
+  }
+
+  @Override
+  public String toString() {
+    return variable + "#" + version;
+  }
+}
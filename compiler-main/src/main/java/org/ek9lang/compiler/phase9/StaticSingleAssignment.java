@@ -0,0 +1,325 @@
+package org.ek9lang.compiler.phase9;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.ek9lang.compiler.ir.IROpcode;
+import org.ek9lang.compiler.ir.instructions.BasicBlockInstr;
+import org.ek9lang.compiler.ir.instructions.CallInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.LiteralInstr;
+
+/**
+ * Numbers each assignment of each variable in a {@link ControlFlowGraph}, so that every use of a variable
+ * can be traced to the single definition that reaches it.
+ * <p>
+ * The instructions themselves are not renamed, as they are shared with the structured IR. Instead the value
+ * each instruction defines and the values it uses are recorded here. Where different values of a variable
+ * reach a join, a PHI instruction is placed at the start of the join block (on the dominance frontier of the
+ * definitions). These are only held here, see {@link #getPhis(BasicBlockInstr)}. The PHI instructions the
+ * lowering added for the results of structured instructions are treated in just the same way.
+ * </p>
+ * <p>
+ * A variable is defined by the result of an instruction, or by a REFERENCE or STORE to it. PHI instructions
+ * are only placed for variables that are used in a block other than the one they were defined in, which
+ * avoids merging the many temporaries that never leave their block.
+ * </p>
+ */
+final class StaticSingleAssignment {
+
+  private final ControlFlowGraph graph;
+  private final DominatorTree dominators;
+
+  private final Map<String, Set<BasicBlockInstr>> definingBlocks = new LinkedHashMap<>();
+  private final Set<String> acrossBlocks = new HashSet<>();
+  private final Map<BasicBlockInstr, List<IRInstr>> phis = new HashMap<>();
+
+  private final List<SsaValue> values = new ArrayList<>();
+  private final Map<String, SsaValue> entryValues = new HashMap<>();
+  private final Map<String, Integer> versions = new HashMap<>();
+  private final Map<String, Deque<SsaValue>> reaching = new HashMap<>();
+  private final Map<IRInstr, SsaValue> definitions = new IdentityHashMap<>();
+  private final Map<IRInstr, Map<String, SsaValue>> valuesUsed = new IdentityHashMap<>();
+  private final Map<IRInstr, Map<BasicBlockInstr, SsaValue>> incomingValues = new IdentityHashMap<>();
+  private final Map<SsaValue, List<IRInstr>> uses = new HashMap<>();
+
+  StaticSingleAssignment(final ControlFlowGraph graph) {
+
+    this.graph = graph;
+    this.dominators = new DominatorTree(graph);
+
+    findVariables();
+    placePhis();
+    rename(graph.getEntry());
+  }
+
+  ControlFlowGraph getGraph() {
+    return graph;
+  }
+
+  DominatorTree getDominators() {
+    return dominators;
+  }
+
+  /**
+   * All the values, in the order they were numbered.
+   */
+  List<SsaValue> getValues() {
+    return List.copyOf(values);
+  }
+
+  /**
+   * The PHI instructions placed at the start of the block, ahead of the instructions it already has.
+   */
+  List<IRInstr> getPhis(final BasicBlockInstr block) {
+    return List.copyOf(phis.getOrDefault(block, List.of()));
+  }
+
+  /**
+   * The value the instruction defines, if it defines one.
+   */
+  Optional<SsaValue> definedBy(final IRInstr instruction) {
+    return Optional.ofNullable(definitions.get(instruction));
+  }
+
+  /**
+   * The value of the variable the instruction uses, if it uses that variable.
+   */
+  Optional<SsaValue> valueUsedBy(final IRInstr instruction, final String variable) {
+    return Optional.ofNullable(valuesUsed.getOrDefault(instruction, Map.of()).get(variable));
+  }
+
+  /**
+   * For a PHI instruction, the value arriving from each of the predecessor blocks.
+   */
+  Map<BasicBlockInstr, SsaValue> incomingTo(final IRInstr phi) {
+    return Map.copyOf(incomingValues.getOrDefault(phi, Map.of()));
+  }
+
+  /**
+   * The instructions that use the value, including any PHI instructions it flows into.
+   */
+  List<IRInstr> usesOf(final SsaValue value) {
+    return List.copyOf(uses.getOrDefault(value, List.of()));
+  }
+
+  /**
+   * The name of the variable the instruction assigns, if any.
+   */
+  static Optional<String> variableDefinedBy(final IRInstr instruction) {
+
+    if (instruction.getOpcode() == IROpcode.STORE || instruction.getOpcode() == IROpcode.REFERENCE) {
+      return instruction.getOperands().stream().findFirst();
+    }
+    return Optional.ofNullable(instruction.getResult());
+  }
+
+  private List<String> variablesUsedBy(final IRInstr instruction) {
+
+    final Stream<String> candidates = switch (instruction) {
+      case CallInstr call -> Stream.concat(Stream.ofNullable(call.getTargetObject()), call.getArguments().stream());
+      case LiteralInstr _ -> Stream.empty();
+      default -> switch (instruction.getOpcode()) {
+        case REFERENCE, PHI -> Stream.empty();
+        case STORE -> instruction.getOperands().stream().skip(1);
+        default -> instruction.getOperands().stream();
+      };
+    };
+
+    return candidates.filter(definingBlocks::containsKey).distinct().toList();
+  }
+
+  private void findVariables() {
+
+    final Map<BasicBlockInstr, Set<String>> definedIn = new HashMap<>();
+    for (var block : dominators.getOrder()) {
+      for (var instruction : block.getInstructions()) {
+        variableDefinedBy(instruction).ifPresent(variable -> {
+          definingBlocks.computeIfAbsent(variable, _ -> new LinkedHashSet<>()).add(block);
+          definedIn.computeIfAbsent(block, _ -> new HashSet<>()).add(variable);
+        });
+      }
+    }
+
+    for (var block : dominators.getOrder()) {
+      final Set<String> definedHere = new HashSet<>();
+      for (var instruction : block.getInstructions()) {
+        variablesUsedBy(instruction).stream().filter(variable -> !definedHere.contains(variable))
+            .forEach(acrossBlocks::add);
+        variableDefinedBy(instruction).ifPresent(definedHere::add);
+      }
+
+      //The variables a PHI merges are used at the end of the block each one arrives from.
+      for (var successor : block.getSuccessors()) {
+        for (var instruction : successor.getInstructions()) {
+          if (instruction.getOpcode() == IROpcode.PHI) {
+            final var variable = incomingVariablesOf(instruction).get(block.getLabel());
+            if (variable != null && !definedIn.getOrDefault(block, Set.of()).contains(variable)) {
+              acrossBlocks.add(variable);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private void placePhis() {
+
+    definingBlocks.forEach((variable, blocks) -> {
+      if (acrossBlocks.contains(variable)) {
+        final Set<BasicBlockInstr> placed = new HashSet<>();
+        final var pending = new ArrayDeque<>(blocks);
+        while (!pending.isEmpty()) {
+          for (var frontier : dominators.frontierOf(pending.pop())) {
+            if (placed.add(frontier)) {
+              phis.computeIfAbsent(frontier, _ -> new ArrayList<>()).add(phiFor(variable, frontier));
+              if (!blocks.contains(frontier)) {
+                pending.push(frontier);
+              }
+            }
+          }
+        }
+      }
+    });
+  }
+
+  private IRInstr phiFor(final String variable, final BasicBlockInstr block) {
+
+    final var phi = new IRInstr(IROpcode.PHI, variable);
+    dominators.reachablePredecessorsOf(block).forEach(predecessor -> phi.addOperands(variable, predecessor.getLabel()));
+    return phi;
+  }
+
+  /**
+   * Numbers the values defined in each block, then those in the blocks it dominates, so that the top of each
+   * variable's stack is always the value that reaches the instruction being processed.
+   * <p>
+   * The dominator tree is walked with a stack of work rather than by recursion, as very long functions give
+   * very deep trees. Once all the blocks a block dominates are done, the values it defined are popped.
+   * </p>
+   */
+  private void rename(final BasicBlockInstr entry) {
+
+    final Deque<RenameStep> pending = new ArrayDeque<>();
+    pending.push(new RenameStep(entry, null));
+
+    while (!pending.isEmpty()) {
+      final var step = pending.pop();
+      if (step.defined() != null) {
+        step.defined().forEach(variable -> reaching.get(variable).pop());
+      } else {
+        pending.push(new RenameStep(step.block(), renameBlock(step.block())));
+        //Pushed in reverse, so the dominated blocks are numbered in the same order as they are held.
+        dominators.childrenOf(step.block()).reversed()
+            .forEach(child -> pending.push(new RenameStep(child, null)));
+      }
+    }
+  }
+
+  /**
+   * Numbers the values defined in the block and records the values flowing into the PHIs of its successors.
+   *
+   * @return The variables the block defined, in the order they were pushed.
+   */
+  private List<String> renameBlock(final BasicBlockInstr block) {
+
+    final List<String> defined = new ArrayList<>();
+
+    for (var phi : phis.getOrDefault(block, List.of())) {
+      define(phi, phi.getResult(), block, defined);
+    }
+
+    for (var instruction : block.getInstructions()) {
+      for (var variable : variablesUsedBy(instruction)) {
+        use(instruction, variable);
+      }
+      variableDefinedBy(instruction).ifPresent(variable -> define(instruction, variable, block, defined));
+    }
+
+    for (var successor : block.getSuccessors()) {
+      for (var phi : phis.getOrDefault(successor, List.of())) {
+        flowInto(phi, block, phi.getResult());
+      }
+      for (var instruction : successor.getInstructions()) {
+        if (instruction.getOpcode() == IROpcode.PHI) {
+          final var variable = incomingVariablesOf(instruction).get(block.getLabel());
+          if (variable != null) {
+            flowInto(instruction, block, variable);
+          }
+        }
+      }
+    }
+
+    return defined;
+  }
+
+  private void define(final IRInstr instruction,
+                      final String variable,
+                      final BasicBlockInstr block,
+                      final List<String> defined) {
+
+    final var stack = reaching.computeIfAbsent(variable, _ -> new ArrayDeque<>());
+    final var value = new SsaValue(variable, versions.merge(variable, 1, Integer::sum), instruction, block);
+    values.add(value);
+    definitions.put(instruction, value);
+    stack.push(value);
+    defined.add(variable);
+  }
+
+  private void use(final IRInstr instruction, final String variable) {
+
+    final var value = reachingValueOf(variable);
+    valuesUsed.computeIfAbsent(instruction, _ -> new HashMap<>()).put(variable, value);
+    uses.computeIfAbsent(value, _ -> new ArrayList<>()).add(instruction);
+  }
+
+  private void flowInto(final IRInstr phi, final BasicBlockInstr predecessor, final String variable) {
+
+    final var value = reachingValueOf(variable);
+    incomingValues.computeIfAbsent(phi, _ -> new HashMap<>()).put(predecessor, value);
+    uses.computeIfAbsent(value, _ -> new ArrayList<>()).add(phi);
+  }
+
+  private SsaValue reachingValueOf(final String variable) {
+
+    final var stack = reaching.get(variable);
+    if (stack != null && !stack.isEmpty()) {
+      return stack.peek();
+    }
+
+    return entryValues.computeIfAbsent(variable, _ -> {
+      final var value = new SsaValue(variable, 0, null, graph.getEntry());
+      values.add(value);
+      return value;
+    });
+  }
+
+  /**
+   * The operands of a PHI instruction are pairs of the variable and the label of the block it arrives from.
+   */
+  private Map<String, String> incomingVariablesOf(final IRInstr phi) {
+
+    final Map<String, String> rtn = new HashMap<>();
+    final var operands = phi.getOperands();
+    for (int i = 0; i + 1 < operands.size(); i += 2) {
+      rtn.put(operands.get(i + 1), operands.get(i));
+    }
+    return rtn;
+  }
+
+  /**
+   * A block to number, or once it has been numbered the variables it defined (to pop when leaving it).
+   */
+  private record RenameStep(BasicBlockInstr block, List<String> defined) {
+  }
+}
@@ -0,0 +1,113 @@
+package org.ek9lang.compiler.phase9;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.ek9lang.compiler.ir.IROpcode;
+import org.ek9lang.compiler.ir.instructions.CallInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.LiteralInstr;
+import org.ek9lang.compiler.ir.instructions.MemoryInstr;
+import org.ek9lang.compiler.ir.instructions.ScopeInstr;
+
+/**
+ * Where each temporary is defined and where it is mentioned, within the top level instructions of an
+ * operation body.
+ * <p>
+ * Only literal, memory, scope and call instructions are understood. Any temporary mentioned by any other
+ * instruction (a return, an assert or one of the structured instructions such as a control flow chain)
+ * is 'pinned', the optimisations leave pinned temporaries and the instructions that define them alone.
+ * </p>
+ */
+final class TemporaryUsage {
+
+  private static final Pattern TEMPORARY = Pattern.compile("(?<!\\w)_temp\\d+(?!\\w)");
+
+  private final Map<String, List<Integer>> definitions = new HashMap<>();
+  private final Map<String, List<Integer>> mentions = new HashMap<>();
+  private final Set<String> pinned = new HashSet<>();
+
+  TemporaryUsage(final List<IRInstr> instructions) {
+
+    for (int i = 0; i < instructions.size(); i++) {
+      final var instruction = instructions.get(i);
+      if (instruction.hasResult()) {
+        definitions.computeIfAbsent(instruction.getResult(), _ -> new ArrayList<>()).add(i);
+      }
+
+      if (isUnderstood(instruction)) {
+        for (var temporary : temporariesIn(String.join(" ", instruction.getOperands()))) {
+          mentions.computeIfAbsent(temporary, _ -> new ArrayList<>()).add(i);
+        }
+      } else {
+        pinned.addAll(temporariesIn(instruction.toString()));
+        pinned.addAll(temporariesIn(String.join(" ", instruction.getOperands())));
+      }
+    }
+
+  }
+
+  static boolean isTemporary(final String name) {
+
+    return name != null && TEMPORARY.matcher(name).matches();
+  }
+
+  /**
+   * True if the instruction only manages the memory of the value it mentions, so is not a real use of it.
+   */
+  static boolean isMemoryManagement(final IRInstr instruction) {
+
+    return instruction.getOpcode() == IROpcode.RETAIN
+        || instruction.getOpcode() == IROpcode.RELEASE
+        || instruction.getOpcode() == IROpcode.SCOPE_REGISTER;
+  }
+
+  /**
+   * Provides the index of the single instruction that defines the temporary, but only if the temporary is
+   * free to be optimised.
+   */
+  Optional<Integer> definitionOf(final String temporary) {
+
+    final var defined = definitions.getOrDefault(temporary, List.of());
+    if (!isTemporary(temporary) || defined.size() != 1 || pinned.contains(temporary)) {
+      return Optional.empty();
+    }
+
+    return Optional.of(defined.getFirst());
+  }
+
+  /**
+   * The indexes of the instructions that mention the temporary, other than the one that defines it.
+   */
+  List<Integer> mentionsOf(final String temporary) {
+
+    return mentions.getOrDefault(temporary, List.of());
+  }
+
+  /**
+   * True if the instruction is one of the simple instructions the optimisations can alter or remove.
+   */
+  static boolean isUnderstood(final IRInstr instruction) {
+
+    return instruction instanceof LiteralInstr
+        || instruction instanceof MemoryInstr
+        || instruction instanceof ScopeInstr
+        || instruction instanceof CallInstr;
+  }
+
+  private Set<String> temporariesIn(final String text) {
+
+    final Set<String> rtn = new HashSet<>();
+    final var matcher = TEMPORARY.matcher(text);
+    while (matcher.find()) {
+      rtn.add(matcher.group());
+    }
+
+    return rtn;
+  }
+}
@@ -526,6 +526,20 @@ public class AggregateSymbol extends PossibleGenericSymbol implements IAggregate
     return thisMatchingSymbols;
   }
 
+  @Override
+  public List<ISymbol> getSymbolsWithPrefix(final String prefix, final int limit) {
+
+    final var thisMatchingSymbols = super.getSymbolsWithPrefix(prefix, limit);
+
+    if (getSuperAggregate().isPresent() && thisMatchingSymbols.size() < limit) {
+      final var superMatchingSymbols = getSuperAggregate().get()
+          .getSymbolsWithPrefix(prefix, limit - thisMatchingSymbols.size());
+      return Stream.of(thisMatchingSymbols, superMatchingSymbols).flatMap(Collection::stream).toList();
+    }
+
+    return thisMatchingSymbols;
+  }
+
   @Override
   public MethodSymbolSearchResult resolveMatchingMethods(final MethodSymbolSearch search,
                                                          final MethodSymbolSearchResult result) {
@@ -120,6 +120,21 @@ public class AggregateWithTraitsSymbol extends AggregateSymbol {
     return rtn;
   }
 
+  @Override
+  public List<ISymbol> getSymbolsWithPrefix(final String prefix, final int limit) {
+
+    final List<ISymbol> rtn = new ArrayList<>(super.getSymbolsWithPrefix(prefix, limit));
+
+    for (AggregateWithTraitsSymbol trait : traits) {
+      if (rtn.size() >= limit) {
+        break;
+      }
+      rtn.addAll(trait.getSymbolsWithPrefix(prefix, limit - rtn.size()));
+    }
+
+    return rtn;
+  }
+
   @Override
   public List<ISymbol> getAllSymbolsMatchingName(final String symbolName) {
 
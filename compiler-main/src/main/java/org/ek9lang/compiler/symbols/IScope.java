@@ -58,6 +58,12 @@ public interface IScope extends Serializable {
    */
   List<ISymbol> getAllSymbolsMatchingName(final String symbolName);
 
+  /**
+   * Return up to 'limit' symbols whose names start with the prefix (in name order for each scope).
+   * So for class and traits this includes supers and traits. Used for completion.
+   */
+  List<ISymbol> getSymbolsWithPrefix(final String prefix, final int limit);
+
   /**
    * Find the nearest symbol of that name up the scope tree.
    */
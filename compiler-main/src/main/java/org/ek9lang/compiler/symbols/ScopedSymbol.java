@@ -222,6 +222,12 @@ public class ScopedSymbol extends Symbol implements IScopedSymbol {
     return actualScope.getAllSymbolsMatchingName(symbolName);
   }
 
+  @Override
+  public List<ISymbol> getSymbolsWithPrefix(final String prefix, final int limit) {
+
+    return actualScope.getSymbolsWithPrefix(prefix, limit);
+  }
+
   @Override
   public MethodSymbolSearchResult resolveMatchingMethods(final MethodSymbolSearch search,
                                                          final MethodSymbolSearchResult result) {
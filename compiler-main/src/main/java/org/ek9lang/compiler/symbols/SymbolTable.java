@@ -93,6 +93,11 @@ public class SymbolTable implements IScope {
   private final List<ISymbol> orderedSymbols = new ArrayList<>();
   private final SymbolMatcher matcher = new SymbolMatcher();
 
+  /**
+   * Only created when symbols are searched for by prefix, then kept up to date as symbols are defined.
+   */
+  private transient SymbolTrie symbolTrie;
+
   private String scopeName = "global";
 
   /**
@@ -175,6 +180,9 @@ public class SymbolTable implements IScope {
     AssertValue.checkNotNull("Symbol cannot be null", symbol);
     addToSplitSymbols(symbol);
     orderedSymbols.add(symbol);
+    if (symbolTrie != null) {
+      symbolTrie.add(symbol);
+    }
   }
 
   @Override
@@ -233,6 +241,16 @@ public class SymbolTable implements IScope {
     return orderedSymbols.stream().filter(symbol -> symbol.getName().equals(symbolName)).toList();
   }
 
+  @Override
+  public List<ISymbol> getSymbolsWithPrefix(final String prefix, final int limit) {
+    if (symbolTrie == null) {
+      final var trie = new SymbolTrie();
+      orderedSymbols.forEach(trie::add);
+      symbolTrie = trie;
+    }
+    return symbolTrie.withPrefix(prefix, limit);
+  }
+
   /**
    * Search and resolve from a symbol search.
    */
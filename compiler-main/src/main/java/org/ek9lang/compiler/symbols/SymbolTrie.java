@@ -0,0 +1,93 @@
+package org.ek9lang.compiler.symbols;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import org.ek9lang.core.AssertValue;
+
+/**
+ * A prefix trie of symbols by name, used to find all the symbols with names that start with some text.
+ * <p>
+ * Finding the matches only depends on the length of the prefix and the number of matches required,
+ * not on the number of symbols held. The matches are returned in name order.
+ * Symbols with the same name (i.e. overloaded methods) are all held.
+ * </p>
+ */
+public final class SymbolTrie {
+
+  private final Node root = new Node();
+
+  /**
+   * Add a symbol into the trie.
+   */
+  public synchronized void add(final ISymbol symbol) {
+
+    AssertValue.checkNotNull("Symbol cannot be null", symbol);
+
+    var node = root;
+    final var name = symbol.getName();
+    for (int i = 0; i < name.length(); i++) {
+      node = node.childFor(name.charAt(i));
+    }
+    node.addSymbol(symbol);
+
+  }
+
+  /**
+   * Provide up to 'limit' symbols with names that start with the prefix.
+   */
+  public synchronized List<ISymbol> withPrefix(final String prefix, final int limit) {
+
+    AssertValue.checkNotNull("Prefix cannot be null", prefix);
+
+    final List<ISymbol> rtn = new ArrayList<>();
+    var node = root;
+    for (int i = 0; i < prefix.length() && node != null; i++) {
+      node = node.children == null ? null : node.children.get(prefix.charAt(i));
+    }
+
+    if (node == null) {
+      return rtn;
+    }
+
+    //Depth first, in character order, so the matches are in name order.
+    final var toVisit = new ArrayDeque<Node>();
+    toVisit.push(node);
+    while (!toVisit.isEmpty() && rtn.size() < limit) {
+      final var next = toVisit.pop();
+      if (next.symbols != null) {
+        next.symbols.stream().limit((long) limit - rtn.size()).forEach(rtn::add);
+      }
+      if (next.children != null) {
+        next.children.descendingMap().values().forEach(toVisit::push);
+      }
+    }
+
+    return rtn;
+  }
+
+  private static final class Node {
+    private TreeMap<Character, Node> children;
+    private List<ISymbol> symbols;
+
+    @SuppressWarnings("checkstyle:LambdaParameterName")
+    private Node childFor(final char character) {
+
+      if (children == null) {
+        children = new TreeMap<>();
+      }
+
+      return children.computeIfAbsent(character, _ -> new Node());
+    }
+
+    private void addSymbol(final ISymbol symbol) {
+
+      if (symbols == null) {
+        symbols = new ArrayList<>(1);
+      }
+      symbols.add(symbol);
+
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package org.ek9lang.compiler.tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.antlr.v4.runtime.WritableToken;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/**
+ * Moves the token indexes of parse tree nodes that have been parsed apart from the rest of the source
+ * (i.e. in chunks or as altered top level blocks), so they follow on from the tokens before them.
+ * <p>
+ * Nodes parsed apart have their tokens numbered from the start of that parse, not from the start of the source.
+ * Indexes are only ever moved on, so they stay in source order within the nodes (though not consecutive).
+ * </p>
+ */
+public class TokenIndexRebase {
+
+  /**
+   * Move the token indexes of the nodes on, so the first is no less than the next token index.
+   *
+   * @return The token index that follows the last token of the nodes, or the next token index if they have none.
+   */
+  public int moveOn(final List<ParseTree> nodes, final int nextTokenIndex) {
+
+    final List<WritableToken> tokens = new ArrayList<>();
+    nodes.forEach(node -> collectTokens(node, tokens));
+    if (tokens.isEmpty()) {
+      return nextTokenIndex;
+    }
+
+    final var delta = Math.max(0, nextTokenIndex - tokens.getFirst().getTokenIndex());
+    tokens.forEach(token -> token.setTokenIndex(token.getTokenIndex() + delta));
+
+    return tokens.getLast().getTokenIndex() + 1;
+  }
+
+  /**
+   * The token index that follows the last token of the node, zero if it has no tokens.
+   */
+  public int following(final ParseTree node) {
+
+    if (node instanceof TerminalNode terminal) {
+      return terminal.getSymbol().getTokenIndex() + 1;
+    }
+
+    for (int i = node.getChildCount() - 1; i >= 0; i--) {
+      final var rtn = following(node.getChild(i));
+      if (rtn > 0) {
+        return rtn;
+      }
+    }
+
+    return 0;
+  }
+
+  private void collectTokens(final ParseTree node, final List<WritableToken> tokens) {
+
+    if (node instanceof TerminalNode terminal) {
+      if (terminal.getSymbol() instanceof WritableToken token) {
+        tokens.add(token);
+      }
+      return;
+    }
+
+    for (int i = 0; i < node.getChildCount(); i++) {
+      collectTokens(node.getChild(i), tokens);
+    }
+
+  }
+}
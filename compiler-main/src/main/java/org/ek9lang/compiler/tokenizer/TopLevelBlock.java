@@ -0,0 +1,52 @@
+package org.ek9lang.compiler.tokenizer;
+
+import org.ek9lang.core.AssertValue;
+import org.ek9lang.core.Digest;
+
+/**
+ * A contiguous range of lines from an EK9 source file.
+ * Typically, a top level 'defines' block (or its directive), but also used for the module header.
+ *
+ * @param startLine The line number (starting at 1) of the first line of the block.
+ * @param lineCount The number of lines in the block.
+ * @param text      The text of the block, lines separated with a new line.
+ * @param checkSum  The digest of the text, used to detect if the block has been altered.
+ */
+public record TopLevelBlock(int startLine, int lineCount, String text, Digest.CheckSum checkSum) {
+
+  /**
+   * Create a top level block and calculate its checksum.
+   */
+  public TopLevelBlock(final int startLine, final int lineCount, final String text) {
+
+    this(startLine, lineCount, text, Digest.digest(text));
+
+  }
+
+  /**
+   * Check the values are valid.
+   */
+  public TopLevelBlock {
+
+    AssertValue.checkTrue("Start line must be positive", startLine > 0);
+    AssertValue.checkTrue("Line count must be positive", lineCount > 0);
+    AssertValue.checkNotNull("Text cannot be null", text);
+    AssertValue.checkNotNull("CheckSum cannot be null", checkSum);
+
+  }
+
+  public int endLine() {
+
+    return startLine + lineCount - 1;
+  }
+
+  public boolean containsLine(final int line) {
+
+    return line >= startLine && line <= endLine();
+  }
+
+  public boolean isSameContentAs(final TopLevelBlock block) {
+
+    return lineCount == block.lineCount && checkSum.equals(block.checkSum);
+  }
+}
@@ -0,0 +1,199 @@
+package org.ek9lang.compiler.tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.ek9lang.antlr.EK9Parser;
+import org.ek9lang.compiler.Source;
+import org.ek9lang.core.AssertValue;
+
+/**
+ * Parses a large source by splitting it into chunks of top level blocks and parsing those chunks in parallel.
+ * <p>
+ * Each chunk is parsed with the module header (see {@link TopLevelBlockParser}), so line numbers are exactly
+ * as they would be in the full source. The compilation unit of the first chunk is then used as the result,
+ * the block nodes of the remaining chunks are added to its module declaration and the final DEDENT/EOF
+ * are taken from the last chunk.
+ * </p>
+ * <p>
+ * The tokens of each chunk are numbered from the start of that chunk's parse. So the token indexes of the later
+ * chunks are moved on, to follow those of the chunk before. This keeps the indexes in source order across the
+ * whole compilation unit, as they would be from a full parse (though not consecutive).
+ * </p>
+ * <p>
+ * Only large sources benefit from this, the header is parsed once per chunk. If any chunk has errors then
+ * nothing is returned and a full parse must be done, that way error reporting is identical to a whole file parse.
+ * </p>
+ */
+public class TopLevelBlockParallelParser {
+
+  /**
+   * Sources with fewer lines than this are always parsed in full.
+   */
+  public static final int MINIMUM_LINES = 2000;
+
+  private static final int MINIMUM_LINES_PER_CHUNK = 500;
+
+  private final TopLevelBlockParser blockParser;
+
+  private final TokenIndexRebase tokenIndexRebase = new TokenIndexRebase();
+
+  private final int maximumChunks;
+
+  public TopLevelBlockParallelParser(final Source source) {
+
+    this(source, Runtime.getRuntime().availableProcessors());
+
+  }
+
+  /**
+   * Create parallel parser that will use up to a maximum number of chunks.
+   */
+  public TopLevelBlockParallelParser(final Source source, final int maximumChunks) {
+
+    AssertValue.checkTrue("Maximum chunks must be positive", maximumChunks > 0);
+    this.blockParser = new TopLevelBlockParser(source);
+    this.maximumChunks = maximumChunks;
+
+  }
+
+  /**
+   * Does the (UTF-8) content have enough lines to be worth splitting into top level blocks to parse in parallel.
+   * Lines are only counted as far as the minimum, so this is cheap for any size of content.
+   */
+  public static boolean isWorthSplitting(final byte[] content) {
+
+    var lines = 1;
+    for (int i = 0; i < content.length && lines < MINIMUM_LINES; i++) {
+      if (content[i] == '\n') {
+        lines++;
+      }
+    }
+
+    return lines >= MINIMUM_LINES;
+  }
+
+  /**
+   * Is the source large enough to be worth parsing in parallel.
+   */
+  public static boolean isWorthwhile(final TopLevelBlocks topLevelBlocks) {
+
+    return topLevelBlocks.size() > 1 && topLevelBlocks.get(topLevelBlocks.size() - 1).endLine() >= MINIMUM_LINES;
+  }
+
+  /**
+   * Parse the top level blocks in parallel chunks and combine into a single compilation unit.
+   *
+   * @return The combined compilation unit or empty if a full parse is required.
+   */
+  public Optional<EK9Parser.CompilationUnitContext> apply(final TopLevelBlocks topLevelBlocks) {
+
+    AssertValue.checkNotNull("Top level blocks cannot be null", topLevelBlocks);
+
+    final var chunks = chunks(topLevelBlocks);
+    if (chunks.size() < 2) {
+      return Optional.empty();
+    }
+
+    final var parsedChunks = chunks.parallelStream()
+        .map(chunk -> blockParser.parse(topLevelBlocks, chunk))
+        .toList();
+
+    if (parsedChunks.stream().anyMatch(Optional::isEmpty)) {
+      return Optional.empty();
+    }
+
+    return Optional.of(combine(parsedChunks.stream().map(Optional::get).toList()));
+  }
+
+  /**
+   * Group consecutive blocks into chunks of roughly the same number of lines.
+   */
+  private List<TopLevelBlock> chunks(final TopLevelBlocks topLevelBlocks) {
+
+    final var totalLines = IntStream.range(0, topLevelBlocks.size())
+        .map(i -> topLevelBlocks.get(i).lineCount())
+        .sum();
+    final var linesPerChunk = Math.max(MINIMUM_LINES_PER_CHUNK, totalLines / maximumChunks);
+
+    final List<TopLevelBlock> rtn = new ArrayList<>();
+    var from = 0;
+    var linesInChunk = 0;
+    for (int i = 0; i < topLevelBlocks.size(); i++) {
+      linesInChunk += topLevelBlocks.get(i).lineCount();
+      if (linesInChunk >= linesPerChunk || i == topLevelBlocks.size() - 1) {
+        rtn.add(topLevelBlocks.span(from, i + 1));
+        from = i + 1;
+        linesInChunk = 0;
+      }
+    }
+
+    return rtn;
+  }
+
+  private EK9Parser.CompilationUnitContext combine(final List<TopLevelBlockParser.ParsedBlock> parsedChunks) {
+
+    rebaseTokenIndexes(parsedChunks);
+
+    final var base = parsedChunks.getFirst().compilationUnit();
+    final var last = parsedChunks.getLast().compilationUnit();
+    final var moduleDeclaration = base.moduleDeclaration();
+    final var lastModuleDeclaration = last.moduleDeclaration();
+
+    //All the remaining block nodes go before the final DEDENT of the first chunk.
+    final List<ParseTree> remainingBlockNodes = new ArrayList<>();
+    parsedChunks.subList(1, parsedChunks.size()).forEach(chunk -> remainingBlockNodes.addAll(chunk.blockNodes()));
+    final var finalDedent = TopLevelBlockParser.finalDedentIndex(moduleDeclaration);
+    moduleDeclaration.children.addAll(finalDedent, remainingBlockNodes);
+    remainingBlockNodes.forEach(node -> node.setParent(moduleDeclaration));
+
+    //But the final DEDENT and whatever follows the module declaration have to be those of the last chunk.
+    replaceTail(moduleDeclaration, TopLevelBlockParser.finalDedentIndex(moduleDeclaration),
+        lastModuleDeclaration.children, TopLevelBlockParser.finalDedentIndex(lastModuleDeclaration));
+    replaceTail(base, base.children.indexOf(moduleDeclaration) + 1,
+        last.children, last.children.indexOf(lastModuleDeclaration) + 1);
+
+    moduleDeclaration.stop = lastModuleDeclaration.stop;
+    base.stop = last.stop;
+
+    return base;
+  }
+
+  /**
+   * Move the token indexes of the blocks (and what follows them) in each chunk on from those of the chunk before.
+   */
+  private void rebaseTokenIndexes(final List<TopLevelBlockParser.ParsedBlock> parsedChunks) {
+
+    var nextTokenIndex = 0;
+    for (var parsedChunk : parsedChunks) {
+      final var compilationUnit = parsedChunk.compilationUnit();
+      final var moduleDeclaration = compilationUnit.moduleDeclaration();
+      final var moduleChildren = moduleDeclaration.children;
+      final var compilationUnitChildren = compilationUnit.children;
+
+      final List<ParseTree> nodes = new ArrayList<>(parsedChunk.blockNodes());
+      nodes.addAll(moduleChildren.subList(TopLevelBlockParser.finalDedentIndex(moduleDeclaration),
+          moduleChildren.size()));
+      nodes.addAll(compilationUnitChildren.subList(compilationUnitChildren.indexOf(moduleDeclaration) + 1,
+          compilationUnitChildren.size()));
+      nextTokenIndex = tokenIndexRebase.moveOn(nodes, nextTokenIndex);
+    }
+
+  }
+
+  private void replaceTail(final ParserRuleContext parent,
+                           final int from,
+                           final List<ParseTree> replacementNodes,
+                           final int replacementFrom) {
+
+    final var tail = parent.children.subList(from, parent.children.size());
+    tail.clear();
+    final var replacement = List.copyOf(replacementNodes.subList(replacementFrom, replacementNodes.size()));
+    tail.addAll(replacement);
+    replacement.forEach(node -> node.setParent(parent));
+
+  }
+}
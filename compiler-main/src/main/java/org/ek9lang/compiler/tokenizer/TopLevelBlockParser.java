@@ -0,0 +1,134 @@
+package org.ek9lang.compiler.tokenizer;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.ek9lang.antlr.EK9Parser;
+import org.ek9lang.compiler.Source;
+import org.ek9lang.compiler.common.ErrorListener;
+import org.ek9lang.core.AssertValue;
+
+/**
+ * Parses a single top level block on its own, by parsing the module header followed by just that block.
+ * The line numbers and positions of all the tokens are exactly as they would be in the full source.
+ * <p>
+ * If there are any errors or warnings, nothing is returned. The caller must then fall back to
+ * a full parse of the source, that way any errors reported are identical to a whole file parse.
+ * The same applies if a 'references' block is found anywhere other than the first block, as it
+ * would only be a syntax error when parsed as part of the whole source.
+ * </p>
+ */
+public class TopLevelBlockParser {
+  private final ParserCreator parserCreator = new ParserCreator();
+  private final Source source;
+
+  /**
+   * The results of parsing a top level block.
+   *
+   * @param compilationUnit The whole compilation unit parsed, i.e. header and block.
+   * @param blockNodes      The nodes of the module declaration that make up the block itself.
+   */
+  public record ParsedBlock(EK9Parser.CompilationUnitContext compilationUnit,
+                            List<ParseTree> blockNodes) {
+  }
+
+  public TopLevelBlockParser(final Source source) {
+
+    AssertValue.checkNotNull("Source cannot be null", source);
+    this.source = source;
+
+  }
+
+  /**
+   * Parse just the block (with the header) from the top level blocks.
+   */
+  public Optional<ParsedBlock> parse(final TopLevelBlocks topLevelBlocks, final TopLevelBlock block) {
+
+    final var textToParse = topLevelBlocks.textToParse(block);
+    final var errorListener = new ErrorListener(source.getFileName());
+    final var inputStream = new ByteArrayInputStream(textToParse.getBytes(StandardCharsets.UTF_8));
+    final var parser = parserCreator.apply(new ParserSpec(source, inputStream, errorListener, null));
+    final var compilationUnit = parser.compilationUnit();
+
+    if (errorListener.hasErrors() || errorListener.hasWarnings()) {
+      return Optional.empty();
+    }
+
+    final var moduleDeclaration = compilationUnit.moduleDeclaration();
+    final var blockNodes = blockNodes(moduleDeclaration);
+    if (blockNodes.isEmpty() || misplacedReferences(topLevelBlocks, block, blockNodes)) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new ParsedBlock(compilationUnit, blockNodes));
+  }
+
+  private boolean misplacedReferences(final TopLevelBlocks topLevelBlocks,
+                                      final TopLevelBlock block,
+                                      final List<ParseTree> blockNodes) {
+
+    final var references = blockNodes.stream().filter(EK9Parser.ReferencesBlockContext.class::isInstance).count();
+
+    return references > 1 || references == 1 && !topLevelBlocks.isFirst(block);
+  }
+
+  /**
+   * Provide the children of the module declaration that sit between the INDENT and the final DEDENT.
+   * This excludes any new lines that come immediately after the INDENT.
+   */
+  public static List<ParseTree> blockNodes(final EK9Parser.ModuleDeclarationContext moduleDeclaration) {
+
+    final var children = moduleDeclaration.children;
+    final var from = firstBlockIndex(moduleDeclaration);
+    final var to = finalDedentIndex(moduleDeclaration);
+    if (from == -1 || to == -1 || from >= to) {
+      return List.of();
+    }
+
+    return List.copyOf(children.subList(from, to));
+  }
+
+  /**
+   * The index of the first directive/references/module block child of the module declaration, or -1.
+   */
+  public static int firstBlockIndex(final EK9Parser.ModuleDeclarationContext moduleDeclaration) {
+
+    final var children = moduleDeclaration.children;
+    var afterIndent = false;
+    for (int i = 0; i < children.size(); i++) {
+      final var child = children.get(i);
+      if (afterIndent && child instanceof ParserRuleContext) {
+        return i;
+      }
+      if (isTerminalOfType(child, EK9Parser.INDENT)) {
+        afterIndent = true;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * The index of the final DEDENT child of the module declaration, or -1.
+   */
+  public static int finalDedentIndex(final EK9Parser.ModuleDeclarationContext moduleDeclaration) {
+
+    final var children = moduleDeclaration.children;
+    for (int i = children.size() - 1; i >= 0; i--) {
+      if (isTerminalOfType(children.get(i), EK9Parser.DEDENT)) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  private static boolean isTerminalOfType(final ParseTree node, final int tokenType) {
+
+    return node instanceof TerminalNode terminal && terminal.getSymbol().getType() == tokenType;
+  }
+}
@@ -0,0 +1,262 @@
+package org.ek9lang.compiler.tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.ek9lang.antlr.EK9Parser;
+import org.ek9lang.compiler.Source;
+import org.ek9lang.core.AssertValue;
+
+/**
+ * Supports incremental reparsing of a source, when only some of its top level blocks have been altered.
+ * <p>
+ * The previous top level blocks are compared with the updated ones, only those blocks that have changed
+ * are parsed (see {@link TopLevelBlockParser}). A new CompilationUnitContext is then built from the nodes of
+ * the unaltered blocks of the existing one and the nodes of those just parsed. The existing compilation unit
+ * is never modified, so anything still reading it (i.e. a language server request) is unaffected; the caller
+ * swaps the new one in once it is complete.
+ * </p>
+ * <p>
+ * Unaltered blocks that follow an altered block that has changed in length would need their tokens moving
+ * on (or back). As their nodes are shared with the existing compilation unit, they are parsed again instead,
+ * along with the altered blocks they follow.
+ * </p>
+ * <p>
+ * The tokens of the blocks parsed are numbered from the start of that parse. So their token indexes are moved on,
+ * to follow those of the node before them (see {@link TokenIndexRebase}). Should the altered blocks now have more
+ * tokens, their indexes can overlap those of the unaltered block that follows; but remain in order within each.
+ * </p>
+ * <p>
+ * If the module header changes, blocks are added or removed, most of the blocks have changed or any of the
+ * blocks parsed has errors, then nothing is returned and a full parse must be done.
+ * This keeps error reporting identical to a whole file parse.
+ * </p>
+ */
+public class TopLevelBlockSplicer {
+  private final TopLevelBlockParser blockParser;
+
+  private final TokenIndexRebase tokenIndexRebase = new TokenIndexRebase();
+
+  /**
+   * The results of splicing.
+   *
+   * @param compilationUnit The new compilation unit, or the existing one if no blocks were altered.
+   * @param replacedNodes   The nodes of the existing module declaration that are not in the new compilation unit.
+   */
+  public record Splice(EK9Parser.CompilationUnitContext compilationUnit, List<ParseTree> replacedNodes) {
+
+    /**
+     * Check the values are valid.
+     */
+    public Splice {
+
+      AssertValue.checkNotNull("CompilationUnit cannot be null", compilationUnit);
+      replacedNodes = List.copyOf(replacedNodes);
+
+    }
+  }
+
+  /**
+   * A run of consecutive blocks (from inclusive, to exclusive) that are parsed together.
+   */
+  private record Run(int from, int to) {
+  }
+
+  public TopLevelBlockSplicer(final Source source) {
+
+    this.blockParser = new TopLevelBlockParser(source);
+
+  }
+
+  /**
+   * Attempt to create a compilation unit that reflects the updated top level blocks, from the existing one.
+   *
+   * @return The new compilation unit (with the nodes it replaces) or empty if a full reparse is required.
+   */
+  public Optional<Splice> apply(final EK9Parser.CompilationUnitContext existing,
+                                final TopLevelBlocks previous,
+                                final TopLevelBlocks updated) {
+
+    AssertValue.checkNotNull("Existing CompilationUnitContext cannot be null", existing);
+    AssertValue.checkNotNull("Previous blocks cannot be null", previous);
+    AssertValue.checkNotNull("Updated blocks cannot be null", updated);
+
+    if (!previous.header().isSameContentAs(updated.header()) || previous.size() != updated.size()) {
+      return Optional.empty();
+    }
+
+    final var altered = alteredBlocks(previous, updated);
+    if (altered.isEmpty()) {
+      return Optional.of(new Splice(existing, List.of()));
+    }
+    if (altered.size() * 2 > updated.size()) {
+      return Optional.empty();
+    }
+
+    final var segmentStarts = segmentStarts(existing.moduleDeclaration(), previous);
+    if (segmentStarts.isEmpty()) {
+      return Optional.empty();
+    }
+
+    final var runs = runsToParse(previous, updated);
+    final List<TopLevelBlockParser.ParsedBlock> parsedRuns = new ArrayList<>();
+    for (var run : runs) {
+      final var parsedRun = blockParser.parse(updated, updated.span(run.from(), run.to()));
+      if (parsedRun.isEmpty()) {
+        return Optional.empty();
+      }
+      parsedRuns.add(parsedRun.get());
+    }
+
+    return Optional.of(splice(existing, segmentStarts.get(), runs, parsedRuns));
+  }
+
+  private List<Integer> alteredBlocks(final TopLevelBlocks previous, final TopLevelBlocks updated) {
+
+    final List<Integer> rtn = new ArrayList<>();
+    for (int i = 0; i < updated.size(); i++) {
+      if (!previous.get(i).isSameContentAs(updated.get(i))) {
+        rtn.add(i);
+      }
+    }
+
+    return rtn;
+  }
+
+  /**
+   * The runs of blocks that must be parsed, i.e. those altered and those moved by an earlier change in length.
+   */
+  private List<Run> runsToParse(final TopLevelBlocks previous, final TopLevelBlocks updated) {
+
+    final List<Run> rtn = new ArrayList<>();
+    var lineDelta = 0;
+    var from = -1;
+    for (int i = 0; i < updated.size(); i++) {
+      final var toParse = lineDelta != 0 || !previous.get(i).isSameContentAs(updated.get(i));
+      if (toParse && from == -1) {
+        from = i;
+      } else if (!toParse && from != -1) {
+        rtn.add(new Run(from, i));
+        from = -1;
+      }
+      lineDelta += updated.get(i).lineCount() - previous.get(i).lineCount();
+    }
+
+    if (from != -1) {
+      rtn.add(new Run(from, updated.size()));
+    }
+
+    return rtn;
+  }
+
+  /**
+   * Locate the index of the first module declaration child for each of the blocks.
+   * Each block must have at least one node, else the blocks do not match this parse tree.
+   */
+  private Optional<int[]> segmentStarts(final EK9Parser.ModuleDeclarationContext moduleDeclaration,
+                                        final TopLevelBlocks blocks) {
+
+    final var children = moduleDeclaration.children;
+    final var from = TopLevelBlockParser.firstBlockIndex(moduleDeclaration);
+    final var to = TopLevelBlockParser.finalDedentIndex(moduleDeclaration);
+    if (from == -1 || to == -1) {
+      return Optional.empty();
+    }
+
+    //The final entry is the end of the last block, i.e. the final DEDENT.
+    final var rtn = new int[blocks.size() + 1];
+    var blockIndex = 0;
+    for (int i = from; i < to && blockIndex < blocks.size(); i++) {
+      if (children.get(i) instanceof ParserRuleContext ctx
+          && blocks.get(blockIndex).containsLine(ctx.getStart().getLine())) {
+        rtn[blockIndex++] = i;
+      }
+    }
+    rtn[blocks.size()] = to;
+
+    if (blockIndex != blocks.size() || rtn[0] != from) {
+      return Optional.empty();
+    }
+
+    return Optional.of(rtn);
+  }
+
+  /**
+   * Build the new compilation unit. The nodes of the existing compilation unit are shared, but not modified.
+   * So they retain their existing parent, which has the same header as the new one.
+   */
+  private Splice splice(final EK9Parser.CompilationUnitContext existing,
+                        final int[] segmentStarts,
+                        final List<Run> runs,
+                        final List<TopLevelBlockParser.ParsedBlock> parsedRuns) {
+
+    final var moduleDeclaration = existing.moduleDeclaration();
+    final var children = moduleDeclaration.children;
+
+    final var compilationUnit = new EK9Parser.CompilationUnitContext(null, existing.invokingState);
+    final var newModuleDeclaration =
+        new EK9Parser.ModuleDeclarationContext(compilationUnit, moduleDeclaration.invokingState);
+
+    final List<ParseTree> moduleChildren = new ArrayList<>(children.subList(0, segmentStarts[0]));
+    final List<ParseTree> replacedNodes = new ArrayList<>();
+    var nextBlock = 0;
+    var nextTokenIndex = 0;
+    for (int i = 0; i < runs.size(); i++) {
+      final var run = runs.get(i);
+      moduleChildren.addAll(children.subList(segmentStarts[nextBlock], segmentStarts[run.from()]));
+      replacedNodes.addAll(children.subList(segmentStarts[run.from()], segmentStarts[run.to()]));
+      final var blockNodes = parsedRuns.get(i).blockNodes();
+      nextTokenIndex = tokenIndexRebase.moveOn(blockNodes,
+          tokenIndexRebase.following(children.get(segmentStarts[run.from()] - 1)));
+      moduleChildren.addAll(adopt(blockNodes, newModuleDeclaration));
+      nextBlock = run.to();
+    }
+    moduleChildren.addAll(children.subList(segmentStarts[nextBlock], segmentStarts[segmentStarts.length - 1]));
+
+    //When the last block has been parsed, what follows it must be from that parse, as it may have moved.
+    final var tailFrom = nextBlock == segmentStarts.length - 1
+        ? parsedRuns.getLast().compilationUnit() : existing;
+    final var tailModuleDeclaration = tailFrom.moduleDeclaration();
+    final var isTailShared = tailFrom == existing;
+
+    final var moduleTail = tailModuleDeclaration.children.subList(
+        TopLevelBlockParser.finalDedentIndex(tailModuleDeclaration), tailModuleDeclaration.children.size());
+    if (!isTailShared) {
+      nextTokenIndex = tokenIndexRebase.moveOn(moduleTail, nextTokenIndex);
+    }
+    moduleChildren.addAll(isTailShared ? moduleTail : adopt(moduleTail, newModuleDeclaration));
+    newModuleDeclaration.children = moduleChildren;
+    newModuleDeclaration.start = moduleDeclaration.start;
+    newModuleDeclaration.stop = tailModuleDeclaration.stop;
+
+    final var existingChildren = existing.children;
+    final List<ParseTree> compilationUnitChildren =
+        new ArrayList<>(existingChildren.subList(0, existingChildren.indexOf(moduleDeclaration)));
+    compilationUnitChildren.add(newModuleDeclaration);
+    final var tailChildren = tailFrom.children;
+    final var compilationUnitTail =
+        tailChildren.subList(tailChildren.indexOf(tailModuleDeclaration) + 1, tailChildren.size());
+    if (!isTailShared) {
+      tokenIndexRebase.moveOn(compilationUnitTail, nextTokenIndex);
+    }
+    compilationUnitChildren.addAll(isTailShared ? compilationUnitTail : adopt(compilationUnitTail, compilationUnit));
+    compilationUnit.children = compilationUnitChildren;
+    compilationUnit.start = existing.start;
+    compilationUnit.stop = tailFrom.stop;
+
+    return new Splice(compilationUnit, replacedNodes);
+  }
+
+  /**
+   * Nodes that have just been parsed are moved to their new parent.
+   */
+  private List<ParseTree> adopt(final List<ParseTree> nodes, final ParserRuleContext parent) {
+
+    final var rtn = List.copyOf(nodes);
+    rtn.forEach(node -> node.setParent(parent));
+
+    return rtn;
+  }
+}
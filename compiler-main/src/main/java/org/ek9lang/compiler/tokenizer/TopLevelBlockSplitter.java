@@ -0,0 +1,137 @@
+package org.ek9lang.compiler.tokenizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Splits the text of an EK9 source file into its module header and top level blocks.
+ * <p>
+ * EK9 uses indentation, so the top level 'defines' blocks (and the 'references' block) all start
+ * at the first level of indentation after the 'defines module' declaration. Any directive
+ * on the line(s) before a block is kept with that block.
+ * </p>
+ * <p>
+ * This is a textual split only; it does not lex the source. Lines within block comments are skipped,
+ * but in unusual layouts (i.e. 'defines' at the start of a line in a multi-line string) a boundary
+ * could be identified in the wrong place. So anything that uses these blocks must parse them and
+ * fall back to a full parse if there are any errors.
+ * </p>
+ */
+public class TopLevelBlockSplitter implements Function<String, Optional<TopLevelBlocks>> {
+
+  private static final List<String[]> BLOCK_COMMENTS = List.of(
+      new String[] {"<!--", "-->"},
+      new String[] {"<!-", "-!>"},
+      new String[] {"<?-", "-?>"});
+
+  @Override
+  public Optional<TopLevelBlocks> apply(final String sourceText) {
+
+    if (sourceText == null || sourceText.isEmpty()) {
+      return Optional.empty();
+    }
+
+    final var lines = sourceText.split("\n", -1);
+    final var boundaries = new ArrayList<Integer>();
+    String commentEnd = null;
+    int moduleDeclarationLine = -1;
+    int topLevelIndent = -1;
+    boolean pendingDirective = false;
+
+    for (int i = 0; i < lines.length; i++) {
+      final var line = lines[i];
+      final var content = line.strip();
+
+      if (commentEnd != null) {
+        commentEnd = remainingOpenComment(line, line.indexOf(commentEnd), commentEnd);
+        continue;
+      }
+
+      final var openComment = openComment(line);
+      if (content.isEmpty() || content.startsWith("//") || startsWithComment(content)) {
+        commentEnd = openComment;
+        continue;
+      }
+
+      if (moduleDeclarationLine == -1) {
+        if (isModuleDeclaration(content)) {
+          moduleDeclarationLine = i;
+        }
+      } else {
+        final var indent = line.indexOf(content.charAt(0));
+        if (topLevelIndent == -1) {
+          topLevelIndent = indent;
+        }
+
+        if (indent == topLevelIndent) {
+          final var isDirective = content.startsWith("@");
+          if (!pendingDirective || isDirective) {
+            boundaries.add(i);
+          }
+          pendingDirective = isDirective;
+        }
+      }
+      commentEnd = openComment;
+    }
+
+    if (boundaries.isEmpty()) {
+      return Optional.empty();
+    }
+
+    final var header = toBlock(lines, 0, boundaries.getFirst());
+    final List<TopLevelBlock> blocks = new ArrayList<>();
+    for (int i = 0; i < boundaries.size(); i++) {
+      final var end = i + 1 < boundaries.size() ? boundaries.get(i + 1) : lines.length;
+      blocks.add(toBlock(lines, boundaries.get(i), end));
+    }
+
+    return Optional.of(new TopLevelBlocks(header, blocks));
+  }
+
+  private TopLevelBlock toBlock(final String[] lines, final int from, final int to) {
+
+    final var text = String.join("\n", Arrays.asList(lines).subList(from, to));
+
+    return new TopLevelBlock(from + 1, to - from, text);
+  }
+
+  private boolean isModuleDeclaration(final String content) {
+
+    return content.startsWith("defines") && content.contains(" module ");
+  }
+
+  private boolean startsWithComment(final String content) {
+
+    return BLOCK_COMMENTS.stream().anyMatch(comment -> content.startsWith(comment[0]));
+  }
+
+  /**
+   * If a block comment is opened on this line and not closed, then the end marker is returned.
+   */
+  private String openComment(final String line) {
+
+    for (var comment : BLOCK_COMMENTS) {
+      final var start = line.indexOf(comment[0]);
+      if (start != -1) {
+        return remainingOpenComment(line, line.indexOf(comment[1], start + comment[0].length()), comment[1]);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Given where a comment end was found (or not) in a line, determine if a comment is still open.
+   */
+  private String remainingOpenComment(final String line, final int endIndex, final String commentEnd) {
+
+    if (endIndex == -1) {
+      return commentEnd;
+    }
+
+    return openComment(line.substring(endIndex + commentEnd.length()));
+  }
+}
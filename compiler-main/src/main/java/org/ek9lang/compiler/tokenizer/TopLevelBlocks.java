@@ -0,0 +1,70 @@
+package org.ek9lang.compiler.tokenizer;
+
+import java.util.List;
+import org.ek9lang.core.AssertValue;
+
+/**
+ * The module header (shebang, module declaration and any comments) and then
+ * each of the top level blocks that follow, in the order they appear in the source.
+ */
+public record TopLevelBlocks(TopLevelBlock header, List<TopLevelBlock> blocks) {
+
+  /**
+   * Check the values are valid.
+   */
+  public TopLevelBlocks {
+
+    AssertValue.checkNotNull("Header cannot be null", header);
+    AssertValue.checkNotNull("Blocks cannot be null", blocks);
+    blocks = List.copyOf(blocks);
+
+  }
+
+  public int size() {
+
+    return blocks.size();
+  }
+
+  public TopLevelBlock get(final int index) {
+
+    return blocks.get(index);
+  }
+
+  /**
+   * Provides a single block that spans the consecutive blocks from (inclusive) to (exclusive).
+   */
+  public TopLevelBlock span(final int from, final int to) {
+
+    AssertValue.checkTrue("Must span at least one block", from >= 0 && from < to && to <= blocks.size());
+    if (to - from == 1) {
+      return blocks.get(from);
+    }
+
+    final var spanned = blocks.subList(from, to);
+    final var text = String.join("\n", spanned.stream().map(TopLevelBlock::text).toList());
+    final var lineCount = spanned.stream().mapToInt(TopLevelBlock::lineCount).sum();
+
+    return new TopLevelBlock(spanned.getFirst().startLine(), lineCount, text);
+  }
+
+  /**
+   * Is the block (or span of blocks) the very first after the header.
+   */
+  public boolean isFirst(final TopLevelBlock block) {
+
+    return !blocks.isEmpty() && blocks.getFirst().startLine() == block.startLine();
+  }
+
+  /**
+   * Creates the text needed to parse just one of the blocks on its own.
+   * This is the header, then enough blank lines so that the block text has exactly
+   * the same line numbers (and positions within the lines) as in the full source.
+   */
+  public String textToParse(final TopLevelBlock block) {
+
+    final var padding = block.startLine() - header.endLine() - 1;
+    AssertValue.checkTrue("Block cannot overlap the header", padding >= 0);
+
+    return header.text() + "\n".repeat(padding + 1) + block.text();
+  }
+}
@@ -0,0 +1,65 @@
+package org.ek9lang.compiler.tokenizer;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+import org.antlr.v4.runtime.misc.IntervalSet;
+import org.ek9lang.antlr.EK9Parser;
+
+/**
+ * Checks if a name can be used as an identifier in EK9 source, i.e. for a variable, property or method.
+ * <p>
+ * The name is lexed and must be exactly one token, of a type the 'identifier' rule accepts.
+ * So keywords are rejected, except those (like 'length') that the grammar also allows as identifiers.
+ * </p>
+ * <p>
+ * Constructs (i.e. types, functions and constants) are declared with a plain 'Identifier' token,
+ * so for these names no keywords at all are accepted, see {@link #forConstructNames()}.
+ * </p>
+ */
+public class ValidIdentifier implements Predicate<String> {
+
+  private static final IntervalSet IDENTIFIER_TOKEN_TYPES =
+      EK9Parser._ATN.nextTokens(EK9Parser._ATN.ruleToStartState[EK9Parser.RULE_identifier]);
+
+  private final Ek9LexerForInput ek9LexerForInput = new Ek9LexerForInput();
+
+  private final IntervalSet acceptedTokenTypes;
+
+  /**
+   * Checks names for variables, properties and methods.
+   */
+  public ValidIdentifier() {
+
+    this(IDENTIFIER_TOKEN_TYPES);
+
+  }
+
+  private ValidIdentifier(final IntervalSet acceptedTokenTypes) {
+
+    this.acceptedTokenTypes = acceptedTokenTypes;
+
+  }
+
+  /**
+   * Checks names for constructs, i.e. types, functions and constants.
+   */
+  public static ValidIdentifier forConstructNames() {
+
+    return new ValidIdentifier(IntervalSet.of(EK9Parser.Identifier));
+  }
+
+  @Override
+  public boolean test(final String name) {
+
+    if (name == null || name.isBlank()) {
+      return false;
+    }
+
+    final var lexer = ek9LexerForInput.apply(new ByteArrayInputStream(name.getBytes(StandardCharsets.UTF_8)));
+    lexer.removeErrorListeners();
+    final var token = lexer.nextToken();
+
+    return acceptedTokenTypes.contains(token.getType()) && name.equals(token.getText());
+  }
+}
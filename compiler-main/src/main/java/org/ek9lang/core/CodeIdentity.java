@@ -0,0 +1,59 @@
+package org.ek9lang.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Identifies the code a class was loaded from, so anything that code generates can be cached against it.
+ * <p>
+ * When loaded from a jar, this is the checksum of the jar. When loaded from a directory of classes
+ * (i.e. in development), it is the checksum of the names, sizes and modification times of all the files
+ * in that directory. So rebuilding any of the classes alters the identity.
+ * If the class has no code source (i.e. a JDK class) then it cannot be identified.
+ * </p>
+ */
+public final class CodeIdentity implements Function<Class<?>, Optional<Digest.CheckSum>> {
+
+  @Override
+  public Optional<Digest.CheckSum> apply(final Class<?> loadedClass) {
+
+    AssertValue.checkNotNull("Class cannot be null", loadedClass);
+
+    final Processor<Optional<Digest.CheckSum>> processor = () -> {
+      final var codeSource = loadedClass.getProtectionDomain().getCodeSource();
+      if (codeSource == null || codeSource.getLocation() == null) {
+        return Optional.empty();
+      }
+
+      final var location = new File(codeSource.getLocation().toURI());
+      if (location.isFile()) {
+        return Optional.of(Digest.digest(location));
+      }
+
+      return location.isDirectory() ? Optional.of(digestOfDirectory(location.toPath())) : Optional.empty();
+    };
+
+    return new ExceptionConverter<Optional<Digest.CheckSum>>().apply(processor);
+  }
+
+  private Digest.CheckSum digestOfDirectory(final Path directory) throws IOException {
+
+    final var description = new StringBuilder();
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (var file : files.filter(Files::isRegularFile).sorted(Comparator.naturalOrder()).toList()) {
+        description.append(directory.relativize(file))
+            .append(':').append(Files.size(file))
+            .append(':').append(Files.getLastModifiedTime(file).toMillis())
+            .append('\n');
+      }
+    }
+
+    return Digest.digest(description.toString());
+  }
+}
@@ -17,6 +17,7 @@ public final class Ek9DirectoryStructure {
   public static final String DEV = "dev";
   public static final String GENERATED = "generated";
   public static final String RUNTIME = "runtime";
+  public static final String CACHE = "cache";
 
   public static final String PUBLIC_PEM = "public.pem";
   public static final String PRIVATE_PEM = "private.pem";
@@ -211,6 +212,20 @@ public final class Ek9DirectoryStructure {
         .toFile();
   }
 
+  /**
+   * Get the cache directory for content that can be reused between compilations.
+   * Pattern: {@code <projectDir>/.ek9/cache/}
+   */
+  public File getCacheDirectory(final String fromEk9BaseDirectory) {
+
+    assertFromEk9BaseDirectoryValid(fromEk9BaseDirectory);
+
+    return FileSystems
+        .getDefault()
+        .getPath(fromEk9BaseDirectory, CACHE)
+        .toFile();
+  }
+
   /**
    * Ensure all stale packaged content is removed.
    */
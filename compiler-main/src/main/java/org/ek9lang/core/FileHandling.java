@@ -232,6 +232,16 @@ public final class FileHandling {
     return packager.createJar(fileName, sets, mainClass);
   }
 
+  /**
+   * Create a Java jar file with a list of zip sets and optional Main-Class manifest.
+   * When not compressing, the entries are just stored; this is quicker for development builds.
+   */
+  public boolean createJar(final String fileName, final List<ZipSet> sets, final String mainClass,
+                           final boolean compress) {
+
+    return packager.createJar(fileName, sets, mainClass, compress);
+  }
+
   public boolean unZipFileTo(final File zipFile, final String unpackedDir) {
 
     return unZipFileTo(zipFile, new File(unpackedDir));
@@ -284,6 +294,35 @@ public final class FileHandling {
     return new File(runtimeDir, jarFileName);
   }
 
+  /**
+   * Get versioned runtime JAR file path, that is shared by all projects.
+   * Pattern: {@code ~/.ek9/runtime/ek9-runtime-<version>.jar}
+   */
+  public File getSharedRuntimeJarFile(final String version) {
+
+    return getRuntimeJarFile(osSupport.getUsersHomeDirectory(), version);
+  }
+
+  /**
+   * Get the cache directory for a project.
+   * Pattern: {@code <projectDir>/.ek9/cache/}
+   */
+  public File getCacheDirectory(final String projectDir) {
+
+    AssertValue.checkNotEmpty("Project directory cannot be empty", projectDir);
+
+    return directoryStructure.getCacheDirectory(getDotEk9Directory(projectDir));
+  }
+
+  /**
+   * Get the cache directory for resolved packages, that is shared by all projects.
+   * Pattern: {@code ~/.ek9/cache/packages/}
+   */
+  public File getSharedPackageCacheDirectory() {
+
+    return new File(getCacheDirectory(osSupport.getUsersHomeDirectory()), "packages");
+  }
+
   public void validateHomeEk9Directory(final TargetArchitecture targetArchitecture) {
 
     validateEk9Directory(getUsersHomeEk9Directory(), targetArchitecture);
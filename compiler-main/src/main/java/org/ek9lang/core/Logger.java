@@ -1,5 +1,7 @@
 package org.ek9lang.core;
 
+import java.io.PrintStream;
+
 /**
  * Wrapper for logging.
  */
@@ -54,8 +56,17 @@ public class Logger {
    */
   public static void log(final String content) {
 
+    log(System.out, content);
+
+  }
+
+  /**
+   * Logs output to a specific stream in place of stdout, i.e. that of the process that issued a command.
+   */
+  public static void log(final PrintStream out, final String content) {
+
     if (!muteStderrOutput) {
-      System.out.println(content);
+      out.println(content);
     }
 
   }
@@ -79,8 +90,20 @@ public class Logger {
    */
   public static void error(final Object content) {
 
+    error(System.err, content);
+
+  }
+
+  /**
+   * Log an error to a specific stream in place of stderr, unless muting is enabled.
+   *
+   * @param err     The stream to log to.
+   * @param content The content to log.
+   */
+  public static void error(final PrintStream err, final Object content) {
+
     if (!muteStderrOutput) {
-      System.err.println(content);
+      err.println(content);
     }
 
   }
@@ -92,8 +115,20 @@ public class Logger {
    */
   public static void error(final Throwable throwable) {
 
+    error(System.err, throwable);
+
+  }
+
+  /**
+   * Log a throwable stack trace to a specific stream in place of stderr, unless muting is enabled.
+   *
+   * @param err       The stream to log to.
+   * @param throwable The throwable and its stack to log.
+   */
+  public static void error(final PrintStream err, final Throwable throwable) {
+
     if (!muteStderrOutput) {
-      throwable.printStackTrace(System.err);
+      throwable.printStackTrace(err);
     }
 
   }
@@ -45,23 +45,33 @@ public final class Packager {
    */
   public boolean createJar(final String fileName, final List<ZipSet> sets, final String mainClass) {
 
+    return createJar(fileName, sets, mainClass, true);
+  }
+
+  /**
+   * Create an archive to file with zip sets and optional Main-Class manifest.
+   * The entries are compressed in parallel, but written in a deterministic order with fixed timestamps,
+   * so the same content always produces the same jar.
+   *
+   * @param fileName  The name of the JAR file to create
+   * @param sets      The list of ZipSets to include
+   * @param mainClass The fully-qualified main class name for manifest (null for no Main-Class)
+   * @param compress  false to just store the entries, which is faster for development builds
+   * @return true if JAR creation successful
+   */
+  public boolean createJar(final String fileName, final List<ZipSet> sets, final String mainClass,
+                           final boolean compress) {
+
     //Let exception break everything here - these are precondition.
     AssertValue.checkNotEmpty("Filename empty", fileName);
     AssertValue.checkNotNull("Zip Set cannot be null", sets);
 
     fileHandling.deleteFileIfExists(new File(fileName));
 
+    final var manifestContent = mainClass != null && !mainClass.isEmpty() ? createManifestContent(mainClass) : null;
     final Processor<Boolean> processor = () -> {
-      try (final var zip = FileSystems.newFileSystem(getZipUri(fileName), getZipEnv())) {
-        sets.forEach(set -> addZipSet(zip, set));
-
-        // Add manifest if mainClass is specified
-        if (mainClass != null && !mainClass.isEmpty()) {
-          addManifest(zip, mainClass);
-        }
-
-        return true;
-      }
+      new StreamingJarWriter(compress).write(new File(fileName), sets, manifestContent);
+      return true;
     };
 
     return new ExceptionConverter<Boolean>().apply(processor);
@@ -210,24 +220,6 @@ public final class Packager {
 
   }
 
-  /**
-   * Add META-INF/MANIFEST.MF with Main-Class entry to the JAR.
-   *
-   * @param zip The JAR filesystem
-   * @param mainClass The fully-qualified main class name (e.g., "ek9.Main")
-   */
-  private void addManifest(final FileSystem zip, final String mainClass) throws IOException {
-
-    final var manifestContent = createManifestContent(mainClass);
-    final var manifestPath = zip.getPath("META-INF", "MANIFEST.MF");
-
-    ensureParentPathExists(manifestPath);
-
-    try (final var out = Files.newOutputStream(manifestPath)) {
-      out.write(manifestContent.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-    }
-  }
-
   /**
    * Create manifest file content with Main-Class entry.
    * Format follows JAR specification requirements.
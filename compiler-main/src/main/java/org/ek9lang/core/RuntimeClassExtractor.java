@@ -4,15 +4,19 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.stream.Stream;
@@ -21,19 +25,29 @@ import java.util.stream.Stream;
  * Extracts EK9 runtime classes (org.ek9.lang and ek9 packages) from the running JVM
  * and packages them into a versioned JAR file with SHA-256 checksum.
  * <p>
- * This enables per-project, versioned runtime caching:
- * - First build: Extract EK9 runtime + dependency classes from compiler JVM → create JAR + checksum
- * - Subsequent builds: Reuse cached JAR if checksum valid
+ * The runtime JAR is shared by all projects, in {@code ~/.ek9/runtime}:
+ * - First build with a compiler version: Create JAR + checksum
+ * - Subsequent builds (of any project): Reuse cached JAR if checksum valid
  * - Multiple compiler versions: Each gets its own versioned JAR
+ * The checksum is only checked once per JVM (unless the JAR or checksum are altered),
+ * which matters for the daemon, watch mode and the language server.
  * </p>
  * <p>
  * Extracts all EK9 runtime classes plus third-party dependencies (Jackson, JSONPath, SLF4J)
  * including inner and anonymous classes required for runtime functionality.
- * Uses direct JAR scanning with standard Java APIs (JarFile, ClassLoader).
+ * The compiler build creates an index of these class files (see {@link #main(String[])}), which is
+ * shipped as a resource. So the JAR is just created from the listed resources, without any scanning
+ * of the classpath or loading of classes. Only when the index is not present (i.e. running from an IDE)
+ * is there a fallback to direct JAR scanning with standard Java APIs (JarFile, ClassLoader).
  * </p>
  */
 public final class RuntimeClassExtractor {
 
+  /**
+   * The resource that lists the class files to be extracted, one per line.
+   */
+  static final String RUNTIME_INDEX = "ek9-runtime.index";
+
   /**
    * Packages to extract from the running JVM.
    * These contain all EK9 built-in types and runtime support classes.
@@ -56,61 +70,58 @@ public final class RuntimeClassExtractor {
       "org.slf4j"                         // SLF4J logging (JSONPath transitive dependency)
   );
 
+  /**
+   * The runtime JARs that have had their checksums verified in this JVM.
+   */
+  private static final Set<VerifiedJar> verifiedJars = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Used by the compiler build to create the index of runtime class files.
+   *
+   * @param args The file name to write the index to.
+   */
+  public static void main(final String[] args) throws IOException {
+
+    AssertValue.checkTrue("Index file name required", args.length == 1);
+
+    final var indexFile = Path.of(args[0]);
+    Files.createDirectories(indexFile.toAbsolutePath().getParent());
+    Files.write(indexFile, new RuntimeClassExtractor().scanForResourceNames());
+
+  }
+
   /**
    * Extract EK9 runtime classes into a versioned JAR file.
-   * Creates JAR at: {@code <projectDir>/.ek9/runtime/ek9-runtime-<version>.jar}
+   * Creates JAR at: {@code ~/.ek9/runtime/ek9-runtime-<version>.jar}
    * Also creates corresponding .sha256 checksum file.
    *
    * @param fileHandling FileHandling instance for JAR creation and checksums
-   * @param projectDir   Project directory (source file directory)
    * @param version      Compiler version (e.g., "0.0.1-0")
    * @return Optional containing the runtime JAR file if successful
    */
   @SuppressWarnings("checkstyle:CatchParameterName")
   public Optional<File> extractRuntimeJar(final FileHandling fileHandling,
-                                          final String projectDir,
                                           final String version) {
 
     AssertValue.checkNotNull("FileHandling cannot be null", fileHandling);
-    AssertValue.checkNotEmpty("Project directory cannot be empty", projectDir);
     AssertValue.checkNotEmpty("Version cannot be empty", version);
 
     // Use FileHandling to get proper runtime JAR path
-    final var jarFile = fileHandling.getRuntimeJarFile(projectDir, version);
+    final var jarFile = fileHandling.getSharedRuntimeJarFile(version);
     final var jarPath = jarFile.getAbsolutePath();
     final var checksumFile = new File(jarPath + ".sha256");
 
     // Check if cached JAR exists and is valid
-    if (jarFile.exists() && checksumFile.exists() && Digest.check(jarFile, checksumFile)) {
+    if (isValid(jarFile, checksumFile)) {
       return Optional.of(jarFile);
     }
 
-    // Extract runtime classes from EK9 packages AND dependency packages
     try {
-      final var allClasses = new ArrayList<Class<?>>();
+      final var classLoader = Thread.currentThread().getContextClassLoader();
 
-      // First: Extract EK9 runtime classes (org.ek9.lang, ek9)
-      for (final var packageName : RUNTIME_PACKAGES) {
-        allClasses.addAll(findAllClassesUsingClassLoader(packageName));
-      }
-
-      // Second: Extract dependency library classes (Jackson, JSONPath, etc.)
-      for (final var packageName : DEPENDENCY_PACKAGES) {
-        allClasses.addAll(findAllClassesUsingClassLoader(packageName));
-      }
-
-      // Convert classes to ZipBinaryContent entries
+      // Convert class files to ZipBinaryContent entries
       final var entries = new ArrayList<ZipBinaryContent>();
-      for (final var cls : allClasses) {
-        // Use getName() not getCanonicalName() - works for all classes including anonymous
-        final var resourceName = cls.getName().replace('.', '/') + ".class";
-        final var classLoader = cls.getClassLoader();
-
-        // Skip classes with null classloader (bootstrap classloader - JDK classes)
-        if (classLoader == null) {
-          continue;
-        }
-
+      for (final var resourceName : getResourceNames()) {
         try (final var is = classLoader.getResourceAsStream(resourceName)) {
           if (is != null) {
             final var bytes = is.readAllBytes();
@@ -122,15 +133,20 @@ public final class RuntimeClassExtractor {
       // Ensure runtime directory exists (parent of JAR file)
       fileHandling.makeDirectoryIfNotExists(jarFile.getParentFile());
 
-      // Create JAR from extracted class bytes
-      final var success = fileHandling.createJar(jarPath, List.of(new ZipSet(entries)));
+      // Other compilers may be using the shared JAR, so create it alongside and then move it into place.
+      // As the JAR content is reproducible, any checksum another compiler writes will also match.
+      final var tempJar = Files.createTempFile(jarFile.getParentFile().toPath(), jarFile.getName(), ".tmp");
+      final var success = fileHandling.createJar(tempJar.toString(), List.of(new ZipSet(entries)));
 
       if (success) {
+        Files.move(tempJar, jarFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         // Create checksum for integrity verification
         fileHandling.createSha256Of(jarPath);
+        verifiedJars.add(VerifiedJar.of(jarFile, checksumFile));
         return Optional.of(jarFile);
       }
 
+      Files.deleteIfExists(tempJar);
       throw new CompilerException("Failed to create runtime JAR at " + jarPath);
 
     } catch (Exception e) {
@@ -138,6 +154,71 @@ public final class RuntimeClassExtractor {
     }
   }
 
+  private boolean isValid(final File jarFile, final File checksumFile) {
+
+    if (!jarFile.exists() || !checksumFile.exists()) {
+      return false;
+    }
+
+    final var candidate = VerifiedJar.of(jarFile, checksumFile);
+    if (verifiedJars.contains(candidate)) {
+      return true;
+    }
+
+    if (Digest.check(jarFile, checksumFile)) {
+      verifiedJars.add(candidate);
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Use the index shipped with the compiler, only if that is not available scan the classpath.
+   */
+  private List<String> getResourceNames() throws IOException {
+
+    try (final var index = RuntimeClassExtractor.class.getResourceAsStream("/" + RUNTIME_INDEX)) {
+      if (index != null) {
+        return new String(index.readAllBytes(), StandardCharsets.UTF_8).lines()
+            .filter(line -> !line.isBlank())
+            .toList();
+      }
+    }
+
+    return scanForResourceNames();
+  }
+
+  /**
+   * Scan for all the class files in the EK9 packages AND dependency packages.
+   */
+  private List<String> scanForResourceNames() {
+
+    final var resourceNames = new TreeSet<String>();
+
+    // First: Extract EK9 runtime classes (org.ek9.lang, ek9)
+    for (final var packageName : RUNTIME_PACKAGES) {
+      findAllClassesUsingClassLoader(packageName).forEach(cls -> addResourceName(cls, resourceNames));
+    }
+
+    // Second: Extract dependency library classes (Jackson, JSONPath, etc.)
+    for (final var packageName : DEPENDENCY_PACKAGES) {
+      findAllClassesUsingClassLoader(packageName).forEach(cls -> addResourceName(cls, resourceNames));
+    }
+
+    return List.copyOf(resourceNames);
+  }
+
+  private void addResourceName(final Class<?> cls, final Set<String> resourceNames) {
+
+    // Skip classes with null classloader (bootstrap classloader - JDK classes)
+    if (cls.getClassLoader() != null) {
+      // Use getName() not getCanonicalName() - works for all classes including anonymous
+      resourceNames.add(cls.getName().replace('.', '/') + ".class");
+    }
+
+  }
+
   /**
    * Find all classes in a package by scanning JAR files and class directories.
    * Extracts ALL classes including regular classes, inner classes, and anonymous classes.
@@ -276,4 +357,15 @@ public final class RuntimeClassExtractor {
       System.err.println("Error scanning directory " + url + ": " + e.getMessage());
     }
   }
+
+  /**
+   * Identifies a runtime JAR and its checksum as they were when verified.
+   */
+  private record VerifiedJar(String path, long length, long lastModified,
+                             long checksumLength, long checksumLastModified) {
+    static VerifiedJar of(final File jarFile, final File checksumFile) {
+      return new VerifiedJar(jarFile.getAbsolutePath(), jarFile.length(), jarFile.lastModified(),
+          checksumFile.length(), checksumFile.lastModified());
+    }
+  }
 }
@@ -0,0 +1,286 @@
+package org.ek9lang.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a jar (zip) file in a single sequential pass, but with the entries compressed in parallel.
+ * <p>
+ * The entries are sorted by name (with the manifest first, as required by JarInputStream) and all have the
+ * same fixed timestamp. So the same content always results in exactly the same jar, i.e. reproducible builds.
+ * Entries are only held compressed if that makes them smaller, so already compressed resources (i.e. images)
+ * are just stored. For development builds compression can be turned off altogether.
+ * </p>
+ * <p>
+ * This is the zip format without the zip64 extensions, so is limited to 65535 entries and 4GB.
+ * </p>
+ */
+final class StreamingJarWriter {
+  static final String MANIFEST_DIRECTORY = "META-INF/";
+  static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final short VERSION = 20;
+  private static final short UTF8_NAMES_FLAG = 0x0800;
+  private static final short STORED = 0;
+  private static final short DEFLATED = 8;
+  //1st February 1980 at midnight, in MS-DOS format. The same as used by other reproducible build tools.
+  private static final short FIXED_TIME = 0;
+  private static final short FIXED_DATE = (2 << 5) | 1;
+  private static final int DIRECTORY_ATTRIBUTE = 0x10;
+  private static final int MAXIMUM_ENTRIES = 0xFFFF;
+  private static final long MAXIMUM_OFFSET = 0xFFFFFFFFL;
+
+  private final boolean compress;
+
+  StreamingJarWriter(final boolean compress) {
+
+    this.compress = compress;
+
+  }
+
+  /**
+   * Write the sets to the jar file, if manifest content is supplied it replaces any manifest in the sets.
+   */
+  void write(final File jarFile, final List<ZipSet> sets, final String manifestContent) throws IOException {
+
+    final var entries = collectEntries(sets, manifestContent);
+    if (entries.size() > MAXIMUM_ENTRIES) {
+      throw new CompilerException("Unable to create " + jarFile.getName() + " with " + entries.size() + " entries");
+    }
+
+    try (var channel = FileChannel.open(jarFile.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      final var written = new ArrayList<WrittenEntry>(entries.size());
+
+      //Compressed in parallel, but written in order.
+      final Processor<Boolean> processor = () -> {
+        entries.parallelStream()
+            .map(this::compress)
+            .forEachOrdered(entry -> written.add(writeLocalEntry(channel, entry)));
+        return true;
+      };
+      new ExceptionConverter<Boolean>().apply(processor);
+
+      writeCentralDirectory(channel, written);
+    }
+
+  }
+
+  /**
+   * Sorted by name, later sets replace entries with the same name in earlier sets.
+   * All parent directories are added as entries, the manifest is always first.
+   */
+  private List<PendingEntry> collectEntries(final List<ZipSet> sets, final String manifestContent) {
+
+    final var byName = new TreeMap<String, PendingEntry>();
+    for (var set : sets) {
+      if (set.isFileBased()) {
+        final var relativeTo = set.getRelativePath().toAbsolutePath();
+        for (var file : set.getFiles()) {
+          final var name = relativeTo.relativize(file.toPath().toAbsolutePath()).toString()
+              .replace(File.separatorChar, '/');
+          byName.put(name, new PendingEntry(name, () -> readContent(file)));
+        }
+      } else if (set.isEntryBased()) {
+        set.getEntries().forEach(content ->
+            byName.put(content.getEntryName(), new PendingEntry(content.getEntryName(), content::getContent)));
+      }
+    }
+
+    if (manifestContent != null) {
+      final var content = manifestContent.getBytes(StandardCharsets.UTF_8);
+      byName.put(MANIFEST_NAME, new PendingEntry(MANIFEST_NAME, () -> content));
+    }
+
+    addDirectories(byName);
+
+    final var entries = new ArrayList<PendingEntry>(byName.size());
+    addIfPresent(byName.remove(MANIFEST_DIRECTORY), entries);
+    addIfPresent(byName.remove(MANIFEST_NAME), entries);
+    entries.addAll(byName.values());
+
+    return entries;
+  }
+
+  private void addDirectories(final Map<String, PendingEntry> byName) {
+
+    final var directories = new ArrayList<String>();
+    for (var name : byName.keySet()) {
+      var index = name.indexOf('/');
+      while (index > 0 && index < name.length() - 1) {
+        directories.add(name.substring(0, index + 1));
+        index = name.indexOf('/', index + 1);
+      }
+    }
+    directories.forEach(directory -> byName.putIfAbsent(directory, new PendingEntry(directory, () -> new byte[0])));
+
+  }
+
+  private void addIfPresent(final PendingEntry entry, final List<PendingEntry> entries) {
+
+    if (entry != null) {
+      entries.add(entry);
+    }
+
+  }
+
+  private byte[] readContent(final File file) {
+
+    final Processor<byte[]> processor = () -> Files.readAllBytes(file.toPath());
+
+    return new ExceptionConverter<byte[]>().apply(processor);
+  }
+
+  private CompressedEntry compress(final PendingEntry entry) {
+
+    final var content = entry.content().get();
+    final var crc = new CRC32();
+    crc.update(content);
+
+    if (compress && !entry.isDirectory() && content.length > 0) {
+      final var deflated = deflate(content);
+      if (deflated.length < content.length) {
+        return new CompressedEntry(entry.name(), DEFLATED, crc.getValue(), deflated, content.length);
+      }
+    }
+
+    return new CompressedEntry(entry.name(), STORED, crc.getValue(), content, content.length);
+  }
+
+  private byte[] deflate(final byte[] content) {
+
+    final var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    final var bytes = new ByteArrayOutputStream(content.length / 2);
+    final Processor<byte[]> processor = () -> {
+      try (var out = new DeflaterOutputStream(bytes, deflater)) {
+        out.write(content);
+      } finally {
+        deflater.end();
+      }
+      return bytes.toByteArray();
+    };
+
+    return new ExceptionConverter<byte[]>().apply(processor);
+  }
+
+  private WrittenEntry writeLocalEntry(final FileChannel channel, final CompressedEntry entry) {
+
+    final Processor<WrittenEntry> processor = () -> {
+      final var offset = channel.position();
+      checkOffset(offset);
+      final var name = entry.name().getBytes(StandardCharsets.UTF_8);
+      final var header = newBuffer(30 + name.length);
+      header.putInt(LOCAL_HEADER_SIGNATURE)
+          .putShort(VERSION)
+          .putShort(UTF8_NAMES_FLAG)
+          .putShort(entry.method())
+          .putShort(FIXED_TIME)
+          .putShort(FIXED_DATE)
+          .putInt((int) entry.crc())
+          .putInt(entry.data().length)
+          .putInt(entry.uncompressedSize())
+          .putShort((short) name.length)
+          .putShort((short) 0)
+          .put(name);
+      writeFully(channel, header.flip());
+      writeFully(channel, ByteBuffer.wrap(entry.data()));
+      return new WrittenEntry(entry, name, offset);
+    };
+
+    return new ExceptionConverter<WrittenEntry>().apply(processor);
+  }
+
+  private void writeCentralDirectory(final FileChannel channel, final List<WrittenEntry> written) throws IOException {
+
+    final var start = channel.position();
+    checkOffset(start);
+    for (var entry : written) {
+      final var compressed = entry.entry();
+      final var header = newBuffer(46 + entry.name().length);
+      header.putInt(CENTRAL_HEADER_SIGNATURE)
+          .putShort(VERSION)
+          .putShort(VERSION)
+          .putShort(UTF8_NAMES_FLAG)
+          .putShort(compressed.method())
+          .putShort(FIXED_TIME)
+          .putShort(FIXED_DATE)
+          .putInt((int) compressed.crc())
+          .putInt(compressed.data().length)
+          .putInt(compressed.uncompressedSize())
+          .putShort((short) entry.name().length)
+          .putShort((short) 0)
+          .putShort((short) 0)
+          .putShort((short) 0)
+          .putShort((short) 0)
+          .putInt(compressed.name().endsWith("/") ? DIRECTORY_ATTRIBUTE : 0)
+          .putInt((int) entry.offset())
+          .put(entry.name());
+      writeFully(channel, header.flip());
+    }
+
+    final var size = channel.position() - start;
+    checkOffset(channel.position());
+    final var end = newBuffer(22);
+    end.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+        .putShort((short) 0)
+        .putShort((short) 0)
+        .putShort((short) written.size())
+        .putShort((short) written.size())
+        .putInt((int) size)
+        .putInt((int) start)
+        .putShort((short) 0);
+    writeFully(channel, end.flip());
+
+  }
+
+  private void checkOffset(final long offset) {
+
+    if (offset > MAXIMUM_OFFSET) {
+      throw new CompilerException("Unable to create a jar larger than 4GB");
+    }
+
+  }
+
+  private ByteBuffer newBuffer(final int size) {
+
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+
+  }
+
+  private record PendingEntry(String name, Supplier<byte[]> content) {
+    boolean isDirectory() {
+      return name.endsWith("/");
+    }
+  }
+
+  private record CompressedEntry(String name, short method, long crc, byte[] data, int uncompressedSize) {
+  }
+
+  private record WrittenEntry(CompressedEntry entry, byte[] name, long offset) {
+  }
+}
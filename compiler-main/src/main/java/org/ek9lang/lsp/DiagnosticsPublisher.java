@@ -0,0 +1,71 @@
+package org.ek9lang.lsp;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.ek9lang.core.Logger;
+
+/**
+ * Only sends diagnostics to the client for the documents where they have actually changed.
+ * <p>
+ * The diagnostics last sent for each URI are retained. After a compilation most sources will have
+ * exactly the same diagnostics as before (very often none at all), so there is no need to send those again.
+ * A URI with no entry is taken to have no diagnostics, as that is what the client has to start with.
+ * </p>
+ * <p>
+ * Diagnostics are published as a burst (i.e. all those from a compilation), where the same URI appears more
+ * than once in a burst only the last is sent.
+ * </p>
+ */
+final class DiagnosticsPublisher {
+
+  private final Map<String, List<Diagnostic>> published = new HashMap<>();
+
+  private final Consumer<PublishDiagnosticsParams> client;
+
+  DiagnosticsPublisher(final Consumer<PublishDiagnosticsParams> client) {
+
+    this.client = client;
+
+  }
+
+  /**
+   * Send those diagnostics in the burst that differ from the ones last sent for the same URI.
+   */
+  synchronized void publish(final Collection<PublishDiagnosticsParams> burst) {
+
+    final Map<String, PublishDiagnosticsParams> byUri = new LinkedHashMap<>();
+    burst.forEach(diagnostics -> byUri.put(diagnostics.getUri(), diagnostics));
+
+    var sent = 0;
+    for (var diagnostics : byUri.values()) {
+      if (hasChanged(diagnostics)) {
+        Logger.debugf("Sending back diagnostics %d\n", diagnostics.getDiagnostics().size());
+        client.accept(diagnostics);
+        sent++;
+      }
+    }
+
+    Logger.debugf("Published %d of %d diagnostics\n", sent, byUri.size());
+  }
+
+  /**
+   * Record the diagnostics for the URI, returning true if they differ from those last recorded.
+   */
+  private boolean hasChanged(final PublishDiagnosticsParams diagnostics) {
+
+    final var uri = diagnostics.getUri();
+    if (diagnostics.getDiagnostics().isEmpty()) {
+      return published.remove(uri) != null;
+    }
+
+    final var toPublish = List.copyOf(diagnostics.getDiagnostics());
+
+    return !toPublish.equals(published.put(uri, toPublish));
+  }
+}
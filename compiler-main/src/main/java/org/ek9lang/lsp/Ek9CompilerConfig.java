@@ -15,6 +15,12 @@ import org.ek9lang.compiler.CompilerFlags;
 final class Ek9CompilerConfig extends CompilerFlags {
   private boolean provideLanguageHoverHelp = true;
 
+  /**
+   * The number of source tokens to keep full detail (tokens and parse trees) for.
+   * Beyond this, sources not open in the editor are reduced to just their symbols.
+   */
+  private long sourceDetailTokenBudget = 2_000_000;
+
   Ek9CompilerConfig() {
 
     this(CompilationPhase.IR_ANALYSIS);
@@ -24,6 +30,7 @@ final class Ek9CompilerConfig extends CompilerFlags {
   Ek9CompilerConfig(final CompilationPhase compileToPhase) {
 
     super(compileToPhase);
+    setRecordSymbolUses(true);
 
   }
 
@@ -37,4 +44,15 @@ final class Ek9CompilerConfig extends CompilerFlags {
     this.provideLanguageHoverHelp = provideLanguageHoverHelp;
 
   }
+
+  long getSourceDetailTokenBudget() {
+
+    return sourceDetailTokenBudget;
+  }
+
+  void setSourceDetailTokenBudget(final long sourceDetailTokenBudget) {
+
+    this.sourceDetailTokenBudget = sourceDetailTokenBudget;
+
+  }
 }
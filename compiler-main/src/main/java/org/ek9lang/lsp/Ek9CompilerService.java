@@ -1,27 +1,130 @@
 package org.ek9lang.lsp;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.ek9lang.compiler.CancellationToken;
 import org.ek9lang.compiler.CompilableProgram;
 import org.ek9lang.compiler.CompilableSource;
 import org.ek9lang.compiler.Ek9Compiler;
+import org.ek9lang.compiler.ParsedModule;
+import org.ek9lang.compiler.SourceDependencies;
+import org.ek9lang.compiler.Workspace;
 import org.ek9lang.compiler.common.CompilationPhaseListener;
 import org.ek9lang.compiler.common.CompilerReporter;
 import org.ek9lang.compiler.config.FrontEndSupplier;
+import org.ek9lang.compiler.symbols.CallSymbol;
 import org.ek9lang.compiler.symbols.ISymbol;
 import org.ek9lang.compiler.tokenizer.IToken;
+import org.ek9lang.core.CompilerException;
 import org.ek9lang.core.Logger;
 import org.ek9lang.core.SharedThreadContext;
 
 /**
  * Designed to be the bridge between LSP mechanisms and the Ek9Compiler itself.
+ * <p>
+ * The whole workspace is compiled initially, after that the compiled program is retained.
+ * When sources are altered, only those sources and the sources that depend on their modules
+ * (transitively) are recompiled; their parsed modules are removed from the retained program first.
+ * All the other parsed modules in the program are reused as they are.
+ * </p>
+ * <p>
+ * All compilation takes place on a single background thread, so the thread handling LSP messages is never
+ * blocked by a compilation; see {@link #awaitCompilation()}.
+ * </p>
+ * <p>
+ * Edits in the editor are held in memory (as the unsaved content of the existing source) and compiled
+ * after a short quiet period. As the source itself is retained, only its altered top level blocks are reparsed.
+ * A newer edit cancels any compilation in progress, which stops at the next phase or source; the sources
+ * it was compiling are then included in the next compilation.
+ * </p>
+ * <p>
+ * To bound memory, only the sources open in the editor and those recently used keep their tokens and parse
+ * trees, within a budget. Other sources are reduced to the symbols in their module scope, should one of those
+ * then be used, that source (and those that depend on it) are compiled again to rebuild its detail. The request
+ * only waits a short time for that, so it is not held up by a compilation in progress; it is answered from the
+ * detail then available.
+ * </p>
  */
 final class Ek9CompilerService extends Ek9Service {
 
+  /**
+   * How long to wait after an edit, before compiling. Each subsequent edit restarts the wait.
+   */
+  private static final long QUIET_PERIOD_MILLIS = 200;
+
+  /**
+   * How long a request waits for the detail of a released source to be rebuilt, before it is answered without.
+   */
+  private static final long DETAIL_REBUILD_WAIT_MILLIS = 500;
+
   /**
    * Store the last compiled program for access by hover and other LSP features.
    */
-  private SharedThreadContext<CompilableProgram> lastCompiledProgram;
+  private volatile SharedThreadContext<CompilableProgram> lastCompiledProgram;
+
+  /**
+   * The module defined and the symbols referenced by each source in the last compiled program.
+   */
+  private final Map<String, SourceDependencies> compiledDependencies = new HashMap<>();
+
+  /**
+   * Sources that did not complete all phases in an incremental compilation, either because they had errors
+   * or because the compilation was cancelled. These must be included in the next incremental compilation.
+   */
+  private final Set<String> pendingFileNames = new HashSet<>();
+
+  private final ScheduledExecutorService compileScheduler =
+      Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("ek9-compile").daemon().factory());
+
+  /**
+   * The content updates to apply to sources before the next scheduled compilation; by file name.
+   */
+  private final Map<String, Consumer<CompilableSource>> contentUpdates = new ConcurrentHashMap<>();
+
+  /**
+   * Those sources in the workspace that are the unsaved content of an editor buffer.
+   */
+  private final Set<String> unsavedFileNames = ConcurrentHashMap.newKeySet();
+
+  private final AtomicReference<ScheduledFuture<?>> scheduledCompilation = new AtomicReference<>();
+
+  private final VisibleSymbolCompleter symbolCompleter = new VisibleSymbolCompleter();
+
+  /**
+   * The symbols declared in each source, updated as each source is compiled.
+   */
+  private final WorkspaceSymbolIndex symbolIndex = new WorkspaceSymbolIndex();
+
+  /**
+   * Where each symbol is used in the workspace, updated as each source is compiled.
+   */
+  private final SymbolReferenceIndex referenceIndex = new SymbolReferenceIndex();
+
+  /**
+   * Which sources keep their full detail, the others are reduced to just their symbols after compilation.
+   */
+  private final SourceDetailRetention detailRetention = new SourceDetailRetention();
+
+  private final AtomicReference<CancellationToken> activeCompilation = new AtomicReference<>(new CancellationToken());
 
   //This triggers the loading via introspection of the EK9 builtin types interface.
   private final InitialCompilableProgramSupplier initialCompilableProgramSupplier =
@@ -51,9 +154,8 @@ final class Ek9CompilerService extends Ek9Service {
     //initialCompilableProgramSupplier caches the compilableProgram in its initial state.
     //So subsequent calls to initialCompilableProgramSupplier.get() are very fast.
 
-    //This is so that when we get file events, we can quickly get back to a base shared program
-    //Then quickly compile the workspace again. It may be possible to retain parts of code
-    //so stop the full recompilation. But let's do the easiest thing first and get something working.
+    //This is so that when we need a full recompilation, we can quickly get back to a base shared program.
+    //For file events the last compiled program is retained and only the affected sources are recompiled.
 
     Logger.debug("About to bootstrap EK9 Builtin Language constructs");
     final var sharedProgram = initialCompilableProgramSupplier.get();
@@ -70,25 +172,391 @@ final class Ek9CompilerService extends Ek9Service {
 
   }
 
+  /**
+   * Compile the whole workspace, in the background.
+   */
   void recompileWorkSpace() {
 
+    compileScheduler.execute(this::compileWorkSpace);
+
+  }
+
+  /**
+   * Recompile the altered (or deleted) sources and those that depend on them, in the background.
+   */
+  void recompile(final Collection<String> alteredFileNames) {
+
+    final var fileNames = List.copyOf(alteredFileNames);
+    compileScheduler.execute(() -> compileAltered(fileNames));
+
+  }
+
+  /**
+   * Wait until the compilations requested so far have completed. Those scheduled after an edit, which are
+   * still in their quiet period, are not waited for.
+   */
+  void awaitCompilation() {
+
+    try {
+      onCompileThread(() -> { }).get();
+    } catch (InterruptedException _) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      throw new CompilerException("Failed waiting for compilation", ex);
+    }
+
+  }
+
+  private void compileWorkSpace() {
+
     final var sharedCompilableProgram = initialCompilableProgramSupplier.get();
+    compiledDependencies.clear();
+    pendingFileNames.clear();
+    symbolIndex.clear();
+    referenceIndex.clear();
+
+    compile(sharedCompilableProgram, getWorkspace());
+
+    if (isCancelled()) {
+      //Nothing can be reused, so the next compilation must be a full one.
+      //Until then the previously compiled program (if any) is still used to answer requests.
+      compiledDependencies.clear();
+      return;
+    }
+
     this.lastCompiledProgram = sharedCompilableProgram;
 
-    final var frontEndSupplier = new FrontEndSupplier(sharedCompilableProgram, listener, reporter, true);
+    reportAnyErrors(getWorkspace());
+    releaseInactiveSourceDetail();
+  }
+
+  /**
+   * The content of a source has been altered in the editor, but not saved.
+   * Any compilation in progress is cancelled and a compilation is scheduled.
+   */
+  void sourceEdited(final String fileName, final String content) {
+
+    final var bytes = content.getBytes(StandardCharsets.UTF_8);
+    unsavedFileNames.add(fileName);
+    scheduleContentUpdate(fileName, source -> source.setContent(bytes));
+
+  }
+
+  /**
+   * The editor buffer has been saved or closed, so the source reverts to being read from the file.
+   */
+  void sourceReverted(final String fileName) {
+
+    if (unsavedFileNames.remove(fileName)) {
+      scheduleContentUpdate(fileName, source -> source.setContent(null));
+    }
+
+  }
+
+  private void scheduleContentUpdate(final String fileName, final Consumer<CompilableSource> update) {
+
+    contentUpdates.put(fileName, update);
+    activeCompilation.get().cancel();
+
+    final var previous = scheduledCompilation.getAndSet(
+        compileScheduler.schedule(this::compileContentUpdates, QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS));
+    if (previous != null) {
+      previous.cancel(false);
+    }
+
+  }
+
+  private void compileContentUpdates() {
+
+    final var fileNames = new ArrayList<>(contentUpdates.keySet());
+    fileNames.forEach(fileName -> {
+      final var update = contentUpdates.remove(fileName);
+      if (update != null) {
+        applyContentUpdate(fileName, update);
+      }
+    });
+
+    compileAltered(fileNames);
+
+  }
+
+  /**
+   * The existing source is updated, so its last parse can be used to only reparse the blocks altered.
+   * A source not yet in the workspace is added if its file exists, i.e. it has been created but the
+   * notification of that has not yet arrived. A source whose file has been deleted is not brought back.
+   */
+  private void applyContentUpdate(final String fileName, final Consumer<CompilableSource> update) {
+
+    final var existing = getWorkspace().getSource(fileName);
+    if (existing != null) {
+      update.accept(existing);
+    } else if (new File(fileName).exists()) {
+      final var created = new CompilableSource(getWorkspace().getSourceFileBaseDirectory(), fileName);
+      update.accept(created);
+      getWorkspace().replaceSource(created);
+    }
+
+  }
+
+  /**
+   * Recompile just the altered (or deleted) sources and those that depend on them.
+   * If the alterations cannot be handled incrementally, then the whole workspace is recompiled.
+   * Only called on the compilation thread.
+   */
+  private void compileAltered(final Collection<String> alteredFileNames) {
+
+    final var relevantFileNames = alteredFileNames.stream()
+        .filter(fileName -> getWorkspace().isSourcePresent(fileName) || compiledDependencies.containsKey(fileName))
+        .toList();
+
+    if (relevantFileNames.isEmpty()) {
+      return;
+    }
+
+    //Until there is a compiled program, or if a source is new (so its module is not known) do it all.
+    if (lastCompiledProgram == null || !compiledDependencies.keySet().containsAll(relevantFileNames)) {
+      compileWorkSpace();
+      return;
+    }
+
+    final Set<String> alteredModules = new HashSet<>();
+    relevantFileNames.forEach(fileName -> alteredModules.add(compiledDependencies.get(fileName).moduleName()));
+    pendingFileNames.stream()
+        .map(compiledDependencies::get)
+        .filter(Objects::nonNull)
+        .forEach(dependencies -> alteredModules.add(dependencies.moduleName()));
+
+    final var fileNamesToRecompile = dependentsOf(alteredModules);
+    fileNamesToRecompile.addAll(pendingFileNames);
+    removeParsedModules(alteredModules, fileNamesToRecompile);
+    relevantFileNames.stream()
+        .filter(fileName -> !getWorkspace().isSourcePresent(fileName))
+        .forEach(fileName -> {
+          compiledDependencies.remove(fileName);
+          symbolIndex.remove(fileName);
+          referenceIndex.remove(fileName);
+          detailRetention.forget(fileName);
+        });
+
+    final var workspace = new Workspace(getWorkspace().getSourceFileBaseDirectory());
+    fileNamesToRecompile.stream()
+        .map(getWorkspace()::getSource)
+        .filter(Objects::nonNull)
+        .forEach(source -> {
+          //Unaltered sources will not be reparsed, so any errors from the last compilation must be cleared.
+          if (!source.hasNotBeenSuccessfullyParsed() && !source.isModified()) {
+            source.getErrorListener().reset();
+          }
+          workspace.addSource(source);
+        });
+
+    Logger.debug("Incrementally recompiling " + workspace.getSources().size() + " source(s)");
+    pendingFileNames.clear();
+    if (!compile(lastCompiledProgram, workspace)) {
+      //If cancelled none of the sources can be relied upon, otherwise it is just those with errors.
+      final var cancelled = isCancelled();
+      workspace.getSources().stream()
+          .filter(source -> cancelled || source.getErrorListener().hasErrors())
+          .forEach(source -> pendingFileNames.add(source.getFileName()));
+    }
+
+    if (isCancelled()) {
+      return;
+    }
+
+    //If a source now defines a different module, then other sources in that module may be affected.
+    final var moduleAltered = workspace.getSources().stream()
+        .filter(CompilableSource::isDependenciesAvailable)
+        .anyMatch(source -> !alteredModules.contains(source.getDependencies().moduleName()));
+    if (moduleAltered) {
+      compileWorkSpace();
+      return;
+    }
+
+    reportAnyErrors(workspace);
+    releaseInactiveSourceDetail();
+  }
+
+  void sourceOpened(final String fileName) {
+
+    detailRetention.opened(fileName);
+
+  }
+
+  void sourceClosed(final String fileName) {
+
+    detailRetention.closed(fileName);
+
+  }
+
+  /**
+   * Run the task on the compile thread, after the compilations requested so far.
+   */
+  Future<?> onCompileThread(final Runnable task) {
+
+    return compileScheduler.submit(task);
+  }
+
+  /**
+   * The source is being used for hover, completion or navigation.
+   * If its detail has been released, it is rebuilt on the compile thread. This only waits a short time for that,
+   * as a compilation may be in progress. In which case the request is answered without the detail, but
+   * later requests will have it. So must not be called on the compile thread.
+   */
+  void sourceUsed(final String fileName) {
+
+    detailRetention.used(fileName);
+    if (!isDetailReleased(fileName)) {
+      return;
+    }
+
+    try {
+      onCompileThread(() -> rebuildDetail(fileName)).get(DETAIL_REBUILD_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException _) {
+      Logger.debug("Answering without the detail of " + fileName + ", still to be rebuilt");
+    } catch (InterruptedException _) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      throw new CompilerException("Failed to rebuild detail for " + fileName, ex);
+    }
+
+  }
+
+  /**
+   * The source is parsed and compiled again, to record its symbols against its parse tree.
+   * Compiling it defines its symbols afresh, so the sources that depend on it are compiled again as well.
+   * Otherwise they would still refer to the symbols it previously defined.
+   */
+  private void rebuildDetail(final String fileName) {
+
+    //Several requests may have asked for the same source to be rebuilt.
+    if (!isDetailReleased(fileName) || lastCompiledProgram == null || !compiledDependencies.containsKey(fileName)) {
+      return;
+    }
+
+    Logger.debug("Rebuilding detail for " + fileName);
+    compileAltered(List.of(fileName));
+
+  }
+
+  private boolean isDetailReleased(final String fileName) {
+
+    final var source = getWorkspace().getSource(fileName);
+
+    return source != null && source.isParseTreeReleased();
+  }
+
+  /**
+   * Release the tokens, parse trees and recorded symbols of inactive sources, if over the budget.
+   * Their module scopes (and so their symbols) are retained, so other sources can still be resolved against them.
+   */
+  private void releaseInactiveSourceDetail() {
+
+    final Map<String, Integer> tokensByFileName = new HashMap<>();
+    getWorkspace().getSources().stream()
+        .filter(source -> !source.hasNotBeenSuccessfullyParsed())
+        .forEach(source -> tokensByFileName.put(source.getFileName(), source.getNumberOfTokens()));
+
+    final var toRelease = detailRetention.selectForRelease(tokensByFileName,
+        getLanguageServer().getCompilerConfig().getSourceDetailTokenBudget());
+    if (toRelease.isEmpty()) {
+      return;
+    }
+
+    lastCompiledProgram.accept(program -> toRelease.stream()
+        .map(getWorkspace()::getSource)
+        .forEach(source -> {
+          final var parsedModule = program.getParsedModuleForCompilableSource(source);
+          if (parsedModule != null) {
+            parsedModule.releaseTransientData();
+          }
+          source.releaseParseTree();
+        }));
+
+    Logger.debug("Released detail for " + toRelease.size() + " inactive source(s)");
+  }
+
+  private boolean compile(final SharedThreadContext<CompilableProgram> compilableProgram, final Workspace workspace) {
+
+    final var cancellationToken = new CancellationToken();
+    activeCompilation.set(cancellationToken);
+    getCompilerFlags().setCancellationToken(cancellationToken);
+
+    final var frontEndSupplier = new FrontEndSupplier(compilableProgram, listener, reporter, true);
 
     final var compiler = new Ek9Compiler(frontEndSupplier, true);
 
-    compiler.compile(getWorkspace(), getCompilerFlags());
+    final var rtn = compiler.compile(workspace, getCompilerFlags());
+
+    workspace.getSources().stream()
+        .filter(CompilableSource::isDependenciesAvailable)
+        .forEach(source -> compiledDependencies.put(source.getFileName(), source.getDependencies()));
+
+    if (!cancellationToken.isCancelled()) {
+      compilableProgram.accept(program -> workspace.getSources().stream()
+          .map(program::getParsedModuleForCompilableSource)
+          .filter(Objects::nonNull)
+          .forEach(parsedModule -> {
+            symbolIndex.update(parsedModule);
+            referenceIndex.update(parsedModule);
+          }));
+    }
+
+    return rtn;
+  }
+
+  private boolean isCancelled() {
+
+    return getCompilerFlags().getCancellationToken().isCancelled();
+  }
+
+  /**
+   * Locates all the sources that depend on the altered modules, and then those that depend on them.
+   */
+  private Set<String> dependentsOf(final Set<String> alteredModules) {
+
+    final Set<String> rtn = new HashSet<>();
+    var added = true;
+    while (added) {
+      added = false;
+      for (var entry : compiledDependencies.entrySet()) {
+        final var dependencies = entry.getValue();
+        if (!rtn.contains(entry.getKey()) && alteredModules.stream().anyMatch(dependencies::dependsOn)) {
+          rtn.add(entry.getKey());
+          added |= alteredModules.add(dependencies.moduleName());
+        }
+      }
+    }
+
+    return rtn;
+  }
+
+  /**
+   * Remove the parsed modules for the sources from the retained program, so they can be added back in
+   * when recompiled. Sources that have been deleted are also removed.
+   */
+  private void removeParsedModules(final Set<String> moduleNames, final Set<String> fileNames) {
+
+    lastCompiledProgram.accept(program -> moduleNames.forEach(moduleName -> {
+      final var toRemove = new ArrayList<ParsedModule>();
+      program.getParsedModules(moduleName).stream()
+          .filter(parsedModule -> fileNames.contains(parsedModule.getSource().getFileName()))
+          .forEach(toRemove::add);
+      toRemove.forEach(program::remove);
+    }));
 
-    reportAnyErrors();
   }
 
 
   Optional<ISymbol> locateSymbol(final CompilableSource source, final IToken token) {
 
+    final var compiledProgram = lastCompiledProgram;
+    if (compiledProgram == null) {
+      return Optional.empty();
+    }
+
     final AtomicReference<Optional<ISymbol>> found = new AtomicReference<>(Optional.empty());
-    lastCompiledProgram.accept(program -> {
+    compiledProgram.accept(program -> {
           final var module = program.getParsedModuleForCompilableSource(source);
           if (module != null) {
             // Use ParsedModule's exposed locator method
@@ -100,11 +568,101 @@ final class Ek9CompilerService extends Ek9Service {
     return found.get();
   }
 
-  private void reportAnyErrors() {
-    getWorkspace()
+  /**
+   * Provide the symbols visible at the token in the source, with names that start with the prefix.
+   */
+  List<ISymbol> completeSymbol(final CompilableSource source, final IToken token, final String prefix,
+                               final int limit) {
+
+    final var program = lastCompiledProgram;
+    if (program == null) {
+      return List.of();
+    }
+
+    final AtomicReference<List<ISymbol>> found = new AtomicReference<>(List.of());
+    program.accept(compilableProgram ->
+        found.set(symbolCompleter.complete(compilableProgram, source, token, prefix, limit)));
+
+    return found.get();
+  }
+
+  /**
+   * Search for symbols declared anywhere in the workspace, with names containing the query.
+   */
+  List<WorkspaceSymbolIndex.Entry> searchSymbols(final String query, final int limit) {
+
+    return symbolIndex.search(query, limit);
+  }
+
+  /**
+   * Find where the symbol at the token is declared. For calls, this is what is being called.
+   */
+  List<WorkspaceSymbolIndex.Entry> locateDeclarations(final CompilableSource source, final IToken token) {
+
+    return locateReferencedSymbol(source, token)
+        .map(this::declarationsOf)
+        .orElse(List.of());
+  }
+
+  /**
+   * Find where the symbol at the token is used, and optionally where it is declared (first).
+   */
+  List<WorkspaceSymbolIndex.Entry> locateReferences(final CompilableSource source, final IToken token,
+                                                    final boolean includeDeclaration) {
+
+    return locateReferencedSymbol(source, token)
+        .map(symbol -> {
+          final List<WorkspaceSymbolIndex.Entry> rtn = new ArrayList<>();
+          if (includeDeclaration) {
+            rtn.addAll(declarationsOf(symbol));
+          }
+          rtn.addAll(referenceIndex.findUses(symbol));
+          return rtn;
+        })
+        .orElse(List.of());
+  }
+
+  /**
+   * The symbol at the token, or for calls what is being called.
+   */
+  Optional<ISymbol> locateReferencedSymbol(final CompilableSource source, final IToken token) {
+
+    return locateSymbol(source, token)
+        .map(symbol -> symbol instanceof CallSymbol call && call.getResolvedSymbolToCall() != null
+            ? call.getResolvedSymbolToCall() : symbol);
+  }
+
+  private List<WorkspaceSymbolIndex.Entry> declarationsOf(final ISymbol symbol) {
+
+    final var declarations = symbolIndex.findByFullyQualifiedName(symbol.getFullyQualifiedName());
+    final var sourceToken = symbol.getSourceToken();
+    if (sourceToken == null || !getWorkspace().isSourcePresent(sourceToken.getSourceName())) {
+      return declarations;
+    }
+
+    //Overloaded methods will have the same name, so where possible just the one actually declared.
+    final var exact = declarations.stream()
+        .filter(entry -> entry.line() == sourceToken.getLine()
+            && entry.charPositionInLine() == sourceToken.getCharPositionInLine())
+        .toList();
+    if (!exact.isEmpty()) {
+      return exact;
+    }
+    if (!declarations.isEmpty()) {
+      return declarations;
+    }
+
+    //Not a construct or member, i.e. a local variable, so just where it is declared.
+    return List.of(new WorkspaceSymbolIndex.Entry(symbol.getName(), symbol.getName(),
+        symbol.getFullyQualifiedName(), symbol.getCategory(), "", sourceToken.getSourceName(),
+        sourceToken.getLine(), sourceToken.getCharPositionInLine()));
+  }
+
+  private void reportAnyErrors(final Workspace workspace) {
+    reportOnCompiledSources(workspace
         .getSources()
         .stream()
         .map(CompilableSource::getErrorListener)
-        .forEach(this::reportOnCompiledSource);
+        .toList());
   }
 }
@@ -27,6 +27,9 @@ final class Ek9LanguageServer implements IEk9LanguageServer {
   private final Ek9TextDocumentService textDocumentService;
   private final Ek9WorkspaceService workspaceService;
   private final Ek9CompilerService compilerService;
+  private final LanguageRequestExecutor requestExecutor = new LanguageRequestExecutor();
+  private final DiagnosticsPublisher diagnosticsPublisher = new DiagnosticsPublisher(
+      diagnostics -> getClient().ifPresent(client -> client.publishDiagnostics(diagnostics)));
 
   private LanguageClient client;
   //To be used when the application exits, set to zero on shutdown by client.
@@ -90,6 +93,9 @@ final class Ek9LanguageServer implements IEk9LanguageServer {
     initializeResult.getCapabilities().setDefinitionProvider(true);
     initializeResult.getCapabilities().setDeclarationProvider(true);
     initializeResult.getCapabilities().setReferencesProvider(true);
+    initializeResult.getCapabilities().setDocumentHighlightProvider(true);
+    initializeResult.getCapabilities().setRenameProvider(true);
+    initializeResult.getCapabilities().setWorkspaceSymbolProvider(true);
 
     return CompletableFuture.supplyAsync(() -> initializeResult);
   }
@@ -109,6 +115,7 @@ final class Ek9LanguageServer implements IEk9LanguageServer {
 
     Logger.debug("EK9: Shutdown");
     errorCode = 0;
+    requestExecutor.shutdown();
 
     return null;
   }
@@ -138,6 +145,14 @@ final class Ek9LanguageServer implements IEk9LanguageServer {
     return compilerService;
   }
 
+  LanguageRequestExecutor getRequestExecutor() {
+    return requestExecutor;
+  }
+
+  DiagnosticsPublisher getDiagnosticsPublisher() {
+    return diagnosticsPublisher;
+  }
+
   void sendWarningBackToClient(final String message) {
 
     sendLogMessageBackToClient(new MessageParams(MessageType.Warning, message));
@@ -3,9 +3,12 @@ package org.ek9lang.lsp;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Function;
 import org.ek9lang.compiler.tokenizer.TokenResult;
 
@@ -21,7 +24,8 @@ import org.ek9lang.compiler.tokenizer.TokenResult;
  * This only deals with simple single word completion and simple cases.
  */
 final class Ek9LanguageWords {
-  private final Map<String, KeyWordInformation> keywordMap = new HashMap<>();
+  //Sorted, so that the keywords starting with some partial text can be found directly.
+  private final NavigableMap<String, KeyWordInformation> keywordMap = new TreeMap<>();
 
   Ek9LanguageWords() {
     setupKeyWords();
@@ -685,19 +689,15 @@ final class Ek9LanguageWords {
    * This will affect the search results.
    */
   public List<String> fuzzyMatch(final TokenResult search) {
-    final List<String> rtn = new ArrayList<>();
+    final Set<String> rtn = new LinkedHashSet<>();
     if (search.isPresent()) {
-      keywordMap.entrySet().stream()
-          .filter(entry -> entry.getKey().startsWith(search.getToken().getText()))
-          .filter(entry -> entry.getValue().isValidInThisContext(search))
-          .forEach(entry -> entry.getValue().completionText.forEach(match -> {
-            if (!rtn.contains(match)) {
-              rtn.add(match);
-            }
-          }));
+      final var partial = search.getToken().getText();
+      keywordMap.subMap(partial, true, partial + Character.MAX_VALUE, true).values().stream()
+          .filter(information -> information.isValidInThisContext(search))
+          .forEach(information -> rtn.addAll(information.completionText));
     }
 
-    return rtn;
+    return new ArrayList<>(rtn);
   }
 
   /**
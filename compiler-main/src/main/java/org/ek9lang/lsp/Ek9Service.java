@@ -1,6 +1,7 @@
 package org.ek9lang.lsp;
 
-import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import java.util.Collection;
+import java.util.List;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TextDocumentItem;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
@@ -44,9 +45,14 @@ abstract class Ek9Service {
     return getLanguageServer().getCompilerService();
   }
 
+  protected LanguageRequestExecutor getRequestExecutor() {
+    return getLanguageServer().getRequestExecutor();
+  }
+
   protected TokenResult getNearestToken(final TextDocumentPositionParams params) {
 
     final var uri = getFilename(params.getTextDocument());
+    getCompilerService().sourceUsed(uri);
 
     var rtn = new TokenResult();
     if (getWorkspace().isSourcePresent(uri)) {
@@ -73,13 +79,18 @@ abstract class Ek9Service {
   }
 
 
-  protected void reportOnCompiledSource(final ErrorListener errorListener) {
+  /**
+   * This is how to send compiler errors back, only those sources with altered diagnostics are sent.
+   *
+   * @param errorListeners The listeners for the compiled sources, each with any errors and warnings.
+   */
+  protected void reportOnCompiledSources(final Collection<ErrorListener> errorListeners) {
 
-    Logger.debug("Reporting on " + errorListener.getGeneralIdentifierOfSource());
+    Logger.debug("Reporting on " + errorListeners.size() + " source(s)");
 
-    clearOldCompiledDiagnostics(errorListener.getGeneralIdentifierOfSource());
-    final var sourceDiagnostics = diagnosticExtractor.getErrorDiagnostics(errorListener);
-    sendDiagnostics(sourceDiagnostics);
+    getLanguageServer().getDiagnosticsPublisher().publish(errorListeners.stream()
+        .map(diagnosticExtractor::getErrorDiagnostics)
+        .toList());
 
   }
 
@@ -87,19 +98,7 @@ abstract class Ek9Service {
 
     if (generalIdentifierOfSource != null) {
       final var clearedDiagnostics = diagnosticExtractor.getEmptyDiagnostics(generalIdentifierOfSource);
-      sendDiagnostics(clearedDiagnostics);
+      getLanguageServer().getDiagnosticsPublisher().publish(List.of(clearedDiagnostics));
     }
   }
-
-  /**
-   * This is how to send compiler errors back.
-   *
-   * @param diagnostics The set of diagnostics to be returned to the user.
-   */
-  void sendDiagnostics(final PublishDiagnosticsParams diagnostics) {
-
-    Logger.debugf("Sending back diagnostics %d\n", diagnostics.getDiagnostics().size());
-    getLanguageServer().getClient().ifPresent(client -> client.publishDiagnostics(diagnostics));
-
-  }
 }
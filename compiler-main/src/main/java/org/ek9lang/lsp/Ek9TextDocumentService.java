@@ -1,40 +1,84 @@
 package org.ek9lang.lsp;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionItemKind;
 import org.eclipse.lsp4j.CompletionList;
 import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.DeclarationParams;
+import org.eclipse.lsp4j.DefinitionParams;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
 import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.DidSaveTextDocumentParams;
+import org.eclipse.lsp4j.DocumentHighlight;
+import org.eclipse.lsp4j.DocumentHighlightKind;
+import org.eclipse.lsp4j.DocumentHighlightParams;
 import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.HoverParams;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.LocationLink;
 import org.eclipse.lsp4j.MarkupContent;
+import org.eclipse.lsp4j.ReferenceParams;
+import org.eclipse.lsp4j.RenameParams;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.WorkspaceEdit;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
 import org.eclipse.lsp4j.services.TextDocumentService;
+import org.ek9lang.compiler.CompilableSource;
+import org.ek9lang.compiler.symbols.ConstantSymbol;
+import org.ek9lang.compiler.symbols.ISymbol;
+import org.ek9lang.compiler.symbols.SymbolCategory;
+import org.ek9lang.compiler.tokenizer.IToken;
 import org.ek9lang.compiler.tokenizer.TokenResult;
+import org.ek9lang.compiler.tokenizer.ValidIdentifier;
 import org.ek9lang.core.Logger;
+import org.ek9lang.lsp.LanguageRequestExecutor.Priority;
 
 /**
  * Part of the language server functionality.
- * Some methods could be implemented but Ignore the events as we pick
- * up changes by implementing didChangeWatchedFiles in the workspace service.
+ * Unsaved changes are compiled from memory, saved changes are picked up
+ * by implementing didChangeWatchedFiles in the workspace service.
  * Note there are lots of other methods we will implement in here.
  * Like type hierarchy for example. See TextDocumentService for other methods we can implement.
  */
 final class Ek9TextDocumentService extends Ek9Service implements TextDocumentService {
   private final Ek9LanguageWords languageWords;
   private final SymbolHoverFormatter hoverFormatter = new SymbolHoverFormatter();
+  private final ValidIdentifier validIdentifier = new ValidIdentifier();
+  private final ValidIdentifier validConstructName = ValidIdentifier.forConstructNames();
+  private final Set<SymbolCategory> constructCategories = Set.of(
+      SymbolCategory.TYPE, SymbolCategory.TEMPLATE_TYPE, SymbolCategory.FUNCTION, SymbolCategory.TEMPLATE_FUNCTION);
   private final Function<String, CompletionItem> newKeyWordCompletionItem = completion -> {
     final var languageKeyWord = new CompletionItem(completion);
     languageKeyWord.setKind(CompletionItemKind.Keyword);
     return languageKeyWord;
   };
+  private final Map<SymbolCategory, CompletionItemKind> symbolKinds = Map.of(
+      SymbolCategory.TYPE, CompletionItemKind.Class,
+      SymbolCategory.TEMPLATE_TYPE, CompletionItemKind.Class,
+      SymbolCategory.FUNCTION, CompletionItemKind.Function,
+      SymbolCategory.TEMPLATE_FUNCTION, CompletionItemKind.Function,
+      SymbolCategory.METHOD, CompletionItemKind.Method,
+      SymbolCategory.VARIABLE, CompletionItemKind.Variable);
+  private final Function<ISymbol, CompletionItem> newSymbolCompletionItem = symbol -> {
+    final var symbolItem = new CompletionItem(symbol.getName());
+    symbolItem.setKind(symbolKinds.getOrDefault(symbol.getCategory(), CompletionItemKind.Text));
+    symbolItem.setDetail(symbol.getFriendlyName());
+    return symbolItem;
+  };
 
   Ek9TextDocumentService(final Ek9LanguageServer languageServer) {
 
@@ -53,12 +97,10 @@ final class Ek9TextDocumentService extends Ek9Service implements TextDocumentSer
 
     Logger.debug("Would do completion [" + position.toString() + "]");
 
-    return CompletableFuture.supplyAsync(() -> {
+    return getRequestExecutor().supply(Priority.INTERACTIVE, () -> {
       final var tokenResult = getNearestToken(position);
       final List<CompletionItem> list = new ArrayList<>(completeViaLanguageKeyWord(tokenResult));
-
-      //Here we can then add in lots of different types of completion
-      //These can be variable lookups, function lookup, and we can set 'kind' appropriately.
+      list.addAll(completeViaSymbol(position, tokenResult));
 
       return Either.forLeft(list);
     });
@@ -72,12 +114,35 @@ final class Ek9TextDocumentService extends Ek9Service implements TextDocumentSer
 
   }
 
+  /**
+   * Types, functions, methods and variables visible at the position, that start with the text typed so far.
+   */
+  private List<CompletionItem> completeViaSymbol(final CompletionParams position, final TokenResult tokenResult) {
+
+    if (!tokenResult.isPresent()) {
+      return List.of();
+    }
+
+    final var prefix = tokenResult.getToken().getText();
+    final var source = getWorkspace().getSource(getFilename(position.getTextDocument()));
+    if (source == null || prefix.isEmpty() || !Character.isLetter(prefix.charAt(0))) {
+      return List.of();
+    }
+
+    return getCompilerService()
+        .completeSymbol(source, tokenResult.getToken(), prefix,
+            getLanguageServer().getCompilerConfig().getNumberOfSuggestions())
+        .stream()
+        .map(newSymbolCompletionItem)
+        .toList();
+  }
+
   @Override
   public CompletableFuture<Hover> hover(final HoverParams params) {
 
     Logger.debug("Would do hover [" + params.toString() + "]");
 
-    return CompletableFuture.supplyAsync(() -> {
+    return getRequestExecutor().supply(Priority.INTERACTIVE, () -> {
       final var tokenResult = getNearestToken(params);
 
       Hover rtn = null;
@@ -94,6 +159,139 @@ final class Ek9TextDocumentService extends Ek9Service implements TextDocumentSer
     });
   }
 
+  @Override
+  public CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> definition(
+      final DefinitionParams params) {
+
+    Logger.debug("definition [" + params + "]");
+
+    return getRequestExecutor().supply(Priority.NAVIGATION, () -> Either.forLeft(locateDeclarations(params)));
+  }
+
+  @Override
+  public CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> declaration(
+      final DeclarationParams params) {
+
+    Logger.debug("declaration [" + params + "]");
+
+    return getRequestExecutor().supply(Priority.NAVIGATION, () -> Either.forLeft(locateDeclarations(params)));
+  }
+
+  @Override
+  public CompletableFuture<List<? extends Location>> references(final ReferenceParams params) {
+
+    Logger.debug("references [" + params + "]");
+
+    final var includeDeclaration = params.getContext().isIncludeDeclaration();
+
+    return getRequestExecutor().supply(Priority.NAVIGATION, () -> locate(params,
+        (source, token) -> getCompilerService().locateReferences(source, token, includeDeclaration)));
+  }
+
+  @Override
+  public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(
+      final DocumentHighlightParams params) {
+
+    Logger.debug("documentHighlight [" + params + "]");
+
+    final var fileName = getFilename(params.getTextDocument());
+
+    return getRequestExecutor().supply(Priority.INTERACTIVE, () -> locateEntries(params,
+        (source, token) -> getCompilerService().locateReferences(source, token, true))
+        .stream()
+        .filter(entry -> entry.fileName().equals(fileName))
+        .map(entry -> new DocumentHighlight(entry.toLocation().getRange(), DocumentHighlightKind.Text))
+        .toList());
+  }
+
+  /**
+   * Renames the symbol where it is declared and everywhere it is used.
+   * Only symbols declared within the workspace can be renamed.
+   * Types, functions and constants can only be renamed to a plain identifier, not a keyword the grammar
+   * also allows for variables and methods (i.e. 'length'); otherwise the request fails with invalid params.
+   */
+  @Override
+  @SuppressWarnings("checkstyle:LambdaParameterName")
+  public CompletableFuture<WorkspaceEdit> rename(final RenameParams params) {
+
+    Logger.debug("rename [" + params + "]");
+
+    if (!validIdentifier.test(params.getNewName())) {
+      return CompletableFuture.failedFuture(invalidNewName(params, "identifier"));
+    }
+
+    return getRequestExecutor().supply(Priority.NAVIGATION, () -> {
+      final var declarations = locateDeclarations(params);
+      if (declarations.isEmpty()) {
+        return null;
+      }
+
+      if (isConstruct(params) && !validConstructName.test(params.getNewName())) {
+        throw invalidNewName(params, "name for a type, function or constant");
+      }
+
+      final Map<String, List<TextEdit>> changes = new HashMap<>();
+      new LinkedHashSet<>(locateReferences(params)).forEach(location -> changes
+          .computeIfAbsent(location.getUri(), _ -> new ArrayList<>())
+          .add(new TextEdit(location.getRange(), params.getNewName())));
+
+      return new WorkspaceEdit(changes);
+    });
+  }
+
+  private ResponseErrorException invalidNewName(final RenameParams params, final String expected) {
+
+    return new ResponseErrorException(new ResponseError(ResponseErrorCode.InvalidParams,
+        "'" + params.getNewName() + "' is not a valid EK9 " + expected, null));
+  }
+
+  /**
+   * Is the symbol at the position a construct, these are declared with a plain identifier.
+   */
+  private boolean isConstruct(final TextDocumentPositionParams params) {
+
+    final var tokenResult = getNearestToken(params);
+    final var source = getWorkspace().getSource(getFilename(params.getTextDocument()));
+    if (source == null || !tokenResult.isPresent()) {
+      return false;
+    }
+
+    return getCompilerService().locateReferencedSymbol(source, tokenResult.getToken())
+        .filter(symbol -> symbol instanceof ConstantSymbol || constructCategories.contains(symbol.getCategory()))
+        .isPresent();
+  }
+
+  private List<Location> locateDeclarations(final TextDocumentPositionParams params) {
+
+    return locate(params, (source, token) -> getCompilerService().locateDeclarations(source, token));
+  }
+
+  private List<Location> locateReferences(final TextDocumentPositionParams params) {
+
+    return locate(params, (source, token) -> getCompilerService().locateReferences(source, token, true));
+  }
+
+  private List<Location> locate(final TextDocumentPositionParams params,
+                                final BiFunction<CompilableSource, IToken, List<WorkspaceSymbolIndex.Entry>> locator) {
+
+    return locateEntries(params, locator).stream()
+        .map(WorkspaceSymbolIndex.Entry::toLocation)
+        .toList();
+  }
+
+  private List<WorkspaceSymbolIndex.Entry> locateEntries(
+      final TextDocumentPositionParams params,
+      final BiFunction<CompilableSource, IToken, List<WorkspaceSymbolIndex.Entry>> locator) {
+
+    final var tokenResult = getNearestToken(params);
+    final var source = getWorkspace().getSource(getFilename(params.getTextDocument()));
+    if (source == null || !tokenResult.isPresent()) {
+      return List.of();
+    }
+
+    return locator.apply(source, tokenResult.getToken());
+  }
+
   private Hover hoverViaSymbol(final HoverParams params, final TokenResult tokenResult) {
 
     if (params == null || tokenResult == null || !tokenResult.isPresent()) {
@@ -129,14 +327,21 @@ final class Ek9TextDocumentService extends Ek9Service implements TextDocumentSer
     Logger.debug("didOpen Opened Source [" + uri + "]");
     getWorkspace().addSource(uri);
 
-
-    getCompilerService().recompileWorkSpace();
+    getCompilerService().sourceOpened(uri);
+    getCompilerService().recompile(List.of(uri));
   }
 
   @Override
   public void didChange(final DidChangeTextDocumentParams params) {
 
-    //Ignore as we implement watched files and work on saved data.
+    //As the server uses full document sync, the last change holds the complete content.
+    final var changes = params.getContentChanges();
+    if (changes == null || changes.isEmpty()) {
+      return;
+    }
+
+    final var uri = getFilename(params.getTextDocument());
+    getCompilerService().sourceEdited(uri, changes.getLast().getText());
   }
 
   @Override
@@ -144,13 +349,19 @@ final class Ek9TextDocumentService extends Ek9Service implements TextDocumentSer
 
     Logger.debug("didClose [" + params + "]");
     final var uri = getFilename(params.getTextDocument());
-    clearOldCompiledDiagnostics(uri);
+    //Diagnostics are published against the identifier of the source, not the file name.
+    final var source = getWorkspace().getSource(uri);
+    clearOldCompiledDiagnostics(source != null ? source.getGeneralIdentifier() : params.getTextDocument().getUri());
+    getCompilerService().sourceClosed(uri);
+    //Any unsaved edits are discarded, so back to what is in the file.
+    getCompilerService().sourceReverted(uri);
 
   }
 
   @Override
   public void didSave(final DidSaveTextDocumentParams params) {
 
-    //Ignore as we implement watched files and work on saved data.
+    Logger.debug("didSave [" + params + "]");
+    getCompilerService().sourceReverted(getFilename(params.getTextDocument()));
   }
 }
@@ -1,15 +1,22 @@
 package org.ek9lang.lsp;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
 import org.eclipse.lsp4j.FileChangeType;
 import org.eclipse.lsp4j.FileEvent;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.eclipse.lsp4j.WorkspaceSymbolParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.services.WorkspaceService;
 import org.ek9lang.compiler.Workspace;
 import org.ek9lang.compiler.common.ErrorListener;
 import org.ek9lang.core.Logger;
+import org.ek9lang.lsp.LanguageRequestExecutor.Priority;
 
 /**
  * Part of the language server functionality.
@@ -17,11 +24,13 @@ import org.ek9lang.core.Logger;
  */
 final class Ek9WorkspaceService extends Ek9Service implements WorkspaceService {
 
+  private static final int MAXIMUM_WORKSPACE_SYMBOLS = 200;
+
   private final Workspace ek9WorkSpace = new Workspace();
 
   private final Map<FileChangeType, Consumer<FileEvent>> changeHandlers =
-      Map.of(FileChangeType.Changed, this::reCompileSource,
-          FileChangeType.Created, this::reCompileSource,
+      Map.of(FileChangeType.Changed, this::sourceChanged,
+          FileChangeType.Created, this::addSourceAfterCreate,
           FileChangeType.Deleted, this::cleanUpSourceAfterDelete);
 
   Ek9WorkspaceService(final Ek9LanguageServer languageServer) {
@@ -41,12 +50,43 @@ final class Ek9WorkspaceService extends Ek9Service implements WorkspaceService {
 
     Logger.debug("didChangeWatchedFiles [" + params + "]");
 
-    params
+    final var fileEvents = params
         .getChanges()
         .stream()
-        .parallel()
         .filter(fileEvent -> changeHandlers.containsKey(fileEvent.getType()))
-        .forEach(fileEvent -> changeHandlers.get(fileEvent.getType()).accept(fileEvent));
+        .toList();
+
+    if (fileEvents.isEmpty()) {
+      return;
+    }
+
+    fileEvents.forEach(fileEvent -> changeHandlers.get(fileEvent.getType()).accept(fileEvent));
+
+    //Just the one compilation for all the alterations, of only the altered sources and those dependent on them.
+    getCompilerService().recompile(fileEvents.stream()
+        .map(fileEvent -> pathExtractor.apply(fileEvent.getUri()).toString())
+        .toList());
+  }
+
+  @Override
+  public CompletableFuture<Either<List<? extends SymbolInformation>, List<? extends WorkspaceSymbol>>> symbol(
+      final WorkspaceSymbolParams params) {
+
+    Logger.debug("symbol [" + params + "]");
+
+    return getRequestExecutor().supply(Priority.NAVIGATION, () -> {
+      final List<WorkspaceSymbol> symbols = getCompilerService()
+          .searchSymbols(params.getQuery(), MAXIMUM_WORKSPACE_SYMBOLS)
+          .stream()
+          .map(entry -> {
+            final var symbol = new WorkspaceSymbol(entry.name(), entry.toKind(), Either.forLeft(entry.toLocation()));
+            symbol.setContainerName(entry.container());
+            return symbol;
+          })
+          .toList();
+
+      return Either.forRight(symbols);
+    });
   }
 
   Workspace getEk9WorkSpace() {
@@ -54,9 +94,16 @@ final class Ek9WorkspaceService extends Ek9Service implements WorkspaceService {
     return ek9WorkSpace;
   }
 
-  private void reCompileSource(final FileEvent fileEvent) {
+  private void sourceChanged(final FileEvent fileEvent) {
+
+    //Nothing to do here, the source will detect it has been modified and so will be parsed again.
+    Logger.debug("Changed [" + fileEvent.getUri() + "]");
+
+  }
+
+  private void addSourceAfterCreate(final FileEvent fileEvent) {
 
-    getCompilerService().recompileWorkSpace();
+    getWorkspace().addSource(pathExtractor.apply(fileEvent.getUri()));
 
   }
 
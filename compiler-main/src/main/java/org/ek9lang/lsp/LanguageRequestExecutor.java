@@ -0,0 +1,167 @@
+package org.ek9lang.lsp;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.ek9lang.core.Logger;
+
+/**
+ * Runs the LSP requests (hover, completion, navigation) on a small pool of dedicated threads.
+ * <p>
+ * These requests must not use the common fork join pool, as the compiler phases use that pool
+ * (via parallel streams) and a compilation would then hold up every request until it had completed.
+ * </p>
+ * <p>
+ * Requests are queued by priority, interactive requests (as the user types or moves the mouse) are
+ * always taken before navigation requests. Within a priority, requests are taken in the order made.
+ * Requests cancelled by the client while still queued are not run. The time each request spends
+ * queued is recorded, so any delay in responding can be seen.
+ * </p>
+ */
+final class LanguageRequestExecutor {
+
+  /**
+   * The order in which requests are taken from the queue.
+   */
+  enum Priority {
+    INTERACTIVE,
+    NAVIGATION
+  }
+
+  private static final int NUMBER_OF_THREADS = 2;
+
+  private static final long SLOW_QUEUE_TIME_MILLIS = 100;
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private final Map<Priority, QueueTimes> queueTimes = new EnumMap<>(Priority.class);
+
+  private final ThreadPoolExecutor executor = new ThreadPoolExecutor(NUMBER_OF_THREADS, NUMBER_OF_THREADS,
+      0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+      Thread.ofPlatform().name("ek9-lsp-", 0).daemon().factory());
+
+  LanguageRequestExecutor() {
+
+    for (var priority : Priority.values()) {
+      queueTimes.put(priority, new QueueTimes());
+    }
+
+  }
+
+  /**
+   * Queue the supplier to be run with the priority, the future is completed with its result.
+   */
+  <T> CompletableFuture<T> supply(final Priority priority, final Supplier<T> supplier) {
+
+    final var rtn = new CompletableFuture<T>();
+    executor.execute(new PrioritisedRequest<>(priority, sequence.getAndIncrement(), System.nanoTime(),
+        supplier, rtn));
+
+    return rtn;
+  }
+
+  /**
+   * The time requests of the priority have spent queued, before being run.
+   */
+  QueueTimeStatistics getQueueTimeStatistics(final Priority priority) {
+
+    return queueTimes.get(priority).statistics();
+  }
+
+  void shutdown() {
+
+    executor.shutdownNow();
+
+  }
+
+  private void recordQueueTime(final Priority priority, final long queuedNanos) {
+
+    queueTimes.get(priority).record(queuedNanos);
+    final var queuedMillis = TimeUnit.NANOSECONDS.toMillis(queuedNanos);
+    if (queuedMillis >= SLOW_QUEUE_TIME_MILLIS) {
+      Logger.debugf("%s request queued for %dms\n", priority, queuedMillis);
+    }
+
+  }
+
+  /**
+   * Count, average and maximum of the queue times for a priority.
+   */
+  record QueueTimeStatistics(long count, long averageMicros, long maximumMicros) {
+  }
+
+  private static final class QueueTimes {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maximumNanos = new AtomicLong();
+
+    private void record(final long queuedNanos) {
+
+      count.increment();
+      totalNanos.add(queuedNanos);
+      maximumNanos.accumulateAndGet(queuedNanos, Math::max);
+
+    }
+
+    private QueueTimeStatistics statistics() {
+
+      final var numberOfRequests = count.sum();
+      final var average = numberOfRequests == 0 ? 0 : totalNanos.sum() / numberOfRequests;
+
+      return new QueueTimeStatistics(numberOfRequests, TimeUnit.NANOSECONDS.toMicros(average),
+          TimeUnit.NANOSECONDS.toMicros(maximumNanos.get()));
+    }
+  }
+
+  private final class PrioritisedRequest<T> implements Runnable, Comparable<PrioritisedRequest<?>> {
+    private static final Comparator<PrioritisedRequest<?>> ORDER =
+        Comparator.<PrioritisedRequest<?>, Priority>comparing(request -> request.priority)
+            .thenComparingLong(request -> request.sequenceNumber);
+
+    private final Priority priority;
+    private final long sequenceNumber;
+    private final long queuedAt;
+    private final Supplier<T> supplier;
+    private final CompletableFuture<T> result;
+
+    private PrioritisedRequest(final Priority priority, final long sequenceNumber, final long queuedAt,
+                               final Supplier<T> supplier, final CompletableFuture<T> result) {
+      this.priority = priority;
+      this.sequenceNumber = sequenceNumber;
+      this.queuedAt = queuedAt;
+      this.supplier = supplier;
+      this.result = result;
+    }
+
+    @Override
+    public void run() {
+
+      recordQueueTime(priority, System.nanoTime() - queuedAt);
+
+      //The client may have cancelled the request while it was queued.
+      if (result.isDone()) {
+        return;
+      }
+
+      try {
+        result.complete(supplier.get());
+      } catch (RuntimeException ex) {
+        result.completeExceptionally(ex);
+      }
+
+    }
+
+    @Override
+    public int compareTo(final PrioritisedRequest<?> other) {
+
+      return ORDER.compare(this, other);
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package org.ek9lang.lsp;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedSet;
+import java.util.Set;
+
+/**
+ * Decides which sources should keep their full detail (tokens, parse tree and the symbols and scopes
+ * recorded against it) and which can be reduced to just the symbols held in their module scope.
+ * <p>
+ * Sources open in the editor always keep their detail. Of the rest, those most recently used (hovered over,
+ * completed in or navigated to) are kept, as long as the total number of tokens held is within the budget.
+ * Sources never used since being compiled are the first to be released.
+ * </p>
+ * <p>
+ * The number of tokens in a source is used as the measure of memory, as both the token tables and the
+ * parse tree grow with it.
+ * </p>
+ */
+final class SourceDetailRetention {
+
+  private final Set<String> openFileNames = new HashSet<>();
+
+  /**
+   * In order of use, least recently used first.
+   */
+  private final SequencedSet<String> usedFileNames = new LinkedHashSet<>();
+
+  synchronized void opened(final String fileName) {
+
+    openFileNames.add(fileName);
+    used(fileName);
+
+  }
+
+  synchronized void closed(final String fileName) {
+
+    openFileNames.remove(fileName);
+
+  }
+
+  synchronized void used(final String fileName) {
+
+    usedFileNames.addLast(fileName);
+
+  }
+
+  synchronized void forget(final String fileName) {
+
+    openFileNames.remove(fileName);
+    usedFileNames.remove(fileName);
+
+  }
+
+  /**
+   * Select the sources to be released so the tokens retained are within budget.
+   *
+   * @param tokensByFileName The number of tokens currently held for each source with full detail.
+   * @param tokenBudget      The maximum number of tokens to be retained.
+   * @return The sources to release, in the order they should be released.
+   */
+  synchronized List<String> selectForRelease(final Map<String, Integer> tokensByFileName, final long tokenBudget) {
+
+    var retained = tokensByFileName.values().stream().mapToLong(Integer::longValue).sum();
+    final List<String> rtn = new ArrayList<>();
+    if (retained <= tokenBudget) {
+      return rtn;
+    }
+
+    //Those never used come first, then those used, least recently used first.
+    final var candidates = new ArrayList<String>();
+    tokensByFileName.keySet().stream()
+        .filter(fileName -> !usedFileNames.contains(fileName))
+        .sorted()
+        .forEach(candidates::add);
+    usedFileNames.stream()
+        .filter(tokensByFileName::containsKey)
+        .forEach(candidates::add);
+
+    for (var fileName : candidates) {
+      if (retained <= tokenBudget) {
+        break;
+      }
+      if (!openFileNames.contains(fileName)) {
+        rtn.add(fileName);
+        retained -= tokensByFileName.get(fileName);
+      }
+    }
+
+    return rtn;
+  }
+}
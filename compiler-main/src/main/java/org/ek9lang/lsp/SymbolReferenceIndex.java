@@ -0,0 +1,115 @@
+package org.ek9lang.lsp;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.ek9lang.compiler.ParsedModule;
+import org.ek9lang.compiler.SymbolUse;
+import org.ek9lang.compiler.symbols.ISymbol;
+import org.ek9lang.compiler.tokenizer.IToken;
+
+/**
+ * A reverse index, from where a symbol is declared to all the places in the workspace it is used.
+ * <p>
+ * Built from the symbol uses each parsed module captured as its symbols were resolved, so the parse trees
+ * are not walked again. The uses are held per source, so when a source is compiled again its uses are replaced.
+ * </p>
+ * <p>
+ * Only uses where the token is the name of the symbol are held, so each use can be renamed in place.
+ * </p>
+ */
+final class SymbolReferenceIndex {
+
+  private final Map<String, List<Reference>> byFileName = new HashMap<>();
+  private final Map<Declaration, Set<Reference>> byDeclaration = new HashMap<>();
+
+  /**
+   * Replace all the uses in the source with those now recorded in the parsed module.
+   */
+  @SuppressWarnings("checkstyle:LambdaParameterName")
+  synchronized void update(final ParsedModule parsedModule) {
+
+    final var fileName = parsedModule.getSource().getFileName();
+    remove(fileName);
+
+    //Nodes that span the same text (i.e. an expression of just an identifier) can record the same use.
+    final var references = new LinkedHashSet<Reference>();
+    for (var use : parsedModule.getSymbolUses()) {
+      final var referenced = use.referencedSymbol();
+      if (!use.isDeclaration() && referenced.getSourceToken() != null
+          && referenced.getName().equals(use.token().getText())) {
+        references.add(new Reference(Declaration.of(referenced), toEntry(referenced, fileName, use)));
+      }
+    }
+
+    byFileName.put(fileName, List.copyOf(references));
+    references.forEach(reference ->
+        byDeclaration.computeIfAbsent(reference.declaration(), _ -> new LinkedHashSet<>()).add(reference));
+
+  }
+
+  synchronized void remove(final String fileName) {
+
+    final var references = byFileName.remove(fileName);
+    if (references != null) {
+      references.forEach(reference -> {
+        final var uses = byDeclaration.get(reference.declaration());
+        if (uses != null && uses.remove(reference) && uses.isEmpty()) {
+          byDeclaration.remove(reference.declaration());
+        }
+      });
+    }
+
+  }
+
+  synchronized void clear() {
+
+    byFileName.clear();
+    byDeclaration.clear();
+
+  }
+
+  /**
+   * Provide all the uses of the symbol, ordered by file and then position.
+   */
+  synchronized List<WorkspaceSymbolIndex.Entry> findUses(final ISymbol symbol) {
+
+    if (symbol.getSourceToken() == null) {
+      return List.of();
+    }
+
+    return byDeclaration.getOrDefault(Declaration.of(symbol), Set.of()).stream()
+        .map(Reference::use)
+        .sorted(Comparator.comparing(WorkspaceSymbolIndex.Entry::fileName)
+            .thenComparingInt(WorkspaceSymbolIndex.Entry::line)
+            .thenComparingInt(WorkspaceSymbolIndex.Entry::charPositionInLine))
+        .toList();
+  }
+
+  private WorkspaceSymbolIndex.Entry toEntry(final ISymbol referenced, final String fileName, final SymbolUse use) {
+
+    return new WorkspaceSymbolIndex.Entry(referenced.getName(), referenced.getName().toLowerCase(Locale.ROOT),
+        referenced.getFullyQualifiedName(), referenced.getCategory(), "", fileName,
+        use.token().getLine(), use.token().getCharPositionInLine());
+  }
+
+  /**
+   * Identifies a symbol by where it is declared, this remains the same even when its module is recompiled.
+   */
+  private record Declaration(String sourceName, int line, int charPositionInLine, String name) {
+
+    static Declaration of(final ISymbol symbol) {
+
+      final IToken token = symbol.getSourceToken();
+
+      return new Declaration(token.getSourceName(), token.getLine(), token.getCharPositionInLine(), symbol.getName());
+    }
+  }
+
+  private record Reference(Declaration declaration, WorkspaceSymbolIndex.Entry use) {
+  }
+}
@@ -0,0 +1,84 @@
+package org.ek9lang.lsp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.CompilableSource;
+import org.ek9lang.compiler.symbols.IScope;
+import org.ek9lang.compiler.symbols.ISymbol;
+import org.ek9lang.compiler.tokenizer.IToken;
+
+/**
+ * Finds the symbols visible at a position in a source, whose names start with a prefix.
+ * <p>
+ * Starts with the innermost scope at the position and works outwards through the enclosing scopes
+ * (blocks, methods, aggregates) to the module. Then the other parts of the same module (in other sources)
+ * and finally the built-in EK9 types and functions. Inner symbols hide outer ones with the same name.
+ * </p>
+ * <p>
+ * Each scope holds its symbols in a prefix trie, so the cost depends on the number of matches required
+ * and not on the number of symbols in scope. There is also a time budget, once spent the matches found
+ * so far are returned.
+ * </p>
+ */
+final class VisibleSymbolCompleter {
+  private static final String BUILT_IN_MODULE = "org.ek9.lang";
+  private static final long BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  List<ISymbol> complete(final CompilableProgram program,
+                         final CompilableSource source,
+                         final IToken token,
+                         final String prefix,
+                         final int limit) {
+
+    final var parsedModule = program.getParsedModuleForCompilableSource(source);
+    if (parsedModule == null || limit <= 0) {
+      return List.of();
+    }
+
+    final var deadline = System.nanoTime() + BUDGET_NANOS;
+    final Map<String, ISymbol> byName = new LinkedHashMap<>();
+
+    var scope = parsedModule.locateScopeAtToken(source, token).orElse(parsedModule.getModuleScope());
+    while (scope != null && !isComplete(byName, limit, deadline)) {
+      addMatches(scope, prefix, limit, byName);
+      scope = scope.getEnclosingScope();
+    }
+
+    final var otherScopes = new ArrayList<IScope>();
+    program.getParsedModules(parsedModule.getModuleName()).stream()
+        .filter(module -> module != parsedModule)
+        .forEach(module -> otherScopes.add(module.getModuleScope()));
+    program.getParsedModules(BUILT_IN_MODULE)
+        .forEach(module -> otherScopes.add(module.getModuleScope()));
+
+    for (var otherScope : otherScopes) {
+      if (isComplete(byName, limit, deadline)) {
+        break;
+      }
+      addMatches(otherScope, prefix, limit, byName);
+    }
+
+    return List.copyOf(byName.values());
+  }
+
+  private void addMatches(final IScope scope, final String prefix, final int limit, final Map<String, ISymbol> byName) {
+
+    //Ask for more than needed as some will be hidden by, or be overloads of, those already found.
+    for (var symbol : scope.getSymbolsWithPrefix(prefix, limit * 2)) {
+      if (byName.size() >= limit) {
+        return;
+      }
+      byName.putIfAbsent(symbol.getName(), symbol);
+    }
+
+  }
+
+  private boolean isComplete(final Map<String, ISymbol> byName, final int limit, final long deadline) {
+
+    return byName.size() >= limit || System.nanoTime() > deadline;
+  }
+}
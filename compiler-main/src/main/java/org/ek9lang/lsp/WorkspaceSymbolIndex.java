@@ -0,0 +1,204 @@
+package org.ek9lang.lsp;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolKind;
+import org.ek9lang.compiler.ParsedModule;
+import org.ek9lang.compiler.symbols.IScopedSymbol;
+import org.ek9lang.compiler.symbols.ISymbol;
+import org.ek9lang.compiler.symbols.SymbolCategory;
+
+/**
+ * An index of the constructs (and their methods and properties) defined in all the sources in the workspace.
+ * <p>
+ * Held by fully qualified name (for go-to definition), and by name for searching. Searches for two characters
+ * or fewer use the sorted names (i.e. prefix), longer searches use the trigrams of the names. So a search does
+ * not need to check every name in the workspace.
+ * </p>
+ * <p>
+ * The index is updated per source, each time a source is compiled its entries are replaced.
+ * </p>
+ */
+final class WorkspaceSymbolIndex {
+  private static final int TRIGRAM = 3;
+
+  private final Map<String, List<Entry>> byFileName = new HashMap<>();
+  private final Map<String, List<Entry>> byFullyQualifiedName = new HashMap<>();
+  private final NavigableMap<String, List<Entry>> byName = new TreeMap<>();
+  private final Map<String, Set<Entry>> byTrigram = new HashMap<>();
+
+  /**
+   * Replace all the entries for the source with those now defined by the parsed module.
+   */
+  synchronized void update(final ParsedModule parsedModule) {
+
+    final var fileName = parsedModule.getSource().getFileName();
+    remove(fileName);
+
+    final var entries = new ArrayList<Entry>();
+    for (var symbol : parsedModule.getModuleScope().getSymbolsForThisScope()) {
+      addEntry(symbol, parsedModule.getModuleName(), fileName, entries);
+      if (symbol instanceof IScopedSymbol scopedSymbol && symbol.getCategory() == SymbolCategory.TYPE) {
+        scopedSymbol.getSymbolsForThisScope()
+            .forEach(member -> addEntry(member, symbol.getName(), fileName, entries));
+      }
+    }
+
+    byFileName.put(fileName, entries);
+    entries.forEach(this::index);
+
+  }
+
+  /**
+   * Remove all the entries for the source, it has been deleted (or is about to be updated).
+   */
+  synchronized void remove(final String fileName) {
+
+    final var entries = byFileName.remove(fileName);
+    if (entries != null) {
+      entries.forEach(this::unIndex);
+    }
+
+  }
+
+  synchronized void clear() {
+
+    byFileName.clear();
+    byFullyQualifiedName.clear();
+    byName.clear();
+    byTrigram.clear();
+
+  }
+
+  synchronized List<Entry> findByFullyQualifiedName(final String fullyQualifiedName) {
+
+    return List.copyOf(byFullyQualifiedName.getOrDefault(fullyQualifiedName, List.of()));
+  }
+
+  /**
+   * Find up to 'limit' entries with names that contain the query (case-insensitive), in name order.
+   */
+  synchronized List<Entry> search(final String query, final int limit) {
+
+    final var lowerQuery = query.toLowerCase(Locale.ROOT);
+    if (lowerQuery.length() < TRIGRAM) {
+      return byName.subMap(lowerQuery, true, lowerQuery + Character.MAX_VALUE, true).values().stream()
+          .flatMap(List::stream)
+          .limit(limit)
+          .toList();
+    }
+
+    //Start with the least common trigram, then only check the names that have all the trigrams.
+    Set<Entry> candidates = null;
+    for (var trigram : trigramsOf(lowerQuery)) {
+      final var withTrigram = byTrigram.get(trigram);
+      if (withTrigram == null) {
+        return List.of();
+      }
+      if (candidates == null || withTrigram.size() < candidates.size()) {
+        candidates = withTrigram;
+      }
+    }
+
+    return candidates.stream()
+        .filter(entry -> entry.lowerName().contains(lowerQuery))
+        .sorted(Comparator.comparing(Entry::lowerName).thenComparing(Entry::fullyQualifiedName))
+        .limit(limit)
+        .toList();
+  }
+
+  private void addEntry(final ISymbol symbol, final String container, final String fileName,
+                        final List<Entry> entries) {
+
+    final var token = symbol.getSourceToken();
+    //Only those actually declared in this source, not those the compiler has synthesized.
+    if (token == null || symbol.getName().startsWith("_") || !fileName.equals(token.getSourceName())) {
+      return;
+    }
+
+    entries.add(new Entry(symbol.getName(), symbol.getName().toLowerCase(Locale.ROOT),
+        symbol.getFullyQualifiedName(), symbol.getCategory(), container, fileName,
+        token.getLine(), token.getCharPositionInLine()));
+
+  }
+
+  @SuppressWarnings("checkstyle:LambdaParameterName")
+  private void index(final Entry entry) {
+
+    byFullyQualifiedName.computeIfAbsent(entry.fullyQualifiedName(), _ -> new ArrayList<>()).add(entry);
+    byName.computeIfAbsent(entry.lowerName(), _ -> new ArrayList<>()).add(entry);
+    trigramsOf(entry.lowerName())
+        .forEach(trigram -> byTrigram.computeIfAbsent(trigram, _ -> new HashSet<>()).add(entry));
+
+  }
+
+  private void unIndex(final Entry entry) {
+
+    removeFrom(byFullyQualifiedName, entry.fullyQualifiedName(), entry);
+    removeFrom(byName, entry.lowerName(), entry);
+    trigramsOf(entry.lowerName()).forEach(trigram -> {
+      final var withTrigram = byTrigram.get(trigram);
+      if (withTrigram != null && withTrigram.remove(entry) && withTrigram.isEmpty()) {
+        byTrigram.remove(trigram);
+      }
+    });
+
+  }
+
+  private void removeFrom(final Map<String, List<Entry>> map, final String key, final Entry entry) {
+
+    final var entries = map.get(key);
+    if (entries != null && entries.remove(entry) && entries.isEmpty()) {
+      map.remove(key);
+    }
+
+  }
+
+  private Set<String> trigramsOf(final String lowerName) {
+
+    final Set<String> rtn = new HashSet<>();
+    for (int i = 0; i + TRIGRAM <= lowerName.length(); i++) {
+      rtn.add(lowerName.substring(i, i + TRIGRAM));
+    }
+
+    return rtn;
+  }
+
+  /**
+   * Where a symbol is declared, with the line as held in the token (i.e. from 1).
+   */
+  record Entry(String name, String lowerName, String fullyQualifiedName, SymbolCategory category,
+               String container, String fileName, int line, int charPositionInLine) {
+
+    Location toLocation() {
+
+      final var start = new Position(line - 1, charPositionInLine);
+      final var end = new Position(line - 1, charPositionInLine + name.length());
+
+      return new Location(Path.of(fileName).toUri().toString(), new Range(start, end));
+    }
+
+    SymbolKind toKind() {
+
+      return switch (category) {
+        case TYPE, TEMPLATE_TYPE -> SymbolKind.Class;
+        case FUNCTION, TEMPLATE_FUNCTION -> SymbolKind.Function;
+        case METHOD -> SymbolKind.Method;
+        case VARIABLE -> SymbolKind.Variable;
+        default -> SymbolKind.Object;
+      };
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package org.ek9lang.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.ek9lang.compiler.CompilableSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that only altered sources and those that depend on them are identified for recompilation.
+ */
+final class BuildManifestTest {
+
+  @TempDir
+  Path projectDirectory;
+
+  private File one;
+  private File two;
+  private File three;
+  private File manifestFile;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    one = write("One.ek9", "alpha.one", "first", "");
+    two = write("Two.ek9", "beta.two", "second", "      value <- alpha.one::first()\n");
+    three = write("Three.ek9", "gamma.three", "third", "");
+    manifestFile = projectDirectory.resolve("build.manifest").toFile();
+
+    final var buildManifest = new BuildManifest(projectDirectory.toFile());
+    List.of(one, two, three).forEach(file -> buildManifest.record(parsed(file)));
+    buildManifest.save(manifestFile);
+  }
+
+  @Test
+  void testNothingToRecompileWhenUnaltered() {
+    final var buildManifest = BuildManifest.load(manifestFile, projectDirectory.toFile());
+
+    assertTrue(one.setLastModified(System.currentTimeMillis() + 10000));
+    assertTrue(buildManifest.getFilesToRecompile(List.of(one, two, three)).isEmpty());
+  }
+
+  @Test
+  void testAlteredSourceAndDependentsRecompiled() throws IOException {
+    Files.writeString(one.toPath(), Files.readString(one.toPath()).replace("Integer: 1", "Integer: 2"));
+    final var buildManifest = BuildManifest.load(manifestFile, projectDirectory.toFile());
+
+    assertEquals(List.of(one, two), buildManifest.getFilesToRecompile(List.of(one, two, three)));
+  }
+
+  @Test
+  void testAlteredSourceWithNoDependents() throws IOException {
+    Files.writeString(two.toPath(), Files.readString(two.toPath()) + "\n");
+    final var buildManifest = BuildManifest.load(manifestFile, projectDirectory.toFile());
+
+    assertEquals(List.of(two), buildManifest.getFilesToRecompile(List.of(one, two, three)));
+  }
+
+  @Test
+  void testNewSourceRecompilesAll() throws IOException {
+    final var four = write("Four.ek9", "delta.four", "fourth", "");
+    final var buildManifest = BuildManifest.load(manifestFile, projectDirectory.toFile());
+
+    assertEquals(List.of(one, two, three, four), buildManifest.getFilesToRecompile(List.of(one, two, three, four)));
+  }
+
+  @Test
+  void testRemovedSourceRecompilesDependents() {
+    final var buildManifest = BuildManifest.load(manifestFile, projectDirectory.toFile());
+
+    assertEquals(List.of(two), buildManifest.getFilesToRecompile(List.of(two, three)));
+  }
+
+  @Test
+  void testRemovedSourceWithNoDependentsAltersSourceSet() {
+    final var buildManifest = BuildManifest.load(manifestFile, projectDirectory.toFile());
+
+    //Nothing needs recompiling, but the output still holds the constructs of the removed source.
+    assertTrue(buildManifest.getFilesToRecompile(List.of(one, two)).isEmpty());
+    assertTrue(buildManifest.isSourceSetAltered(List.of(one, two)));
+    assertTrue(buildManifest.isAnySourceRemoved(List.of(one, two)));
+  }
+
+  @Test
+  void testNewSourceAltersSourceSet() throws IOException {
+    final var four = write("Four.ek9", "delta.four", "fourth", "");
+    final var buildManifest = BuildManifest.load(manifestFile, projectDirectory.toFile());
+
+    assertTrue(buildManifest.isSourceSetAltered(List.of(one, two, three, four)));
+    assertFalse(buildManifest.isAnySourceRemoved(List.of(one, two, three, four)));
+  }
+
+  @Test
+  void testUnalteredSourceSet() {
+    final var buildManifest = BuildManifest.load(manifestFile, projectDirectory.toFile());
+
+    assertFalse(buildManifest.isSourceSetAltered(List.of(one, two, three)));
+    assertFalse(buildManifest.isAnySourceRemoved(List.of(one, two, three)));
+  }
+
+  private File write(final String fileName, final String moduleName, final String functionName, final String body)
+      throws IOException {
+    final var source = """
+        #!ek9
+        defines module %s
+
+          defines function
+            %s()
+              <- rtn as Integer: 1
+        %s
+        //EOF""".formatted(moduleName, functionName, body);
+
+    return Files.writeString(projectDirectory.resolve(fileName), source).toFile();
+  }
+
+  private CompilableSource parsed(final File file) {
+    final var source = new CompilableSource(projectDirectory.toString(), file.getAbsolutePath());
+    source.prepareToParse().completeParsing();
+    return source;
+  }
+}
@@ -0,0 +1,37 @@
+package org.ek9lang.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClassDataSharingTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testArchiveNextToJar() {
+    final var jarFile = directory.resolve("ek9c-jar-with-dependencies.jar").toFile();
+
+    assertEquals(directory.resolve("ek9c-jar-with-dependencies.jsa").toFile(),
+        ClassDataSharing.getArchiveFor(jarFile));
+    assertEquals(List.of("-XX:ArchiveClassesAtExit=" + ClassDataSharing.getArchiveFor(jarFile).getAbsolutePath()),
+        ClassDataSharing.getTrainingOptions(jarFile));
+  }
+
+  @Test
+  void testArchiveOnlyUsedOnceTrained() throws IOException {
+    final var jarFile = directory.resolve("program.jar").toFile();
+    assertTrue(ClassDataSharing.getUseOptions(jarFile).isEmpty());
+
+    final var archive = Files.createFile(directory.resolve("program.jsa"));
+    assertEquals(List.of("-XX:SharedArchiveFile=" + archive.toAbsolutePath(), "-Xlog:cds=off"),
+        ClassDataSharing.getUseOptions(jarFile));
+  }
+}
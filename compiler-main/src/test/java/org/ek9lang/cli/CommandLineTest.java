@@ -89,6 +89,9 @@ final class CommandLineTest {
   private final Consumer<CommandLine> assertErrorVerbose =
       commandLineDetails -> assertTrue(commandLineDetails.options().isErrorVerbose());
 
+  private final Consumer<CommandLine> assertMemoryLean =
+      commandLineDetails -> assertTrue(commandLineDetails.options().isMemoryLean());
+
   private final Consumer<CommandLine> assertCheckCompile =
       commandLineDetails -> assertTrue(commandLineDetails.options().isCheckCompileOnly());
 
@@ -243,6 +246,17 @@ final class CommandLineTest {
         .accept(Optional.of("SinglePackage.ek9").map(process).orElseThrow());
   }
 
+  @Test
+  @SuppressWarnings("java:S2699")
+  void testCommandLineWatch() {
+    var process = makeProcess.apply("-w");
+    Consumer<CommandLine> assertWatch = commandLineDetails -> {
+      assertTrue(commandLineDetails.options().isWatch());
+      assertTrue(commandLineDetails.options().isJustBuildTypeOption());
+    };
+    assertWatch.accept(Optional.of("SinglePackage.ek9").map(process).orElseThrow());
+  }
+
   @Test
   @SuppressWarnings("java:S2699")
   void testCommandLineIncrementalCheckCompileOnly() {
@@ -336,6 +350,15 @@ final class CommandLineTest {
         .accept(Optional.of("SinglePackage.ek9").map(process).orElseThrow());
   }
 
+  @Test
+  @SuppressWarnings("java:S2699")
+  void testCommandLineFullMemoryLeanCompile() {
+    var process = makeProcess.apply("-C -ml");
+    assertFullCompilation
+        .andThen(assertMemoryLean)
+        .accept(Optional.of("SinglePackage.ek9").map(process).orElseThrow());
+  }
+
   @Test
   @SuppressWarnings("java:S2699")
   void testCommandLineFullDebugCompile() {
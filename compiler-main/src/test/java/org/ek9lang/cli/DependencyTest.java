@@ -526,6 +526,25 @@ final class DependencyTest {
     assertPresent("x.y.z-2.9.1-4", accepted);
   }
 
+  @Test
+  void testCircularDependencyPathsAndModuleIndex() {
+    DependencyNode root = DependencyNode.of("a.b.c-1.0.0-0");
+    DependencyNode middle = DependencyNode.of("a.b.d-1.0.0-0");
+    DependencyNode lower = DependencyNode.of("a.b.d-2.0.0-0");
+    root.addDependency(middle);
+    middle.addDependency(DependencyNode.of("a.b.e-1.0.0-0"));
+    middle.addDependency(lower);
+    lower.addDependency(DependencyNode.of("a.b.c-1.0.0-0"));
+
+    DependencyManager underTest = new DependencyManager(root);
+
+    assertEquals(List.of("a.b.c ~> a.b.d ~> a.b.d", "a.b.c ~> a.b.d ~> a.b.d ~> a.b.c"),
+        underTest.reportCircularDependencies());
+    assertEquals(List.of("a.b.c", "a.b.d", "a.b.e"), underTest.listAllModuleNames());
+    assertEquals(List.of(lower, middle), underTest.findByModuleName("a.b.d"));
+    assertTrue(underTest.findByModuleName("a.b.z").isEmpty());
+  }
+
   private void assertRejected(final List<DependencyNode> rejected) {
     assertEquals(10, rejected.size());
     assertPresent("c.d.e-8.8.1-1", rejected);
@@ -0,0 +1,155 @@
+package org.ek9lang.cli;
+
+import static org.ek9lang.compiler.common.Ek9ExitCodes.BAD_COMMANDLINE_EXIT_CODE;
+import static org.ek9lang.compiler.common.Ek9ExitCodes.RUN_COMMAND_EXIT_CODE;
+import static org.ek9lang.compiler.common.Ek9ExitCodes.SUCCESS_EXIT_CODE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.core.FileHandling;
+import org.ek9lang.core.OsSupport;
+import org.ek9lang.core.SharedThreadContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the daemon and sends commands to it, in the same way the ek9 wrapper does.
+ * Only commands that do not need compilation are used, so the daemon can just have an empty program.
+ */
+class Ek9DaemonTest {
+  private final LanguageMetaData languageMetaData = new LanguageMetaData("0.0.1-0");
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testCommandsProcessedThenStopped() throws Exception {
+    final var socketPath = directory.resolve(Ek9Daemon.SOCKET_FILE_NAME);
+    final var underTest = new Ek9Daemon(languageMetaData, socketPath,
+        () -> new SharedThreadContext<>(new CompilableProgram()));
+    final var running = CompletableFuture.supplyAsync(underTest::run);
+
+    try {
+      awaitSocket(socketPath);
+      assertEquals(SUCCESS_EXIT_CODE, send(socketPath, "-V"));
+      assertEquals(BAD_COMMANDLINE_EXIT_CODE, send(socketPath, "-ls"));
+      assertEquals(BAD_COMMANDLINE_EXIT_CODE, send(socketPath, "-ds"));
+
+      //The output of each command goes back to the client, not to the output of the daemon itself.
+      final var stderr = new ByteArrayOutputStream();
+      assertEquals(SUCCESS_EXIT_CODE, send(socketPath, "-V", stderr));
+      assertTrue(stderr.toString(StandardCharsets.UTF_8).contains("EK9 Version"));
+
+      //Only the socket is left in the directory, with access just for the user.
+      assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(socketPath)));
+      try (var files = Files.list(directory)) {
+        assertEquals(List.of(socketPath), files.toList());
+      }
+    } finally {
+      underTest.stop();
+    }
+
+    assertEquals(SUCCESS_EXIT_CODE, running.get(10, TimeUnit.SECONDS));
+    assertFalse(Files.exists(socketPath));
+  }
+
+  @Test
+  void testArgumentsQuoted() {
+    final var request = new Ek9Daemon.Request("ek9c.jar", "/some/project",
+        List.of("-c", "src/main.ek9", "-r", "with space"), Map.of());
+
+    assertArrayEquals(new String[] {"-c", "src/main.ek9", "-r", "'with space'"},
+        request.getCommandLineArguments());
+  }
+
+  @Test
+  void testSourceFileResolvedAgainstWorkingDirectoryOfOrigin() throws IOException {
+    final var sourceFile = directory.resolve("src").resolve("main.ek9");
+    Files.createDirectories(sourceFile.getParent());
+    Files.writeString(sourceFile, """
+        #!ek9
+        defines module daemon.origin
+
+          defines function
+            value()
+              <- rtn as Integer: 1
+
+        //EOF""");
+
+    final var err = new ByteArrayOutputStream();
+    final var underTest = commandLineFrom(err);
+    assertEquals(RUN_COMMAND_EXIT_CODE, underTest.process(new String[] {"-c", "src/main.ek9"}));
+    assertEquals(sourceFile.toString(), underTest.getFullPathToSourceFileName());
+
+    //Output of the command goes to the origin.
+    assertEquals(SUCCESS_EXIT_CODE, commandLineFrom(err).process(new String[] {"-V"}));
+    assertTrue(err.toString(StandardCharsets.UTF_8).contains("EK9 Version"));
+  }
+
+  @Test
+  void testSocketPathFromEnvironment() {
+    final var socketPath = directory.resolve("other.sock");
+    final var environment = Map.of(Ek9Daemon.SOCKET_ENVIRONMENT_VARIABLE, socketPath.toString());
+
+    assertEquals(socketPath, Ek9Daemon.getSocketPath(null, environment));
+  }
+
+  private CommandLine commandLineFrom(final ByteArrayOutputStream err) {
+    final var osSupport = new OsSupport(true);
+    final var origin = new CommandOrigin(directory.toString(), Map.of(), System.out,
+        new PrintStream(err, true, StandardCharsets.UTF_8));
+
+    return new CommandLine(languageMetaData, new FileHandling(osSupport), osSupport, origin);
+  }
+
+  private void awaitSocket(final Path socketPath) throws InterruptedException {
+    for (int i = 0; i < 100 && !Files.exists(socketPath); i++) {
+      Thread.sleep(50);
+    }
+    assertTrue(Files.exists(socketPath));
+  }
+
+  private int send(final Path socketPath, final String argument) throws IOException {
+    return send(socketPath, argument, new ByteArrayOutputStream());
+  }
+
+  private int send(final Path socketPath, final String argument, final ByteArrayOutputStream stderr)
+      throws IOException {
+    try (var channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+      final var request = String.join("\0", "ek9c.jar", directory.toString(), "1", argument, "0") + "\0";
+      Channels.newOutputStream(channel).write(request.getBytes(StandardCharsets.UTF_8));
+
+      final var input = new DataInputStream(Channels.newInputStream(channel));
+      while (true) {
+        final var frameType = input.readByte();
+        final var length = input.readInt();
+        if (frameType == Ek9Daemon.EXIT_FRAME) {
+          return input.readInt();
+        }
+        if (frameType == Ek9Daemon.STDERR_FRAME) {
+          stderr.write(input.readNBytes(length));
+        } else {
+          input.skipNBytes(length);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package org.ek9lang.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.ek9lang.compiler.common.PackageDetails;
+import org.ek9lang.core.Digest;
+import org.ek9lang.core.FileHandling;
+import org.ek9lang.core.OsSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+final class ResolvedPackageCacheTest {
+
+  private final FileHandling fileHandling = new FileHandling(new OsSupport(true));
+  private final ResolvedPackageCache underTest = new ResolvedPackageCache(fileHandling);
+  private final String packageDigest = Digest.digest("ekopen.network.support.utils-1.6.1-9.zip").toString();
+
+  @AfterEach
+  void cleanup() {
+    fileHandling.deleteContentsAndBelow(fileHandling.getSharedPackageCacheDirectory(), true);
+  }
+
+  @Test
+  void testMissingPackageDetails() {
+    assertTrue(underTest.load(packageDigest).isEmpty());
+  }
+
+  @Test
+  void testPackageDetailsRoundTrip() {
+    final var details = new PackageDetails("ekopen.network.support.utils", true, true,
+        "1.6.1-9", 4, "Network utilities", List.of("network", "tools"), "MIT",
+        false, List.of(), true,
+        Map.of("ekopen.network.core", "2.0.0-1", "ekopen.text.format", "1.1.0-3"),
+        Map.of("ekopen.text.legacy", "ekopen.text.format"),
+        Map.of("ekopen.test.support", "1.0.0-0"),
+        List.of("**/*Test.ek9"), List.of("utils.demo"), "fingerprint");
+
+    underTest.save(packageDigest, details);
+    final var loaded = underTest.load(packageDigest);
+
+    assertTrue(loaded.isPresent());
+    assertEquals(details, loaded.get());
+  }
+}
@@ -3,13 +3,28 @@ package org.ek9lang.compiler;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.ek9lang.antlr.EK9Parser;
+import org.ek9lang.compiler.common.SignificantParseTreeNodes;
 import org.ek9lang.compiler.support.PathToSourceFromName;
 import org.ek9lang.compiler.tokenizer.TokenResult;
 import org.ek9lang.core.CompilerException;
@@ -31,6 +46,8 @@ final class CompilableSourceTest {
   private static final UnaryOperator<CompilableSource> processEk9Source =
       source -> source.prepareToParse().completeParsing();
 
+  private final SignificantParseTreeNodes significantNodes = new SignificantParseTreeNodes();
+
   static Stream<Supplier<?>> getInvalidCalls() {
     var helloWorldSource = validEk9Source.get();
 
@@ -146,6 +163,274 @@ final class CompilableSourceTest {
     assertEquals(parseResult, context);
   }
 
+  @Test
+  void releaseParseTreeOfValidEk9SourceFile() {
+    var helloWorldSource = processEk9Source.apply(validEk9Source.get());
+    assertFalse(helloWorldSource.isParseTreeReleased());
+    final var extern = helloWorldSource.isExtern();
+
+    assertTrue(helloWorldSource.releaseParseTree() > 0);
+    assertTrue(helloWorldSource.isParseTreeReleased());
+    assertTrue(helloWorldSource.hasNotBeenSuccessfullyParsed());
+    assertEquals(extern, helloWorldSource.isExtern());
+    assertFalse(helloWorldSource.nearestToken(2, 1).isPresent());
+    assertThrows(CompilerException.class, helloWorldSource::getCompilationUnitContext);
+
+    //Nothing more to release and can be reparsed.
+    assertEquals(0, helloWorldSource.releaseParseTree());
+    processEk9Source.apply(helloWorldSource);
+    assertFalse(helloWorldSource.isParseTreeReleased());
+    assertNotNull(helloWorldSource.getCompilationUnitContext());
+  }
+
+  @Test
+  void incrementalParseOfAlteredBlock() {
+    final var original = """
+        #!ek9
+        defines module incremental.parsing
+
+          defines function
+            first()
+              <- rtn as Integer: 1
+
+          defines function
+            second()
+              <- rtn as Integer: 2
+
+          defines function
+            third()
+              <- rtn as Integer: 3
+
+        //EOF""";
+    final var altered = original.replace("<- rtn as Integer: 2", "<- rtn as Integer: 2\n\n      assert rtn?");
+
+    var source = validEk9Source.get();
+    source.prepareToParse(asInputStream(original)).completeParsing();
+    assertFalse(source.isIncrementallyParsed());
+
+    source.prepareToParse(asInputStream(altered)).completeParsing();
+    assertTrue(source.isIncrementallyParsed());
+    assertTrue(source.getErrorListener().isErrorFree());
+
+    //Must be the same as a full parse, including the lines of tokens after the altered block.
+    var fullParse = validEk9Source.get();
+    fullParse.prepareToParse(asInputStream(altered)).completeParsing();
+    assertFalse(fullParse.isIncrementallyParsed());
+
+    assertEquals(significantNodes.apply(fullParse.getCompilationUnitContext()),
+        significantNodes.apply(source.getCompilationUnitContext()));
+    assertEquals(fullParse.getCompilationUnitContext().getStop().getLine(),
+        source.getCompilationUnitContext().getStop().getLine());
+    assertEquals("third", source.nearestToken(15, 5).getToken().getText());
+
+    //All the tokens lexed are recorded, just as for a full parse.
+    assertEquals(fullParse.getNumberOfTokens(), source.getNumberOfTokens());
+  }
+
+  @Test
+  void unalteredContentNotParsedAgain() {
+    var source = processEk9Source.apply(validEk9Source.get());
+    final var previous = source.getCompilationUnitContext();
+    final var numberOfTokens = source.getNumberOfTokens();
+
+    processEk9Source.apply(source);
+    assertTrue(source.isIncrementallyParsed());
+    assertSame(previous, source.getCompilationUnitContext());
+    assertEquals(numberOfTokens, source.getNumberOfTokens());
+    assertTrue(source.takeReplacedNodes().isEmpty());
+  }
+
+  @Test
+  void incrementalParseLeavesPreviousCompilationUnitUnaltered() {
+    final var original = """
+        #!ek9
+        defines module incremental.parsing
+
+          defines function
+            first()
+              <- rtn as Integer: 1
+
+          defines function
+            second()
+              <- rtn as Integer: 2
+
+          defines function
+            third()
+              <- rtn as Integer: 3
+
+        //EOF""";
+    final var altered = original.replace("<- rtn as Integer: 1", "<- rtn as Integer: 1\n      assert rtn?");
+
+    var source = validEk9Source.get();
+    source.prepareToParse(asInputStream(original)).completeParsing();
+    final var previous = source.getCompilationUnitContext();
+    final var previousNodes = significantNodes.apply(previous);
+    final var unalteredBlock = previous.moduleDeclaration().children.stream()
+        .filter(EK9Parser.ModuleBlockContext.class::isInstance)
+        .toList().getLast();
+
+    source.prepareToParse(asInputStream(altered)).completeParsing();
+    assertTrue(source.isIncrementallyParsed());
+
+    //A new compilation unit replaces the previous one, which is left exactly as it was.
+    assertNotSame(previous, source.getCompilationUnitContext());
+    assertEquals(previousNodes, significantNodes.apply(previous));
+
+    //The first block is altered and the others follow it, so have moved and are all replaced.
+    final var replacedNodes = source.takeReplacedNodes();
+    assertTrue(replacedNodes.contains(unalteredBlock));
+    assertTrue(source.takeReplacedNodes().isEmpty());
+
+    var fullParse = validEk9Source.get();
+    fullParse.prepareToParse(asInputStream(altered)).completeParsing();
+    assertEquals(significantNodes.apply(fullParse.getCompilationUnitContext()),
+        significantNodes.apply(source.getCompilationUnitContext()));
+  }
+
+  @Test
+  void incrementalParseSharesUnmovedBlocks() {
+    final var original = """
+        #!ek9
+        defines module incremental.parsing
+
+          defines function
+            first()
+              <- rtn as Integer: 1
+
+          defines function
+            second()
+              <- rtn as Integer: 2
+
+          defines function
+            third()
+              <- rtn as Integer: 3
+
+        //EOF""";
+    final var altered = original.replace("Integer: 2", "Integer: 4");
+
+    var source = validEk9Source.get();
+    source.prepareToParse(asInputStream(original)).completeParsing();
+    final var previousBlocks = moduleBlocks(source.getCompilationUnitContext());
+
+    source.prepareToParse(asInputStream(altered)).completeParsing();
+    assertTrue(source.isIncrementallyParsed());
+    final var blocks = moduleBlocks(source.getCompilationUnitContext());
+
+    //Only the altered block is replaced, the others have not moved so are shared.
+    assertSame(previousBlocks.get(0), blocks.get(0));
+    assertNotSame(previousBlocks.get(1), blocks.get(1));
+    assertSame(previousBlocks.get(2), blocks.get(2));
+    assertEquals(List.of(previousBlocks.get(1)), source.takeReplacedNodes().stream()
+        .filter(EK9Parser.ModuleBlockContext.class::isInstance).toList());
+    assertEquals("4", source.nearestToken(10, 25).getToken().getText());
+  }
+
+  @Test
+  void incrementalParseKeepsTokenIndexesInSourceOrder() {
+    final var original = """
+        #!ek9
+        defines module incremental.parsing
+
+          defines function
+            first()
+              <- rtn as Integer: 1
+
+          defines function
+            second()
+              <- rtn as Integer: 2
+
+          defines function
+            third()
+              <- rtn as Integer: 3
+
+        //EOF""";
+
+    //Altering a block that is followed by an unaltered block and the last block (so what follows it is reparsed).
+    for (var altered : List.of(original.replace("Integer: 2", "Integer: 4"),
+        original.replace("Integer: 3", "Integer: 6"))) {
+      var source = validEk9Source.get();
+      source.prepareToParse(asInputStream(original)).completeParsing();
+      source.prepareToParse(asInputStream(altered)).completeParsing();
+      assertTrue(source.isIncrementallyParsed());
+
+      final List<Integer> tokenIndexes = new ArrayList<>();
+      collectTokenIndexes(source.getCompilationUnitContext(), tokenIndexes);
+      for (int i = 1; i < tokenIndexes.size(); i++) {
+        assertTrue(tokenIndexes.get(i - 1) < tokenIndexes.get(i),
+            "Token index " + tokenIndexes.get(i) + " does not follow " + tokenIndexes.get(i - 1));
+      }
+    }
+  }
+
+  private void collectTokenIndexes(final ParseTree node, final List<Integer> tokenIndexes) {
+    if (node instanceof TerminalNode terminal) {
+      tokenIndexes.add(terminal.getSymbol().getTokenIndex());
+      return;
+    }
+    for (int i = 0; i < node.getChildCount(); i++) {
+      collectTokenIndexes(node.getChild(i), tokenIndexes);
+    }
+  }
+
+  private List<ParseTree> moduleBlocks(final EK9Parser.CompilationUnitContext compilationUnit) {
+    return compilationUnit.moduleDeclaration().children.stream()
+        .filter(EK9Parser.ModuleBlockContext.class::isInstance)
+        .toList();
+  }
+
+  @Test
+  void fullParseWhenAlteredBlockHasErrors() {
+    final var original = """
+        #!ek9
+        defines module incremental.parsing
+
+          defines function
+            first()
+              <- rtn as Integer: 1
+
+          defines function
+            second()
+              <- rtn as Integer: 2
+
+        //EOF""";
+
+    var source = validEk9Source.get();
+    source.prepareToParse(asInputStream(original)).completeParsing();
+
+    source.prepareToParse(asInputStream(original.replace("Integer: 2", "Integer: )"))).completeParsing();
+    assertFalse(source.isIncrementallyParsed());
+    assertFalse(source.getErrorListener().isErrorFree());
+  }
+
+  @Test
+  void unsavedContentParsedThenReverted() throws IOException {
+    var source = processEk9Source.apply(validEk9Source.get());
+    assertFalse(source.isModified());
+
+    final var fileContent = Files.readString(Path.of(source.getFileName()));
+    source.setContent(fileContent.replace("Hello, World", "Hello, Editor").getBytes(StandardCharsets.UTF_8));
+    assertTrue(source.isModified());
+
+    //The same source is reparsed with the unsaved content, so its last parse is available for comparison.
+    processEk9Source.apply(source);
+    assertFalse(source.isModified());
+    assertEquals("\"Hello, Editor\"", source.nearestToken(9, 21).getToken().getText());
+
+    source.setContent(null);
+    assertTrue(source.isModified());
+    processEk9Source.apply(source);
+    assertFalse(source.isModified());
+    assertEquals("\"Hello, World\"", source.nearestToken(9, 21).getToken().getText());
+  }
+
+  /**
+   * The rules and the source tokens with their positions, the synthetic new line, indent and dedent tokens
+   * will vary in number and description between an incremental and full parse.
+   */
+  private InputStream asInputStream(final String text) {
+    return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+  }
+
   @ParameterizedTest
   @MethodSource("getInvalidCalls")
   void testIncorrectProcessingOfEk9SourceFile(Supplier<?> invalidCallToMake) {
@@ -68,6 +68,15 @@ class CompilerFlagsTest {
     assertTrue(flags.isDevBuild());
   }
 
+  @Test
+  void testReleaseParseTrees() {
+    final var flags = new CompilerFlags();
+    assertFalse(flags.isReleaseParseTrees());
+
+    flags.setReleaseParseTrees(true);
+    assertTrue(flags.isReleaseParseTrees());
+  }
+
   @Test
   void testCheckCompilationOnly() {
     final var flags = new CompilerFlags();
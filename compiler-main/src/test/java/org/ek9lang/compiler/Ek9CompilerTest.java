@@ -1,11 +1,15 @@
 package org.ek9lang.compiler;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.parallel.ExecutionMode.SAME_THREAD;
 import static org.junit.jupiter.api.parallel.ResourceAccessMode.READ_WRITE;
 
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -93,4 +97,33 @@ class Ek9CompilerTest {
     var compiler = new Ek9Compiler(allPhases, reporter.isMuteReportedErrors());
     assertFalse(compiler.compile(inValidEk9Workspace.get(), new CompilerFlags()));
   }
+
+  @Test
+  void testCancelledCompilationStopsAtPhaseBoundary() {
+    final var phasesRun = new AtomicInteger(0);
+    final BiFunction<Workspace, CompilerFlags, CompilationPhaseResult> cancellingPhase = (_, flags) -> {
+      phasesRun.incrementAndGet();
+      flags.getCancellationToken().cancel();
+      return new CompilationPhaseResult(CompilationPhase.PARSING, true, false);
+    };
+    final BiFunction<Workspace, CompilerFlags, CompilationPhaseResult> cancelledPhase = (_, flags) -> {
+      phasesRun.incrementAndGet();
+      flags.getCancellationToken().checkNotCancelled();
+      return new CompilationPhaseResult(CompilationPhase.SYMBOL_DEFINITION, true, false);
+    };
+
+    final var compiler = new Ek9Compiler(() -> List.of(cancellingPhase, cancelledPhase), true);
+    assertFalse(compiler.compile(new Workspace(), new CompilerFlags()));
+    assertEquals(1, phasesRun.get());
+
+    //Cancelled from within a phase, i.e. part way through processing its sources.
+    final BiFunction<Workspace, CompilerFlags, CompilationPhaseResult> cancelledWithinPhase = (_, flags) -> {
+      flags.getCancellationToken().cancel();
+      flags.getCancellationToken().checkNotCancelled();
+      return new CompilationPhaseResult(CompilationPhase.PARSING, true, false);
+    };
+    final var withinPhase = new Ek9Compiler(() -> List.of(cancelledWithinPhase, cancelledPhase), true);
+    assertFalse(withinPhase.compile(new Workspace(), new CompilerFlags()));
+    assertEquals(1, phasesRun.get());
+  }
 }
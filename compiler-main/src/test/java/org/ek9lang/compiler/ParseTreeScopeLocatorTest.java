@@ -0,0 +1,104 @@
+package org.ek9lang.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.ek9lang.compiler.common.PhasesTest;
+import org.ek9lang.compiler.symbols.AggregateSymbol;
+import org.ek9lang.compiler.symbols.FunctionSymbol;
+import org.ek9lang.compiler.symbols.IScope;
+import org.ek9lang.compiler.symbols.ISymbol;
+import org.ek9lang.compiler.symbols.MethodSymbol;
+import org.ek9lang.compiler.tokenizer.Ek9Token;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the innermost scope is located for positions in a compiled source,
+ * i.e. on the boundaries of scopes, within nested scopes and beyond the end of the source.
+ */
+class ParseTreeScopeLocatorTest extends PhasesTest {
+
+  ParseTreeScopeLocatorTest() {
+    super("/examples/lsp/");
+  }
+
+  @Test
+  void testScopeLocation() {
+    testToPhase(CompilationPhase.PRE_IR_CHECKS);
+  }
+
+  @Override
+  protected void assertFinalResults(final boolean compilationResult,
+                                    final int numberOfErrors,
+                                    final CompilableProgram program) {
+
+    assertTrue(compilationResult, "Compilation should succeed");
+    assertEquals(0, numberOfErrors, "Should have no errors");
+
+    final var module = program.getParsedModules("com.customer.lsp.nestedscopes").getFirst();
+
+    //The name and the parameters of the function are in the scope of the function, not the module.
+    final var onFunctionName = scopeAt(module, 6, 4).orElseThrow();
+    assertInstanceOf(FunctionSymbol.class, onFunctionName);
+    assertEquals("outer", ((ISymbol) onFunctionName).getName());
+    assertSame(onFunctionName, scopeAt(module, 7, 9).orElseThrow());
+
+    //The first character of the 'if' is the start of its scope.
+    final var onIf = scopeAt(module, 10, 6).orElseThrow();
+    assertTrue(onIf.getScopeName().startsWith("If-line-10"), "Expecting if scope, got " + onIf.getScopeName());
+    assertTrue(enclosing(onIf).contains(onFunctionName));
+
+    //Within the block of the 'if', to the last character of its last token.
+    final var inIfBlock = scopeAt(module, 11, 8).orElseThrow();
+    assertTrue(names(inIfBlock).contains("inner"));
+    assertTrue(enclosing(inIfBlock).contains(onIf));
+    assertTrue(enclosing(inIfBlock).contains(onFunctionName));
+    assertSame(inIfBlock, scopeAt(module, 12, 13).orElseThrow());
+    assertSame(inIfBlock, scopeAt(module, 12, 17).orElseThrow());
+
+    //A method body is nested within both the method and the class.
+    final var inMethod = scopeAt(module, 20, 8).orElseThrow();
+    final var enclosingMethod = enclosing(inMethod);
+    assertTrue(enclosingMethod.stream()
+        .anyMatch(scope -> scope instanceof MethodSymbol method && method.getName().equals("increment")));
+    assertTrue(enclosingMethod.stream()
+        .anyMatch(scope -> scope instanceof AggregateSymbol aggregate && aggregate.getName().equals("Counter")));
+    assertTrue(enclosingMethod.stream().noneMatch(scope -> scope == onFunctionName));
+
+    //Beyond the end of the source there is no scope.
+    assertTrue(scopeAt(module, 100, 0).isEmpty());
+  }
+
+  private Optional<IScope> scopeAt(final ParsedModule module, final int line, final int charPositionInLine) {
+
+    final var source = module.getSource();
+    final var token = new Ek9Token(0, "", line, source.getFileName(), charPositionInLine, 0);
+
+    return module.locateScopeAtToken(source, token);
+  }
+
+  /**
+   * The scope and all those that enclose it.
+   */
+  private List<IScope> enclosing(final IScope scope) {
+
+    final List<IScope> rtn = new ArrayList<>();
+    var current = scope;
+    while (current != null) {
+      rtn.add(current);
+      current = current.getEnclosingScope();
+    }
+
+    return rtn;
+  }
+
+  private List<String> names(final IScope scope) {
+
+    return scope.getSymbolsForThisScope().stream().map(ISymbol::getName).toList();
+  }
+}
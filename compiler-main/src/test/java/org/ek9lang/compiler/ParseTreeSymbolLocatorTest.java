@@ -20,6 +20,11 @@ class ParseTreeSymbolLocatorTest extends PhasesTest {
     super("/examples/lsp/");
   }
 
+  @Override
+  protected boolean recordSymbolUses() {
+    return true;
+  }
+
   @Test
   void testSymbolLocatorIntegration() {
     testToPhase(CompilationPhase.PRE_IR_CHECKS);
@@ -71,5 +76,23 @@ class ParseTreeSymbolLocatorTest extends PhasesTest {
         .filter(s -> s.getName().equals("HoverTestProgram"))
         .toList();
     assertFalse(programSymbols.isEmpty(), "Should have HoverTestProgram");
+
+    // Locate via the position of the tokens in the source
+    final var locatedGreeting = module.locateSymbolAtToken(source, getGreeting.getSourceToken());
+    assertTrue(locatedGreeting.isPresent(), "Should locate getGreeting by position");
+    assertEquals("getGreeting", locatedGreeting.get().getName());
+
+    final var hoverTestProgram = programSymbols.getFirst();
+    final var locatedProgram = module.locateSymbolAtToken(source, hoverTestProgram.getSourceToken());
+    assertTrue(locatedProgram.isPresent(), "Should locate HoverTestProgram by position");
+    assertEquals("HoverTestProgram", locatedProgram.get().getName());
+
+    // The uses of symbols are retained, i.e. the call to getGreeting and the reference to message
+    final var uses = module.getSymbolUses().stream()
+        .filter(use -> !use.isDeclaration())
+        .map(use -> use.referencedSymbol().getName())
+        .toList();
+    assertTrue(uses.contains("getGreeting"), "Should record the use of getGreeting");
+    assertTrue(uses.contains("message"), "Should record the use of message");
   }
 }
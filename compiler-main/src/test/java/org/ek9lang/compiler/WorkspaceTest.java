@@ -2,6 +2,7 @@ package org.ek9lang.compiler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.URL;
@@ -40,4 +41,20 @@ final class WorkspaceTest {
 
   }
 
+  @Test
+  void testReplacingSource() {
+    var workspace = new Workspace();
+    URL helloWorld = WorkspaceTest.class.getResource("/examples/parseAndCompile/basics/HelloWorld.ek9");
+    assertNotNull(helloWorld);
+    Path path = Path.of(helloWorld.getPath());
+
+    assertTrue(workspace.replaceSource(new CompilableSource(".", path.toString())).isEmpty());
+
+    //Unlike adding, replacing swaps the source held.
+    var replacement = new CompilableSource(".", path.toString());
+    assertTrue(workspace.replaceSource(replacement).isPresent());
+    assertEquals(1, workspace.getSources().size());
+    assertSame(replacement, workspace.getSource(path));
+  }
+
 }
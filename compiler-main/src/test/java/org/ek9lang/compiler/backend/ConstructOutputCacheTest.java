@@ -0,0 +1,111 @@
+package org.ek9lang.compiler.backend;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import org.ek9lang.core.Digest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConstructOutputCacheTest {
+
+  private final Digest.CheckSum constructHash = Digest.digest("ConstructDfn: some.module::SomeClass");
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testStoreThenRestore() throws IOException {
+    final var underTest = new ConstructOutputCache(directory.resolve("cache").toFile(), "compiler-1");
+    final var targetFile = directory.resolve("SomeClass.class").toFile();
+    final byte[] generated = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE};
+
+    assertFalse(underTest.restore(constructHash, targetFile));
+    Files.write(targetFile.toPath(), generated);
+    underTest.store(constructHash, targetFile);
+
+    Files.write(targetFile.toPath(), new byte[0]);
+    assertTrue(underTest.restore(constructHash, targetFile));
+    assertArrayEquals(generated, Files.readAllBytes(targetFile.toPath()));
+
+    assertEquals(1, underTest.getHits());
+    assertEquals(1, underTest.getMisses());
+    assertEquals(50, underTest.getHitRate());
+  }
+
+  @Test
+  void testDifferentCompilerDoesNotShareEntries() throws IOException {
+    final var cacheDirectory = directory.resolve("cache").toFile();
+    final var targetFile = directory.resolve("SomeClass.class").toFile();
+    Files.write(targetFile.toPath(), new byte[] {1, 2, 3});
+    new ConstructOutputCache(cacheDirectory, "compiler-1").store(constructHash, targetFile);
+
+    final var otherCompiler = new ConstructOutputCache(cacheDirectory, "compiler-2");
+    assertFalse(otherCompiler.restore(constructHash, targetFile));
+    assertEquals(0, otherCompiler.getHitRate());
+  }
+
+  @Test
+  void testEmptyOutputNotStored() {
+    final var cacheDirectory = directory.resolve("cache").toFile();
+    final var underTest = new ConstructOutputCache(cacheDirectory, "compiler-1");
+
+    underTest.store(constructHash, directory.resolve("Missing.class").toFile());
+    assertFalse(cacheDirectory.exists());
+  }
+
+  @Test
+  void testPruneRemovesEntriesNotUsedWithinAge() throws IOException {
+    final var cacheDirectory = directory.resolve("cache").toFile();
+    final var underTest = new ConstructOutputCache(cacheDirectory, "compiler-1");
+    final var otherHash = Digest.digest("ConstructDfn: some.module::OtherClass");
+    final var targetFile = directory.resolve("SomeClass.class").toFile();
+    Files.write(targetFile.toPath(), new byte[] {1, 2, 3});
+    underTest.store(constructHash, targetFile);
+    underTest.store(otherHash, targetFile);
+
+    //Age all the entries, but then use one of them, so it is retained.
+    ageAllFiles(cacheDirectory.toPath(), Duration.ofDays(2));
+    assertTrue(underTest.restore(constructHash, targetFile));
+
+    assertEquals(1, underTest.prune(Duration.ofDays(1), ConstructOutputCache.MAXIMUM_SIZE));
+    assertTrue(underTest.restore(constructHash, targetFile));
+    assertFalse(underTest.restore(otherHash, targetFile));
+  }
+
+  @Test
+  void testPruneRemovesLeastRecentlyUsedOverSize() throws IOException {
+    final var cacheDirectory = directory.resolve("cache").toFile();
+    final var underTest = new ConstructOutputCache(cacheDirectory, "compiler-1");
+    final var otherHash = Digest.digest("ConstructDfn: some.module::OtherClass");
+    final var targetFile = directory.resolve("SomeClass.class").toFile();
+    Files.write(targetFile.toPath(), new byte[] {1, 2, 3});
+    underTest.store(otherHash, targetFile);
+    ageAllFiles(cacheDirectory.toPath(), Duration.ofHours(1));
+    underTest.store(constructHash, targetFile);
+
+    //Only room for one entry, so the older one is removed.
+    assertEquals(1, underTest.prune(ConstructOutputCache.MAXIMUM_AGE, 4));
+    assertTrue(underTest.restore(constructHash, targetFile));
+    assertFalse(underTest.restore(otherHash, targetFile));
+
+    assertEquals(0, underTest.prune());
+    assertEquals(0, new ConstructOutputCache(directory.resolve("none").toFile(), "compiler-1").prune());
+  }
+
+  private void ageAllFiles(final Path cacheDirectory, final Duration age) throws IOException {
+    final var modified = FileTime.fromMillis(System.currentTimeMillis() - age.toMillis());
+    try (var files = Files.list(cacheDirectory)) {
+      for (var file : files.toList()) {
+        Files.setLastModifiedTime(file, modified);
+      }
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package org.ek9lang.compiler.bootstrap;
+
+import static org.ek9lang.compiler.support.EK9TypeNames.EK9_LANG;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.ek9lang.compiler.CachedEk9LanguageBootStrap;
+import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.CompilableSource;
+import org.ek9lang.compiler.Ek9BuiltinIntrospectionSupplier;
+import org.ek9lang.compiler.common.CompilerReporter;
+import org.ek9lang.compiler.search.TypeSymbolSearch;
+import org.ek9lang.core.Digest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the built-in symbols are bootstrapped and cached, then reloaded from the cache.
+ */
+class CachedEk9LanguageBootStrapTest {
+
+  private final CompilerReporter reporter = new CompilerReporter(false, true);
+
+  @TempDir
+  Path cacheDirectory;
+
+  @Test
+  void testBootStrapThenReloadFromCache() {
+    final var first = create("0.0.1-0");
+    final var cacheFile = first.getCacheFile();
+    assertFalse(cacheFile.exists());
+
+    first.get().accept(this::assertEk9LangPresent);
+    assertTrue(cacheFile.exists());
+
+    final var second = create("0.0.1-0");
+    assertEquals(cacheFile, second.getCacheFile());
+    second.get().accept(this::assertEk9LangPresent);
+  }
+
+  @Test
+  void testNewVersionReplacesCache() {
+    final var previous = create("0.0.1-0");
+    previous.get();
+    assertTrue(previous.getCacheFile().exists());
+
+    final var current = create("0.0.2-0");
+    current.get().accept(this::assertEk9LangPresent);
+    assertTrue(current.getCacheFile().exists());
+    assertFalse(previous.getCacheFile().exists());
+  }
+
+  @Test
+  void testUnusableCacheIsReplaced() throws IOException {
+    final var underTest = create("0.0.1-0");
+    Files.createDirectories(cacheDirectory);
+    Files.writeString(underTest.getCacheFile().toPath(), "not a cached program");
+
+    underTest.get().accept(this::assertEk9LangPresent);
+    assertTrue(Files.size(underTest.getCacheFile().toPath()) > 100);
+  }
+
+  @Test
+  void testReloadFromCacheWithoutIntrospection() {
+    final var first = create("0.0.1-0");
+    first.get();
+
+    //The built-in classes must not be introspected, either for the key or to bootstrap them.
+    final var second = create("0.0.1-0", new Ek9BuiltinIntrospectionSupplier() {
+      @Override
+      public List<CompilableSource> get() {
+        throw new AssertionError("Built-in classes must not be introspected when cached");
+      }
+
+      @Override
+      public Digest.CheckSum getCheckSum() {
+        throw new AssertionError("Built-in classes must not be introspected when cached");
+      }
+    });
+    assertEquals(first.getCacheFile(), second.getCacheFile());
+    second.get().accept(this::assertEk9LangPresent);
+  }
+
+  @Test
+  void testDisallowedClassesInCacheAreNotLoaded() throws IOException {
+    final var underTest = create("0.0.1-0");
+    Files.createDirectories(cacheDirectory);
+    final var bytes = new ByteArrayOutputStream();
+    try (var output = new ObjectOutputStream(bytes)) {
+      output.writeObject(URI.create("https://www.ek9lang.org"));
+    }
+    Files.write(underTest.getCacheFile().toPath(), bytes.toByteArray());
+
+    underTest.get().accept(this::assertEk9LangPresent);
+    assertFalse(Arrays.equals(bytes.toByteArray(), Files.readAllBytes(underTest.getCacheFile().toPath())));
+  }
+
+  private CachedEk9LanguageBootStrap create(final String version) {
+    return create(version, new Ek9BuiltinIntrospectionSupplier());
+  }
+
+  private CachedEk9LanguageBootStrap create(final String version,
+                                            final Ek9BuiltinIntrospectionSupplier sourceSupplier) {
+    return new CachedEk9LanguageBootStrap(cacheDirectory.toFile(), version, sourceSupplier, _ -> {
+    }, reporter);
+  }
+
+  private void assertEk9LangPresent(final CompilableProgram program) {
+    final var scope = program.getParsedModules(EK9_LANG).getFirst().getModuleScope();
+    assertNotNull(scope);
+    assertTrue(scope.resolve(new TypeSymbolSearch("String")).isPresent());
+    assertTrue(scope.resolve(new TypeSymbolSearch("Integer")).isPresent());
+  }
+}
@@ -2,6 +2,7 @@ package org.ek9lang.compiler.bytecode;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.parallel.ExecutionMode.SAME_THREAD;
 
 import java.io.File;
 import java.io.IOException;
@@ -11,10 +12,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.CompilableSource;
 import org.ek9lang.compiler.CompilationPhase;
+import org.ek9lang.compiler.OptimizationLevel;
+import org.ek9lang.compiler.directives.DirectiveType;
 import org.ek9lang.compiler.support.SymbolCountCheck;
+import org.ek9lang.core.SharedThreadContext;
 import org.ek9lang.core.TargetArchitecture;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
 
 /**
  * Abstract base class for bytecode tests that also execute the compiled program.
@@ -30,6 +36,12 @@ import org.junit.jupiter.api.Test;
  * <p>For no-argument tests, use only {@code expected_output.txt} (no commandline_arg files).</p>
  * <p>If no expected files exist, the test only compiles and validates bytecode (no execution).</p>
  *
+ * <h2>Optimised Execution</h2>
+ * <p>Tests can also opt in to compiling and executing the program with the IR optimised at O2.
+ * The output must be just the same, but the {@code @BYTECODE} directives are not checked,
+ * as they are for the unoptimised bytecode. Both compilations use the same output directory,
+ * so they are run one after the other.</p>
+ *
  * <h2>Example Directory Structure</h2>
  * <pre>
  * switchExpression/
@@ -60,6 +72,8 @@ public abstract class AbstractExecutableBytecodeTest extends AbstractBytecodeGen
 
   private final String moduleName;
   private final String programName;
+  private final boolean executeOptimised;
+  private boolean optimised = false;
 
   /**
    * Constructor for executable bytecode tests.
@@ -73,9 +87,27 @@ public abstract class AbstractExecutableBytecodeTest extends AbstractBytecodeGen
                                         final String moduleName,
                                         final String programName,
                                         final List<SymbolCountCheck> expectedSymbols) {
+    this(fromResourcesDirectory, moduleName, programName, expectedSymbols, false);
+  }
+
+  /**
+   * Constructor for executable bytecode tests, that can also be executed with the IR optimised.
+   *
+   * @param fromResourcesDirectory Directory containing the .ek9 source file
+   * @param moduleName             Module name (e.g., "bytecode.test")
+   * @param programName            Program name within the module (e.g., "SwitchExpression")
+   * @param expectedSymbols        Symbol count checks for validation
+   * @param executeOptimised       Also compile and execute with the IR optimised at O2
+   */
+  public AbstractExecutableBytecodeTest(final String fromResourcesDirectory,
+                                        final String moduleName,
+                                        final String programName,
+                                        final List<SymbolCountCheck> expectedSymbols,
+                                        final boolean executeOptimised) {
     super(fromResourcesDirectory, expectedSymbols, false, false, false);
     this.moduleName = moduleName;
     this.programName = programName;
+    this.executeOptimised = executeOptimised;
   }
 
   @Override
@@ -83,8 +115,14 @@ public abstract class AbstractExecutableBytecodeTest extends AbstractBytecodeGen
     return false;
   }
 
+  @Override
+  protected OptimizationLevel optimizationLevel() {
+    return optimised ? OptimizationLevel.O2 : super.optimizationLevel();
+  }
+
   @Override
   @Test
+  @Execution(SAME_THREAD)
   void testPhaseDevelopment() {
     // Clean and compile
     ek9Workspace.getSources().stream().findFirst()
@@ -93,6 +131,31 @@ public abstract class AbstractExecutableBytecodeTest extends AbstractBytecodeGen
     testToPhase(CompilationPhase.CODE_GENERATION_AGGREGATES);
   }
 
+  @Test
+  @Execution(SAME_THREAD)
+  void testOptimisedExecution() {
+    if (!executeOptimised) {
+      return;
+    }
+
+    optimised = true;
+    ek9Workspace.getSources().stream().findFirst()
+        .ifPresent(source -> fileHandling.cleanEk9DirectoryStructureFor(source.getFileName(), targetArchitecture));
+
+    testToPhase(CompilationPhase.CODE_GENERATION_AGGREGATES);
+  }
+
+  @Override
+  protected void compilationPhaseCompleted(final CompilationPhase phase, final CompilableSource source,
+                                           final SharedThreadContext<CompilableProgram> sharedCompilableProgram) {
+
+    //The expected bytecode is that of the unoptimised IR, so it is not checked (or reported for update).
+    if (optimised && phase == CompilationPhase.SYMBOL_DEFINITION) {
+      sharedCompilableProgram.accept(program ->
+          program.getParsedModuleForCompilableSource(source).removeDirectives(DirectiveType.BYTECODE));
+    }
+  }
+
   @Override
   protected void assertFinalResults(final boolean compilationResult, final int numberOfErrors,
                                     final CompilableProgram program) {
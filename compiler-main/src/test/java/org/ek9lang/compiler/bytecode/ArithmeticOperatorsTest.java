@@ -13,6 +13,7 @@ class ArithmeticOperatorsTest extends AbstractExecutableBytecodeTest {
     super("/examples/bytecodeGeneration/arithmeticOperators",
         "bytecode.test",
         "ArithmeticOperators",
-        List.of(new SymbolCountCheck("bytecode.test", 1)));
+        List.of(new SymbolCountCheck("bytecode.test", 1)),
+        true);
   }
 }
@@ -32,6 +32,7 @@ class ComprehensiveNestedControlFlowTest extends AbstractExecutableBytecodeTest
     super("/examples/bytecodeGeneration/comprehensiveNestedControlFlow",
         "bytecode.test.nested",
         "ComprehensiveNestedControlFlow",
-        List.of(new SymbolCountCheck("bytecode.test.nested", 1)));
+        List.of(new SymbolCountCheck("bytecode.test.nested", 1)),
+        true);
   }
 }
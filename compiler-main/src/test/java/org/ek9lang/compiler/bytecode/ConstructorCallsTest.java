@@ -22,6 +22,7 @@ class ConstructorCallsTest extends AbstractExecutableBytecodeTest {
     super("/examples/bytecodeGeneration/constructorCalls",
         "bytecode.test",
         "TestConstructorCalls",
-        List.of(new SymbolCountCheck("bytecode.test", 6)));
+        List.of(new SymbolCountCheck("bytecode.test", 6)),
+        true);
   }
 }
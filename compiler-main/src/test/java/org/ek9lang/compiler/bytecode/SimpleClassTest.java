@@ -32,6 +32,7 @@ class SimpleClassTest extends AbstractExecutableBytecodeTest {
     super("/examples/bytecodeGeneration/simpleClass",
         "bytecode.test",
         "TestSimpleClass",
-        List.of(new SymbolCountCheck("bytecode.test", 2)));
+        List.of(new SymbolCountCheck("bytecode.test", 2)),
+        true);
   }
 }
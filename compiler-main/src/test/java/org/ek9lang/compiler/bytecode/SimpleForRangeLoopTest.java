@@ -26,6 +26,7 @@ class SimpleForRangeLoopTest extends AbstractExecutableBytecodeTest {
     super("/examples/bytecodeGeneration/simpleForRangeLoop",
         "bytecode.test",
         "SimpleForRangeLoop",
-        List.of(new SymbolCountCheck("bytecode.test", 1)));
+        List.of(new SymbolCountCheck("bytecode.test", 1)),
+        true);
   }
 }
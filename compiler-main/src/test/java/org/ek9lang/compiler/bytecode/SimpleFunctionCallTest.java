@@ -13,7 +13,8 @@ class SimpleFunctionCallTest extends AbstractExecutableBytecodeTest {
     super("/examples/bytecodeGeneration/simpleFunctionCall",
         "bytecode.test.simplefunctioncall",
         "SimpleFunctionCall",
-        List.of(new SymbolCountCheck("bytecode.test.simplefunctioncall", 3)));
+        List.of(new SymbolCountCheck("bytecode.test.simplefunctioncall", 3)),
+        true);
   }
 
 }
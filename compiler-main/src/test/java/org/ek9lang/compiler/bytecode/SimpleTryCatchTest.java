@@ -21,6 +21,7 @@ class SimpleTryCatchTest extends AbstractExecutableBytecodeTest {
     super("/examples/bytecodeGeneration/simpleTryCatch",
         "bytecode.test",
         "SimpleTryCatch",
-        List.of(new SymbolCountCheck("bytecode.test", 1)));
+        List.of(new SymbolCountCheck("bytecode.test", 1)),
+        true);
   }
 }
@@ -22,6 +22,7 @@ class SimpleTryFinallyTest extends AbstractExecutableBytecodeTest {
     super("/examples/bytecodeGeneration/simpleTryFinally",
         "bytecode.test",
         "SimpleTryFinally",
-        List.of(new SymbolCountCheck("bytecode.test", 1)));
+        List.of(new SymbolCountCheck("bytecode.test", 1)),
+        true);
   }
 }
@@ -25,6 +25,7 @@ class SimpleWhileLoopTest extends AbstractExecutableBytecodeTest {
     super("/examples/bytecodeGeneration/simpleWhileLoop",
         "bytecode.test",
         "SimpleWhileLoop",
-        List.of(new SymbolCountCheck("bytecode.test", 1)));
+        List.of(new SymbolCountCheck("bytecode.test", 1)),
+        true);
   }
 }
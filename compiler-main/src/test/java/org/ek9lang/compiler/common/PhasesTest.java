@@ -10,6 +10,7 @@ import org.ek9lang.compiler.CompilableSource;
 import org.ek9lang.compiler.CompilationPhase;
 import org.ek9lang.compiler.CompilerFlags;
 import org.ek9lang.compiler.Ek9Compiler;
+import org.ek9lang.compiler.OptimizationLevel;
 import org.ek9lang.compiler.Workspace;
 import org.ek9lang.compiler.config.FullPhaseSupplier;
 import org.ek9lang.compiler.directives.DirectiveType;
@@ -47,6 +48,21 @@ public abstract class PhasesTest {
     return false;
   }
 
+  /**
+   * The IR and bytecode expected by the directives is unoptimised, so tests run at O0.
+   * Tests of the optimisations themselves override this.
+   */
+  protected OptimizationLevel optimizationLevel() {
+    return OptimizationLevel.O0;
+  }
+
+  /**
+   * Only the language server records the uses of symbols, tests of those uses override this.
+   */
+  protected boolean recordSymbolUses() {
+    return false;
+  }
+
   public PhasesTest(final String fromResourcesDirectory) {
     this(fromResourcesDirectory, List.of());
   }
@@ -214,6 +230,8 @@ public abstract class PhasesTest {
     final var flags = new CompilerFlags(upToPhase, reporter.isVerbose());
     flags.setTargetArchitecture(targetArchitecture);
     flags.setDebuggingInstrumentation(addDebugInstrumentation());
+    flags.setOptimizationLevel(optimizationLevel());
+    flags.setRecordSymbolUses(recordSymbolUses());
     var compilationResult = compiler.compile(ek9Workspace, flags);
 
     sharedCompilableProgram.accept(program -> checkFinalResults(compilationResult, counter.get(), program));
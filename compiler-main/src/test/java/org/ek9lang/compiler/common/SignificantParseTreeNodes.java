@@ -0,0 +1,39 @@
+package org.ek9lang.compiler.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.ek9lang.antlr.EK9Parser;
+
+/**
+ * Describes a parse tree as the node types and the tokens (with their positions) in order.
+ * The layout tokens (new lines, indents and dedents) are excluded, so parse trees produced
+ * in different ways (i.e. full, incremental or parallel parsing) can be compared.
+ */
+public final class SignificantParseTreeNodes implements Function<ParseTree, List<String>> {
+
+  private static final Set<Integer> LAYOUT_TOKEN_TYPES = Set.of(EK9Parser.NL, EK9Parser.INDENT, EK9Parser.DEDENT);
+
+  @Override
+  public List<String> apply(final ParseTree node) {
+
+    final List<String> rtn = new ArrayList<>();
+    if (node instanceof TerminalNode terminal) {
+      final var token = terminal.getSymbol();
+      if (!LAYOUT_TOKEN_TYPES.contains(token.getType())) {
+        rtn.add(token.getText() + "@" + token.getLine() + ":" + token.getCharPositionInLine());
+      }
+      return rtn;
+    }
+
+    rtn.add(node.getClass().getSimpleName());
+    for (int i = 0; i < node.getChildCount(); i++) {
+      rtn.addAll(apply(node.getChild(i)));
+    }
+
+    return rtn;
+  }
+}
@@ -0,0 +1,90 @@
+package org.ek9lang.compiler.phase9;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.CompilationPhase;
+import org.ek9lang.compiler.OptimizationLevel;
+import org.ek9lang.compiler.common.PhasesTest;
+import org.ek9lang.compiler.ir.data.EscapeMetaDataDetails.EscapeLevel;
+import org.ek9lang.compiler.ir.data.EscapeMetaDataDetails.LifetimeScope;
+import org.ek9lang.compiler.ir.instructions.IRConstruct;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.LiteralInstr;
+import org.ek9lang.compiler.ir.instructions.OperationInstr;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the escape analysis of IR that has been generated and optimised at O2,
+ * where values are altered within while loops, for range loops and try/catch/finally blocks.
+ */
+class CompiledEscapeAnalysisTest extends PhasesTest {
+
+  public CompiledEscapeAnalysisTest() {
+    super("/examples/irOptimisation/escapes", List.of("escape.test"));
+  }
+
+  @Override
+  protected OptimizationLevel optimizationLevel() {
+    return OptimizationLevel.O2;
+  }
+
+  @Test
+  void testPhaseDevelopment() {
+    testToPhase(CompilationPhase.IR_OPTIMISATION);
+  }
+
+  @Override
+  protected void assertFinalResults(final boolean compilationResult, final int numberOfErrors,
+                                    final CompilableProgram program) {
+    assertTrue(compilationResult);
+    assertEquals(0, numberOfErrors);
+
+    final var constructs = ek9Workspace.getSources().stream()
+        .map(program::getIRModuleForCompilableSource)
+        .flatMap(irModule -> irModule.getConstructs().stream())
+        .toList();
+
+    List.of("escape.test::whileLoop", "escape.test::forRangeLoop", "escape.test::tryCatchFinally")
+        .forEach(name -> assertAnalysed(callOperation(constructs, name)));
+  }
+
+  private void assertAnalysed(final OperationInstr operation) {
+
+    final var body = operation.getBody();
+
+    //All the code is reachable, so every literal (even those nested in the loops and blocks) is marked.
+    final var graph = new ControlFlowLowering().apply(body);
+    final var literals = graph.getBlocks().stream()
+        .flatMap(block -> block.getInstructions().stream())
+        .map(graph::originOf)
+        .filter(LiteralInstr.class::isInstance)
+        .toList();
+    assertFalse(literals.isEmpty());
+    literals.forEach(literal -> assertTrue(literal.hasEscapeMetaData(), () -> "Not analysed: " + literal));
+
+    //The initial zero is stored in a local variable, that is then only used by pure operators and an assert.
+    final var initial = body.getInstructions().stream()
+        .filter(LiteralInstr.class::isInstance)
+        .findFirst()
+        .map(IRInstr::getEscapeMetaData)
+        .orElseThrow()
+        .orElseThrow();
+    assertEquals(EscapeLevel.LOCAL, initial.escapeLevel(), operation::toString);
+    assertEquals(LifetimeScope.FUNCTION, initial.lifetimeScope(), operation::toString);
+    assertTrue(initial.optimizationHints().contains("STACK_CANDIDATE"), operation::toString);
+  }
+
+  private OperationInstr callOperation(final List<IRConstruct> constructs, final String name) {
+
+    return constructs.stream()
+        .filter(construct -> construct.getFullyQualifiedName().equals(name))
+        .flatMap(construct -> construct.getOperations().stream())
+        .filter(operation -> operation.getSymbol().getName().equals("_call"))
+        .findFirst()
+        .orElseThrow(() -> new AssertionError("No _call operation for " + name));
+  }
+}
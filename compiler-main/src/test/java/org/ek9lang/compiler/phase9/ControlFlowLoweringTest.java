@@ -0,0 +1,315 @@
+package org.ek9lang.compiler.phase9;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.ek9lang.compiler.ir.IROpcode;
+import org.ek9lang.compiler.ir.data.ConditionCaseDetails;
+import org.ek9lang.compiler.ir.data.ControlFlowChainDetails;
+import org.ek9lang.compiler.ir.data.GuardVariableDetails;
+import org.ek9lang.compiler.ir.data.LogicalDetails;
+import org.ek9lang.compiler.ir.data.ReturnVariableDetails;
+import org.ek9lang.compiler.ir.data.TryBlockDetails;
+import org.ek9lang.compiler.ir.instructions.BasicBlockInstr;
+import org.ek9lang.compiler.ir.instructions.BranchInstr;
+import org.ek9lang.compiler.ir.instructions.ControlFlowChainInstr;
+import org.ek9lang.compiler.ir.instructions.ForRangePolymorphicInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.LabelInstr;
+import org.ek9lang.compiler.ir.instructions.LiteralInstr;
+import org.ek9lang.compiler.ir.instructions.LogicalOperationInstr;
+import org.ek9lang.compiler.ir.instructions.MemoryInstr;
+import org.ek9lang.compiler.phase7.support.ConditionalEvaluation;
+import org.ek9lang.compiler.phase7.support.OperandEvaluation;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks structured IR is laid out as blocks with the right edges.
+ */
+class ControlFlowLoweringTest {
+
+  private static final String INTEGER = "org.ek9.lang::Integer";
+
+  @Test
+  void testStraightLineBodyIsSingleBlock() {
+
+    final var literal = LiteralInstr.literal("_temp1", "1", INTEGER);
+    final var graph = lower(List.of(literal, BranchInstr.returnValue("_temp1", null)));
+
+    assertEquals(List.of(graph.getExit()), graph.getEntry().getSuccessors());
+    assertEquals(2, graph.getEntry().getInstructions().size());
+    assertSame(literal, graph.getEntry().getInstructions().getFirst());
+    assertSame(graph.getEntry(), graph.blockOf(literal).orElseThrow());
+    assertEquals(List.of(graph.getEntry(), graph.getExit()), graph.reversePostOrder());
+  }
+
+  @Test
+  void testQuestionOperatorMergesResult() {
+
+    final var chain = questionOperator();
+    final var graph = lower(List.of(MemoryInstr.reference("z", INTEGER), chain, MemoryInstr.retain("_temp4", null)));
+
+    //The null check, then either the body or the default, then the join.
+    final var entry = graph.getEntry();
+    assertEquals(2, entry.getSuccessors().size());
+    final var body = entry.getSuccessors().getFirst();
+    final var defaultCase = entry.getSuccessors().getLast();
+    final var join = body.getSuccessors().getFirst();
+    assertEquals(List.of(join), defaultCase.getSuccessors());
+    assertEquals(List.of(graph.getExit()), join.getSuccessors());
+
+    final var phi = join.getInstructions().getFirst();
+    assertEquals(IROpcode.PHI, phi.getOpcode());
+    assertEquals("_temp4", phi.getResult());
+    assertEquals(List.of("_temp7", body.getLabel(), "_temp8", defaultCase.getLabel()), phi.getOperands());
+    assertSame(chain, graph.originOf(phi));
+    assertEquals(IROpcode.RETAIN, join.getInstructions().getLast().getOpcode());
+  }
+
+  @Test
+  void testWhileLoopHasBackEdge() {
+
+    final var graph = lower(List.of(whileLoop(), BranchInstr.returnVoid()));
+
+    final var header = graph.getEntry().getSuccessors().getFirst();
+    final var body = header.getSuccessors().getFirst();
+    final var join = header.getSuccessors().getLast();
+    assertEquals(List.of(header), body.getSuccessors());
+    assertTrue(header.getPredecessors().contains(body));
+    assertEquals(IROpcode.RETURN, join.getInstructions().getFirst().getOpcode());
+  }
+
+  @Test
+  void testBranchesAndLabels() {
+
+    final var graph = lower(List.of(
+        MemoryInstr.reference("x", INTEGER),
+        BranchInstr.branchIfTrue("x", "yes", null),
+        BranchInstr.branch("done", null),
+        LabelInstr.label("yes"),
+        LabelInstr.label("done"),
+        BranchInstr.returnVoid()));
+
+    final var labels = graph.getEntry().getSuccessors().stream().map(BasicBlockInstr::getLabel).toList();
+    assertEquals("yes", labels.getFirst());
+
+    final var done = graph.getBlocks().stream().filter(block -> block.getLabel().equals("done")).findFirst();
+    assertTrue(done.isPresent());
+    assertEquals(2, done.get().getPredecessors().size());
+    assertEquals(List.of(graph.getExit()), done.get().getSuccessors());
+  }
+
+  @Test
+  void testDoWhileLoopRunsBodyBeforeCondition() {
+
+    final var graph = lower(List.of(doWhileLoop(), BranchInstr.returnVoid()));
+
+    //The body and the condition are in one block, that loops back to itself.
+    final var body = graph.getEntry().getSuccessors().getFirst();
+    assertEquals(2, body.getSuccessors().size());
+    assertSame(body, body.getSuccessors().getFirst());
+    final var join = body.getSuccessors().getLast();
+    assertEquals(List.of(graph.getEntry(), body), body.getPredecessors());
+    assertEquals(IROpcode.LOAD_LITERAL, body.getInstructions().getFirst().getOpcode());
+    assertEquals(IROpcode.IS_NULL, body.getInstructions().getLast().getOpcode());
+    assertEquals(IROpcode.RETURN, join.getInstructions().getFirst().getOpcode());
+  }
+
+  @Test
+  void testTryCatchFinallyEdges() {
+
+    final var graph = lower(List.of(tryCatchFinally(), BranchInstr.returnVoid()));
+
+    //The try leads to the finally block normally, to the handler or to the finally block on an exception.
+    final var tryBlock = graph.getEntry().getSuccessors().getFirst();
+    assertEquals(2, tryBlock.getSuccessors().size());
+    final var finallyBlock = tryBlock.getSuccessors().getFirst();
+    final var handler = tryBlock.getSuccessors().getLast();
+    assertTrue(finallyBlock.getLabel().startsWith("_cfg_finally_"));
+    assertTrue(handler.getLabel().startsWith("_cfg_catch_"));
+    assertEquals(List.of(finallyBlock), handler.getSuccessors());
+    assertEquals(List.of(tryBlock, handler), finallyBlock.getPredecessors());
+
+    final var join = finallyBlock.getSuccessors().getFirst();
+    assertEquals(List.of(join), finallyBlock.getSuccessors());
+    assertEquals(List.of(graph.getExit()), join.getSuccessors());
+  }
+
+  @Test
+  void testLogicalAndShortCircuits() {
+
+    final var graph = lower(List.of(logicalOperation(true), MemoryInstr.retain("_temp10", null)));
+
+    //The right operand is evaluated next, the join is reached directly when the left is false.
+    final var entry = graph.getEntry();
+    final var right = entry.getSuccessors().getFirst();
+    final var join = entry.getSuccessors().getLast();
+    assertTrue(right.getLabel().startsWith("_cfg_right_"));
+    assertEquals(List.of(join), right.getSuccessors());
+    assertEquals(2, right.getInstructions().size());
+
+    final var phi = join.getInstructions().getFirst();
+    assertEquals(IROpcode.PHI, phi.getOpcode());
+    assertEquals("_temp10", phi.getResult());
+    assertEquals(List.of("_temp11", entry.getLabel(), "_temp14", right.getLabel()), phi.getOperands());
+  }
+
+  @Test
+  void testLogicalOrShortCircuits() {
+
+    final var graph = lower(List.of(logicalOperation(false), MemoryInstr.retain("_temp10", null)));
+
+    //The join is the first edge, taken when the left operand is true.
+    final var entry = graph.getEntry();
+    final var join = entry.getSuccessors().getFirst();
+    final var right = entry.getSuccessors().getLast();
+    assertTrue(right.getLabel().startsWith("_cfg_right_"));
+    assertEquals(List.of(join), right.getSuccessors());
+    assertEquals(IROpcode.PHI, join.getInstructions().getFirst().getOpcode());
+  }
+
+  @Test
+  void testForRangeDirectionsShareBody() {
+
+    final var graph = lower(List.of(forRange(), BranchInstr.returnVoid()));
+
+    final var entry = graph.getEntry();
+    final var ascendingHeader = entry.getSuccessors().getFirst();
+    final var notAscending = entry.getSuccessors().getLast();
+    final var descendingHeader = notAscending.getSuccessors().getFirst();
+    final var notDescending = notAscending.getSuccessors().getLast();
+    final var ascendingSetup = ascendingHeader.getSuccessors().getFirst();
+    final var join = ascendingHeader.getSuccessors().getLast();
+
+    //Each direction sets up the loop variable and then runs the same body.
+    final var body = ascendingSetup.getSuccessors().getFirst();
+    assertEquals(3, body.getPredecessors().size());
+    assertTrue(body.getPredecessors().contains(descendingHeader.getSuccessors().getFirst()));
+    assertTrue(body.getPredecessors().contains(notDescending.getSuccessors().getFirst()));
+
+    //From the latch, each direction increments and returns to its header, the single iteration leaves.
+    final var latch = body.getSuccessors().getFirst();
+    final var latchSuccessors = latch.getSuccessors();
+    assertEquals(3, latchSuccessors.size());
+    assertEquals(List.of(ascendingHeader), latchSuccessors.getFirst().getSuccessors());
+    assertEquals(List.of(descendingHeader), latchSuccessors.get(1).getSuccessors());
+    assertSame(join, latchSuccessors.getLast());
+
+    assertEquals(List.of(ascendingHeader, descendingHeader, notDescending, latch), join.getPredecessors());
+    assertEquals(List.of(graph.getExit()), join.getSuccessors());
+  }
+
+  static ControlFlowGraph lower(final List<IRInstr> instructions) {
+
+    return new ControlFlowLowering().apply(new BasicBlockInstr("_entry_1").addInstructions(instructions));
+  }
+
+  /**
+   * The same as the IR for 'z?', _temp4 is the result.
+   */
+  static ControlFlowChainInstr questionOperator() {
+
+    final var condition = List.<IRInstr>of(
+        MemoryInstr.load("_temp5", "z"),
+        MemoryInstr.isNull("_temp6", "_temp5", null));
+    final var nullCase = ConditionCaseDetails.createNullCheck("_scope_1", condition, null, "_temp6",
+        List.of(LiteralInstr.literal("_temp7", "false", "org.ek9.lang::Boolean")), "_temp7");
+
+    return ControlFlowChainInstr.controlFlowChain(ControlFlowChainDetails.createQuestionOperator("_temp4",
+        List.of(nullCase), List.of(MemoryInstr.load("_temp8", "_temp5")), "_temp8", null, "_scope_1"));
+  }
+
+  /**
+   * Loops while x is not null, setting x in the body.
+   */
+  static ControlFlowChainInstr whileLoop() {
+
+    final var condition = List.<IRInstr>of(
+        MemoryInstr.load("_temp2", "x"),
+        MemoryInstr.isNull("_temp3", "_temp2", null));
+    final var body = List.<IRInstr>of(
+        LiteralInstr.literal("_temp4", "1", INTEGER),
+        MemoryInstr.store("x", "_temp4", null));
+    final var loopCase = ConditionCaseDetails.createExpression("_scope_2", condition, null, "_temp3", body, null);
+
+    return ControlFlowChainInstr.controlFlowChain(ControlFlowChainDetails.createWhileLoop(
+        List.of(loopCase), null, "_scope_2"));
+  }
+
+  /**
+   * Sets x in the body, then loops while x is not null.
+   */
+  static ControlFlowChainInstr doWhileLoop() {
+
+    final var condition = List.<IRInstr>of(
+        MemoryInstr.load("_temp2", "x"),
+        MemoryInstr.isNull("_temp3", "_temp2", null));
+    final var body = List.<IRInstr>of(
+        LiteralInstr.literal("_temp4", "1", INTEGER),
+        MemoryInstr.store("x", "_temp4", null));
+    final var loopCase = ConditionCaseDetails.createExpression("_scope_2", condition, null, "_temp3", body, null);
+
+    return ControlFlowChainInstr.controlFlowChain(ControlFlowChainDetails.createDoWhileLoopWithGuards(
+        GuardVariableDetails.none(), List.of(loopCase), null, "_scope_2"));
+  }
+
+  /**
+   * A try block, with a handler that sets x and a finally block that loads x into _temp4.
+   */
+  static ControlFlowChainInstr tryCatchFinally() {
+
+    final var tryBlock = new TryBlockDetails("_scope_3",
+        List.of(LiteralInstr.literal("_temp2", "1", INTEGER)), null);
+    final var handler = ConditionCaseDetails.createExceptionHandler("_scope_4", "org.ek9.lang::Exception", "ex",
+        "_scope_5", List.of(LiteralInstr.literal("_temp3", "2", INTEGER), MemoryInstr.store("x", "_temp3", null)),
+        null);
+
+    return ControlFlowChainInstr.controlFlowChain(ControlFlowChainDetails.createTryCatchFinally(null,
+        GuardVariableDetails.none(), ReturnVariableDetails.none(), tryBlock, List.of(handler),
+        List.of(MemoryInstr.load("_temp4", "x")), null, "_scope_2"));
+  }
+
+  /**
+   * The same shape as the IR for 'a and b' (or 'a or b'), _temp10 is the result.
+   */
+  static IRInstr logicalOperation(final boolean isAnd) {
+
+    final var details = new LogicalDetails("_temp10",
+        new OperandEvaluation(List.of(MemoryInstr.load("_temp11", "a")), "_temp11"),
+        new ConditionalEvaluation(List.of(MemoryInstr.isNull("_temp12", "_temp11", null)), "_temp12"),
+        new OperandEvaluation(List.of(MemoryInstr.load("_temp13", "b")), "_temp13"),
+        new OperandEvaluation(List.of(MemoryInstr.load("_temp14", "_temp13")), "_temp14"),
+        null, "_scope_1");
+
+    return isAnd ? LogicalOperationInstr.andOperation(details) : LogicalOperationInstr.orOperation(details);
+  }
+
+  /**
+   * A for range loop, each part is just a literal so the blocks can be told apart.
+   */
+  static ForRangePolymorphicInstr forRange() {
+
+    final var ascending = new ForRangePolymorphicInstr.AscendingCase(
+        List.of(literal("_temp2")), "_temp2", List.of(literal("_temp3")), "_temp3",
+        List.of(literal("_temp4")), List.of(literal("_temp5")));
+    final var descending = new ForRangePolymorphicInstr.DescendingCase(
+        List.of(literal("_temp6")), "_temp6", List.of(literal("_temp7")), "_temp7",
+        List.of(literal("_temp8")), List.of(literal("_temp9")));
+    final var equal = new ForRangePolymorphicInstr.EqualCase(
+        List.of(literal("_temp10")), "_temp10", List.of(literal("_temp11")), true);
+
+    return ForRangePolymorphicInstr.forRangePolymorphic(List.of(literal("_temp1")),
+        new ForRangePolymorphicInstr.DispatchCases(ascending, descending, equal),
+        new ForRangePolymorphicInstr.LoopMetadata("_temp1", "_temp12", "i", "_temp13", INTEGER, null, null),
+        List.of(literal("_temp14")),
+        new ForRangePolymorphicInstr.ScopeMetadata("_scope_1", "_scope_2", "_scope_3"),
+        null);
+  }
+
+  private static IRInstr literal(final String result) {
+
+    return LiteralInstr.literal(result, "1", INTEGER);
+  }
+}
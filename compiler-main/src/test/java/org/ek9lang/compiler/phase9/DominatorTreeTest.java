@@ -0,0 +1,97 @@
+package org.ek9lang.compiler.phase9;
+
+import static org.ek9lang.compiler.phase9.ControlFlowLoweringTest.lower;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.ek9lang.compiler.ir.instructions.BranchInstr;
+import org.ek9lang.compiler.ir.instructions.LabelInstr;
+import org.ek9lang.compiler.ir.instructions.LiteralInstr;
+import org.ek9lang.compiler.ir.instructions.MemoryInstr;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the dominators and dominance frontiers of the blocks in a control flow graph.
+ */
+class DominatorTreeTest {
+
+  private static final String INTEGER = "org.ek9.lang::Integer";
+
+  @Test
+  void testBranchesHaveJoinOnFrontier() {
+
+    final var graph = lower(List.of(
+        MemoryInstr.reference("x", INTEGER),
+        BranchInstr.branchIfTrue("x", "yes", null),
+        BranchInstr.branch("done", null),
+        LabelInstr.label("yes"),
+        LabelInstr.label("done"),
+        BranchInstr.returnVoid()));
+    final var underTest = new DominatorTree(graph);
+
+    final var entry = graph.getEntry();
+    final var yes = entry.getSuccessors().getFirst();
+    final var no = entry.getSuccessors().getLast();
+    final var done = yes.getSuccessors().getFirst();
+
+    assertEquals(Set.of(done), underTest.frontierOf(yes));
+    assertEquals(Set.of(done), underTest.frontierOf(no));
+    assertTrue(underTest.frontierOf(entry).isEmpty());
+    assertTrue(underTest.frontierOf(done).isEmpty());
+
+    //Neither branch dominates the join, so it is immediately dominated by the entry.
+    assertEquals(Optional.of(entry), underTest.immediateDominatorOf(done));
+    assertEquals(Set.of(yes, no, done), Set.copyOf(underTest.childrenOf(entry)));
+    assertTrue(underTest.dominates(entry, done));
+    assertFalse(underTest.dominates(yes, done));
+    assertEquals(Optional.of(done), underTest.immediateDominatorOf(graph.getExit()));
+    assertTrue(underTest.immediateDominatorOf(entry).isEmpty());
+  }
+
+  @Test
+  void testLoopHeaderOnItsOwnFrontier() {
+
+    final var graph = lower(List.of(ControlFlowLoweringTest.whileLoop(), BranchInstr.returnVoid()));
+    final var underTest = new DominatorTree(graph);
+
+    final var entry = graph.getEntry();
+    final var header = entry.getSuccessors().getFirst();
+    final var body = header.getSuccessors().getFirst();
+    final var join = header.getSuccessors().getLast();
+
+    //The back edge from the body makes the header a join, including for itself.
+    assertEquals(Set.of(header), underTest.frontierOf(body));
+    assertEquals(Set.of(header), underTest.frontierOf(header));
+    assertTrue(underTest.frontierOf(entry).isEmpty());
+    assertTrue(underTest.frontierOf(join).isEmpty());
+
+    assertEquals(Optional.of(header), underTest.immediateDominatorOf(body));
+    assertEquals(Optional.of(header), underTest.immediateDominatorOf(join));
+    assertTrue(underTest.dominates(header, body));
+    assertFalse(underTest.dominates(body, header));
+  }
+
+  @Test
+  void testUnreachableBlocksExcluded() {
+
+    final var graph = lower(List.of(
+        BranchInstr.returnVoid(),
+        LiteralInstr.literal("_temp1", "1", INTEGER)));
+    final var underTest = new DominatorTree(graph);
+
+    final var unreachable = graph.getBlocks().stream()
+        .filter(block -> block.getLabel().startsWith("_cfg_unreachable_"))
+        .findFirst()
+        .orElseThrow();
+
+    assertFalse(underTest.isReachable(unreachable));
+    assertFalse(underTest.getOrder().contains(unreachable));
+    assertTrue(underTest.immediateDominatorOf(unreachable).isEmpty());
+    assertTrue(underTest.frontierOf(unreachable).isEmpty());
+    assertFalse(underTest.dominates(graph.getEntry(), unreachable));
+  }
+}
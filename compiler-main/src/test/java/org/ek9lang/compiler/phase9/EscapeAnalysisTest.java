@@ -0,0 +1,125 @@
+package org.ek9lang.compiler.phase9;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import java.util.Set;
+import org.ek9lang.compiler.ir.data.CallDetails;
+import org.ek9lang.compiler.ir.data.CallMetaDataDetails;
+import org.ek9lang.compiler.ir.instructions.BasicBlockInstr;
+import org.ek9lang.compiler.ir.instructions.BranchInstr;
+import org.ek9lang.compiler.ir.instructions.CallInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.LiteralInstr;
+import org.ek9lang.compiler.ir.instructions.MemoryInstr;
+import org.ek9lang.compiler.ir.instructions.ScopeInstr;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks how far values escape, based on how they are used.
+ */
+class EscapeAnalysisTest {
+
+  private static final String INTEGER = "org.ek9.lang::Integer";
+  private static final String STDOUT = "org.ek9.lang::Stdout";
+
+  @Test
+  void testConstructedAndKeptLocallyIsStackCandidate() {
+
+    final var constructed = CallInstr.constructor("_temp1", null,
+        call(null, STDOUT, "<init>", List.of(), new CallMetaDataDetails(true, 1, Set.of("IO"))));
+    analyse(List.of(
+        MemoryInstr.reference("stdout", STDOUT),
+        constructed,
+        MemoryInstr.retain("_temp1", null),
+        MemoryInstr.store("stdout", "_temp1", null),
+        ScopeInstr.register("stdout", "_scope_1", null)));
+
+    assertEquals("[escape=LOCAL, lifetime=LOCAL_SCOPE, hints=STACK_CANDIDATE]", metaDataOf(constructed));
+  }
+
+  @Test
+  void testReturnedThroughVariable() {
+
+    final var literal = LiteralInstr.literal("_temp1", "1", INTEGER);
+    final var loaded = MemoryInstr.load("_temp2", "rtn");
+    analyse(List.of(
+        MemoryInstr.reference("rtn", INTEGER),
+        literal,
+        MemoryInstr.store("rtn", "_temp1", null),
+        loaded,
+        BranchInstr.returnValue("_temp2", null)));
+
+    assertEquals("[escape=RETURN]", metaDataOf(literal));
+    assertEquals("[escape=RETURN]", metaDataOf(loaded));
+  }
+
+  @Test
+  void testStoredInPropertyOrPassedOn() {
+
+    final var stored = LiteralInstr.literal("_temp1", "1", INTEGER);
+    final var passed = LiteralInstr.literal("_temp2", "2", INTEGER);
+    final var compared = LiteralInstr.literal("_temp3", "3", INTEGER);
+    analyse(List.of(
+        stored,
+        MemoryInstr.store("this.value", "_temp1", null),
+        passed,
+        CallInstr.call(null, null,
+            call("this", "some::Thing", "update", List.of("_temp2"), CallMetaDataDetails.defaultMetaData())),
+        compared,
+        CallInstr.call(null, null,
+            call("_temp3", INTEGER, "_eq", List.of("_temp1"), new CallMetaDataDetails(true, 1)))));
+
+    assertEquals("[escape=FIELD]", metaDataOf(stored));
+    assertEquals("[escape=PARAMETER]", metaDataOf(passed));
+
+    //A pure call cannot hold on to the values it is given.
+    assertEquals("[escape=NONE, lifetime=LOCAL_SCOPE, hints=STACK_CANDIDATE]", metaDataOf(compared));
+  }
+
+  @Test
+  void testStructuredResultMarked() {
+
+    final var chain = ControlFlowLoweringTest.questionOperator();
+    analyse(List.of(MemoryInstr.reference("z", INTEGER), chain, MemoryInstr.retain("_temp4", null)));
+
+    assertEquals("[escape=NONE, lifetime=LOCAL_SCOPE]", metaDataOf(chain));
+
+    //The default value is merged with the result in another block, so lives for longer.
+    final var defaultValue = chain.getDefaultBodyEvaluation().getFirst();
+    assertEquals("[escape=NONE, lifetime=FUNCTION]", metaDataOf(defaultValue));
+  }
+
+  @Test
+  void testUnreachableLeftUnmarked() {
+
+    final var unreachable = LiteralInstr.literal("_temp2", "2", INTEGER);
+    analyse(List.of(
+        LiteralInstr.literal("_temp1", "1", INTEGER),
+        BranchInstr.returnValue("_temp1", null),
+        unreachable));
+
+    assertFalse(unreachable.hasEscapeMetaData());
+  }
+
+  private void analyse(final List<IRInstr> instructions) {
+
+    new EscapeAnalysis().analyse(new BasicBlockInstr("_entry_1").addInstructions(instructions));
+  }
+
+  private String metaDataOf(final IRInstr instruction) {
+
+    return instruction.getEscapeMetaData().orElseThrow().toString();
+  }
+
+  private CallDetails call(final String target,
+                           final String targetType,
+                           final String method,
+                           final List<String> arguments,
+                           final CallMetaDataDetails metaData) {
+
+    return new CallDetails(target, targetType, method, arguments.stream().map(_ -> INTEGER).toList(),
+        targetType, arguments, metaData, false);
+  }
+}
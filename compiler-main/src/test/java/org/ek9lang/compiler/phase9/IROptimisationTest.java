@@ -0,0 +1,73 @@
+package org.ek9lang.compiler.phase9;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.CompilableSource;
+import org.ek9lang.compiler.CompilationPhase;
+import org.ek9lang.compiler.IRModule;
+import org.ek9lang.compiler.OptimizationLevel;
+import org.ek9lang.compiler.common.PhasesTest;
+import org.ek9lang.compiler.ir.instructions.IRConstruct;
+import org.ek9lang.core.SharedThreadContext;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the O2 optimisations reduce the number of IR instructions.
+ * The optimised IR itself is checked by the '@IR: IR_OPTIMISATION' directives in the EK9 source.
+ */
+class IROptimisationTest extends PhasesTest {
+
+  private final Map<CompilationPhase, Integer> instructionCounts = new ConcurrentHashMap<>();
+
+  public IROptimisationTest() {
+    super("/examples/irOptimisation/temporaries", List.of("optimisation.test"));
+  }
+
+  @Override
+  protected OptimizationLevel optimizationLevel() {
+    return OptimizationLevel.O2;
+  }
+
+  @Test
+  void testPhaseDevelopment() {
+    testToPhase(CompilationPhase.IR_OPTIMISATION);
+  }
+
+  @Override
+  protected void compilationPhaseCompleted(final CompilationPhase phase, final CompilableSource source,
+                                           final SharedThreadContext<CompilableProgram> sharedCompilableProgram) {
+
+    if (phase == CompilationPhase.IR_GENERATION || phase == CompilationPhase.IR_OPTIMISATION) {
+      sharedCompilableProgram.accept(program ->
+          instructionCounts.put(phase, countInstructions(program.getIRModuleForCompilableSource(source))));
+    }
+  }
+
+  @Override
+  protected void assertFinalResults(final boolean compilationResult, final int numberOfErrors,
+                                    final CompilableProgram program) {
+    assertTrue(compilationResult);
+    assertEquals(0, numberOfErrors);
+
+    //Two literals folded away and two copies propagated, each with its RETAIN and SCOPE_REGISTER.
+    final var generated = instructionCounts.get(CompilationPhase.IR_GENERATION);
+    final var optimised = instructionCounts.get(CompilationPhase.IR_OPTIMISATION);
+    assertEquals(generated - 12, optimised);
+  }
+
+  private int countInstructions(final IRModule irModule) {
+
+    return irModule.getConstructs()
+        .stream()
+        .map(IRConstruct::getOperations)
+        .flatMap(List::stream)
+        .filter(operation -> operation.getBody() != null)
+        .mapToInt(operation -> operation.getBody().getInstructions().size())
+        .sum();
+  }
+}
@@ -0,0 +1,163 @@
+package org.ek9lang.compiler.phase9;
+
+import static org.ek9lang.compiler.phase9.ControlFlowLoweringTest.lower;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.ek9lang.compiler.ir.IROpcode;
+import org.ek9lang.compiler.ir.instructions.BranchInstr;
+import org.ek9lang.compiler.ir.instructions.IRInstr;
+import org.ek9lang.compiler.ir.instructions.LabelInstr;
+import org.ek9lang.compiler.ir.instructions.LiteralInstr;
+import org.ek9lang.compiler.ir.instructions.MemoryInstr;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks each use of a variable is traced to the definition that reaches it.
+ */
+class StaticSingleAssignmentTest {
+
+  private static final String INTEGER = "org.ek9.lang::Integer";
+
+  @Test
+  void testLoopVariableMergedAtHeader() {
+
+    final var initial = MemoryInstr.store("x", "_temp1", null);
+    final var after = MemoryInstr.load("_temp5", "x");
+    final var ssa = new StaticSingleAssignment(lower(List.of(
+        MemoryInstr.reference("x", INTEGER),
+        LiteralInstr.literal("_temp1", "0", INTEGER),
+        initial,
+        ControlFlowLoweringTest.whileLoop(),
+        after,
+        BranchInstr.returnValue("_temp5", null))));
+
+    final var header = ssa.getGraph().getEntry().getSuccessors().getFirst();
+    final var phis = ssa.getPhis(header);
+    assertEquals(1, phis.size());
+
+    //The value of x after the loop is the one merged at the header, from before the loop and from the body.
+    final var merged = ssa.definedBy(phis.getFirst()).orElseThrow();
+    assertEquals(merged, ssa.valueUsedBy(after, "x").orElseThrow());
+    final var incoming = ssa.incomingTo(phis.getFirst());
+    assertEquals(2, incoming.size());
+    assertEquals(ssa.definedBy(initial).orElseThrow(), incoming.get(ssa.getGraph().getEntry()));
+    assertEquals("x#4", incoming.get(header.getSuccessors().getFirst()).toString());
+  }
+
+  @Test
+  void testBranchesMergeStoredValues() {
+
+    final var whenFalse = MemoryInstr.store("x", "_temp1", null);
+    final var whenTrue = MemoryInstr.store("x", "_temp2", null);
+    final var returned = BranchInstr.returnValue("x", null);
+    final var ssa = new StaticSingleAssignment(lower(List.of(
+        MemoryInstr.reference("x", INTEGER),
+        BranchInstr.branchIfTrue("x", "yes", null),
+        LiteralInstr.literal("_temp1", "0", INTEGER),
+        whenFalse,
+        BranchInstr.branch("done", null),
+        LabelInstr.label("yes"),
+        LiteralInstr.literal("_temp2", "1", INTEGER),
+        whenTrue,
+        LabelInstr.label("done"),
+        returned)));
+
+    final var merged = ssa.valueUsedBy(returned, "x").orElseThrow();
+    assertEquals(IROpcode.PHI, merged.definition().getOpcode());
+    assertEquals(Set.of(ssa.definedBy(whenFalse).orElseThrow(), ssa.definedBy(whenTrue).orElseThrow()),
+        Set.copyOf(ssa.incomingTo(merged.definition()).values()));
+    assertTrue(ssa.usesOf(ssa.definedBy(whenTrue).orElseThrow()).contains(merged.definition()));
+  }
+
+  @Test
+  void testStructuredResultMergedWithoutExtraPhis() {
+
+    final var retain = MemoryInstr.retain("_temp4", null);
+    final var ssa = new StaticSingleAssignment(lower(List.of(
+        MemoryInstr.reference("z", INTEGER),
+        ControlFlowLoweringTest.questionOperator(),
+        retain)));
+
+    final var result = ssa.valueUsedBy(retain, "_temp4").orElseThrow();
+    final var incoming = ssa.incomingTo(result.definition());
+    assertEquals(Set.of("_temp7#1", "_temp8#1"),
+        Set.copyOf(incoming.values().stream().map(SsaValue::toString).toList()));
+
+    //Temporaries defined once need no merging, only the PHI for the result itself.
+    final var graph = ssa.getGraph();
+    assertTrue(graph.getBlocks().stream().allMatch(block -> ssa.getPhis(block).isEmpty()));
+  }
+
+  @Test
+  void testDoWhileMergesAtBody() {
+
+    final var initial = MemoryInstr.store("x", "_temp1", null);
+    final var after = MemoryInstr.load("_temp5", "x");
+    final var ssa = new StaticSingleAssignment(lower(List.of(
+        MemoryInstr.reference("x", INTEGER),
+        LiteralInstr.literal("_temp1", "0", INTEGER),
+        initial,
+        ControlFlowLoweringTest.doWhileLoop(),
+        after,
+        BranchInstr.returnValue("_temp5", null))));
+
+    final var body = ssa.getGraph().getEntry().getSuccessors().getFirst();
+    final var phis = ssa.getPhis(body);
+    assertEquals(1, phis.size());
+
+    //The body is merged from before the loop and from itself, the value after is the one set in the body.
+    final var inBody = ssa.definedBy(body.getInstructions().get(1)).orElseThrow();
+    final var incoming = ssa.incomingTo(phis.getFirst());
+    assertEquals(ssa.definedBy(initial).orElseThrow(), incoming.get(ssa.getGraph().getEntry()));
+    assertEquals(inBody, incoming.get(body));
+    assertEquals(inBody, ssa.valueUsedBy(after, "x").orElseThrow());
+  }
+
+  @Test
+  void testHandlerValueMergedInFinally() {
+
+    final var initial = MemoryInstr.store("x", "_temp1", null);
+    final var ssa = new StaticSingleAssignment(lower(List.of(
+        MemoryInstr.reference("x", INTEGER),
+        LiteralInstr.literal("_temp1", "0", INTEGER),
+        initial,
+        ControlFlowLoweringTest.tryCatchFinally(),
+        BranchInstr.returnVoid())));
+
+    final var tryBlock = ssa.getGraph().getEntry().getSuccessors().getFirst();
+    final var finallyBlock = tryBlock.getSuccessors().getFirst();
+    final var handler = tryBlock.getSuccessors().getLast();
+    final var phis = ssa.getPhis(finallyBlock);
+    assertEquals(1, phis.size());
+    assertTrue(ssa.getPhis(handler).isEmpty());
+
+    //The finally block sees x either as it was before the try, or as set by the handler.
+    final var merged = ssa.definedBy(phis.getFirst()).orElseThrow();
+    assertEquals(merged, ssa.valueUsedBy(finallyBlock.getInstructions().getFirst(), "x").orElseThrow());
+    final var incoming = ssa.incomingTo(phis.getFirst());
+    assertEquals(ssa.definedBy(initial).orElseThrow(), incoming.get(tryBlock));
+    assertEquals(ssa.definedBy(handler.getInstructions().getLast()).orElseThrow(), incoming.get(handler));
+  }
+
+  @Test
+  void testDeepDominatorTreeRenamed() {
+
+    //Each conditional branch nests the dominator tree one level deeper, too deep to walk by recursion.
+    final List<IRInstr> instructions = new ArrayList<>();
+    instructions.add(MemoryInstr.reference("x", INTEGER));
+    final var depth = 20_000;
+    for (int i = 0; i < depth; i++) {
+      instructions.add(BranchInstr.branchIfTrue("x", "skip" + i, null));
+      instructions.add(LabelInstr.label("skip" + i));
+    }
+    final var returned = BranchInstr.returnValue("x", null);
+    instructions.add(returned);
+
+    final var ssa = new StaticSingleAssignment(lower(instructions));
+    assertEquals(ssa.definedBy(instructions.getFirst()).orElseThrow(), ssa.valueUsedBy(returned, "x").orElseThrow());
+  }
+}
@@ -453,4 +453,26 @@ final class SymbolTableTest {
     assertFalse(underTest.isScopeAMatchForEnclosingScope(underTest));
     assertFalse(underTest.resolveWithEnclosingScope(new TypeSymbolSearch("global::Float")).isPresent());
   }
+
+  @Test
+  void testSymbolsWithPrefix() {
+    var underTest = new SymbolTable();
+    underTest.define(new VariableSymbol("counter"));
+    underTest.define(new FunctionSymbol("count", underTest));
+    underTest.define(new VariableSymbol("total"));
+
+    //The trie is built on first use.
+    assertEquals(List.of("count", "counter"),
+        underTest.getSymbolsWithPrefix("cou", 10).stream().map(ISymbol::getName).toList());
+
+    //Then kept up to date as symbols are defined.
+    underTest.define(new VariableSymbol("country"));
+    assertEquals(List.of("count", "counter", "country"),
+        underTest.getSymbolsWithPrefix("cou", 10).stream().map(ISymbol::getName).toList());
+
+    assertEquals(List.of("count", "counter"),
+        underTest.getSymbolsWithPrefix("c", 2).stream().map(ISymbol::getName).toList());
+    assertEquals(4, underTest.getSymbolsWithPrefix("", 10).size());
+    assertTrue(underTest.getSymbolsWithPrefix("x", 10).isEmpty());
+  }
 }
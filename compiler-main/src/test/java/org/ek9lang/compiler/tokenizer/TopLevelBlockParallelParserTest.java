@@ -0,0 +1,124 @@
+package org.ek9lang.compiler.tokenizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.ek9lang.antlr.EK9Parser;
+import org.ek9lang.compiler.Source;
+import org.ek9lang.compiler.common.ErrorListener;
+import org.ek9lang.compiler.common.SignificantParseTreeNodes;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a large source parsed in parallel chunks results in the same parse tree as a full parse.
+ */
+final class TopLevelBlockParallelParserTest {
+
+  private static final Source SOURCE = () -> "parallel.ek9";
+
+  private final SignificantParseTreeNodes significantNodes = new SignificantParseTreeNodes();
+
+  @Test
+  void testParallelParseMatchesFullParse() {
+    final var text = largeSource(false);
+    final var blocks = new TopLevelBlockSplitter().apply(text).orElseThrow();
+    assertTrue(TopLevelBlockParallelParser.isWorthwhile(blocks));
+
+    final var parallel = new TopLevelBlockParallelParser(SOURCE, 4).apply(blocks);
+    assertTrue(parallel.isPresent());
+
+    final var full = fullParse(text);
+    assertEquals(significantNodes.apply(full), significantNodes.apply(parallel.get()));
+    assertEquals(full.getStop().getLine(), parallel.get().getStop().getLine());
+    assertEquals(full.moduleDeclaration().getStop().getLine(), parallel.get().moduleDeclaration().getStop().getLine());
+  }
+
+  @Test
+  void testTokenIndexesInSourceOrderAcrossChunks() {
+    final var blocks = new TopLevelBlockSplitter().apply(largeSource(false)).orElseThrow();
+    final var parallel = new TopLevelBlockParallelParser(SOURCE, 4).apply(blocks).orElseThrow();
+
+    final List<Integer> tokenIndexes = new ArrayList<>();
+    collectTokenIndexes(parallel, tokenIndexes);
+    assertTrue(tokenIndexes.size() > 1);
+    for (int i = 1; i < tokenIndexes.size(); i++) {
+      assertTrue(tokenIndexes.get(i - 1) < tokenIndexes.get(i),
+          "Token index " + tokenIndexes.get(i) + " does not follow " + tokenIndexes.get(i - 1));
+    }
+  }
+
+  @Test
+  void testOnlyLargeTextWorthSplitting() {
+    final var minimumLines = TopLevelBlockParallelParser.MINIMUM_LINES;
+    assertFalse(TopLevelBlockParallelParser.isWorthSplitting(utf8("")));
+    assertFalse(TopLevelBlockParallelParser.isWorthSplitting(utf8("\n".repeat(minimumLines - 2))));
+    assertTrue(TopLevelBlockParallelParser.isWorthSplitting(utf8("\n".repeat(minimumLines - 1))));
+    assertTrue(TopLevelBlockParallelParser.isWorthSplitting(utf8(largeSource(false))));
+  }
+
+  @Test
+  void testMisplacedReferencesRequiresFullParse() {
+    final var blocks = new TopLevelBlockSplitter().apply(largeSource(true)).orElseThrow();
+
+    assertFalse(new TopLevelBlockParallelParser(SOURCE, 4).apply(blocks).isPresent());
+  }
+
+  @Test
+  void testSmallSourceNotWorthwhile() {
+    final var blocks = new TopLevelBlockSplitter().apply("""
+        #!ek9
+        defines module small.source
+
+          defines function
+            first()
+              <- rtn as Integer: 1
+
+        //EOF""").orElseThrow();
+
+    assertFalse(TopLevelBlockParallelParser.isWorthwhile(blocks));
+    assertFalse(new TopLevelBlockParallelParser(SOURCE, 4).apply(blocks).isPresent());
+  }
+
+  private String largeSource(final boolean withTrailingReferences) {
+    final var builder = new StringBuilder("#!ek9\ndefines module parallel.parsing\n\n");
+    for (int i = 0; i < 600; i++) {
+      builder.append("  defines function\n")
+          .append("    function").append(i).append("()\n")
+          .append("      <- rtn as Integer: ").append(i).append("\n\n");
+    }
+    if (withTrailingReferences) {
+      builder.append("  references\n    org.ek9.lang::Integer\n\n");
+    }
+    return builder.append("//EOF").toString();
+  }
+
+  private EK9Parser.CompilationUnitContext fullParse(final String text) {
+    final var errorListener = new ErrorListener(SOURCE.getFileName());
+    final var inputStream = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    final var parser = new ParserCreator().apply(new ParserSpec(SOURCE, inputStream, errorListener, null));
+    final var rtn = parser.compilationUnit();
+    assertTrue(errorListener.isErrorFree());
+    return rtn;
+  }
+
+  private byte[] utf8(final String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private void collectTokenIndexes(final ParseTree node, final List<Integer> tokenIndexes) {
+    if (node instanceof TerminalNode terminal) {
+      tokenIndexes.add(terminal.getSymbol().getTokenIndex());
+      return;
+    }
+    for (int i = 0; i < node.getChildCount(); i++) {
+      collectTokenIndexes(node.getChild(i), tokenIndexes);
+    }
+  }
+}
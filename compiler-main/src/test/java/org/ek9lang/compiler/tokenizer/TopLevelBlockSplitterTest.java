@@ -0,0 +1,84 @@
+package org.ek9lang.compiler.tokenizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that EK9 source text is split into the module header and top level blocks.
+ */
+final class TopLevelBlockSplitterTest {
+
+  private static final String SOURCE = """
+      #!ek9
+      defines module split.blocks
+
+        defines function
+          first()
+            <- rtn as Integer: 1
+
+        <!-
+        defines function
+          commentedOut()
+        -!>
+        @Error: SYMBOL_DEFINITION: DUPLICATE_SYMBOL
+        defines function
+          second()
+            <- rtn as Integer: 2
+
+      //EOF""";
+
+  private final TopLevelBlockSplitter underTest = new TopLevelBlockSplitter();
+
+  @Test
+  void testSplitIntoBlocks() {
+
+    final var blocks = underTest.apply(SOURCE).orElseThrow();
+
+    assertEquals(1, blocks.header().startLine());
+    assertEquals(3, blocks.header().lineCount());
+    assertEquals(2, blocks.size());
+
+    final var first = blocks.get(0);
+    assertEquals(4, first.startLine());
+    assertEquals(8, first.lineCount());
+    assertTrue(first.text().contains("commentedOut"));
+
+    final var second = blocks.get(1);
+    assertEquals(12, second.startLine());
+    assertTrue(second.text().startsWith("  @Error"));
+    assertTrue(second.text().endsWith("//EOF"));
+  }
+
+  @Test
+  void testTextToParseKeepsLineNumbers() {
+
+    final var blocks = underTest.apply(SOURCE).orElseThrow();
+    final var second = blocks.get(1);
+
+    final var textToParse = blocks.textToParse(second);
+    final var lines = textToParse.split("\n", -1);
+    assertEquals("  @Error: SYMBOL_DEFINITION: DUPLICATE_SYMBOL", lines[second.startLine() - 1]);
+    assertEquals("defines module split.blocks", lines[1]);
+  }
+
+  @Test
+  void testAlteredBlockDetected() {
+
+    final var before = underTest.apply(SOURCE).orElseThrow();
+    final var after = underTest.apply(SOURCE.replace("Integer: 2", "Integer: 22")).orElseThrow();
+
+    assertTrue(before.header().isSameContentAs(after.header()));
+    assertTrue(before.get(0).isSameContentAs(after.get(0)));
+    assertFalse(before.get(1).isSameContentAs(after.get(1)));
+  }
+
+  @Test
+  void testNoBlocks() {
+
+    assertTrue(underTest.apply("").isEmpty());
+    assertTrue(underTest.apply("#!ek9\ndefines module no.blocks\n").isEmpty());
+  }
+}
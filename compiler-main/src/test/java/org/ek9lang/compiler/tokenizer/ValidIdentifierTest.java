@@ -0,0 +1,68 @@
+package org.ek9lang.compiler.tokenizer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks names are only accepted when they could be used as an identifier in EK9 source.
+ */
+final class ValidIdentifierTest {
+
+  private final ValidIdentifier underTest = new ValidIdentifier();
+
+  @Test
+  void testValidIdentifiers() {
+
+    assertTrue(underTest.test("message"));
+    assertTrue(underTest.test("counter2"));
+    assertTrue(underTest.test("getGreeting"));
+  }
+
+  @Test
+  void testKeywordsAllowedAsIdentifiers() {
+
+    assertTrue(underTest.test("length"));
+  }
+
+  @Test
+  void testKeywordsRejected() {
+
+    assertFalse(underTest.test("if"));
+    assertFalse(underTest.test("defines"));
+    assertFalse(underTest.test("while"));
+  }
+
+  @Test
+  void testInvalidNamesRejected() {
+
+    assertFalse(underTest.test(null));
+    assertFalse(underTest.test(""));
+    assertFalse(underTest.test("  "));
+    assertFalse(underTest.test("a b"));
+    assertFalse(underTest.test("a.b"));
+    assertFalse(underTest.test("2abc"));
+    assertFalse(underTest.test("abc!"));
+  }
+
+  @Test
+  void testConstructNames() {
+
+    final var constructNames = ValidIdentifier.forConstructNames();
+    assertTrue(constructNames.test("Greeting"));
+    assertTrue(constructNames.test("HelloWorld2"));
+    assertTrue(constructNames.test("PI"));
+    assertTrue(underTest.test("Greeting"));
+  }
+
+  @Test
+  void testKeywordsRejectedAsConstructNames() {
+
+    final var constructNames = ValidIdentifier.forConstructNames();
+    assertFalse(constructNames.test("length"));
+    assertFalse(constructNames.test("PATH"));
+    assertFalse(constructNames.test("class"));
+    assertFalse(constructNames.test("Greeting!"));
+  }
+}
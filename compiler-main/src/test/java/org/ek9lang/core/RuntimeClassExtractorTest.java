@@ -16,7 +16,7 @@ import org.junit.jupiter.api.parallel.ResourceLock;
 
 /**
  * Test RuntimeClassExtractor JAR creation, checksum validation, and content verification.
- * Uses isolated test directories to avoid conflicts with other tests.
+ * Uses the stubbed home directory to avoid conflicts with other tests and the real shared runtime.
  */
 @Execution(SAME_THREAD)
 @ResourceLock(value = "file_access", mode = READ_WRITE)
@@ -24,35 +24,27 @@ final class RuntimeClassExtractorTest {
 
   private RuntimeClassExtractor underTest;
   private FileHandling fileHandling;
-  private File testProjectDir;
   private final String testVersion = "0.0.1-0";
 
   @BeforeEach
   void setup() {
     underTest = new RuntimeClassExtractor();
     fileHandling = new FileHandling(new OsSupport(true));
-
-    // Create isolated test directory
-    String tempDir = System.getProperty("java.io.tmpdir");
-    testProjectDir = new File(tempDir, "runtime-extractor-test-" + System.currentTimeMillis());
-    fileHandling.makeDirectoryIfNotExists(testProjectDir);
   }
 
   @AfterEach
   void cleanup() {
     // Clean up test artifacts
-    if (testProjectDir != null && testProjectDir.exists()) {
-      fileHandling.deleteContentsAndBelow(testProjectDir, true);
+    final var runtimeDir = fileHandling.getSharedRuntimeJarFile(testVersion).getParentFile();
+    if (runtimeDir.exists()) {
+      fileHandling.deleteContentsAndBelow(runtimeDir, true);
     }
   }
 
   @Test
   void testExtractRuntimeJar() {
     // Extract runtime JAR
-    var result = underTest.extractRuntimeJar(
-        fileHandling,
-        testProjectDir.getPath(),
-        testVersion);
+    var result = underTest.extractRuntimeJar(fileHandling, testVersion);
 
     // Verify JAR was created
     assertTrue(result.isPresent());
@@ -60,18 +52,28 @@ final class RuntimeClassExtractorTest {
     assertTrue(jarFile.exists());
     assertEquals("ek9-runtime-0.0.1-0.jar", jarFile.getName());
 
-    // Verify JAR is in correct location
+    // Verify JAR is in correct location, shared by all projects
+    assertEquals(fileHandling.getSharedRuntimeJarFile(testVersion), jarFile);
     assertTrue(jarFile.getPath().contains(".ek9"));
     assertTrue(jarFile.getPath().contains("runtime"));
   }
 
+  @Test
+  void testIndexOfRuntimeClasses() throws Exception {
+    final var indexFile = new File(fileHandling.getSharedRuntimeJarFile(testVersion).getParentFile(),
+        RuntimeClassExtractor.RUNTIME_INDEX);
+    RuntimeClassExtractor.main(new String[] {indexFile.getPath()});
+
+    final var resourceNames = java.nio.file.Files.readAllLines(indexFile.toPath());
+    assertTrue(resourceNames.contains("org/ek9/lang/String.class"));
+    assertTrue(resourceNames.contains("ek9/ProgramLauncher.class"));
+    assertEquals(resourceNames.stream().sorted().toList(), resourceNames);
+  }
+
   @Test
   void testChecksumCreated() {
     // Extract runtime JAR
-    var result = underTest.extractRuntimeJar(
-        fileHandling,
-        testProjectDir.getPath(),
-        testVersion);
+    var result = underTest.extractRuntimeJar(fileHandling, testVersion);
 
     assertTrue(result.isPresent());
     File jarFile = result.get();
@@ -87,10 +89,7 @@ final class RuntimeClassExtractorTest {
   @Test
   void testJarContainsOrgEk9LangClasses() throws Exception {
     // Extract runtime JAR
-    var result = underTest.extractRuntimeJar(
-        fileHandling,
-        testProjectDir.getPath(),
-        testVersion);
+    var result = underTest.extractRuntimeJar(fileHandling, testVersion);
 
     assertTrue(result.isPresent());
     File jarFile = result.get();
@@ -117,10 +116,7 @@ final class RuntimeClassExtractorTest {
   @Test
   void testJarContainsEk9PackageClasses() throws Exception {
     // Extract runtime JAR
-    var result = underTest.extractRuntimeJar(
-        fileHandling,
-        testProjectDir.getPath(),
-        testVersion);
+    var result = underTest.extractRuntimeJar(fileHandling, testVersion);
 
     assertTrue(result.isPresent());
     File jarFile = result.get();
@@ -136,10 +132,7 @@ final class RuntimeClassExtractorTest {
   @Test
   void testCachedJarReuse() throws InterruptedException {
     // First extraction
-    var result1 = underTest.extractRuntimeJar(
-        fileHandling,
-        testProjectDir.getPath(),
-        testVersion);
+    var result1 = underTest.extractRuntimeJar(fileHandling, testVersion);
     assertTrue(result1.isPresent());
     File jarFile1 = result1.get();
     long firstModified = jarFile1.lastModified();
@@ -148,10 +141,7 @@ final class RuntimeClassExtractorTest {
     Thread.sleep(100);
 
     // Second extraction (should reuse cached JAR)
-    var result2 = underTest.extractRuntimeJar(
-        fileHandling,
-        testProjectDir.getPath(),
-        testVersion);
+    var result2 = underTest.extractRuntimeJar(fileHandling, testVersion);
     assertTrue(result2.isPresent());
     File jarFile2 = result2.get();
 
@@ -163,10 +153,7 @@ final class RuntimeClassExtractorTest {
   @Test
   void testInvalidChecksumTriggersReExtraction() throws Exception {
     // First extraction
-    var result1 = underTest.extractRuntimeJar(
-        fileHandling,
-        testProjectDir.getPath(),
-        testVersion);
+    var result1 = underTest.extractRuntimeJar(fileHandling, testVersion);
     assertTrue(result1.isPresent());
     File jarFile = result1.get();
 
@@ -175,10 +162,7 @@ final class RuntimeClassExtractorTest {
     java.nio.file.Files.writeString(checksumFile.toPath(), "INVALID_CHECKSUM");
 
     // Second extraction should detect invalid checksum and re-extract
-    var result2 = underTest.extractRuntimeJar(
-        fileHandling,
-        testProjectDir.getPath(),
-        testVersion);
+    var result2 = underTest.extractRuntimeJar(fileHandling, testVersion);
     assertTrue(result2.isPresent());
 
     // Verify new checksum is valid
@@ -188,10 +172,7 @@ final class RuntimeClassExtractorTest {
 
   @Test
   void testInnerClassesIncluded() throws Exception {
-    var result = underTest.extractRuntimeJar(
-        fileHandling,
-        testProjectDir.getPath(),
-        testVersion);
+    var result = underTest.extractRuntimeJar(fileHandling, testVersion);
 
     assertTrue(result.isPresent());
 
@@ -0,0 +1,95 @@
+package org.ek9lang.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StreamingJarWriterTest {
+
+  private static final String MANIFEST = "Manifest-Version: 1.0\nMain-Class: ek9.Main\n";
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testEntriesSortedWithManifestFirst() throws IOException {
+    final var jarFile = directory.resolve("sorted.jar").toFile();
+    new StreamingJarWriter(true).write(jarFile, List.of(entriesInReverseOrder()), MANIFEST);
+
+    try (var jarStream = new JarInputStream(new FileInputStream(jarFile))) {
+      assertNotNull(jarStream.getManifest());
+      assertEquals("ek9.Main", jarStream.getManifest().getMainAttributes().getValue("Main-Class"));
+    }
+
+    try (var zip = new ZipFile(jarFile)) {
+      final var names = zip.stream().map(ZipEntry::getName).toList();
+      assertEquals(List.of("META-INF/", "META-INF/MANIFEST.MF", "a/", "a/b/", "a/b/Alpha.class", "z.txt"), names);
+      assertArrayEquals(repeated("alpha"), zip.getInputStream(zip.getEntry("a/b/Alpha.class")).readAllBytes());
+    }
+  }
+
+  @Test
+  void testReproducible() throws IOException {
+    final var first = directory.resolve("first.jar").toFile();
+    final var second = directory.resolve("second.jar").toFile();
+    new StreamingJarWriter(true).write(first, List.of(entriesInReverseOrder()), MANIFEST);
+    new StreamingJarWriter(true).write(second, List.of(entriesInReverseOrder()), MANIFEST);
+
+    assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+  }
+
+  @Test
+  void testStoreOnlyAndLaterSetsReplaceEntries() throws IOException {
+    final var jarFile = directory.resolve("stored.jar").toFile();
+    final var replacement =
+        new ZipSet(List.of(new ZipBinaryContent("z.txt", "replaced".getBytes(StandardCharsets.UTF_8))));
+    new StreamingJarWriter(false).write(jarFile, List.of(entriesInReverseOrder(), replacement), null);
+
+    try (var zip = new ZipFile(jarFile)) {
+      zip.stream().forEach(entry -> assertEquals(ZipEntry.STORED, entry.getMethod()));
+      assertEquals("replaced", new String(zip.getInputStream(zip.getEntry("z.txt")).readAllBytes(),
+          StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void testFileBasedSet() throws IOException {
+    final var classes = Files.createDirectories(directory.resolve("classes"));
+    final var source = Files.createDirectories(classes.resolve("ek9"));
+    Files.write(source.resolve("Main.class"), repeated("main"));
+
+    final var jarFile = directory.resolve("files.jar").toFile();
+    final var files = new ArrayList<File>();
+    files.add(source.resolve("Main.class").toFile());
+    new StreamingJarWriter(true).write(jarFile, List.of(new ZipSet(classes, files)), MANIFEST);
+
+    try (var zip = new ZipFile(jarFile)) {
+      assertArrayEquals(repeated("main"), zip.getInputStream(zip.getEntry("ek9/Main.class")).readAllBytes());
+      assertEquals(ZipEntry.DEFLATED, zip.getEntry("ek9/Main.class").getMethod());
+    }
+  }
+
+  private ZipSet entriesInReverseOrder() {
+    return new ZipSet(List.of(
+        new ZipBinaryContent("z.txt", "zed".getBytes(StandardCharsets.UTF_8)),
+        new ZipBinaryContent("a/b/Alpha.class", repeated("alpha"))));
+  }
+
+  private byte[] repeated(final String value) {
+    return value.repeat(100).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,76 @@
+package org.ek9lang.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks only diagnostics that have changed are sent to the client.
+ */
+final class DiagnosticsPublisherTest {
+
+  private static final String URI = "file:///workspace/example.ek9";
+
+  private final List<PublishDiagnosticsParams> sent = new ArrayList<>();
+  private final DiagnosticsPublisher underTest = new DiagnosticsPublisher(sent::add);
+
+  @Test
+  void testNoDiagnosticsNotSentInitially() {
+
+    underTest.publish(List.of(diagnostics(URI)));
+    assertTrue(sent.isEmpty());
+  }
+
+  @Test
+  void testOnlyChangedDiagnosticsSent() {
+
+    underTest.publish(List.of(diagnostics(URI, "Odd number of spaces for indentation")));
+    underTest.publish(List.of(diagnostics(URI, "Odd number of spaces for indentation")));
+    assertEquals(1, sent.size());
+
+    underTest.publish(List.of(diagnostics(URI, "not resolved")));
+    assertEquals(2, sent.size());
+
+    underTest.publish(List.of(diagnostics(URI)));
+    underTest.publish(List.of(diagnostics(URI)));
+    assertEquals(3, sent.size());
+    assertTrue(sent.getLast().getDiagnostics().isEmpty());
+  }
+
+  @Test
+  void testDiagnosticsWithSameHashStillSent() {
+
+    //The messages have the same hash code, but are different diagnostics.
+    underTest.publish(List.of(diagnostics(URI, "Aa")));
+    underTest.publish(List.of(diagnostics(URI, "BB")));
+    assertEquals(2, sent.size());
+    assertEquals("BB", sent.getLast().getDiagnostics().getFirst().getMessage());
+  }
+
+  @Test
+  void testOnlyLastInBurstSent() {
+
+    underTest.publish(List.of(diagnostics(URI, "first"), diagnostics(URI, "second")));
+    assertEquals(1, sent.size());
+    assertEquals("second", sent.getFirst().getDiagnostics().getFirst().getMessage());
+  }
+
+  private PublishDiagnosticsParams diagnostics(final String uri, final String... messages) {
+
+    final List<Diagnostic> diagnostics = new ArrayList<>();
+    for (var message : messages) {
+      final var range = new Range(new Position(1, 2), new Position(1, 4));
+      diagnostics.add(new Diagnostic(range, message, DiagnosticSeverity.Error, "ek9"));
+    }
+
+    return new PublishDiagnosticsParams(uri, diagnostics);
+  }
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.api.parallel.ExecutionMode.SAME_THREAD;
@@ -15,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -30,6 +32,7 @@ import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.FileChangeType;
 import org.eclipse.lsp4j.FileEvent;
+import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.HoverParams;
 import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.MessageActionItem;
@@ -43,6 +46,8 @@ import org.eclipse.lsp4j.TextDocumentItem;
 import org.eclipse.lsp4j.WorkspaceFolder;
 import org.eclipse.lsp4j.services.LanguageClient;
 import org.ek9lang.cli.SourceFileSupport;
+import org.ek9lang.compiler.CompilableSource;
+import org.ek9lang.compiler.tokenizer.Ek9Token;
 import org.ek9lang.core.FileHandling;
 import org.ek9lang.core.OsSupport;
 import org.junit.jupiter.api.AfterEach;
@@ -88,6 +93,8 @@ final class Ek9LanguageServerTest {
     SimulatedLspClient client = new SimulatedLspClient();
     languageServer.connect(client);
     languageServer.initialize(initParameters.get());
+    //Compilation takes place in the background.
+    languageServer.getCompilerService().awaitCompilation();
     return client;
   };
 
@@ -194,6 +201,22 @@ final class Ek9LanguageServerTest {
     languageServer.shutdown();
   }
 
+  @Test
+  void testNoSymbolsLocatedBeforeCompilation() {
+    var sourceFile = sourceFileSupport.copyFileToTestCWD(RELATIVE_PATH_TO_VALID_SOURCE, VALID_SOURCE);
+
+    //Not initialized, so nothing has been compiled yet.
+    Ek9LanguageServer languageServer = new Ek9LanguageServer(osSupport);
+    var compilerService = languageServer.getCompilerService();
+    var source = new CompilableSource(sourceFile.getParent(), sourceFile.getPath());
+    var token = new Ek9Token("value", 15, sourceFile.getPath());
+
+    assertTrue(compilerService.locateSymbol(source, token).isEmpty());
+    assertTrue(compilerService.locateDeclarations(source, token).isEmpty());
+    assertTrue(compilerService.locateReferences(source, token, true).isEmpty());
+    languageServer.shutdown();
+  }
+
   @ParameterizedTest(name = "{0}")
   @MethodSource("hoverEdgeCases")
   void testHoverEdgeCases(String description, String fileUriOverride, int line, int col) {
@@ -259,6 +282,52 @@ final class Ek9LanguageServerTest {
     languageServer.shutdown();
   }
 
+  @Test
+  void testHoverWhileCompilationInProgress() throws Exception {
+    var sourceFile = sourceFileSupport.copyFileToTestCWD(RELATIVE_PATH_TO_VALID_SOURCE, VALID_SOURCE);
+
+    //With no budget, the detail of the source is released after compilation (as it is not open).
+    Ek9LanguageServer languageServer = new Ek9LanguageServer(osSupport);
+    languageServer.getCompilerConfig().setSourceDetailTokenBudget(0);
+    SimulatedLspClient client = prepareLanguageServer.apply(languageServer);
+    assertNoErrors(client);
+
+    var source = languageServer.getWorkspaceService().getEk9WorkSpace().getSources().iterator().next();
+    assertTrue(source.isParseTreeReleased());
+
+    //Hold the compile thread, as a long compilation would.
+    var compiling = new CountDownLatch(1);
+    var completeCompilation = new CountDownLatch(1);
+    var compilerService = languageServer.getCompilerService();
+    compilerService.onCompileThread(() -> {
+      compiling.countDown();
+      try {
+        completeCompilation.await();
+      } catch (InterruptedException _) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertTrue(compiling.await(10, TimeUnit.SECONDS));
+
+    final Supplier<Hover> hover = () -> languageServer.getTextDocumentService()
+        .hover(new HoverParams(new TextDocumentIdentifier(sourceFile.toURI().toString()), new Position(15, 4)))
+        .orTimeout(10, TimeUnit.SECONDS)
+        .join();
+
+    //Answered while the compilation is still in progress, but without the detail of the source there is nothing.
+    assertNull(hover.get());
+    assertTrue(source.isParseTreeReleased());
+
+    //Once the compilation completes the detail is rebuilt, so (now within budget) is available to later requests.
+    languageServer.getCompilerConfig().setSourceDetailTokenBudget(Long.MAX_VALUE);
+    completeCompilation.countDown();
+    compilerService.awaitCompilation();
+    assertFalse(source.isParseTreeReleased());
+    assertNotNull(hover.get());
+
+    languageServer.shutdown();
+  }
+
   @Test
   void testLargeFileHoverPerformance() throws Exception {
     // Test hover performance on a large file (1238 lines)
@@ -343,12 +412,14 @@ final class Ek9LanguageServerTest {
     //Now we wish to simulate a change to that file.
     languageServer.getWorkspaceService()
         .didChangeWatchedFiles(prepareChangedFile.apply(theSourceFile, FileChangeType.Changed));
+    languageServer.getCompilerService().awaitCompilation();
     //We would still expect no errors, as no real change has taken place.
     assertNoErrors(client);
 
     //Now simulate a deletion
     languageServer.getWorkspaceService()
         .didChangeWatchedFiles(prepareChangedFile.apply(theSourceFile, FileChangeType.Deleted));
+    languageServer.getCompilerService().awaitCompilation();
 
     languageServer.shutdown();
   }
@@ -398,6 +469,7 @@ final class Ek9LanguageServerTest {
     actualContent.ifPresent(fileContent -> {
       var textDocumentItem = new TextDocumentItem(file.toURI().toString(), "ek9", 1, fileContent);
       textDocService.didOpen(new DidOpenTextDocumentParams(textDocumentItem));
+      languageServer.getCompilerService().awaitCompilation();
       assertOddNumberOfSpacesError(client);
 
     });
@@ -0,0 +1,63 @@
+package org.ek9lang.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.ek9lang.lsp.LanguageRequestExecutor.Priority;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks interactive requests are taken before navigation requests and queue times are recorded.
+ */
+final class LanguageRequestExecutorTest {
+
+  @Test
+  void testInteractiveRequestsTakenFirst() throws InterruptedException {
+
+    final var underTest = new LanguageRequestExecutor();
+    final var releaseFirst = new CountDownLatch(1);
+    final var releaseSecond = new CountDownLatch(1);
+    final var started = new CountDownLatch(2);
+    final List<String> order = new CopyOnWriteArrayList<>();
+
+    try {
+      //Occupy all the threads, so the following requests are queued.
+      for (var release : List.of(releaseFirst, releaseSecond)) {
+        underTest.supply(Priority.NAVIGATION, () -> {
+          started.countDown();
+          awaitQuietly(release);
+          return "blocking";
+        });
+      }
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      final var navigation = underTest.supply(Priority.NAVIGATION, () -> order.add("navigation"));
+      underTest.supply(Priority.INTERACTIVE, () -> order.add("interactive"));
+      final var cancelled = underTest.supply(Priority.INTERACTIVE, () -> order.add("cancelled"));
+      cancelled.cancel(true);
+
+      //Just one thread is freed, so it takes the queued requests in priority order.
+      releaseFirst.countDown();
+      navigation.join();
+
+      assertEquals(List.of("interactive", "navigation"), order);
+      assertEquals(2, underTest.getQueueTimeStatistics(Priority.INTERACTIVE).count());
+      assertEquals(3, underTest.getQueueTimeStatistics(Priority.NAVIGATION).count());
+    } finally {
+      releaseSecond.countDown();
+      underTest.shutdown();
+    }
+  }
+
+  private static void awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException _) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package org.ek9lang.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks open sources are retained and the least recently used are released first.
+ */
+final class SourceDetailRetentionTest {
+
+  private final Map<String, Integer> tokensByFileName = Map.of(
+      "a.ek9", 100,
+      "b.ek9", 100,
+      "c.ek9", 100,
+      "d.ek9", 100);
+
+  @Test
+  void testNothingReleasedWithinBudget() {
+
+    final var underTest = new SourceDetailRetention();
+    assertTrue(underTest.selectForRelease(tokensByFileName, 400).isEmpty());
+  }
+
+  @Test
+  void testUnusedReleasedBeforeUsed() {
+
+    final var underTest = new SourceDetailRetention();
+    underTest.used("a.ek9");
+    underTest.used("b.ek9");
+
+    assertEquals(List.of("c.ek9", "d.ek9"), underTest.selectForRelease(tokensByFileName, 200));
+  }
+
+  @Test
+  void testLeastRecentlyUsedReleasedFirst() {
+
+    final var underTest = new SourceDetailRetention();
+    underTest.used("a.ek9");
+    underTest.used("b.ek9");
+    underTest.used("c.ek9");
+    underTest.used("d.ek9");
+    underTest.used("a.ek9");
+
+    assertEquals(List.of("b.ek9", "c.ek9"), underTest.selectForRelease(tokensByFileName, 200));
+  }
+
+  @Test
+  void testOpenSourcesRetained() {
+
+    final var underTest = new SourceDetailRetention();
+    underTest.opened("a.ek9");
+    underTest.opened("b.ek9");
+
+    assertEquals(List.of("c.ek9", "d.ek9"), underTest.selectForRelease(tokensByFileName, 0));
+
+    underTest.closed("b.ek9");
+    assertEquals(List.of("c.ek9", "d.ek9", "b.ek9"), underTest.selectForRelease(tokensByFileName, 0));
+  }
+}
@@ -0,0 +1,105 @@
+package org.ek9lang.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.CompilationPhase;
+import org.ek9lang.compiler.SymbolUse;
+import org.ek9lang.compiler.common.PhasesTest;
+import org.ek9lang.compiler.symbols.ISymbol;
+import org.ek9lang.compiler.symbols.VariableSymbol;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the uses of symbols recorded when compiling a source are indexed by the symbol they refer to.
+ */
+final class SymbolReferenceIndexTest extends PhasesTest {
+
+  SymbolReferenceIndexTest() {
+    super("/examples/lsp/");
+  }
+
+  @Override
+  protected boolean recordSymbolUses() {
+    return true;
+  }
+
+  @Test
+  void testSymbolReferences() {
+    testToPhase(CompilationPhase.PRE_IR_CHECKS);
+  }
+
+  @Override
+  protected void assertFinalResults(final boolean compilationResult,
+                                    final int numberOfErrors,
+                                    final CompilableProgram program) {
+
+    assertTrue(compilationResult);
+
+    final var module = program.getParsedModules("com.customer.lsp.hoversymboltest").getFirst();
+    final var fileName = module.getSource().getFileName();
+    final var getGreeting = module.getModuleScope().getSymbolsForThisScope().stream()
+        .filter(symbol -> symbol.getName().equals("getGreeting"))
+        .findFirst()
+        .orElseThrow();
+
+    final var underTest = new SymbolReferenceIndex();
+    assertTrue(underTest.findUses(getGreeting).isEmpty());
+
+    //Only the call is a use, the declaration is not.
+    underTest.update(module);
+    assertUseOnLine(14, underTest.findUses(getGreeting), fileName);
+
+    //Updating with the same module again replaces the uses, rather than adding to them.
+    underTest.update(module);
+    assertUseOnLine(14, underTest.findUses(getGreeting), fileName);
+
+    underTest.remove(fileName);
+    assertTrue(underTest.findUses(getGreeting).isEmpty());
+
+    underTest.update(module);
+    underTest.clear();
+    assertTrue(underTest.findUses(getGreeting).isEmpty());
+
+    //A symbol not declared in source has no uses.
+    final ISymbol notInSource = new VariableSymbol("getGreeting");
+    underTest.update(module);
+    assertTrue(underTest.findUses(notInSource).isEmpty());
+
+    //The receivers of method calls are uses, as well as the arguments.
+    final var stdout = declared(module.getSymbolUses(), "stdout");
+    assertEquals(List.of(15, 18), lines(underTest.findUses(stdout)));
+    assertEquals(List.of(6, 6), underTest.findUses(stdout).stream()
+        .map(WorkspaceSymbolIndex.Entry::charPositionInLine).toList());
+    assertEquals(List.of(15), lines(underTest.findUses(declared(module.getSymbolUses(), "message"))));
+  }
+
+  private ISymbol declared(final Collection<SymbolUse> uses, final String name) {
+
+    return uses.stream()
+        .filter(SymbolUse::isDeclaration)
+        .map(SymbolUse::symbol)
+        .filter(symbol -> symbol.getName().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private List<Integer> lines(final List<WorkspaceSymbolIndex.Entry> uses) {
+
+    return uses.stream().map(WorkspaceSymbolIndex.Entry::line).toList();
+  }
+
+  private void assertUseOnLine(final int expectedLine,
+                               final List<WorkspaceSymbolIndex.Entry> uses,
+                               final String expectedFileName) {
+
+    assertEquals(1, uses.size());
+    final var use = uses.getFirst();
+    assertEquals("getGreeting", use.name());
+    assertEquals(expectedFileName, use.fileName());
+    assertEquals(expectedLine, use.line());
+  }
+}
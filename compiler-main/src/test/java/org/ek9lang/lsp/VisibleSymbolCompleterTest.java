@@ -0,0 +1,81 @@
+package org.ek9lang.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.CompilableSource;
+import org.ek9lang.compiler.CompilationPhase;
+import org.ek9lang.compiler.common.PhasesTest;
+import org.ek9lang.compiler.symbols.ISymbol;
+import org.ek9lang.compiler.tokenizer.Ek9Token;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the symbols offered for completion are those visible at the position in the source.
+ */
+final class VisibleSymbolCompleterTest extends PhasesTest {
+
+  private final VisibleSymbolCompleter underTest = new VisibleSymbolCompleter();
+
+  VisibleSymbolCompleterTest() {
+    super("/examples/lsp/");
+  }
+
+  @Test
+  void testVisibleSymbols() {
+    testToPhase(CompilationPhase.PRE_IR_CHECKS);
+  }
+
+  @Override
+  protected void assertFinalResults(final boolean compilationResult,
+                                    final int numberOfErrors,
+                                    final CompilableProgram program) {
+
+    assertTrue(compilationResult);
+
+    final var source = program.getParsedModules("com.customer.lsp.nestedscopes").getFirst().getSource();
+
+    //Within the block of the 'if' in 'outer', the local variable, the parameter and the module constructs.
+    assertTrue(complete(program, source, 11, 8, "in", 10).contains("inner"));
+    assertTrue(complete(program, source, 11, 8, "ar", 10).contains("arg"));
+    assertTrue(complete(program, source, 11, 8, "out", 10).contains("outer"));
+    assertTrue(complete(program, source, 11, 8, "Cou", 10).contains("Counter"));
+
+    //Within the method of 'Counter', its property and method but not the variables of 'outer'.
+    final var inMethod = complete(program, source, 20, 8, "in", 10);
+    assertTrue(inMethod.contains("increment"));
+    assertFalse(inMethod.contains("inner"));
+    assertTrue(complete(program, source, 20, 8, "co", 10).contains("count"));
+    assertFalse(complete(program, source, 20, 8, "ar", 10).contains("arg"));
+
+    //Beyond the end of the source only the module constructs are visible.
+    final var atEnd = complete(program, source, 100, 0, "", 50);
+    assertTrue(atEnd.contains("outer"));
+    assertTrue(atEnd.contains("Counter"));
+    assertFalse(atEnd.contains("inner"));
+    assertFalse(atEnd.contains("count"));
+
+    //Each name is only offered once and no more than the limit.
+    final var limited = complete(program, source, 11, 8, "", 3);
+    assertEquals(3, limited.size());
+    assertEquals(limited.size(), limited.stream().distinct().count());
+    assertTrue(complete(program, source, 11, 8, "", 0).isEmpty());
+  }
+
+  private List<String> complete(final CompilableProgram program,
+                                final CompilableSource source,
+                                final int line,
+                                final int charPositionInLine,
+                                final String prefix,
+                                final int limit) {
+
+    final var token = new Ek9Token(0, prefix, line, source.getFileName(), charPositionInLine, 0);
+
+    return underTest.complete(program, source, token, prefix, limit).stream()
+        .map(ISymbol::getName)
+        .toList();
+  }
+}
@@ -0,0 +1,202 @@
+package org.ek9lang.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.ek9lang.compiler.CompilableProgram;
+import org.ek9lang.compiler.CompilableSource;
+import org.ek9lang.compiler.ParsedModule;
+import org.ek9lang.compiler.symbols.AggregateSymbol;
+import org.ek9lang.compiler.symbols.FunctionSymbol;
+import org.ek9lang.compiler.symbols.ISymbol;
+import org.ek9lang.compiler.symbols.MethodSymbol;
+import org.ek9lang.compiler.symbols.SymbolCategory;
+import org.ek9lang.compiler.tokenizer.Ek9Token;
+import org.ek9lang.core.SharedThreadContext;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks constructs are indexed per source and can be found by name, fully qualified name and search.
+ */
+final class WorkspaceSymbolIndexTest {
+
+  private static final String BASE_DIRECTORY = "/workspace";
+  private static final String FIRST_FILE = "/workspace/first.ek9";
+  private static final String SECOND_FILE = "/workspace/second.ek9";
+  private static final String MODULE_SOURCE = """
+      #!ek9
+      defines module index.test
+
+      //EOF""";
+
+  private final SharedThreadContext<CompilableProgram> program =
+      new SharedThreadContext<>(new CompilableProgram());
+
+  @Test
+  void testFindByFullyQualifiedName() {
+
+    final var underTest = new WorkspaceSymbolIndex();
+    underTest.update(parsedModule(FIRST_FILE, "getGreeting", "Customer"));
+
+    final var found = underTest.findByFullyQualifiedName("index.test::getGreeting");
+    assertEquals(1, found.size());
+    assertEquals("getGreeting", found.getFirst().name());
+    assertEquals(SymbolCategory.FUNCTION, found.getFirst().category());
+    assertEquals(FIRST_FILE, found.getFirst().fileName());
+    assertEquals(1, found.getFirst().line());
+
+    assertTrue(underTest.findByFullyQualifiedName("index.test::notDefined").isEmpty());
+  }
+
+  @Test
+  void testMembersOfTypesIndexed() {
+
+    final var underTest = new WorkspaceSymbolIndex();
+    underTest.update(parsedModule(FIRST_FILE, "getGreeting", "Customer"));
+
+    final var found = underTest.search("customerName", 10);
+    assertEquals(1, found.size());
+    assertEquals(SymbolCategory.METHOD, found.getFirst().category());
+    assertEquals("Customer", found.getFirst().container());
+  }
+
+  @Test
+  void testShortQueriesMatchByPrefix() {
+
+    final var underTest = new WorkspaceSymbolIndex();
+    underTest.update(parsedModule(FIRST_FILE, "getGreeting", "Customer"));
+    underTest.update(parsedModule(SECOND_FILE, "getName", "Order"));
+
+    assertEquals(List.of("getGreeting", "getName"), names(underTest.search("ge", 10)));
+    assertEquals(List.of("Customer", "customerName"), names(underTest.search("c", 10)));
+    assertEquals(List.of("Order", "orderName"), names(underTest.search("O", 10)));
+
+    //Short queries only match at the start of a name.
+    assertTrue(underTest.search("ee", 10).isEmpty());
+  }
+
+  @Test
+  void testLongerQueriesMatchAnywhereInName() {
+
+    final var underTest = new WorkspaceSymbolIndex();
+    underTest.update(parsedModule(FIRST_FILE, "getGreeting", "Customer"));
+    underTest.update(parsedModule(SECOND_FILE, "getName", "Order"));
+
+    assertEquals(List.of("getGreeting"), names(underTest.search("GREET", 10)));
+    assertEquals(List.of("customerName", "getName", "orderName"), names(underTest.search("name", 10)));
+    assertEquals(List.of("Customer", "customerName"), names(underTest.search("stom", 10)));
+
+    //All the trigrams are in 'customerName', but not together.
+    assertTrue(underTest.search("namer", 10).isEmpty());
+    assertTrue(underTest.search("xyz", 10).isEmpty());
+  }
+
+  @Test
+  void testSearchLimited() {
+
+    final var underTest = new WorkspaceSymbolIndex();
+    underTest.update(parsedModule(FIRST_FILE, "getGreeting", "Customer"));
+    underTest.update(parsedModule(SECOND_FILE, "getName", "Order"));
+
+    assertEquals(List.of("getGreeting"), names(underTest.search("g", 1)));
+    assertEquals(List.of("customerName"), names(underTest.search("name", 1)));
+  }
+
+  @Test
+  void testUpdateReplacesSymbolsOfSource() {
+
+    final var underTest = new WorkspaceSymbolIndex();
+    underTest.update(parsedModule(FIRST_FILE, "getGreeting", "Customer"));
+    underTest.update(parsedModule(SECOND_FILE, "getName", "Order"));
+
+    underTest.update(parsedModule(FIRST_FILE, "getWelcome", "Client"));
+
+    assertTrue(underTest.search("greeting", 10).isEmpty());
+    assertTrue(underTest.search("cu", 10).isEmpty());
+    assertTrue(underTest.findByFullyQualifiedName("index.test::getGreeting").isEmpty());
+    assertEquals(List.of("getName", "getWelcome"), names(underTest.search("get", 10)));
+
+    //The other source is unaffected.
+    assertEquals(List.of("Order", "orderName"), names(underTest.search("order", 10)));
+  }
+
+  @Test
+  void testRemoveSource() {
+
+    final var underTest = new WorkspaceSymbolIndex();
+    underTest.update(parsedModule(FIRST_FILE, "getGreeting", "Customer"));
+    underTest.update(parsedModule(SECOND_FILE, "getName", "Order"));
+
+    underTest.remove(FIRST_FILE);
+    assertEquals(List.of("getName"), names(underTest.search("get", 10)));
+    assertTrue(underTest.findByFullyQualifiedName("index.test::Customer").isEmpty());
+
+    //Removing a source not indexed has no effect.
+    underTest.remove("/workspace/notIndexed.ek9");
+    assertEquals(List.of("getName"), names(underTest.search("g", 10)));
+
+    underTest.clear();
+    assertTrue(underTest.search("get", 10).isEmpty());
+    assertTrue(underTest.search("g", 10).isEmpty());
+  }
+
+  @Test
+  void testOnlySymbolsDeclaredInSourceIndexed() {
+
+    final var underTest = new WorkspaceSymbolIndex();
+    final var parsedModule = parsedModule(FIRST_FILE, "getGreeting", "Customer");
+    final var scope = parsedModule.getModuleScope();
+    scope.define(function("_synthetic", FIRST_FILE, 10, parsedModule));
+    scope.define(function("fromElsewhere", SECOND_FILE, 11, parsedModule));
+    scope.define(new FunctionSymbol("noToken", scope));
+
+    underTest.update(parsedModule);
+
+    assertTrue(underTest.search("synthetic", 10).isEmpty());
+    assertTrue(underTest.search("elsewhere", 10).isEmpty());
+    assertTrue(underTest.search("notoken", 10).isEmpty());
+  }
+
+  private List<String> names(final List<WorkspaceSymbolIndex.Entry> entries) {
+
+    return entries.stream().map(WorkspaceSymbolIndex.Entry::name).toList();
+  }
+
+  /**
+   * A parsed module for the file, that defines a function and a type with a single method.
+   */
+  private ParsedModule parsedModule(final String fileName, final String functionName, final String typeName) {
+
+    final var source = new CompilableSource(BASE_DIRECTORY, fileName,
+        new ByteArrayInputStream(MODULE_SOURCE.getBytes(StandardCharsets.UTF_8)));
+    final var rtn = new ParsedModule(source, program);
+    final var scope = rtn.acceptCompilationUnitContext(source.prepareToParse().parse());
+
+    scope.define(function(functionName, fileName, 1, rtn));
+
+    final var type = new AggregateSymbol(typeName, scope);
+    type.setSourceToken(new Ek9Token(typeName, 2, fileName));
+    type.setParsedModule(Optional.of(rtn));
+    final var method = new MethodSymbol(typeName.toLowerCase(Locale.ROOT) + "Name", type);
+    method.setSourceToken(new Ek9Token(method.getName(), 3, fileName));
+    type.define(method);
+    scope.define(type);
+
+    return rtn;
+  }
+
+  private ISymbol function(final String name, final String fileName, final int line,
+                           final ParsedModule parsedModule) {
+
+    final var rtn = new FunctionSymbol(name, parsedModule.getModuleScope());
+    rtn.setSourceToken(new Ek9Token(name, line, fileName));
+    rtn.setParsedModule(Optional.of(parsedModule));
+
+    return rtn;
+  }
+}
@@ -6,6 +6,8 @@
 #include <sys/types.h>
 #include <sys/stat.h>
 #include <sys/wait.h>
+#include <sys/socket.h>
+#include <sys/un.h>
 #include <limits.h>
 #include <unistd.h>
 
@@ -22,6 +24,10 @@
 #endif
 
 #define MAX_PATH_LENGTH 1024
+#define OUTPUT_BUFFER_SIZE 4096
+#define NO_DAEMON -1
+
+extern char **environ;
 
 /*
  * EK9 Compiler Wrapper
@@ -34,11 +40,15 @@
  * Environment Variables:
  * - EK9_HOME: Directory containing EK9 compiler JAR (optional)
  * - EK9_COMPILER_MEMORY: JVM memory flags for compiler (default: -Xmx512m)
+ * - EK9_DAEMON_SOCKET: Socket of a compiler daemon (default: $HOME/.ek9/daemon.sock)
  *
  * The wrapper:
  * - Finds the compiler JAR (using EK9_HOME or relative path)
+ * - If a compiler daemon (ek9 -ds) is running, forwards the command to it over a unix domain socket
+ *   and then handles the exit code as below; this avoids starting a JVM for each command
  * - Checks Java version (requires Java 25+)
- * - Invokes: java <EK9_COMPILER_MEMORY> -jar <jar> <user-args>
+ * - Invokes: java <EK9_COMPILER_MEMORY> [-XX:SharedArchiveFile=<jsa>] -jar <jar> <user-args>
+ *   (the class data sharing archive next to the jar is used, if one has been trained with ek9 -Xcds)
  * - Handles exit codes:
  *   - 0: Execute command from stdout (run compiled program)
  *   - 1-7: Pass through (compiler success/errors)
@@ -142,6 +152,33 @@ char* wrapInQuotes(const char* str)
     return quoted;
 }
 
+/*
+The JVM flag to use the class data sharing archive trained for the JAR (ek9c.jar has ek9c.jsa).
+Returns NULL if no archive has been trained, otherwise a new string that must be freed by caller.
+*/
+char* classDataSharingFlag(const char *jarPath)
+{
+    const char *prefix = "-XX:SharedArchiveFile=";
+    size_t len = strlen(jarPath);
+
+    if(len < 4 || strcmp(jarPath + len - 4, ".jar") != 0)
+        return NULL;
+
+    char *flag = malloc(strlen(prefix) + len + 1);
+    if(flag == NULL)
+        return NULL;
+
+    sprintf(flag, "%s%.*s.jsa", prefix, (int)(len - 4), jarPath);
+
+    if(access(flag + strlen(prefix), R_OK) != 0)
+    {
+        free(flag);
+        return NULL;
+    }
+
+    return flag;
+}
+
 /*
 Build argv array for execvp - bypasses shell parsing entirely.
 Arguments containing spaces are wrapped in single quotes for Java CLI parsing.
@@ -157,18 +194,26 @@ char** buildJavaArgv(int argc, char *argv[], char *jarPath, int *newArgc, char *
         memoryFlag = "-Xmx512m";
     }
 
-    // argv: [java, memoryFlag, -jar, jarPath, user_arg1, user_arg2, ..., NULL]
-    // Count: 1 (java) + 1 (memory) + 1 (-jar) + 1 (jarPath) + (argc-1) user args + 1 (NULL)
-    *newArgc = argc + 4;
+    // Use the class data sharing archive if one has been trained (ek9 -Xcds)
+    char *sharedArchiveFlag = classDataSharingFlag(jarPath);
+    int cdsFlags = sharedArchiveFlag != NULL ? 2 : 0;
+
+    // argv: [java, memoryFlag, (sharedArchive, logOff), -jar, jarPath, user_arg1, user_arg2, ..., NULL]
+    // Count: 1 (java) + 1 (memory) + cdsFlags + 1 (-jar) + 1 (jarPath) + (argc-1) user args + 1 (NULL)
+    *newArgc = argc + 4 + cdsFlags;
     char **javaArgv = malloc((*newArgc + 1) * sizeof(char*));
 
     if(javaArgv == NULL)
+    {
+        free(sharedArchiveFlag);
         return NULL;
+    }
 
     // Allocate flags array to track which strings need freeing
     *allocatedFlags = malloc(*newArgc * sizeof(char));
     if(*allocatedFlags == NULL)
     {
+        free(sharedArchiveFlag);
         free(javaArgv);
         return NULL;
     }
@@ -176,13 +221,19 @@ char** buildJavaArgv(int argc, char *argv[], char *jarPath, int *newArgc, char *
 
     javaArgv[0] = "java";
     javaArgv[1] = (char*)memoryFlag;  // Memory flag from env or default
-    javaArgv[2] = "-jar";
-    javaArgv[3] = jarPath;
+    if(sharedArchiveFlag != NULL)
+    {
+        javaArgv[2] = sharedArchiveFlag;
+        (*allocatedFlags)[2] = 1;
+        javaArgv[3] = "-Xlog:cds=off";  // An archive from another JVM or JAR is just not used
+    }
+    javaArgv[2 + cdsFlags] = "-jar";
+    javaArgv[3 + cdsFlags] = jarPath;
 
     // Process user arguments (argv[1..argc-1])
     for(int i = 1; i < argc; i++)
     {
-        int targetIndex = i + 3;  // Offset increased by 1 due to memory flag
+        int targetIndex = i + 3 + cdsFlags;  // Offset increased by 1 due to memory flag
 
         if(containsSpaces(argv[i]))
         {
@@ -381,6 +432,268 @@ int findCompilerJar(char *jarPath, size_t jarPathSize, int *usedEk9Home)
     return(0);
 }
 
+/*
+Locate the socket of the compiler daemon, the daemon uses the same logic (see org.ek9lang.cli.Ek9Daemon).
+*/
+int daemonSocketPath(char *socketPath, size_t socketPathSize)
+{
+    const char *fromEnvironment = getenv("EK9_DAEMON_SOCKET");
+    if(fromEnvironment != NULL && fromEnvironment[0] != '\0')
+    {
+        return snprintf(socketPath, socketPathSize, "%s", fromEnvironment) < (int)socketPathSize ? 0 : 1;
+    }
+
+    const char *home = getenv("HOME");
+    if(home == NULL || home[0] == '\0')
+        return 1;
+
+    return snprintf(socketPath, socketPathSize, "%s/.ek9/daemon.sock", home) < (int)socketPathSize ? 0 : 1;
+}
+
+/*
+Write all the bytes to the socket, returns 0 on success.
+*/
+int writeFully(int fd, const void *bytes, size_t length)
+{
+    const char *pos = bytes;
+    while(length > 0)
+    {
+        ssize_t written = write(fd, pos, length);
+        if(written <= 0)
+            return 1;
+        pos += written;
+        length -= (size_t)written;
+    }
+    return 0;
+}
+
+/*
+Read exactly length bytes from the socket, returns 0 on success.
+*/
+int readFully(int fd, void *bytes, size_t length)
+{
+    char *pos = bytes;
+    while(length > 0)
+    {
+        ssize_t bytesRead = read(fd, pos, length);
+        if(bytesRead <= 0)
+            return 1;
+        pos += bytesRead;
+        length -= (size_t)bytesRead;
+    }
+    return 0;
+}
+
+/*
+Strings in a daemon request are nul terminated.
+*/
+int writeString(int fd, const char *str)
+{
+    return writeFully(fd, str, strlen(str) + 1);
+}
+
+int writeNumber(int fd, int number)
+{
+    char buffer[32];
+    snprintf(buffer, sizeof(buffer), "%d", number);
+    return writeString(fd, buffer);
+}
+
+/*
+Run the command via the compiler daemon, if one is running from the same JAR.
+Request: jar path, working directory, argument count, arguments, environment count, environment (name=value).
+Response: frames of a type byte, a big endian length and then that many bytes.
+ 'O' stdout - captured (like the compiler process stdout) in outputBuffer
+ 'E' stderr - just written to stderr
+ 'X' exit code - a big endian int
+ 'R' refused - the daemon is not running from this JAR
+Returns NO_DAEMON if the command could not be run by a daemon, otherwise the compiler exit code.
+*/
+int runViaDaemon(int argc, char *argv[], const char *jarPath, char *outputBuffer, ssize_t *bytesRead)
+{
+    char socketPath[sizeof(((struct sockaddr_un *)0)->sun_path)];
+    char canonicalJarPath[PATH_MAX];
+    char workingDirectory[PATH_MAX];
+
+    if(daemonSocketPath(socketPath, sizeof(socketPath)) != 0 || access(socketPath, F_OK) != 0)
+        return NO_DAEMON;
+
+    if(realpath(jarPath, canonicalJarPath) == NULL || getcwd(workingDirectory, sizeof(workingDirectory)) == NULL)
+        return NO_DAEMON;
+
+    int fd = socket(AF_UNIX, SOCK_STREAM, 0);
+    if(fd < 0)
+        return NO_DAEMON;
+
+    struct sockaddr_un address;
+    memset(&address, 0, sizeof(address));
+    address.sun_family = AF_UNIX;
+    strcpy(address.sun_path, socketPath);
+
+    if(connect(fd, (struct sockaddr *)&address, sizeof(address)) != 0)
+    {
+        // Socket left behind by a daemon that is no longer running
+        close(fd);
+        return NO_DAEMON;
+    }
+
+    int environmentCount = 0;
+    while(environ[environmentCount] != NULL)
+        environmentCount++;
+
+    int failed = writeString(fd, canonicalJarPath) || writeString(fd, workingDirectory) || writeNumber(fd, argc - 1);
+    for(int i = 1; i < argc && !failed; i++)
+        failed = writeString(fd, argv[i]);
+    failed = failed || writeNumber(fd, environmentCount);
+    for(int i = 0; i < environmentCount && !failed; i++)
+        failed = writeString(fd, environ[i]);
+
+    int exitCode = NO_DAEMON;
+    int receivedOutput = 0;
+    *bytesRead = 0;
+
+    while(!failed)
+    {
+        unsigned char header[5];
+        if(readFully(fd, header, sizeof(header)) != 0)
+            break;
+
+        size_t length = ((size_t)header[1] << 24) | ((size_t)header[2] << 16) | ((size_t)header[3] << 8) | header[4];
+        char chunk[OUTPUT_BUFFER_SIZE];
+
+        if(header[0] == 'X' && length == 4 && readFully(fd, chunk, 4) == 0)
+        {
+            unsigned char *code = (unsigned char *)chunk;
+            exitCode = (int)(((unsigned)code[0] << 24) | ((unsigned)code[1] << 16) | ((unsigned)code[2] << 8) | code[3]);
+            break;
+        }
+        if(header[0] != 'O' && header[0] != 'E')
+            break;
+
+        receivedOutput = 1;
+        while(length > 0)
+        {
+            size_t toRead = length < sizeof(chunk) ? length : sizeof(chunk);
+            if(readFully(fd, chunk, toRead) != 0)
+            {
+                length = 0;
+                failed = 1;
+                break;
+            }
+            length -= toRead;
+
+            if(header[0] == 'E')
+            {
+                fwrite(chunk, 1, toRead, stderr);
+            }
+            else
+            {
+                // Capture stdout as the compiler process would have, for a command to execute
+                size_t space = OUTPUT_BUFFER_SIZE - 1 - (size_t)*bytesRead;
+                size_t toCopy = toRead < space ? toRead : space;
+                memcpy(outputBuffer + *bytesRead, chunk, toCopy);
+                *bytesRead += (ssize_t)toCopy;
+            }
+        }
+    }
+
+    close(fd);
+
+    if(*bytesRead > 0)
+        outputBuffer[*bytesRead] = '\0';
+
+    // Nothing has been run, so the compiler can just be run directly
+    if(exitCode == NO_DAEMON && !receivedOutput)
+        return NO_DAEMON;
+
+    if(exitCode == NO_DAEMON)
+    {
+        fprintf(stderr, "Error: Lost connection to EK9 compiler daemon\n");
+        return 1;
+    }
+
+    return exitCode;
+}
+
+/*
+Deal with the exit code of the compiler (whether run directly or by the daemon).
+If the exit code is 0 the compiler output is a command to execute.
+*/
+int processCompilerResult(int exitCode, char *outputBuffer, ssize_t bytesRead)
+{
+    // If exit code is 0 and we captured a command, execute it
+    if(exitCode == 0 && bytesRead > 0)
+    {
+        // Remove trailing newline if present
+        if(outputBuffer[bytesRead - 1] == '\n')
+            outputBuffer[bytesRead - 1] = '\0';
+
+        // Parse command into argv for direct execution (preserves stdin/stdout)
+        int commandArgc;
+        char **commandArgv = parseCommand(outputBuffer, &commandArgc);
+
+        if(commandArgv == NULL)
+        {
+            fprintf(stderr, "Error: Failed to parse execution command\n");
+            return 1;
+        }
+
+        // Fork and execute command directly (inherits stdin/stdout/stderr from parent)
+        pid_t execPid = fork();
+
+        if(execPid < 0)
+        {
+            fprintf(stderr, "Error: Failed to fork process for program execution\n");
+            cleanupCommandArgv(commandArgv, commandArgc);
+            return 1;
+        }
+
+        if(execPid == 0)
+        {
+            // Child process: execute compiled program directly
+            // stdin/stdout/stderr are inherited from parent (ek9 wrapper)
+            execvp(commandArgv[0], commandArgv);
+
+            // If execvp returns, it failed
+            fprintf(stderr, "Error: Failed to execute compiled program: %s\n", commandArgv[0]);
+            exit(1);
+        }
+
+        // Parent process: wait for child and get exit code
+        int execStatus;
+        waitpid(execPid, &execStatus, 0);
+
+        // Clean up parsed command
+        cleanupCommandArgv(commandArgv, commandArgc);
+
+        if(WIFEXITED(execStatus))
+        {
+            exitCode = WEXITSTATUS(execStatus);
+        }
+        else
+        {
+            fprintf(stderr, "Error: Unable to run compiled program. The program terminated unexpectedly.\n");
+            return 1;
+        }
+    }
+    else if(bytesRead > 0)
+    {
+        // If exit code wasn't 0, print the compiler output (errors, etc.)
+        printf("%s", outputBuffer);
+    }
+
+    // Map compiler exit code 1 (success, nothing to run) to 0 (Unix success)
+    // The compiler uses exit code 1 for successful operations that don't require
+    // running a program (e.g., -C compile only, -V version, -Gk generate keys)
+    // Following Unix conventions, we return 0 for all successful operations
+    if(exitCode == 1)
+    {
+        exitCode = 0;
+    }
+
+    return exitCode;
+}
+
 /*
 Main entry point.
 */
@@ -396,6 +709,14 @@ int main(int argc, char *argv[])
         return 1;
     }
 
+    char outputBuffer[OUTPUT_BUFFER_SIZE];
+    ssize_t bytesRead = 0;
+
+    // A running daemon avoids the JVM start up (and the Java version check)
+    int daemonExitCode = runViaDaemon(argc, argv, pathToEK9Jar, outputBuffer, &bytesRead);
+    if(daemonExitCode != NO_DAEMON)
+        return processCompilerResult(daemonExitCode, outputBuffer, bytesRead);
+
     // Check Java is available and correct version
     if(javaAvailable() != 0)
         return 1;
@@ -473,8 +794,7 @@ int main(int argc, char *argv[])
     // Parent process: read stdout and wait for child
     close(pipefd[1]);  // Close write end
 
-    char outputBuffer[4096];
-    ssize_t bytesRead = read(pipefd[0], outputBuffer, sizeof(outputBuffer) - 1);
+    bytesRead = read(pipefd[0], outputBuffer, sizeof(outputBuffer) - 1);
     close(pipefd[0]);
 
     if(bytesRead < 0)
@@ -506,75 +826,6 @@ int main(int argc, char *argv[])
         return 1;
     }
 
-    // If exit code is 0 and we captured a command, execute it
-    if(exitCode == 0 && bytesRead > 0)
-    {
-        // Remove trailing newline if present
-        if(outputBuffer[bytesRead - 1] == '\n')
-            outputBuffer[bytesRead - 1] = '\0';
-
-        // Parse command into argv for direct execution (preserves stdin/stdout)
-        int commandArgc;
-        char **commandArgv = parseCommand(outputBuffer, &commandArgc);
-
-        if(commandArgv == NULL)
-        {
-            fprintf(stderr, "Error: Failed to parse execution command\n");
-            return 1;
-        }
-
-        // Fork and execute command directly (inherits stdin/stdout/stderr from parent)
-        pid_t execPid = fork();
-
-        if(execPid < 0)
-        {
-            fprintf(stderr, "Error: Failed to fork process for program execution\n");
-            cleanupCommandArgv(commandArgv, commandArgc);
-            return 1;
-        }
-
-        if(execPid == 0)
-        {
-            // Child process: execute compiled program directly
-            // stdin/stdout/stderr are inherited from parent (ek9 wrapper)
-            execvp(commandArgv[0], commandArgv);
-
-            // If execvp returns, it failed
-            fprintf(stderr, "Error: Failed to execute compiled program: %s\n", commandArgv[0]);
-            exit(1);
-        }
-
-        // Parent process: wait for child and get exit code
-        int execStatus;
-        waitpid(execPid, &execStatus, 0);
-
-        // Clean up parsed command
-        cleanupCommandArgv(commandArgv, commandArgc);
-
-        if(WIFEXITED(execStatus))
-        {
-            exitCode = WEXITSTATUS(execStatus);
-        }
-        else
-        {
-            fprintf(stderr, "Error: Unable to run compiled program. The program terminated unexpectedly.\n");
-            return 1;
-        }
-    }
-    else if(bytesRead > 0)
-    {
-        // If exit code wasn't 0, print the compiler output (errors, etc.)
-        printf("%s", outputBuffer);
-    }
-
-    // Map compiler exit code 1 (success, nothing to run) to 0 (Unix success)
-    // The compiler uses exit code 1 for successful operations that don't require
-    // running a program (e.g., -C compile only, -V version, -Gk generate keys)
-    // Following Unix conventions, we return 0 for all successful operations
-    if(exitCode == 1)
-    {
-        exitCode = 0;
-    }
-
-    return exitCode;
+    return processCompilerResult(exitCode, outputBuffer, bytesRead);
 }
+